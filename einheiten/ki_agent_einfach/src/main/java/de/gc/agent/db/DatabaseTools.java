@@ -37,12 +37,16 @@ public class DatabaseTools {
 
       // Wir verwenden try-with-resources, um sicherzustellen, dass die
       // Ressourcen am Ende automatisch geschlossen werden.
+      // Die Ausführung erscheint als JFR-Ereignis in einer Aufzeichnung.
+      final JdbcQueryEvent event = JdbcQueryEvent
+         .start("DatabaseTools.executeQuery", sqlQuery);
       try (Statement stmt = con.createStatement();
             ResultSet rs = stmt.executeQuery(sqlQuery)) {
 
          // Wir verwenden die Hilfsmethode DbUtil.getOutputRs(), um das
          // ResultSet in eine String (Tabelle) umzuwandeln.
-         final String output = DbUtil.getOutputRs(rs);
+         final String output = DbUtil.getOutputRs(rs, event);
+         event.finish();
 
          // Wenn keine Zeilen gefunden wurden, geben wir eine freundliche
          // Nachricht zurück.
@@ -53,6 +57,7 @@ public class DatabaseTools {
          return output;
 
       } catch (final SQLException e) {
+         event.fail(e);
          // Wenn etwas schiefgeht (z.B. ungültiges SQL), geben wir die
          // Fehlermeldung an den Agenten zurück.
          // Er kann dann versuchen, seinen Fehler zu korrigieren.
@@ -110,6 +110,21 @@ public class DbUtil {
     *         darstellt.
     */
    public static String getOutputRs(final ResultSet rs) {
+      return getOutputRs(rs, null);
+   }
+
+   /**
+    * Gibt das Ergebnis eines ResulSets als formatierte Tabelle zurück und
+    * zählt die gelesenen Zeilen im JFR-Ereignis der Abfrage.
+    *
+    * @param rs    Das ResultSet, das die Abfrageergebnisse enthält.
+    * @param event Das laufende Ereignis der Abfrage oder {@code null}.
+    *
+    * @return Ein String, der das Ergebnis der Abfrage in Tabellenform
+    *         darstellt.
+    */
+   public static String getOutputRs(final ResultSet rs,
+         final JdbcQueryEvent event) {
 
       try {
 
@@ -130,6 +145,9 @@ public class DbUtil {
                final Object obj = rs.getObject(i);
                t.addCell(obj == null ? "" : obj.toString());
             }
+            if (event != null) {
+               event.rows++;
+            }
          }
          return t.render();
 
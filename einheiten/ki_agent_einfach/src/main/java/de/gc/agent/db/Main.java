@@ -64,6 +64,36 @@ public class Main {
                "mistral:7b", null,
                "http://127.0.0.1:11434");
 
+         // -----------------------------------------------------------------
+         // AUFZEICHNEN -> ANPASSEN
+         // Das oben erstellte Modell wird umhüllt: Alle Anfragen und Antworten
+         // (inkl. Antwortzeit) werden zusätzlich in eine Kassette geschrieben.
+         //
+         // final ChatModel model = XKiLogin.recording(
+         // XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+         // "http://127.0.0.1:11434"),
+         // new File("/tmp/einfach-kassette.jsonl"));
+
+         // -----------------------------------------------------------------
+         // PROTOKOLL -> ANPASSEN
+         // Jeder Aufruf wird als kompakte Zeile (Agent, Modell, Tokens,
+         // Antwortzeit, Ergebnis - ohne Prompt) in ein rollierendes
+         // Interaktionsprotokoll geschrieben. Auswertung mit dem
+         // InteractionLogAnalyzer aus ki_agent_erm.
+         //
+         // final ChatModel model = XKiLogin.interactionLog(
+         // XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+         // "http://127.0.0.1:11434"),
+         // "einfach", new File("/tmp/einfach-interaktionen.jsonl"));
+
+         // -----------------------------------------------------------------
+         // ABSPIELEN -> ANPASSEN
+         // Eine aufgezeichnete Kassette ohne Netzwerk abspielen - mit der
+         // ursprünglichen Antwortzeit (true) oder sofort (false).
+         //
+         // final ChatModel model = XKiLogin.createReplayModel(
+         // new File("/tmp/einfach-kassette.jsonl"), false);
+
          // Wir geben dem Agenten ein Kurzzeitgedächtnis für 10 Nachrichten.
          final ChatMemory chatMemory = MessageWindowChatMemory
             .withMaxMessages(10);
@@ -73,8 +103,10 @@ public class Main {
          // ==========================================================================
 
          // Mit 'AiServices.builder()' beginnt die "Montage" unseres Agenten.
+         // Das Modell wird für den Java Flight Recorder umhüllt, damit jeder
+         // Aufruf mit Dauer und Tokens in einer Aufzeichnung erscheint.
          final StudentAgent agent = AiServices.builder(StudentAgent.class)
-            .chatModel(model)
+            .chatModel(XKiLogin.flightRecorder(model, "StudentAgent"))
             .tools(new DatabaseTools())
             .chatMemory(chatMemory)
             .build();
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * ChatCassette stores recorded requests and responses of a chat model.
+ * <p>
+ * A cassette is a JSON Lines file: every line holds a request (all
+ * messages), the response of the KI system, the token counts and the
+ * measured latency. Responses are looked up by a SHA-256 key built from
+ * the messages and the names of the offered tools.
+ *
+ * @author Michael Niedermair
+ */
+public final class ChatCassette {
+
+   /**
+    * A recorded call.
+    *
+    * @param key           The request key.
+    * @param request       The request messages as JSON.
+    * @param response      The response message as JSON.
+    * @param modelName     The name of the responding model.
+    * @param inputTokens   The number of input tokens (may be null).
+    * @param outputTokens  The number of output tokens (may be null).
+    * @param finishReason  The finish reason (may be null).
+    * @param latencyMillis The latency while recording in milliseconds.
+    * @param recordedAt    The time of recording (ISO-8601).
+    */
+   public record Entry(String key, String request, String response,
+         String modelName, Integer inputTokens, Integer outputTokens,
+         String finishReason, long latencyMillis, String recordedAt) {
+
+      /**
+       * Creates an entry from a request, its response and the latency.
+       *
+       * @param request       The request sent to the model.
+       * @param response      The response of the model.
+       * @param latencyMillis The measured latency in milliseconds.
+       *
+       * @return The new entry.
+       */
+      public static Entry of(final ChatRequest request,
+            final ChatResponse response, final long latencyMillis) {
+         final TokenUsage usage = response.tokenUsage();
+         return new Entry(ChatCassette.key(request),
+               ChatMessageSerializer.messagesToJson(request.messages()),
+               ChatMessageSerializer.messageToJson(response.aiMessage()),
+               response.modelName(),
+               usage == null ? null : usage.inputTokenCount(),
+               usage == null ? null : usage.outputTokenCount(),
+               response.finishReason() == null ? null
+                     : response.finishReason()
+                        .name(),
+               latencyMillis, Instant.now()
+                  .toString());
+      }
+
+      /**
+       * Rebuilds the recorded {@link ChatResponse}.
+       *
+       * @return The recorded response.
+       */
+      public ChatResponse toResponse() {
+         return ChatResponse.builder()
+            .aiMessage((AiMessage) ChatMessageDeserializer
+               .messageFromJson(response))
+            .modelName(modelName)
+            .tokenUsage(new TokenUsage(inputTokens, outputTokens))
+            .finishReason(
+                  finishReason == null ? null : FinishReason.valueOf(finishReason))
+            .build();
+      }
+   }
+
+   /** Jackson mapper for the cassette lines. */
+   private static final ObjectMapper MAPPER = new JsonMapper();
+
+   /**
+    * Appends an entry to a cassette file. Missing directories are
+    * created.
+    *
+    * @param file  The cassette file.
+    * @param entry The new entry.
+    */
+   public static synchronized void append(final Path file, final Entry entry) {
+      try {
+         if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+         }
+         try (BufferedWriter writer = Files.newBufferedWriter(file,
+               StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+               StandardOpenOption.APPEND)) {
+            writer.write(MAPPER.writeValueAsString(entry));
+            writer.newLine();
+         }
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Error writing cassette: " + file, e);
+      }
+   }
+
+   /**
+    * Computes the key of a request from its messages and the names of
+    * the offered tools. Model parameters like the temperature are not
+    * part of the key.
+    *
+    * @param request The request.
+    *
+    * @return The hex encoded SHA-256 hash.
+    */
+   public static String key(final ChatRequest request) {
+      final String tools = request.toolSpecifications() == null ? ""
+            : request.toolSpecifications()
+               .stream()
+               .map(tool -> tool.name())
+               .sorted()
+               .collect(Collectors.joining(","));
+      try {
+         final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         digest.update(ChatMessageSerializer.messagesToJson(request.messages())
+            .getBytes(StandardCharsets.UTF_8));
+         digest.update((byte) 0);
+         digest.update(tools.getBytes(StandardCharsets.UTF_8));
+         return HexFormat.of()
+            .formatHex(digest.digest());
+      } catch (final NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 not available.", e);
+      }
+   }
+
+   /**
+    * Reads all entries of a cassette file.
+    *
+    * @param file The cassette file.
+    *
+    * @return The entries in recording order.
+    *
+    * @throws IOException If the file is missing or invalid.
+    */
+   public static List<Entry> load(final Path file) throws IOException {
+      if (!Files.exists(file)) {
+         throw new IOException(
+               "Cassette does not exist: " + file.toAbsolutePath());
+      }
+      final List<Entry> entries = new ArrayList<>();
+      for (final String line : Files.readAllLines(file,
+            StandardCharsets.UTF_8)) {
+         if (!line.isBlank()) {
+            entries.add(MAPPER.readValue(line, Entry.class));
+         }
+      }
+      return entries;
+   }
+
+   /** Utility class. */
+   private ChatCassette() {
+   }
+}
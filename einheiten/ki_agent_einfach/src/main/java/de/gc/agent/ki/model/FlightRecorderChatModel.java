@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.util.Set;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * FlightRecorderChatModel forwards all calls to a real {@link ChatModel}
+ * and emits a {@link LlmCallEvent} for every call.
+ * <p>
+ * Without a running recording a call only costs the allocation of the
+ * event.
+ *
+ * @author Michael Niedermair
+ */
+public class FlightRecorderChatModel implements ChatModel {
+
+   /** The real model. */
+   private final ChatModel delegate;
+
+   /** The calling agent. */
+   private final String agent;
+
+   /**
+    * Creates a flight recorder model.
+    *
+    * @param delegate The real model.
+    * @param agent    The calling agent, e.g. "sql-generator".
+    */
+   public FlightRecorderChatModel(final ChatModel delegate,
+         final String agent) {
+      this.delegate = delegate;
+      this.agent = agent;
+   }
+
+   /**
+    * Fills in the common fields and commits the event.
+    *
+    * @param event The ended event.
+    */
+   private void commit(final LlmCallEvent event) {
+      event.agent = agent;
+      event.provider = String.valueOf(provider());
+      if (event.model == null && defaultRequestParameters() != null) {
+         event.model = defaultRequestParameters().modelName();
+      }
+      event.commit();
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Calls the real model and records duration, model and token usage.
+    *
+    * @param request The request.
+    *
+    * @return The response of the real model.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final LlmCallEvent event = new LlmCallEvent();
+      event.begin();
+      try {
+         final ChatResponse response = delegate.chat(request);
+         event.end();
+         if (event.shouldCommit()) {
+            event.model = response.modelName();
+            final TokenUsage usage = response.tokenUsage();
+            if (usage != null) {
+               if (usage.inputTokenCount() != null) {
+                  event.inputTokens = usage.inputTokenCount();
+               }
+               if (usage.outputTokenCount() != null) {
+                  event.outputTokens = usage.outputTokenCount();
+               }
+            }
+            if (response.finishReason() != null) {
+               event.finishReason = response.finishReason()
+                  .name();
+            }
+            commit(event);
+         }
+         return response;
+      } catch (final RuntimeException e) {
+         event.end();
+         if (event.shouldCommit()) {
+            event.failure = e.getMessage();
+            commit(event);
+         }
+         throw e;
+      }
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * LlmCallEvent is a Java Flight Recorder event for a call of a chat
+ * model.
+ * <p>
+ * It is emitted by the {@link FlightRecorderChatModel}; the duration of
+ * the event is the response time of the KI system. The settings for a
+ * recording are in {@code jfr/eduki.jfc}.
+ *
+ * @author Michael Niedermair
+ */
+@Name(LlmCallEvent.NAME)
+@Label("LLM Call")
+@Category({ "EduKI", "LLM" })
+@Description("Call of a chat model with token usage")
+@StackTrace(false)
+public class LlmCallEvent extends jdk.jfr.Event {
+
+   /** The name of the event in the JFR configuration. */
+   public static final String NAME = "de.gc.agent.LlmCall";
+
+   /** The calling agent. */
+   @Label("Agent")
+   public String agent;
+
+   /** The provider of the model. */
+   @Label("Provider")
+   public String provider;
+
+   /** The name of the model. */
+   @Label("Model")
+   public String model;
+
+   /** The number of input tokens or -1 if unknown. */
+   @Label("Input Tokens")
+   public int inputTokens = -1;
+
+   /** The number of output tokens or -1 if unknown. */
+   @Label("Output Tokens")
+   public int outputTokens = -1;
+
+   /** The reason the response finished. */
+   @Label("Finish Reason")
+   public String finishReason;
+
+   /** The error message of a failed call. */
+   @Label("Failure")
+   public String failure;
+}
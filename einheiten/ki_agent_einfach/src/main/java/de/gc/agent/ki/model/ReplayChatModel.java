@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * ReplayChatModel plays back the responses of a recorded
+ * {@link ChatCassette} without contacting a KI system.
+ * <p>
+ * If the same request is sent several times, the recordings are played
+ * back in their original order; afterwards the last one is repeated.
+ * The latency can be reproduced as recorded or skipped. A request that
+ * is not on the cassette fails, so deviations show up in regression
+ * tests.
+ *
+ * @author Michael Niedermair
+ */
+public class ReplayChatModel implements ChatModel {
+
+   /** How latencies are reproduced during playback. */
+   public enum Latency {
+      /** Waits as long as during recording. */
+      ORIGINAL,
+      /** Responds immediately. */
+      ZERO
+   }
+
+   /** The recordings per request key. */
+   private final Map<String, List<ChatCassette.Entry>> entries = new HashMap<>();
+
+   /** The number of played recordings per key. */
+   private final Map<String, Integer> played = new HashMap<>();
+
+   /** The cassette file (for error messages). */
+   private final Path cassette;
+
+   /** The latency mode. */
+   private final Latency latency;
+
+   /**
+    * Loads a cassette for playback.
+    *
+    * @param cassette The cassette file.
+    * @param latency  The latency mode.
+    *
+    * @throws IOException If the cassette is missing or invalid.
+    */
+   public ReplayChatModel(final Path cassette, final Latency latency)
+         throws IOException {
+      this.cassette = cassette;
+      this.latency = latency;
+      for (final ChatCassette.Entry entry : ChatCassette.load(cassette)) {
+         entries.computeIfAbsent(entry.key(), k -> new ArrayList<>())
+            .add(entry);
+      }
+   }
+
+   /**
+    * Returns the recorded response for the request.
+    *
+    * @param request The request.
+    *
+    * @return The recorded response.
+    *
+    * @throws IllegalStateException If the request was not recorded.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final String key = ChatCassette.key(request);
+      final ChatCassette.Entry entry;
+      synchronized (this) {
+         final List<ChatCassette.Entry> recorded = entries.get(key);
+         if (recorded == null) {
+            throw new IllegalStateException("No recording for this request in "
+                  + cassette + " (key " + key + ").");
+         }
+         final int index = played.merge(key, 1, Integer::sum) - 1;
+         entry = recorded.get(Math.min(index, recorded.size() - 1));
+      }
+      if (latency == Latency.ORIGINAL && entry.latencyMillis() > 0) {
+         try {
+            Thread.sleep(entry.latencyMillis());
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+               .interrupt();
+         }
+      }
+      return entry.toResponse();
+   }
+
+   /**
+    * Returns the number of distinct recorded requests.
+    *
+    * @return The number of keys on the cassette.
+    */
+   public int size() {
+      return entries.size();
+   }
+}
@@ -0,0 +1,108 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.gc.agent.erm.model.Relationship;
+
+/**
+ * Erzeugt reproduzierbare Eingaben für die Benchmarks.
+ *
+ * Die Beziehungen verbinden zufällig gewählte Entitäten, wobei die
+ * Anzahl der Entitäten mit der Anzahl der Beziehungen wächst (etwa eine
+ * Entität auf zwei Beziehungen). Dadurch entstehen wie bei echten
+ * Analysen auch doppelte Entitätspaare, die beim Deduplizieren
+ * zusammengefasst werden.
+ */
+final class BenchmarkInputs {
+
+   /** Kardinalitäten, aus denen zufällig gewählt wird. */
+   private static final String[] CARDINALITIES = { "1", "0..1", "*", "1..*" };
+
+   /** Verben, aus denen zufällig gewählt wird. */
+   private static final String[] VERBS = { "hat", "gehört zu", "enthält",
+         "betreut", "besucht", "verwaltet" };
+
+   /**
+    * Erzeugt den Analyse-Text, wie ihn der AnalysisAgent liefert (eine
+    * Beziehung je Zeile, Felder durch Pipes getrennt).
+    *
+    * @param count Anzahl der Beziehungen.
+    * @param seed  Startwert des Zufallsgenerators.
+    *
+    * @return Der Analyse-Text.
+    */
+   static String analysisText(final int count, final long seed) {
+      final StringBuilder sb = new StringBuilder();
+      for (final Relationship rel : relationships(count, seed)) {
+         sb.append(rel.getEntity1())
+            .append(" | ")
+            .append(rel.getCardinality1())
+            .append(" | ")
+            .append(rel.getVerb())
+            .append(" | ")
+            .append(rel.getCardinality2())
+            .append(" | ")
+            .append(rel.getEntity2())
+            .append('\n');
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Erzeugt eine Liste zufälliger Beziehungen.
+    *
+    * @param count Anzahl der Beziehungen.
+    * @param seed  Startwert des Zufallsgenerators.
+    *
+    * @return Die Beziehungen.
+    */
+   static List<Relationship> relationships(final int count, final long seed) {
+      final Random random = new Random(seed);
+      final int entityCount = Math.max(2, count / 2 + 1);
+      final List<Relationship> relationships = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+         final int first = random.nextInt(entityCount);
+         int second = random.nextInt(entityCount - 1);
+         if (second >= first) {
+            second++;
+         }
+         relationships.add(new Relationship("Entitaet" + first,
+               CARDINALITIES[random.nextInt(CARDINALITIES.length)],
+               VERBS[random.nextInt(VERBS.length)],
+               CARDINALITIES[random.nextInt(CARDINALITIES.length)],
+               "Entitaet" + second, ">"));
+      }
+      return relationships;
+   }
+
+   /**
+    * Erzeugt eine Tutor-Antwort, wie sie ein Sprachmodell häufig liefert:
+    * JSON in einem Markdown-Codeblock.
+    *
+    * @param answerLength Ungefähre Länge der Antwort in Zeichen.
+    *
+    * @return Die rohe Tutor-Antwort.
+    */
+   static String tutorJson(final int answerLength) {
+      final StringBuilder answer = new StringBuilder();
+      while (answer.length() < answerLength) {
+         answer.append("Eine Beziehung zwischen **Klasse** und **Lehrkraft** "
+               + "ist n:m, weil beide Seiten mehrfach vorkommen. ");
+      }
+      final String text = answer.toString()
+         .trim();
+      return "```json\n{\n  \"answer\": \"" + text
+            + "\",\n  \"suggested_questions\": [\n"
+            + "    \"Was ist eine Zwischentabelle?\",\n"
+            + "    \"Wann ist eine Beziehung 1:n?\",\n"
+            + "    \"Wie erkenne ich schwache Entitäten?\"\n  ]\n}\n```";
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private BenchmarkInputs() {
+   }
+}
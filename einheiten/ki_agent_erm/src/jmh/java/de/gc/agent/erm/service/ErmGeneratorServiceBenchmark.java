@@ -0,0 +1,143 @@
+package de.gc.agent.erm.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.gc.agent.erm.ki.model.StubChatModel;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.model.tutor.TutorResponse;
+
+/**
+ * Microbenchmarks für die Textverarbeitung des {@link ErmGeneratorService}
+ * ohne KI-Aufruf: Parsen der Analyse, Priorisieren und Deduplizieren der
+ * Beziehungen, Erzeugen des PlantUML-Codes und Reparieren bzw. Parsen
+ * der Tutor-Antworten.
+ *
+ * Die Eingaben werden für 10 bis 5.000 Beziehungen erzeugt, damit das
+ * Wachstum der Laufzeit mit der Diagrammgröße sichtbar wird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErmGeneratorServiceBenchmark {
+
+   /** Anzahl der Beziehungen in der Eingabe. */
+   @Param({ "10", "100", "1000", "5000" })
+   private int relationshipCount;
+
+   /** Der untersuchte Service (mit Stub-Modellen). */
+   private ErmGeneratorService service;
+
+   /** Analyse-Text mit einer Beziehung je Zeile. */
+   private String analysisText;
+
+   /** Die geparsten, noch nicht deduplizierten Beziehungen. */
+   private List<Relationship> relationships;
+
+   /** Rohe Tutor-Antwort im Markdown-Codeblock. */
+   private String tutorJson;
+
+   /** Tutor-Antwort ohne Wrapper, wie bei strukturierter Ausgabe. */
+   private String structuredTutorJson;
+
+   /**
+    * Bereitet Service und Eingaben vor.
+    */
+   @Setup
+   public void setUp() {
+      service = new ErmGeneratorService(new StubChatModel(),
+            new StubChatModel(), new StubChatModel(), new StubChatModel());
+      analysisText = BenchmarkInputs.analysisText(relationshipCount, 42);
+      relationships = BenchmarkInputs.relationships(relationshipCount, 42);
+      tutorJson = BenchmarkInputs.tutorJson(relationshipCount);
+      structuredTutorJson = LenientJsonParser.repair(tutorJson);
+   }
+
+   /**
+    * Erzeugt den PlantUML-Code aus der Beziehungsliste.
+    *
+    * @return Der PlantUML-Code.
+    */
+   @Benchmark
+   public String generatePlantUmlFromRelationships() {
+      return service.generatePlantUmlFromRelationships(relationships);
+   }
+
+   /**
+    * Parst den Analyse-Text in Beziehungen.
+    *
+    * @return Die Beziehungen.
+    */
+   @Benchmark
+   public List<Relationship> parseAnalysisResult() {
+      return service.parseAnalysisResult(analysisText);
+   }
+
+   /**
+    * Parst den Analyse-Text und bereinigt die Beziehungen, wie es
+    * {@link ErmGeneratorService#analyzeDescription(String)} nach dem
+    * KI-Aufruf tut.
+    *
+    * @return Die bereinigten Beziehungen.
+    */
+   @Benchmark
+   public List<Relationship> parseAndPrioritize() {
+      return service.prioritizeAndDeduplicateRelationships(
+            service.parseAnalysisResult(analysisText));
+   }
+
+   /**
+    * Liest eine Tutor-Antwort mit strukturierter Ausgabe direkt.
+    *
+    * @return Die Tutor-Antwort.
+    */
+   @Benchmark
+   public TutorResponse parseStructuredTutorResponse() {
+      return service.parseTutorResponse(structuredTutorJson);
+   }
+
+   /**
+    * Repariert und parst eine Tutor-Antwort.
+    *
+    * @return Die Tutor-Antwort.
+    */
+   @Benchmark
+   public TutorResponse parseTutorResponse() {
+      return service.parseTutorResponse(tutorJson);
+   }
+
+   /**
+    * Priorisiert und dedupliziert die Beziehungen.
+    *
+    * @return Die bereinigten Beziehungen.
+    */
+   @Benchmark
+   public List<Relationship> prioritizeAndDeduplicateRelationships() {
+      return service.prioritizeAndDeduplicateRelationships(relationships);
+   }
+
+   /**
+    * Sucht und repariert das JSON-Objekt einer Tutor-Antwort.
+    *
+    * @return Das JSON-Objekt.
+    */
+   @Benchmark
+   public String repairJson() {
+      return LenientJsonParser.repair(tutorJson);
+   }
+}
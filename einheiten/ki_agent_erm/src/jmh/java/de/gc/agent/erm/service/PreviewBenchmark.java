@@ -0,0 +1,95 @@
+package de.gc.agent.erm.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.gc.agent.erm.ki.model.StubChatModel;
+
+/**
+ * Benchmark für die Diagramm-Vorschau: PNG-Umweg gegen direkte Pixel.
+ *
+ * {@link #pngRoundTrip()} kodiert das Diagramm als PNG und dekodiert es
+ * wieder, wie es die Vorschau früher tat. Statt des JavaFX-Decoders, der
+ * ein laufendes Toolkit braucht, dekodiert ImageIO.
+ * {@link #rawPixels()} übernimmt das von PlantUML gezeichnete Bild
+ * direkt ({@link ErmGeneratorService#renderPlantUmlPixels(String)}).
+ *
+ * Die eingesparten Allokationen zeigt der GC-Profiler:
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="Preview -prof gc"
+ * </pre>
+ *
+ * (Spalte {@code gc.alloc.rate.norm}, Bytes je Aufruf).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreviewBenchmark {
+
+   /** Anzahl der Beziehungen im Diagramm. */
+   @Param({ "10", "50", "200" })
+   private int relationshipCount;
+
+   /** Der untersuchte Service (mit Stub-Modellen). */
+   private ErmGeneratorService service;
+
+   /** Der PlantUML-Code des Diagramms. */
+   private String plantUml;
+
+   /**
+    * Bereitet Service und Diagramm vor.
+    */
+   @Setup
+   public void setUp() {
+      service = new ErmGeneratorService(new StubChatModel(),
+            new StubChatModel(), new StubChatModel(), new StubChatModel());
+      service.setCaching(false);
+      plantUml = service.generatePlantUmlFromRelationships(
+            BenchmarkInputs.relationships(relationshipCount, 42));
+   }
+
+   /**
+    * Rendert das Diagramm als PNG und dekodiert es wieder.
+    *
+    * @return Das dekodierte Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   @Benchmark
+   public BufferedImage pngRoundTrip() throws IOException {
+      return ImageIO.read(
+            new ByteArrayInputStream(service.renderPlantUmlPng(plantUml)));
+   }
+
+   /**
+    * Rendert das Diagramm direkt in ein Pixelbild.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   @Benchmark
+   public BufferedImage rawPixels() throws IOException {
+      return service.renderPlantUmlPixels(plantUml);
+   }
+}
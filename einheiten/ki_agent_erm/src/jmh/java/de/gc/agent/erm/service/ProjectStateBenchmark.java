@@ -0,0 +1,111 @@
+package de.gc.agent.erm.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.gc.agent.erm.ki.model.StubChatModel;
+import de.gc.agent.erm.model.ProjectState;
+import de.gc.agent.erm.model.Relationship;
+
+/**
+ * Benchmark für das Speichern und Laden des Projektzustands als JSON.
+ *
+ * Der Projektzustand enthält die Beziehungen, den daraus erzeugten
+ * PlantUML-Code und einen Platzhalter für Tabellenmodell und SQL-DDL.
+ * Geschrieben wird in eine temporäre Datei, die nach dem Lauf gelöscht
+ * wird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectStateBenchmark {
+
+   /** Anzahl der Beziehungen im Projekt. */
+   @Param({ "10", "100", "1000", "5000" })
+   private int relationshipCount;
+
+   /** Der untersuchte Service (mit Stub-Modellen). */
+   private ErmGeneratorService service;
+
+   /** Der zu speichernde Projektzustand. */
+   private ProjectState projectState;
+
+   /** Datei zum Speichern. */
+   private File saveFile;
+
+   /** Vorab geschriebene Datei zum Laden. */
+   private File loadFile;
+
+   /**
+    * Bereitet Service, Projektzustand und Dateien vor.
+    *
+    * @throws IOException Falls die Dateien nicht angelegt werden können.
+    */
+   @Setup
+   public void setUp() throws IOException {
+      service = new ErmGeneratorService(new StubChatModel(),
+            new StubChatModel(), new StubChatModel(), new StubChatModel());
+      final List<Relationship> relationships = BenchmarkInputs
+         .relationships(relationshipCount, 42);
+      final String plantUml = service
+         .generatePlantUmlFromRelationships(relationships);
+      projectState = new ProjectState(
+            BenchmarkInputs.analysisText(relationshipCount, 42), relationships,
+            plantUml, plantUml, "-- SQL-DDL");
+      saveFile = Files.createTempFile("erm-bench-save", ".json")
+         .toFile();
+      loadFile = Files.createTempFile("erm-bench-load", ".json")
+         .toFile();
+      service.saveProjectState(projectState, loadFile);
+   }
+
+   /**
+    * Löscht die temporären Dateien.
+    */
+   @TearDown
+   public void tearDown() {
+      saveFile.delete();
+      loadFile.delete();
+   }
+
+   /**
+    * Lädt den Projektzustand.
+    *
+    * @return Der geladene Projektzustand.
+    *
+    * @throws IOException Bei Datei- oder Deserialisierungsfehlern.
+    */
+   @Benchmark
+   public ProjectState loadProjectState() throws IOException {
+      return service.loadProjectState(loadFile);
+   }
+
+   /**
+    * Speichert den Projektzustand.
+    *
+    * @throws IOException Bei Datei- oder Serialisierungsfehlern.
+    */
+   @Benchmark
+   public void saveProjectState() throws IOException {
+      service.saveProjectState(projectState, saveFile);
+   }
+}
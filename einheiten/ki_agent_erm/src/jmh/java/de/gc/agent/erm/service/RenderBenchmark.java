@@ -0,0 +1,102 @@
+package de.gc.agent.erm.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.gc.agent.erm.ki.model.StubChatModel;
+import de.gc.agent.erm.render.DotWorkerFactory;
+import de.gc.agent.erm.render.LayoutBackend;
+
+/**
+ * Benchmark für das Rendern von ERM-Diagrammen mit PlantUML.
+ *
+ * Gemessen wird
+ * {@link ErmGeneratorService#renderPlantUmlPng(String, LayoutBackend)} je
+ * Layout-Verfahren, also der Teil von {@code renderPlantUml}, der ohne JavaFX-Toolkit
+ * läuft. Das Dekodieren des PNG in ein JavaFX-Image ist nicht enthalten.
+ *
+ * Die Layout-Berechnung wächst stark mit der Diagrammgröße, deshalb
+ * reichen die Größen hier nur bis 500 Beziehungen. Der Render-Cache ist
+ * ausgeschaltet; {@link #fingerprint()} misst, was ein Cache-Treffer
+ * kostet.
+ *
+ * Die Verfahren GRAPHVIZ und DOT_WORKER brauchen ein installiertes
+ * Graphviz, z.B. nur Smetana messen:
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="Render -p layout=SMETANA"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+   /** Anzahl der Beziehungen im Diagramm. */
+   @Param({ "10", "50", "200", "500" })
+   private int relationshipCount;
+
+   /** Das Layout-Verfahren. */
+   @Param({ "GRAPHVIZ", "SMETANA", "DOT_WORKER" })
+   private LayoutBackend layout;
+
+   /** Der untersuchte Service (mit Stub-Modellen). */
+   private ErmGeneratorService service;
+
+   /** Der PlantUML-Code des Diagramms. */
+   private String plantUml;
+
+   /**
+    * Bereitet Service und Diagramm vor.
+    */
+   @Setup
+   public void setUp() {
+      if (layout != LayoutBackend.SMETANA
+            && !DotWorkerFactory.isDotAvailable()) {
+         throw new IllegalStateException("Graphviz (dot) ist für das Layout "
+               + layout + " nicht installiert.");
+      }
+      service = new ErmGeneratorService(new StubChatModel(),
+            new StubChatModel(), new StubChatModel(), new StubChatModel());
+      service.setCaching(false);
+      plantUml = service.generatePlantUmlFromRelationships(
+            BenchmarkInputs.relationships(relationshipCount, 42));
+   }
+
+   /**
+    * Berechnet den Fingerabdruck der Normalform des Diagramms.
+    *
+    * @return Der Fingerabdruck.
+    */
+   @Benchmark
+   public String fingerprint() {
+      return PlantUmlNormalForm.fingerprint(plantUml);
+   }
+
+   /**
+    * Rendert das Diagramm als PNG.
+    *
+    * @return Die PNG-Bytes.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   @Benchmark
+   public byte[] renderPlantUmlPng() throws IOException {
+      return service.renderPlantUmlPng(plantUml, layout);
+   }
+}
@@ -1,15 +1,21 @@
 package de.gc.agent.erm;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 
+import de.gc.agent.erm.gateway.ErmGatewayClientService;
 import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.service.ComparisonCandidate;
 import de.gc.agent.erm.service.ErmGeneratorService;
+import de.gc.agent.erm.service.ProjectExporter;
+import de.gc.agent.erm.view.ComparisonController;
 import de.gc.agent.erm.view.MainController;
-import dev.langchain4j.model.chat.ChatModel;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -25,6 +31,19 @@ import picocli.CommandLine.Command;
  * externe Konfigurationsdateien für die Initialisierung der KI-Modelle.
  * Die Anwendung startet JavaFX und verbindet die generierten Services
  * mit dem MainController.
+ *
+ * Mit {@code --compare} startet statt des Editors der Vergleichsmodus,
+ * der denselben Arbeitsschritt für mehrere Konfigurations-Sets
+ * gleichzeitig ausführt.
+ *
+ * Mit {@code --export} werden alle Ergebnisse einer Projekt-Datei ohne
+ * Oberfläche in ein ZIP-Archiv oder Verzeichnis exportiert; dafür werden
+ * keine KI-Modelle erstellt, Präfix und Properties-Datei sind optional.
+ *
+ * Nach dem Anzeigen des Editors wird PlantUML im Hintergrund aufgewärmt
+ * (siehe {@link ErmGeneratorService#warmUp()}), damit das erste Diagramm
+ * nicht die Ladezeit trägt; {@code --no-warmup} schaltet das ab, z.B. um
+ * die Dauer des ersten Renderings mit und ohne Aufwärmen zu vergleichen.
  */
 @Command(name = "ERM-Editor", version = "1.0", mixinStandardHelpOptions = true, description = "Startet den KI-gestützten ERM-Editor mit einer externen Konfiguration.")
 public class MainApp extends Application implements Callable<Integer> {
@@ -35,6 +54,17 @@ public class MainApp extends Application implements Callable<Integer> {
     */
    private static ErmGeneratorService configuredService;
 
+   /**
+    * Statische Variable: Kandidaten des Vergleichsmodus, null im normalen
+    * Editor-Modus.
+    */
+   private static List<ComparisonCandidate> comparisonCandidates;
+
+   /**
+    * Statische Variable: Ob PlantUML nach dem Start aufgewärmt wird.
+    */
+   private static boolean warmUpEnabled = true;
+
    /**
     * Hauptmethode: Startet Picocli und die JavaFX-Anwendung.
     *
@@ -46,12 +76,27 @@ public class MainApp extends Application implements Callable<Integer> {
       System.exit(exitCode);
    }
 
-   @picocli.CommandLine.Parameters(index = "0", description = "Der Konfigurations-Präfix (z.B. 'ermsystem.gemini') aus der Properties-Datei.")
+   @picocli.CommandLine.Parameters(index = "0", arity = "0..1", description = "Der Konfigurations-Präfix (z.B. 'ermsystem.gemini') aus der Properties-Datei.")
    private String configPrefix;
 
-   @picocli.CommandLine.Parameters(index = "1", description = "Pfad zur Properties-Datei.")
+   @picocli.CommandLine.Parameters(index = "1", arity = "0..1", description = "Pfad zur Properties-Datei.")
    private File configFile;
 
+   @picocli.CommandLine.Option(names = "--gateway", description = "URL eines ERM-Gateways (z.B. http://lehrer-pc:8086). Alle KI-Aufrufe laufen dann über das Gateway, Präfix und Properties-Datei entfallen.")
+   private URI gatewayUri;
+
+   @picocli.CommandLine.Option(names = "--compare", split = ",", description = "Weitere Konfigurations-Präfixe (kommagetrennt) für den Vergleichsmodus, z.B. 'ermsystem.ollama,ermsystem.github'. Der erste Präfix wird mitverglichen.")
+   private List<String> comparePrefixes;
+
+   @picocli.CommandLine.Option(names = "--export", description = "Exportiert beide Diagramme (PNG und SVG), beide PlantUML-Codes und das SQL-Skript einer Projekt-Datei (*.ermp) ohne Oberfläche und beendet sich. Es werden keine KI-Modelle geladen; Präfix und Properties-Datei sind optional und liefern nur die Render-Einstellungen.")
+   private File exportProject;
+
+   @picocli.CommandLine.Option(names = "--export-to", description = "Ziel für --export: ein ZIP-Archiv (*.zip) oder ein Verzeichnis. Ohne Angabe ein ZIP-Archiv neben der Projekt-Datei.")
+   private File exportTarget;
+
+   @picocli.CommandLine.Option(names = "--no-warmup", description = "PlantUML nach dem Start nicht im Hintergrund aufwärmen, z.B. um die Dauer des ersten Renderings ohne Aufwärmen zu messen.")
+   private boolean noWarmUp;
+
    /**
     * Erstellt die KI-Modelle und initialisiert den zentralen Service.
     * Danach wird die JavaFX Runtime für den UI-Start getriggert.
@@ -62,45 +107,102 @@ public class MainApp extends Application implements Callable<Integer> {
     */
    @Override
    public Integer call() throws Exception {
-      // 1. Konfiguration laden
-      if (!configFile.exists()) {
+      warmUpEnabled = !noWarmUp;
+      if (exportProject != null) {
+         return exportProject();
+      }
+      if (gatewayUri != null) {
+         // Client-Modus: keine lokalen Modelle, alles über das Gateway
+         System.out.println("Verwende ERM-Gateway " + gatewayUri + "...");
+         configuredService = new ErmGatewayClientService(gatewayUri);
+         Application.launch(MainApp.class);
+         return 0;
+      }
+      if (configPrefix == null || configFile == null) {
          System.err.println(
-               "Fehler: Die angegebene Konfigurationsdatei existiert nicht: "
-                     + configFile.getAbsolutePath());
-         return 1; // Fehlercode
+               "Fehler: Präfix und Properties-Datei müssen angegeben werden (oder --gateway).");
+         return 1;
       }
-      final Properties configProps = new Properties();
-      try (FileInputStream fis = new FileInputStream(configFile)) {
-         configProps.load(fis);
+
+      // 1. Konfiguration laden
+      final Properties configProps;
+      try {
+         configProps = KiModelFactory.loadConfig(configFile);
       } catch (final IOException e) {
          System.err.println(
                "Fehler beim Laden der Konfigurationsdatei: " + e.getMessage());
-         return 1;
+         return 1; // Fehlercode
+      }
+
+      if (comparePrefixes != null && !comparePrefixes.isEmpty()) {
+         // Vergleichsmodus: je Präfix ein eigener Service
+         final List<String> prefixes = new ArrayList<>();
+         prefixes.add(configPrefix);
+         prefixes.addAll(comparePrefixes);
+         comparisonCandidates = new ArrayList<>();
+         for (final String prefix : prefixes) {
+            System.out.println("Lade KI-Modelle mit Präfix '" + prefix + "'...");
+            comparisonCandidates
+               .add(ComparisonCandidate.fromConfig(configProps, prefix));
+         }
+         Application.launch(MainApp.class);
+         return 0;
       }
 
-      // 2. KI-Modelle mithilfe der Factory erstellen
+      // 2. KI-Modelle mithilfe der Factory erstellen und den Service
+      // in statischer Variable speichern
       System.out
          .println("Lade KI-Modelle mit Präfix '" + configPrefix + "'...");
-      final ChatModel analysisModel = KiModelFactory
-         .createFromPrefix(configProps, configPrefix, "analysis");
-      final ChatModel tableModel = KiModelFactory.createFromPrefix(configProps,
-            configPrefix, "table");
-      final ChatModel sqlModel = KiModelFactory.createFromPrefix(configProps,
-            configPrefix, "sql");
-      final ChatModel tutorModel = KiModelFactory.createFromPrefix(configProps,
-            configPrefix, "tutor");
+      configuredService = ErmGeneratorService.fromConfig(configProps,
+            configPrefix);
       System.out.println("Alle Modelle erfolgreich erstellt.");
 
-      // 3. Service initialisieren und in statischer Variable speichern
-      configuredService = new ErmGeneratorService(analysisModel, tableModel,
-            sqlModel, tutorModel);
-
-      // 4. JavaFX-Anwendung auf dem UI-Thread starten
+      // 3. JavaFX-Anwendung auf dem UI-Thread starten
       Application.launch(MainApp.class);
 
       return 0; // Erfolgscode
    }
 
+   /**
+    * Exportiert die Projekt-Datei aus {@code --export} ohne Oberfläche mit
+    * dem {@link ProjectExporter}. Der Export ruft keine KI-Modelle auf; es
+    * wird daher nur ein Service zum Rendern erstellt. Präfix und
+    * Properties-Datei sind optional und liefern nur die Einstellungen
+    * {@code <prefix>.render.*}.
+    *
+    * @return Exit-Code (0: Erfolg, 1: Fehler)
+    */
+   private int exportProject() {
+      System.setProperty("java.awt.headless", "true");
+      Properties configProps = null;
+      if (configPrefix != null && configFile != null) {
+         try {
+            configProps = KiModelFactory.loadConfig(configFile);
+         } catch (final IOException e) {
+            System.err.println("Fehler beim Laden der Konfigurationsdatei: "
+                  + e.getMessage());
+            return 1;
+         }
+      }
+      final ErmGeneratorService service = ErmGeneratorService.renderOnly(
+            configProps, configPrefix);
+      final Path target = exportTarget != null ? exportTarget.toPath()
+            : exportProject.toPath()
+               .resolveSibling(exportProject.getName()
+                  .replaceFirst("\\.ermp$", "") + ".zip");
+      try {
+         final ProjectExporter.Result result = new ProjectExporter(service)
+            .export(service.loadProjectState(exportProject), target);
+         result.files()
+            .forEach(file -> System.out.println("  " + file));
+         System.out.println("Exportiert: " + result.describe());
+         return 0;
+      } catch (final IOException e) {
+         System.err.println("Fehler beim Export: " + e.getMessage());
+         return 1;
+      }
+   }
+
    /**
     * Wird von JavaFX zum Start der UI aufgerufen und setzt den Controller.
     *
@@ -110,6 +212,10 @@ public class MainApp extends Application implements Callable<Integer> {
     */
    @Override
    public void start(final Stage stage) throws IOException {
+      if (comparisonCandidates != null) {
+         startComparison(stage);
+         return;
+      }
       if (configuredService == null) {
          System.err.println(
                "Fehler: Der ErmGeneratorService wurde nicht initialisiert. Starten Sie die Anwendung über die main-Methode.");
@@ -130,5 +236,36 @@ public class MainApp extends Application implements Callable<Integer> {
       stage.setTitle("KI-gestützter ERM-Designer V1.0");
       stage.setScene(scene);
       stage.show();
+
+      if (warmUpEnabled) {
+         final Thread warmUp = new Thread(configuredService::warmUp,
+               "plantuml-warmup");
+         warmUp.setDaemon(true);
+         warmUp.setPriority(Thread.MIN_PRIORITY);
+         warmUp.start();
+      }
+   }
+
+   /**
+    * Startet die Oberfläche des Vergleichsmodus.
+    *
+    * @param stage Die JavaFX-Hauptbühne (Fenster).
+    *
+    * @throws IOException Bei Fehlern im UI-Layout.
+    */
+   private void startComparison(final Stage stage) throws IOException {
+      final FXMLLoader fxmlLoader = new FXMLLoader(
+            MainApp.class.getResource("view/ComparisonView.fxml"));
+      fxmlLoader.setControllerFactory(
+            param -> new ComparisonController(comparisonCandidates));
+
+      final Scene scene = new Scene(fxmlLoader.load(), 1400, 900);
+      scene.getStylesheets()
+         .add(getClass().getResource("view/styles.css")
+            .toExternalForm());
+
+      stage.setTitle("KI-gestützter ERM-Designer V1.0 - Modellvergleich");
+      stage.setScene(scene);
+      stage.show();
    }
 }
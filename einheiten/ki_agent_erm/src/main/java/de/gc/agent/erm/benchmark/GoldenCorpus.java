@@ -0,0 +1,86 @@
+package de.gc.agent.erm.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Ein versionierter Korpus von Fallbeschreibungen mit den erwarteten
+ * Beziehungen und Tabellen.
+ *
+ * Der Korpus ist eine JSON-Datei. Bei inhaltlichen Änderungen wird eine
+ * neue Datei mit erhöhter Version angelegt, damit Berichte
+ * verschiedener Läufe nur bei gleicher Version verglichen werden.
+ *
+ * @param version Version des Korpus.
+ * @param cases   Die Fallbeschreibungen.
+ */
+public record GoldenCorpus(String version, List<Case> cases) {
+
+   /**
+    * Eine Fallbeschreibung mit dem erwarteten Ergebnis.
+    *
+    * @param id                    Kurzname des Falls.
+    * @param description           Der Beschreibungstext für die Analyse.
+    * @param expectedRelationships Die erwarteten Beziehungen.
+    * @param expectedTables        Die erwarteten Tabellen des logischen
+    *                              Modells (inklusive Zwischentabellen).
+    */
+   public record Case(String id, String description,
+         List<ExpectedRelationship> expectedRelationships,
+         List<String> expectedTables) {
+   }
+
+   /**
+    * Eine erwartete Beziehung. Die Reihenfolge der Entitäten spielt beim
+    * Vergleich keine Rolle.
+    *
+    * @param entity1 Die erste Entität.
+    * @param entity2 Die zweite Entität.
+    * @param kind    Die Art der Beziehung ("1:1", "1:n" oder "n:m").
+    */
+   public record ExpectedRelationship(String entity1, String entity2,
+         String kind) {
+   }
+
+   /** Der mitgelieferte Korpus im Klassenpfad. */
+   public static final String DEFAULT_RESOURCE = "/benchmark/korpus-v2.json";
+
+   /** Jackson-Objekt-Mapper zum Lesen des Korpus. */
+   private static final ObjectMapper MAPPER = new JsonMapper();
+
+   /**
+    * Lädt einen Korpus aus einer Datei.
+    *
+    * @param file Die JSON-Datei.
+    *
+    * @return Der Korpus.
+    *
+    * @throws IOException Falls die Datei fehlt oder fehlerhaft ist.
+    */
+   public static GoldenCorpus load(final Path file) throws IOException {
+      return MAPPER.readValue(file.toFile(), GoldenCorpus.class);
+   }
+
+   /**
+    * Lädt den mitgelieferten Korpus aus dem Klassenpfad.
+    *
+    * @return Der Korpus.
+    *
+    * @throws IOException Falls der Korpus fehlt oder fehlerhaft ist.
+    */
+   public static GoldenCorpus loadDefault() throws IOException {
+      try (InputStream in = GoldenCorpus.class
+         .getResourceAsStream(DEFAULT_RESOURCE)) {
+         if (in == null) {
+            throw new IOException(
+                  "Korpus nicht im Klassenpfad gefunden: " + DEFAULT_RESOURCE);
+         }
+         return MAPPER.readValue(in, GoldenCorpus.class);
+      }
+   }
+}
@@ -0,0 +1,358 @@
+package de.gc.agent.erm.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import de.gc.agent.erm.benchmark.GoldenCorpus.Case;
+import de.gc.agent.erm.benchmark.PipelineReport.StageMeasurement;
+import de.gc.agent.erm.benchmark.StructureCheck.RelationshipScore;
+import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.ki.model.UsageCountingChatModel;
+import de.gc.agent.erm.ki.model.UsageCountingChatModel.Usage;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.service.ErmGeneratorService;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * End-to-End-Benchmark der Modellierungs-Pipeline über einen Korpus von
+ * Fallbeschreibungen.
+ *
+ * Für jeden angegebenen Konfigurations-Präfix (z.B.
+ * {@code ermsystem.gemini}, {@code ermsystem.ollama},
+ * {@code ermsystem.github} oder ein {@code REPLAY}-Set) durchläuft jeder
+ * Fall die Stufen Analyse → ERM → Tabellenmodell → SQL-DDL. Je Stufe
+ * werden Dauer, Token-Verbrauch und die strukturelle Korrektheit gegen
+ * die erwarteten Beziehungen und Tabellen des Korpus erfasst.
+ *
+ * Die Präfixe werden nacheinander gemessen, damit sie sich nicht
+ * gegenseitig beeinflussen. Das Ergebnis wird als Markdown-Bericht
+ * ausgegeben und zusammen mit allen Einzelwerten (CSV) im
+ * Berichtsverzeichnis abgelegt.
+ */
+@Command(name = "Pipeline-Benchmark", version = "1.0", mixinStandardHelpOptions = true, description = "Misst Analyse, ERM, Tabellenmodell und SQL-DDL für mehrere Konfigurations-Sets über einen Korpus von Fallbeschreibungen.")
+public class PipelineBenchmark implements Callable<Integer> {
+
+   /**
+    * Bewertung eines Stufenergebnisses.
+    *
+    * @param ok    Ob das Ergebnis strukturell gültig ist.
+    * @param score Bewertung zwischen 0 und 1.
+    * @param note  Hinweis für die CSV-Datei (kann null sein).
+    */
+   private record Check(boolean ok, double score, String note) {
+   }
+
+   /**
+    * Eine Stufe der Pipeline.
+    *
+    * @param <T> Typ des Ergebnisses.
+    */
+   @FunctionalInterface
+   private interface StageCall<T> {
+
+      /**
+       * Führt die Stufe aus.
+       *
+       * @return Das Ergebnis.
+       *
+       * @throws Exception Bei Fehlern in der Stufe.
+       */
+      T call() throws Exception;
+   }
+
+   /**
+    * Prüft das Ergebnis einer Stufe.
+    *
+    * @param <T> Typ des Ergebnisses.
+    */
+   @FunctionalInterface
+   private interface StageCheck<T> {
+
+      /**
+       * Bewertet das Ergebnis.
+       *
+       * @param result Das Ergebnis der Stufe (nie null).
+       *
+       * @return Die Bewertung.
+       */
+      Check check(T result);
+   }
+
+   /**
+    * Ein Durchlauf eines Falls. Nach dem ersten Fehler werden die
+    * folgenden Stufen als übersprungen vermerkt.
+    */
+   private final class CaseRun {
+
+      /** Der Konfigurations-Präfix. */
+      private final String prefix;
+
+      /** Der Fall. */
+      private final Case c;
+
+      /** Nummer der Wiederholung. */
+      private final int run;
+
+      /** Ob eine vorherige Stufe fehlgeschlagen ist. */
+      private boolean failed;
+
+      /**
+       * Erstellt einen Durchlauf.
+       *
+       * @param prefix Der Konfigurations-Präfix.
+       * @param c      Der Fall.
+       * @param run    Nummer der Wiederholung.
+       */
+      CaseRun(final String prefix, final Case c, final int run) {
+         this.prefix = prefix;
+         this.c = c;
+         this.run = run;
+      }
+
+      /**
+       * Führt eine Stufe aus, misst sie und bewertet das Ergebnis.
+       *
+       * @param <T>   Typ des Ergebnisses.
+       * @param stage Name der Stufe.
+       * @param model Das gezählte Modell der Stufe; null, falls die Stufe
+       *              keine KI aufruft.
+       * @param call  Die Stufe.
+       * @param check Die Bewertung des Ergebnisses.
+       *
+       * @return Das Ergebnis oder null, falls die Stufe fehlschlug oder
+       *         übersprungen wurde.
+       */
+      <T> T stage(final String stage, final UsageCountingChatModel model,
+            final StageCall<T> call, final StageCheck<T> check) {
+         final Usage none = new Usage(0, 0, 0);
+         if (failed) {
+            report.add(new StageMeasurement(prefix, c.id(), run, stage, -1,
+                  none, false, 0, "übersprungen"));
+            return null;
+         }
+         final Usage before = model == null ? none : model.usage();
+         final long start = System.nanoTime();
+         T result = null;
+         String error = null;
+         try {
+            result = call.call();
+         } catch (final Exception e) {
+            error = e.getClass()
+               .getSimpleName() + ": " + e.getMessage();
+         }
+         final long nanos = System.nanoTime() - start;
+         final Usage usage = model == null ? none
+               : model.usage()
+                  .minus(before);
+         if (result == null) {
+            failed = true;
+            report.add(new StageMeasurement(prefix, c.id(), run, stage, nanos,
+                  usage, false, 0, error == null ? "kein Ergebnis" : error));
+            return null;
+         }
+         final Check checked = check.check(result);
+         report.add(new StageMeasurement(prefix, c.id(), run, stage, nanos,
+               usage, checked.ok(), checked.score(), checked.note()));
+         return result;
+      }
+   }
+
+   /**
+    * Hauptmethode: Startet Picocli und anschließend den Benchmark.
+    *
+    * @param args Kommandozeilenargumente.
+    */
+   public static void main(final String[] args) {
+      final int exitCode = new CommandLine(new PipelineBenchmark())
+         .execute(args);
+      System.exit(exitCode);
+   }
+
+   @Parameters(index = "0", description = "Pfad zur Properties-Datei.")
+   private File configFile;
+
+   @Parameters(index = "1..*", arity = "1..*", description = "Die zu vergleichenden Konfigurations-Präfixe (z.B. 'ermsystem.gemini ermsystem.ollama').")
+   private List<String> prefixes;
+
+   @Option(names = "--corpus", description = "Korpus-Datei (JSON); ohne Angabe wird der mitgelieferte Korpus verwendet.")
+   private Path corpusFile;
+
+   @Option(names = "--case", description = "Nur die Fälle mit diesen Kurznamen ausführen.")
+   private List<String> caseIds;
+
+   @Option(names = "--repetitions", defaultValue = "1", description = "Anzahl der Durchläufe je Fall.")
+   private int repetitions;
+
+   @Option(names = "--report-dir", defaultValue = "benchmark-bericht", description = "Verzeichnis für bericht.md und messwerte.csv.")
+   private Path reportDir;
+
+   /** Der gemeinsame Bericht aller Präfixe. */
+   private PipelineReport report;
+
+   /**
+    * Führt den Benchmark aus und schreibt den Bericht.
+    *
+    * @return Exit-Code (0: Erfolg, 1: Fehler)
+    *
+    * @throws Exception Bei Initialisierungsschwierigkeiten.
+    */
+   @Override
+   public Integer call() throws Exception {
+      final Properties configProps;
+      final GoldenCorpus corpus;
+      try {
+         configProps = KiModelFactory.loadConfig(configFile);
+         corpus = corpusFile == null ? GoldenCorpus.loadDefault()
+               : GoldenCorpus.load(corpusFile);
+      } catch (final IOException e) {
+         System.err.println("Fehler beim Laden: " + e.getMessage());
+         return 1;
+      }
+      final List<Case> cases = corpus.cases()
+         .stream()
+         .filter(c -> caseIds == null || caseIds.contains(c.id()))
+         .toList();
+      if (cases.isEmpty()) {
+         System.err.println("Keine passenden Fälle im Korpus gefunden.");
+         return 1;
+      }
+
+      report = new PipelineReport(corpus.version(), cases.size(),
+            repetitions);
+      for (final String prefix : prefixes) {
+         System.out.printf("Messe '%s' mit %d Fällen...%n", prefix,
+               cases.size());
+         runPrefix(configProps, prefix, cases);
+      }
+
+      final String markdown = report.toMarkdown();
+      System.out.println();
+      System.out.println(markdown);
+      Files.createDirectories(reportDir);
+      Files.writeString(reportDir.resolve("bericht.md"), markdown,
+            StandardCharsets.UTF_8);
+      report.writeCsv(reportDir.resolve("messwerte.csv"));
+      System.out.println("Bericht geschrieben nach: "
+            + reportDir.toAbsolutePath());
+      return 0;
+   }
+
+   /**
+    * Beschreibt die Modelle eines Präfixes für den Berichtskopf.
+    *
+    * @param configProps Die geladene Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix.
+    *
+    * @return z.B. "analysis=GEMINI/gemini-1.5-flash-latest, ...".
+    */
+   private String describeModels(final Properties configProps,
+         final String prefix) {
+      final StringBuilder sb = new StringBuilder();
+      for (final String type : List.of("analysis", "table", "sql")) {
+         if (!sb.isEmpty()) {
+            sb.append(", ");
+         }
+         final String key = prefix + "." + type;
+         sb.append(type)
+            .append('=')
+            .append(configProps.getProperty(key + ".system", "?"));
+         final String name = configProps.getProperty(key + ".model.name");
+         if (name != null) {
+            sb.append('/')
+               .append(name);
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Misst alle Fälle für einen Präfix.
+    *
+    * @param configProps Die geladene Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix.
+    * @param cases       Die Fälle.
+    */
+   private void runPrefix(final Properties configProps, final String prefix,
+         final List<Case> cases) {
+      final UsageCountingChatModel analysisModel;
+      final UsageCountingChatModel tableModel;
+      final UsageCountingChatModel sqlModel;
+      final ErmGeneratorService service;
+      try {
+         analysisModel = new UsageCountingChatModel(
+               KiModelFactory.createFromPrefix(configProps, prefix, "analysis"));
+         tableModel = new UsageCountingChatModel(
+               KiModelFactory.createFromPrefix(configProps, prefix, "table"));
+         sqlModel = new UsageCountingChatModel(
+               KiModelFactory.createFromPrefix(configProps, prefix, "sql"));
+         service = new ErmGeneratorService(analysisModel, tableModel,
+               sqlModel, KiModelFactory.createFromPrefix(configProps, prefix,
+                     "tutor"));
+         // Jede Wiederholung soll die Modelle tatsächlich aufrufen
+         service.setCaching(false);
+      } catch (final RuntimeException e) {
+         System.err.printf("  '%s' übersprungen: %s%n", prefix, e.getMessage());
+         return;
+      }
+      report.addModels(prefix, describeModels(configProps, prefix));
+
+      for (int run = 1; run <= repetitions; run++) {
+         for (final Case c : cases) {
+            final CaseRun caseRun = new CaseRun(prefix, c, run);
+
+            final List<Relationship> relationships = caseRun.stage("analyse",
+                  analysisModel, () -> service.analyzeDescription(
+                        c.description()),
+                  result -> {
+                     final RelationshipScore score = StructureCheck
+                        .scoreRelationships(result, c.expectedRelationships());
+                     return new Check(!result.isEmpty(), score.f1(),
+                           String.format("%d/%d Beziehungen, %d gefunden",
+                                 score.matched(), score.expected(),
+                                 score.found()));
+                  });
+
+            final String ermPuml = caseRun.stage("erm", null,
+                  () -> service.generatePlantUmlFromRelationships(
+                        relationships),
+                  result -> new Check(StructureCheck.isValidPlantUml(result),
+                        StructureCheck
+                           .scoreRelationships(relationships,
+                                 c.expectedRelationships())
+                           .kindAccuracy(),
+                        null));
+
+            final String tablePuml = caseRun.stage("tabellenmodell",
+                  tableModel, () -> service.generateTableModelPlantUml(ermPuml),
+                  result -> {
+                     final List<String> tables = StructureCheck
+                        .plantUmlEntities(result);
+                     return new Check(StructureCheck.isValidPlantUml(result),
+                           StructureCheck.tableRecall(tables,
+                                 c.expectedTables()),
+                           String.join(",", tables));
+                  });
+
+            caseRun.stage("ddl", sqlModel,
+                  () -> service.generateSqlDdl(tablePuml), result -> {
+                     final List<String> tables = StructureCheck
+                        .ddlTables(result);
+                     return new Check(!tables.isEmpty(),
+                           StructureCheck.tableRecall(tables,
+                                 c.expectedTables()),
+                           String.join(",", tables));
+                  });
+            System.out.printf("  %s (Lauf %d) fertig%n", c.id(), run);
+         }
+      }
+   }
+}
@@ -0,0 +1,296 @@
+package de.gc.agent.erm.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import de.gc.agent.erm.ki.model.UsageCountingChatModel.Usage;
+import de.gc.agent.erm.loadtest.LoadTestRecorder;
+
+/**
+ * Sammelt die Messwerte des Pipeline-Benchmarks und schreibt sie als
+ * CSV (alle Einzelwerte) und als Markdown-Bericht (Zusammenfassung je
+ * Präfix und Stufe).
+ *
+ * Berichte verschiedener Läufe sind nur bei gleicher Korpus-Version
+ * vergleichbar; die Version steht deshalb im Kopf des Berichts und in
+ * jeder CSV-Zeile.
+ */
+public class PipelineReport {
+
+   /**
+    * Messwert einer Stufe für einen Fall.
+    *
+    * @param prefix Der Konfigurations-Präfix.
+    * @param caseId Kurzname des Falls.
+    * @param run    Nummer der Wiederholung (ab 1).
+    * @param stage  Name der Stufe.
+    * @param nanos  Dauer in Nanosekunden; -1, falls die Stufe nach einem
+    *               Fehler übersprungen wurde.
+    * @param usage  Verbrauch der Stufe.
+    * @param ok     Ob das Ergebnis strukturell gültig ist.
+    * @param score  Stufenspezifische Bewertung zwischen 0 und 1.
+    * @param note   Hinweis, z.B. die Fehlermeldung.
+    */
+   public record StageMeasurement(String prefix, String caseId, int run,
+         String stage, long nanos, Usage usage, boolean ok, double score,
+         String note) {
+
+      /**
+       * Gibt an, ob die Stufe ausgeführt wurde.
+       *
+       * @return false, falls sie nach einem Fehler übersprungen wurde.
+       */
+      public boolean executed() {
+         return nanos >= 0;
+      }
+   }
+
+   /** Die Stufen in Reihenfolge der Pipeline. */
+   public static final List<String> STAGES = List.of("analyse", "erm",
+         "tabellenmodell", "ddl");
+
+   /**
+    * Bildet den Mittelwert einer Folge.
+    *
+    * @param values Die Werte.
+    *
+    * @return Der Mittelwert oder 0 bei leerer Eingabe.
+    */
+   private static double average(final List<Double> values) {
+      return values.stream()
+         .mapToDouble(Double::doubleValue)
+         .average()
+         .orElse(0);
+   }
+
+   /**
+    * Maskiert einen Wert für CSV.
+    *
+    * @param value Der Wert.
+    *
+    * @return Der Wert, bei Bedarf in Anführungszeichen.
+    */
+   private static String csv(final String value) {
+      if (value == null) {
+         return "";
+      }
+      if (value.contains(";") || value.contains("\"") || value.contains("\n")) {
+         return "\"" + value.replace("\"", "\"\"") + "\"";
+      }
+      return value;
+   }
+
+   /** Version des verwendeten Korpus. */
+   private final String corpusVersion;
+
+   /** Anzahl der Fälle im Korpus. */
+   private final int caseCount;
+
+   /** Anzahl der Wiederholungen je Fall. */
+   private final int repetitions;
+
+   /** Beschreibung der Modelle je Präfix. */
+   private final Map<String, String> models = new LinkedHashMap<>();
+
+   /** Alle Messwerte in Reihenfolge der Messung. */
+   private final List<StageMeasurement> measurements = new ArrayList<>();
+
+   /**
+    * Erstellt einen leeren Bericht.
+    *
+    * @param corpusVersion Version des verwendeten Korpus.
+    * @param caseCount     Anzahl der Fälle.
+    * @param repetitions   Anzahl der Wiederholungen je Fall.
+    */
+   public PipelineReport(final String corpusVersion, final int caseCount,
+         final int repetitions) {
+      this.corpusVersion = corpusVersion;
+      this.caseCount = caseCount;
+      this.repetitions = repetitions;
+   }
+
+   /**
+    * Nimmt einen Messwert auf.
+    *
+    * @param measurement Der Messwert.
+    */
+   public synchronized void add(final StageMeasurement measurement) {
+      measurements.add(measurement);
+   }
+
+   /**
+    * Hinterlegt die Modelle eines Präfixes für den Berichtskopf.
+    *
+    * @param prefix      Der Konfigurations-Präfix.
+    * @param description Beschreibung der Modelle.
+    */
+   public synchronized void addModels(final String prefix,
+         final String description) {
+      models.put(prefix, description);
+   }
+
+   /**
+    * Bildet den Mittelwert der Bewertung einer Stufe eines Präfixes.
+    * Übersprungene Stufen zählen mit 0.
+    *
+    * @param prefix Der Konfigurations-Präfix.
+    * @param stage  Die Stufe.
+    *
+    * @return Der Mittelwert.
+    */
+   private double averageScore(final String prefix, final String stage) {
+      return average(select(m -> m.prefix()
+         .equals(prefix)
+            && m.stage()
+               .equals(stage)).stream()
+            .map(StageMeasurement::score)
+            .toList());
+   }
+
+   /**
+    * Liefert alle Messwerte, die eine Bedingung erfüllen.
+    *
+    * @param filter Die Bedingung.
+    *
+    * @return Die Messwerte.
+    */
+   private synchronized List<StageMeasurement> select(
+         final Predicate<StageMeasurement> filter) {
+      return measurements.stream()
+         .filter(filter)
+         .toList();
+   }
+
+   /**
+    * Erstellt den Markdown-Bericht.
+    *
+    * @return Der Bericht.
+    */
+   public String toMarkdown() {
+      final StringBuilder sb = new StringBuilder();
+      sb.append("# Pipeline-Benchmark\n\n");
+      sb.append(String.format(Locale.ROOT,
+            "Korpus: Version %s (%d Fälle), Wiederholungen: %d, Lauf: %s%n%n",
+            corpusVersion, caseCount, repetitions, LocalDateTime.now()
+               .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+      synchronized (this) {
+         for (final Map.Entry<String, String> entry : models.entrySet()) {
+            sb.append("- `")
+               .append(entry.getKey())
+               .append("`: ")
+               .append(entry.getValue())
+               .append('\n');
+         }
+      }
+
+      sb.append("\n## Laufzeit und Tokens je Stufe\n\n");
+      sb.append("| Präfix | Stufe | Läufe | OK | p50 ms | p95 ms | max ms "
+            + "| Tokens ein (Ø) | Tokens aus (Ø) |\n");
+      sb.append("|---|---|---:|---:|---:|---:|---:|---:|---:|\n");
+      for (final String prefix : models.keySet()) {
+         for (final String stage : STAGES) {
+            final List<StageMeasurement> stageValues = select(m -> m.prefix()
+               .equals(prefix)
+                  && m.stage()
+                     .equals(stage));
+            final long[] millis = stageValues.stream()
+               .filter(StageMeasurement::executed)
+               .mapToLong(m -> m.nanos() / 1_000_000)
+               .sorted()
+               .toArray();
+            final long ok = stageValues.stream()
+               .filter(StageMeasurement::ok)
+               .count();
+            final double inputTokens = stageValues.stream()
+               .filter(StageMeasurement::executed)
+               .mapToLong(m -> m.usage()
+                  .inputTokens())
+               .average()
+               .orElse(0);
+            final double outputTokens = stageValues.stream()
+               .filter(StageMeasurement::executed)
+               .mapToLong(m -> m.usage()
+                  .outputTokens())
+               .average()
+               .orElse(0);
+            sb.append(String.format(Locale.ROOT,
+                  "| %s | %s | %d | %d | %d | %d | %d | %.0f | %.0f |%n",
+                  prefix, stage, stageValues.size(), ok,
+                  LoadTestRecorder.percentile(millis, 50),
+                  LoadTestRecorder.percentile(millis, 95),
+                  millis.length == 0 ? 0 : millis[millis.length - 1],
+                  inputTokens, outputTokens));
+         }
+      }
+
+      sb.append("\n## Strukturelle Korrektheit (Mittelwerte, 0 bis 1)\n\n");
+      sb.append("| Präfix | Beziehungen (F1) | Beziehungsarten "
+            + "| Tabellen im Modell | Tabellen in der DDL | Pipeline ms (Ø) "
+            + "| Tokens je Fall (Ø) |\n");
+      sb.append("|---|---:|---:|---:|---:|---:|---:|\n");
+      for (final String prefix : models.keySet()) {
+         final List<StageMeasurement> prefixValues = select(m -> m.prefix()
+            .equals(prefix));
+         final int runs = Math.max(1, (int) prefixValues.stream()
+            .filter(m -> m.stage()
+               .equals(STAGES.get(0)))
+            .count());
+         final long totalMillis = prefixValues.stream()
+            .filter(StageMeasurement::executed)
+            .mapToLong(m -> m.nanos() / 1_000_000)
+            .sum();
+         final long totalTokens = prefixValues.stream()
+            .mapToLong(m -> m.usage()
+               .inputTokens()
+                  + m.usage()
+                     .outputTokens())
+            .sum();
+         sb.append(String.format(Locale.ROOT,
+               "| %s | %.2f | %.2f | %.2f | %.2f | %d | %d |%n", prefix,
+               averageScore(prefix, "analyse"), averageScore(prefix, "erm"),
+               averageScore(prefix, "tabellenmodell"),
+               averageScore(prefix, "ddl"), totalMillis / runs,
+               totalTokens / runs));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Schreibt alle Einzelwerte als CSV-Datei (Trennzeichen Semikolon).
+    *
+    * @param file Die Zieldatei.
+    *
+    * @throws IOException Falls die Datei nicht geschrieben werden kann.
+    */
+   public void writeCsv(final Path file) throws IOException {
+      try (PrintWriter out = new PrintWriter(
+            Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+         out.println("korpus;praefix;fall;lauf;stufe;ms;aufrufe;tokens_ein;"
+               + "tokens_aus;ok;bewertung;hinweis");
+         for (final StageMeasurement m : select(m -> true)) {
+            out.printf(Locale.ROOT, "%s;%s;%s;%d;%s;%s;%d;%d;%d;%b;%.3f;%s%n",
+                  csv(corpusVersion), csv(m.prefix()), csv(m.caseId()),
+                  m.run(), m.stage(),
+                  m.executed() ? String.valueOf(m.nanos() / 1_000_000) : "",
+                  m.usage()
+                     .calls(),
+                  m.usage()
+                     .inputTokens(),
+                  m.usage()
+                     .outputTokens(),
+                  m.ok(), m.score(), csv(m.note()));
+         }
+      }
+   }
+}
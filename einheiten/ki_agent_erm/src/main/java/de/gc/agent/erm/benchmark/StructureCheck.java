@@ -0,0 +1,301 @@
+package de.gc.agent.erm.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.gc.agent.erm.benchmark.GoldenCorpus.ExpectedRelationship;
+import de.gc.agent.erm.model.Relationship;
+import net.sourceforge.plantuml.BlockUml;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.error.PSystemError;
+
+/**
+ * Strukturelle Prüfungen der Zwischenergebnisse gegen den Korpus.
+ *
+ * Verglichen werden nur Namen und Beziehungsarten, nicht die Attribute.
+ * Entitäts- und Tabellennamen werden dazu normalisiert
+ * (Kleinschreibung, Umlaute umschreiben, Sonderzeichen entfernen),
+ * Zwischentabellen werden unabhängig von der Reihenfolge ihrer Teile
+ * erkannt ("Klasse_Lehrkraft" entspricht "Lehrkraft_Klasse").
+ */
+public final class StructureCheck {
+
+   /**
+    * Ergebnis des Vergleichs der analysierten mit den erwarteten
+    * Beziehungen.
+    *
+    * @param expected    Anzahl erwarteter Beziehungen.
+    * @param found       Anzahl analysierter Beziehungen.
+    * @param matched     Anzahl erwarteter Beziehungen, denen eine eigene
+    *                    analysierte Beziehung zwischen denselben Entitäten
+    *                    zugeordnet wurde.
+    * @param kindMatched Anzahl zugeordneter Beziehungen mit richtiger
+    *                    Beziehungsart.
+    */
+   public record RelationshipScore(int expected, int found, int matched,
+         int kindMatched) {
+
+      /**
+       * Harmonisches Mittel aus Genauigkeit und Vollständigkeit.
+       *
+       * @return Wert zwischen 0 und 1.
+       */
+      public double f1() {
+         final double precision = found == 0 ? 0 : (double) matched / found;
+         final double recall = expected == 0 ? 1 : (double) matched / expected;
+         return precision + recall == 0 ? 0
+               : 2 * precision * recall / (precision + recall);
+      }
+
+      /**
+       * Anteil der zugeordneten Beziehungen mit richtiger Beziehungsart.
+       *
+       * @return Wert zwischen 0 und 1.
+       */
+      public double kindAccuracy() {
+         return matched == 0 ? 0 : (double) kindMatched / matched;
+      }
+   }
+
+   /** Entitäten im PlantUML-Code. */
+   private static final Pattern PLANTUML_ENTITY = Pattern.compile(
+         "^\\s*(?:entity|class|table)\\s+\"?([\\p{L}\\w]+)",
+         Pattern.MULTILINE);
+
+   /** Tabellen im SQL-DDL-Skript. */
+   private static final Pattern DDL_TABLE = Pattern.compile(
+         "CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?[`\"]?([\\p{L}\\w]+)",
+         Pattern.CASE_INSENSITIVE);
+
+   /**
+    * Liefert die Namen aller Tabellen, die ein SQL-DDL-Skript anlegt.
+    *
+    * @param sqlDdl Das SQL-DDL-Skript.
+    *
+    * @return Die Tabellennamen in Reihenfolge des Skripts.
+    */
+   public static List<String> ddlTables(final String sqlDdl) {
+      return matches(DDL_TABLE, sqlDdl);
+   }
+
+   /**
+    * Prüft, ob PlantUML den Quelltext ohne Syntaxfehler einlesen kann.
+    * Das Diagramm wird dabei nicht gerendert.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return true, falls ein fehlerfreies Diagramm erkannt wurde.
+    */
+   public static boolean isValidPlantUml(final String plantUml) {
+      if (plantUml == null || plantUml.isBlank()) {
+         return false;
+      }
+      final List<BlockUml> blocks = new SourceStringReader(plantUml)
+         .getBlocks();
+      return !blocks.isEmpty() && !(blocks.get(0)
+         .getDiagram() instanceof PSystemError);
+   }
+
+   /**
+    * Bestimmt die Art einer Beziehung aus ihren Kardinalitäten.
+    *
+    * @param rel Die Beziehung.
+    *
+    * @return "1:1", "1:n" oder "n:m".
+    */
+   public static String kind(final Relationship rel) {
+      final boolean many1 = rel.getCardinality1() != null
+            && rel.getCardinality1()
+               .contains("*");
+      final boolean many2 = rel.getCardinality2() != null
+            && rel.getCardinality2()
+               .contains("*");
+      if (many1 && many2) {
+         return "n:m";
+      }
+      return many1 || many2 ? "1:n" : "1:1";
+   }
+
+   /**
+    * Liefert alle Treffer der ersten Gruppe eines Musters.
+    *
+    * @param pattern Das Muster.
+    * @param text    Der durchsuchte Text.
+    *
+    * @return Die Treffer in Reihenfolge des Textes.
+    */
+   private static List<String> matches(final Pattern pattern,
+         final String text) {
+      final List<String> result = new ArrayList<>();
+      if (text == null) {
+         return result;
+      }
+      final Matcher matcher = pattern.matcher(text);
+      while (matcher.find()) {
+         result.add(matcher.group(1));
+      }
+      return result;
+   }
+
+   /**
+    * Normalisiert einen Entitäts- oder Tabellennamen für den Vergleich.
+    *
+    * @param name Der Name.
+    *
+    * @return Der normalisierte Name.
+    */
+   static String normalize(final String name) {
+      return name.toLowerCase(Locale.ROOT)
+         .replace("ä", "ae")
+         .replace("ö", "oe")
+         .replace("ü", "ue")
+         .replace("ß", "ss")
+         .replaceAll("[^a-z0-9_]", "");
+   }
+
+   /**
+    * Bildet einen reihenfolgeunabhängigen Schlüssel für ein Entitätspaar.
+    *
+    * @param entity1 Die erste Entität.
+    * @param entity2 Die zweite Entität.
+    *
+    * @return Der Schlüssel.
+    */
+   private static String pairKey(final String entity1, final String entity2) {
+      final String a = normalize(entity1);
+      final String b = normalize(entity2);
+      return a.compareTo(b) <= 0 ? a + "|" + b : b + "|" + a;
+   }
+
+   /**
+    * Liefert die Namen aller Entitäten eines PlantUML-Diagramms.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return Die Namen in Reihenfolge des Quelltextes.
+    */
+   public static List<String> plantUmlEntities(final String plantUml) {
+      return matches(PLANTUML_ENTITY, plantUml);
+   }
+
+   /**
+    * Vergleicht die analysierten Beziehungen mit den erwarteten. Jeder
+    * erwarteten Beziehung wird höchstens eine analysierte Beziehung
+    * zwischen denselben Entitäten zugeordnet und umgekehrt; Beziehungen
+    * mit passender Art werden zuerst zugeordnet. Mehrere Beziehungen
+    * zwischen denselben Entitäten (z.B. "unterrichtet" und
+    * "Klassenleitung") werden so einzeln gezählt.
+    *
+    * @param actual   Die analysierten Beziehungen.
+    * @param expected Die erwarteten Beziehungen.
+    *
+    * @return Das Vergleichsergebnis.
+    */
+   public static RelationshipScore scoreRelationships(
+         final List<Relationship> actual,
+         final List<ExpectedRelationship> expected) {
+      // Noch nicht zugeordnete analysierte Beziehungen je Paar und je
+      // Paar mit Art
+      final Map<String, Integer> pairs = new HashMap<>();
+      final Map<String, Integer> kinds = new HashMap<>();
+      int found = 0;
+      for (final Relationship rel : actual) {
+         if (rel.getEntity1() == null || rel.getEntity2() == null) {
+            continue;
+         }
+         final String pair = pairKey(rel.getEntity1(), rel.getEntity2());
+         pairs.merge(pair, 1, Integer::sum);
+         kinds.merge(pair + "|" + kind(rel), 1, Integer::sum);
+         found++;
+      }
+      int kindMatched = 0;
+      final List<String> unmatched = new ArrayList<>();
+      for (final ExpectedRelationship exp : expected) {
+         final String pair = pairKey(exp.entity1(), exp.entity2());
+         if (take(kinds, pair + "|" + exp.kind())) {
+            take(pairs, pair);
+            kindMatched++;
+         } else {
+            unmatched.add(pair);
+         }
+      }
+      int matched = kindMatched;
+      for (final String pair : unmatched) {
+         if (take(pairs, pair)) {
+            matched++;
+         }
+      }
+      return new RelationshipScore(expected.size(), found, matched,
+            kindMatched);
+   }
+
+   /**
+    * Bildet den Vergleichsschlüssel eines Tabellennamens. Bei
+    * Zwischentabellen werden die Teile sortiert.
+    *
+    * @param name Der Tabellenname.
+    *
+    * @return Der Schlüssel.
+    */
+   private static String tableKey(final String name) {
+      final String[] parts = normalize(name).split("_");
+      Arrays.sort(parts);
+      return String.join("_", parts);
+   }
+
+   /**
+    * Bestimmt, welcher Anteil der erwarteten Tabellen gefunden wurde.
+    *
+    * @param found    Die gefundenen Tabellennamen.
+    * @param expected Die erwarteten Tabellennamen.
+    *
+    * @return Wert zwischen 0 und 1 (1 bei leerer Erwartung).
+    */
+   public static double tableRecall(final Collection<String> found,
+         final List<String> expected) {
+      if (expected.isEmpty()) {
+         return 1;
+      }
+      final Set<String> keys = new LinkedHashSet<>();
+      for (final String name : found) {
+         keys.add(tableKey(name));
+      }
+      final long hits = expected.stream()
+         .filter(name -> keys.contains(tableKey(name)))
+         .count();
+      return (double) hits / expected.size();
+   }
+
+   /**
+    * Entnimmt ein Element aus einer Multimenge.
+    *
+    * @param counts Die Anzahl je Schlüssel.
+    * @param key    Der Schlüssel.
+    *
+    * @return true, falls noch ein Element vorhanden war.
+    */
+   private static boolean take(final Map<String, Integer> counts,
+         final String key) {
+      final int count = counts.getOrDefault(key, 0);
+      if (count == 0) {
+         return false;
+      }
+      counts.put(key, count - 1);
+      return true;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private StructureCheck() {
+   }
+}
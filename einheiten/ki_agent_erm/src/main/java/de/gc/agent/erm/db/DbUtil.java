@@ -18,6 +18,8 @@ import org.nocrala.tools.texttablefmt.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.gc.agent.erm.jfr.JdbcQueryEvent;
+
 /**
  * Diese Klasse bietet Hilfsfunktionen für die Verwaltung von
  * Datenbankverbindungen und die Verarbeitung von SQL-Abfragen. Sie
@@ -222,50 +224,60 @@ public class DbUtil {
 
       // 1. Tabellen und Spalten auslesen
       final List<String> tables = getTablesNames();
-
-      for (final String table : tables) {
-         schemaBuilder.append("-- Tabelle: ")
-            .append(table)
-            .append("\n");
-         schemaBuilder.append("-- Spalten: ");
-
-         try (ResultSet columns = metaData.getColumns(null, null, table,
-               null)) {
-            boolean first = true;
-            while (columns.next()) {
-               if (!first) {
-                  schemaBuilder.append(", ");
+      final JdbcQueryEvent event = JdbcQueryEvent.start(
+            "DbUtil.getSyntheticSchema", "metadata getColumns getImportedKeys");
+      try {
+         for (final String table : tables) {
+            schemaBuilder.append("-- Tabelle: ")
+               .append(table)
+               .append("\n");
+            schemaBuilder.append("-- Spalten: ");
+
+            try (ResultSet columns = metaData.getColumns(null, null, table,
+                  null)) {
+               boolean first = true;
+               while (columns.next()) {
+                  event.rows++;
+                  if (!first) {
+                     schemaBuilder.append(", ");
+                  }
+                  final String columnName = columns.getString("COLUMN_NAME");
+                  final String columnType = columns.getString("TYPE_NAME");
+                  schemaBuilder.append(columnName)
+                     .append(" (")
+                     .append(columnType)
+                     .append(")");
+                  first = false;
                }
-               final String columnName = columns.getString("COLUMN_NAME");
-               final String columnType = columns.getString("TYPE_NAME");
-               schemaBuilder.append(columnName)
-                  .append(" (")
-                  .append(columnType)
-                  .append(")");
-               first = false;
             }
+            schemaBuilder.append("\n\n");
          }
-         schemaBuilder.append("\n\n");
-      }
 
-      // 2. Fremdschlüsselbeziehungen auslesen
-      schemaBuilder.append("-- Beziehungen (Fremdschlüssel):\n");
-      for (final String table : tables) {
-         try (ResultSet foreignKeys = metaData.getImportedKeys(null, null,
-               table)) {
-            while (foreignKeys.next()) {
-               final String fkTableName = foreignKeys
-                  .getString("FKTABLE_NAME");
-               final String fkColumnName = foreignKeys
-                  .getString("FKCOLUMN_NAME");
-               final String pkTableName = foreignKeys
-                  .getString("PKTABLE_NAME");
-               final String pkColumnName = foreignKeys
-                  .getString("PKCOLUMN_NAME");
-               schemaBuilder.append(String.format("-- %s.%s -> %s.%s\n",
-                     fkTableName, fkColumnName, pkTableName, pkColumnName));
+         // 2. Fremdschlüsselbeziehungen auslesen
+         schemaBuilder.append("-- Beziehungen (Fremdschlüssel):\n");
+         for (final String table : tables) {
+            try (ResultSet foreignKeys = metaData.getImportedKeys(null, null,
+                  table)) {
+               while (foreignKeys.next()) {
+                  event.rows++;
+                  final String fkTableName = foreignKeys
+                     .getString("FKTABLE_NAME");
+                  final String fkColumnName = foreignKeys
+                     .getString("FKCOLUMN_NAME");
+                  final String pkTableName = foreignKeys
+                     .getString("PKTABLE_NAME");
+                  final String pkColumnName = foreignKeys
+                     .getString("PKCOLUMN_NAME");
+                  schemaBuilder.append(String.format("-- %s.%s -> %s.%s\n",
+                        fkTableName, fkColumnName, pkTableName, pkColumnName));
+               }
             }
          }
+
+         event.finish();
+      } catch (final SQLException e) {
+         event.fail(e);
+         throw e;
       }
 
       return schemaBuilder.toString();
@@ -283,14 +295,19 @@ public class DbUtil {
 
       final List<String> list = new ArrayList<>();
 
+      final JdbcQueryEvent event = JdbcQueryEvent
+         .start("DbUtil.getTablesNames", "metadata getTables");
       try {
          final ResultSet rs = meta.getTables(catalog, schema, null,
                new String[] { "TABLE" });
 
          while (rs.next()) {
             list.add(rs.getString("TABLE_NAME"));
+            event.rows++;
          }
+         event.finish();
       } catch (final SQLException e) {
+         event.fail(e);
          new RuntimeException(e);
       }
 
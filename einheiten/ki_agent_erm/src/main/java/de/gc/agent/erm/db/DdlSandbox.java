@@ -0,0 +1,492 @@
+package de.gc.agent.erm.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gc.agent.erm.jfr.JdbcQueryEvent;
+
+/**
+ * Prüft SQL-DDL-Skripte, indem sie in einem isolierten Sandbox-Schema
+ * der MariaDB ausgeführt werden.
+ *
+ * Die Sandbox-Schemata ({@code <datenbank>_sandbox_1},
+ * {@code _sandbox_2}, ...) liegen neben der Datenbank aus
+ * {@code db.properties} und werden in einem Pool mit je einer offenen
+ * Verbindung gehalten: Eine Prüfung leiht sich ein Schema, führt das
+ * Skript Anweisung für Anweisung aus und räumt danach nur die angelegten
+ * Tabellen, Sichten, Sequenzen, Prozeduren, Funktionen und Ereignisse ab
+ * und setzt die Sitzung zurück, damit z.B. ein
+ * {@code SET FOREIGN_KEY_CHECKS = 0} nicht in die nächste Prüfung wirkt.
+ * Schemata und Verbindungen bleiben erhalten, wiederholte Prüfungen
+ * kosten daher kein {@code CREATE/DROP DATABASE} und keinen
+ * Verbindungsaufbau.
+ *
+ * Die Skripte laufen unter einem eigenen Datenbankbenutzer
+ * ({@code db.sandbox.user}), der nur Rechte auf die Sandbox-Schemata hat,
+ * nicht auf die Datenbank selbst (siehe {@code create_db.sql}). Das ist
+ * die eigentliche Grenze der Sandbox: auch über {@code PREPARE},
+ * Kommentare o.ä. erreicht ein Skript die Datenbank nicht.
+ *
+ * Zusätzlich werden Anweisungen, die offensichtlich die Sandbox verlassen
+ * würden ({@code USE}, {@code CREATE/DROP DATABASE}, {@code GRANT}, ...,
+ * sowie Namen, die mit der Datenbank oder einem anderen Sandbox-Schema
+ * qualifiziert sind, z.B. {@code ermagent.kunde}), gar nicht erst
+ * ausgeführt, sondern als übersprungen gemeldet, statt als
+ * Rechte-Fehler.
+ */
+public class DdlSandbox implements AutoCloseable {
+
+   /**
+    * Eine fehlgeschlagene Anweisung.
+    *
+    * @param line      Die Zeile im Skript (ab 1).
+    * @param statement Die Anweisung.
+    * @param message   Die Fehlermeldung der Datenbank.
+    */
+   public record Failure(int line, String statement, String message) {
+   }
+
+   /**
+    * Das Ergebnis einer Prüfung.
+    *
+    * @param statements Anzahl der ausgeführten Anweisungen.
+    * @param failures   Die fehlgeschlagenen Anweisungen.
+    * @param skipped    Die nicht ausgeführten Anweisungen.
+    * @param millis     Die Dauer der Ausführung in Millisekunden.
+    */
+   public record Result(int statements, List<Failure> failures,
+         List<SqlScript.Statement> skipped, long millis) {
+
+      /**
+       * Gibt zurück, ob alle Anweisungen fehlerfrei ausgeführt wurden.
+       *
+       * @return true ohne Fehler.
+       */
+      public boolean isValid() {
+         return failures.isEmpty();
+      }
+   }
+
+   /**
+    * Ein Sandbox-Schema mit seiner Verbindung.
+    *
+    * @param schema     Der Name des Schemas.
+    * @param connection Die offene Verbindung.
+    */
+   private record Sandbox(String schema, Connection connection) {
+   }
+
+   /** Logger für die Protokollierung von Ereignissen in dieser Klasse. */
+   private static final Logger logger = LoggerFactory
+      .getLogger(DdlSandbox.class);
+
+   /** Anweisungen, die außerhalb der Sandbox wirken würden. */
+   private static final Pattern OUTSIDE_SANDBOX = Pattern.compile(
+         "^(?:USE|GRANT|REVOKE|FLUSH|(?:CREATE|DROP|ALTER)\\s+(?:DATABASE|SCHEMA|USER))\\b.*",
+         Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+   /**
+    * Alle Objekte eines Schemas, die beim Zurückgeben entfernt werden:
+    * Name und Art.
+    */
+   private static final String SCHEMA_OBJECTS = "SELECT table_name, table_type FROM information_schema.tables WHERE table_schema = ?"
+         + " UNION ALL SELECT routine_name, routine_type FROM information_schema.routines WHERE routine_schema = ?"
+         + " UNION ALL SELECT event_name, 'EVENT' FROM information_schema.events WHERE event_schema = ?";
+
+   /** Zeilenangabe in MariaDB-Fehlermeldungen. */
+   private static final Pattern ERROR_LINE = Pattern
+      .compile("at line (\\d+)");
+
+   /** Standardgröße des Pools. */
+   private static final int DEFAULT_POOL_SIZE = 2;
+
+   /**
+    * Bildet die Anweisung, die ein Objekt eines Sandbox-Schemas entfernt.
+    *
+    * @param name Der Name des Objekts.
+    * @param type Die Art aus {@code information_schema}, z.B.
+    *             {@code BASE TABLE}, {@code VIEW} oder {@code PROCEDURE}.
+    *
+    * @return Die {@code DROP}-Anweisung.
+    */
+   private static String drop(final String name, final String type) {
+      final String kind;
+      if (type.contains("VIEW")) {
+         kind = "VIEW";
+      } else if (type.equals("SEQUENCE") || type.equals("PROCEDURE")
+            || type.equals("FUNCTION") || type.equals("EVENT")) {
+         kind = type;
+      } else {
+         kind = "TABLE";
+      }
+      return "DROP " + kind + " IF EXISTS `" + name.replace("`", "``")
+            + "`";
+   }
+
+   /**
+    * Ermittelt die Skriptzeile eines Fehlers aus der Zeilenangabe der
+    * Meldung ("... at line 3"), die relativ zur Anweisung ist.
+    *
+    * @param statement Die Anweisung.
+    * @param message   Die Fehlermeldung.
+    *
+    * @return Die Zeile im Skript.
+    */
+   private static int errorLine(final SqlScript.Statement statement,
+         final String message) {
+      final Matcher matcher = ERROR_LINE.matcher(message == null ? ""
+            : message.toLowerCase(Locale.ROOT));
+      if (matcher.find()) {
+         return statement.line() + Integer.parseInt(matcher.group(1)) - 1;
+      }
+      return statement.line();
+   }
+
+   /**
+    * Erstellt eine Sandbox mit den Verbindungsdaten aus
+    * {@code /db.properties}: {@code db.url} für Server und Namen der
+    * Datenbank, {@code db.sandbox.user} und {@code db.sandbox.password}
+    * für den Sandbox-Benutzer. Die Poolgröße kann mit
+    * {@code db.sandbox.pool} angepasst werden (Standard:
+    * {@value #DEFAULT_POOL_SIZE}).
+    *
+    * Es wird noch keine Verbindung aufgebaut.
+    *
+    * @return Die Sandbox.
+    *
+    * @throws RuntimeException Falls die Konfiguration fehlt oder der
+    *                          Sandbox-Benutzer der Benutzer der Datenbank
+    *                          ist.
+    */
+   public static DdlSandbox fromProperties() {
+      final Properties dbProperties = new Properties();
+      try (InputStream in = DdlSandbox.class
+         .getResourceAsStream("/db.properties")) {
+         if (in == null) {
+            throw new IOException("db.properties nicht gefunden.");
+         }
+         dbProperties.load(in);
+      } catch (final IOException e) {
+         throw new RuntimeException(
+               "Fehler beim Laden der Datenbankkonfiguration.", e);
+      }
+      final String dbUrl = dbProperties.getProperty("db.url");
+      if (dbUrl == null) {
+         throw new RuntimeException(
+               "Die Datei db.properties muss die Eigenschaft db.url enthalten.");
+      }
+      final String sandboxUser = dbProperties.getProperty("db.sandbox.user");
+      if (sandboxUser == null || sandboxUser.isBlank()
+            || sandboxUser.equals(dbProperties.getProperty("db.user"))) {
+         // Mit den Rechten auf die Datenbank wäre die Sandbox keine
+         throw new RuntimeException(
+               "Die Datei db.properties muss mit db.sandbox.user einen eigenen Benutzer für die Sandbox angeben (siehe create_db.sql).");
+      }
+      return new DdlSandbox(dbUrl, sandboxUser,
+            dbProperties.getProperty("db.sandbox.password", ""),
+            Integer.parseInt(dbProperties.getProperty("db.sandbox.pool",
+                  String.valueOf(DEFAULT_POOL_SIZE))));
+   }
+
+   /** Die JDBC-URL des Servers ohne Datenbank. */
+   private final String url;
+
+   /**
+    * Der Sandbox-Benutzer; er hat nur Rechte auf die Sandbox-Schemata.
+    */
+   private final String user;
+
+   /** Das Passwort. */
+   private final String password;
+
+   /**
+    * Mit der Datenbank oder einem Sandbox-Schema qualifizierte Namen;
+    * Gruppe 1 ist das Schema.
+    */
+   private final Pattern qualifiedName;
+
+   /** Die freien Sandbox-Schemata. */
+   private final BlockingQueue<Sandbox> idle = new LinkedBlockingQueue<>();
+
+   /** Die Sandbox-Schemata ohne offene Verbindung. */
+   private final BlockingQueue<String> unopened = new LinkedBlockingQueue<>();
+
+   /**
+    * Erstellt eine Sandbox.
+    *
+    * @param url      Die JDBC-URL der Stammdatenbank, z.B.
+    *                 {@code jdbc:mariadb://localhost:3306/ermagent}; die
+    *                 Verbindung wird ohne diese Datenbank aufgebaut.
+    * @param user     Der Sandbox-Benutzer, der nur Rechte auf
+    *                 {@code <datenbank>_sandbox_*} haben darf.
+    * @param password Das Passwort.
+    * @param poolSize Maximale Anzahl gleichzeitig genutzter Schemata.
+    */
+   public DdlSandbox(final String url, final String user,
+         final String password, final int poolSize) {
+      final String path = url.replaceFirst("\\?.*$", "");
+      final String database = path.substring(path.lastIndexOf('/') + 1);
+      // Der Sandbox-Benutzer darf die Datenbank selbst nicht öffnen
+      this.url = path.substring(0, path.lastIndexOf('/') + 1) + url
+         .substring(path.length());
+      this.user = user;
+      this.password = password;
+      final String base = database.isEmpty() ? "ermagent" : database;
+      for (int i = 1; i <= Math.max(1, poolSize); i++) {
+         unopened.add(base + "_sandbox_" + i);
+      }
+      qualifiedName = Pattern.compile("(?<![\\w$])`?(" + Pattern.quote(base)
+            + "(?:_sandbox_\\d+)?)`?\\s*\\.", Pattern.CASE_INSENSITIVE);
+      Runtime.getRuntime()
+         .addShutdownHook(new Thread(this::close));
+   }
+
+   /**
+    * Leiht ein freies Sandbox-Schema aus oder legt ein neues an, solange
+    * der Pool nicht voll ist; andernfalls wird gewartet.
+    *
+    * @return Das Sandbox-Schema.
+    *
+    * @throws SQLException         Falls das Schema nicht angelegt werden
+    *                              kann.
+    * @throws InterruptedException Beim Warten unterbrochen.
+    */
+   private Sandbox acquire() throws SQLException, InterruptedException {
+      Sandbox sandbox = idle.poll();
+      while (sandbox == null) {
+         final String schema = unopened.poll();
+         if (schema != null) {
+            try {
+               return open(schema);
+            } catch (final SQLException e) {
+               unopened.add(schema);
+               throw e;
+            }
+         }
+         // Kurz warten; ein verworfenes Schema wird dann neu geöffnet
+         sandbox = idle.poll(100, TimeUnit.MILLISECONDS);
+      }
+      if (!sandbox.connection()
+         .isValid(1)) {
+         closeQuietly(sandbox);
+         try {
+            return open(sandbox.schema());
+         } catch (final SQLException e) {
+            unopened.add(sandbox.schema());
+            throw e;
+         }
+      }
+      return sandbox;
+   }
+
+   /**
+    * Schließt alle freien Verbindungen. Die Schemata bleiben für den
+    * nächsten Start erhalten.
+    */
+   @Override
+   public void close() {
+      Sandbox sandbox;
+      while ((sandbox = idle.poll()) != null) {
+         closeQuietly(sandbox);
+      }
+   }
+
+   /**
+    * Schließt die Verbindung eines Sandbox-Schemas und ignoriert Fehler.
+    *
+    * @param sandbox Das Sandbox-Schema.
+    */
+   private void closeQuietly(final Sandbox sandbox) {
+      try {
+         sandbox.connection()
+            .close();
+      } catch (final SQLException e) {
+         logger.debug("Fehler beim Schließen der Sandbox {}.",
+               sandbox.schema(), e);
+      }
+   }
+
+   /**
+    * Führt eine Anweisung im Sandbox-Schema aus und zeichnet sie als
+    * JFR-Ereignis auf.
+    *
+    * @param connection Die Verbindung.
+    * @param sql        Die Anweisung.
+    *
+    * @throws SQLException Bei einem Fehler der Anweisung.
+    */
+   private void execute(final Connection connection, final String sql)
+         throws SQLException {
+      final JdbcQueryEvent event = JdbcQueryEvent.start("DdlSandbox.verify",
+            sql);
+      try (Statement statement = connection.createStatement()) {
+         statement.execute(sql);
+         event.finish();
+      } catch (final SQLException e) {
+         event.fail(e);
+         throw e;
+      }
+   }
+
+   /**
+    * Prüft, ob eine Anweisung die Sandbox verlassen würde: durch eine
+    * Anweisung wie {@code USE} oder {@code GRANT} oder durch einen Namen,
+    * der mit der Datenbank oder einem anderen Sandbox-Schema qualifiziert
+    * ist. Der Benutzer hat dort dieselben Rechte wie in der Sandbox.
+    *
+    * @param sql    Die Anweisung.
+    * @param schema Das eigene Sandbox-Schema.
+    *
+    * @return true, wenn die Anweisung nicht ausgeführt werden darf.
+    */
+   private boolean leavesSandbox(final String sql, final String schema) {
+      if (OUTSIDE_SANDBOX.matcher(sql)
+         .matches()) {
+         return true;
+      }
+      final Matcher matcher = qualifiedName.matcher(sql);
+      while (matcher.find()) {
+         if (!matcher.group(1)
+            .equalsIgnoreCase(schema)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Öffnet eine Verbindung und legt das Schema an, falls es noch nicht
+    * existiert.
+    *
+    * @param schema Der Name des Schemas.
+    *
+    * @return Das Sandbox-Schema.
+    *
+    * @throws SQLException Falls Verbindung oder Schema fehlschlagen.
+    */
+   private Sandbox open(final String schema) throws SQLException {
+      final Connection connection = DriverManager.getConnection(url, user,
+            password);
+      try {
+         execute(connection, "CREATE DATABASE IF NOT EXISTS `" + schema
+               + "` CHARACTER SET utf8mb4");
+         connection.setCatalog(schema);
+      } catch (final SQLException e) {
+         connection.close();
+         throw new SQLException("Das Sandbox-Schema " + schema
+               + " kann nicht angelegt werden (Rechte aus create_db.sql?): "
+               + e.getMessage(), e);
+      }
+      logger.debug("Sandbox-Schema {} geöffnet.", schema);
+      return new Sandbox(schema, connection);
+   }
+
+   /**
+    * Gibt ein Sandbox-Schema zurück in den Pool, nachdem die Sitzung
+    * zurückgesetzt (Sitzungsvariablen, temporäre Tabellen, offene
+    * Transaktion) und alle Objekte des Schemas entfernt wurden. Scheitert
+    * das Aufräumen, wird die Verbindung geschlossen und das Schema beim
+    * nächsten Bedarf neu geöffnet.
+    *
+    * @param sandbox Das Sandbox-Schema.
+    */
+   private void release(final Sandbox sandbox) {
+      final Connection connection = sandbox.connection();
+      try {
+         connection.unwrap(org.mariadb.jdbc.Connection.class)
+            .reset();
+         execute(connection, "USE `" + sandbox.schema() + "`");
+         final List<String> drops = new ArrayList<>();
+         try (PreparedStatement query = connection.prepareStatement(
+               SCHEMA_OBJECTS)) {
+            for (int i = 1; i <= 3; i++) {
+               query.setString(i, sandbox.schema());
+            }
+            try (ResultSet rs = query.executeQuery()) {
+               while (rs.next()) {
+                  drops.add(drop(rs.getString(1), rs.getString(2)));
+               }
+            }
+         }
+         if (!drops.isEmpty()) {
+            execute(connection, "SET FOREIGN_KEY_CHECKS = 0");
+            for (final String drop : drops) {
+               execute(connection, drop);
+            }
+            execute(connection, "SET FOREIGN_KEY_CHECKS = 1");
+         }
+         idle.add(sandbox);
+      } catch (final SQLException e) {
+         logger.warn("Sandbox {} konnte nicht geleert werden.",
+               sandbox.schema(), e);
+         closeQuietly(sandbox);
+         unopened.add(sandbox.schema());
+      }
+   }
+
+   /**
+    * Führt ein DDL-Skript in einem leeren Sandbox-Schema aus. Nach einer
+    * fehlgeschlagenen Anweisung wird mit der nächsten fortgefahren, damit
+    * alle Fehler auf einmal gemeldet werden.
+    *
+    * @param script Das SQL-Skript.
+    *
+    * @return Das Ergebnis mit den fehlgeschlagenen Anweisungen.
+    *
+    * @throws SQLException Falls keine Sandbox verfügbar ist.
+    */
+   public Result verify(final String script) throws SQLException {
+      final List<SqlScript.Statement> statements = SqlScript.split(script);
+      final List<Failure> failures = new ArrayList<>();
+      final List<SqlScript.Statement> skipped = new ArrayList<>();
+      final Sandbox sandbox;
+      try {
+         sandbox = acquire();
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new SQLException("Warten auf eine freie Sandbox unterbrochen.",
+               e);
+      }
+      final long start = System.nanoTime();
+      int executed = 0;
+      try {
+         for (final SqlScript.Statement statement : statements) {
+            if (leavesSandbox(statement.sql(), sandbox.schema())) {
+               skipped.add(statement);
+               continue;
+            }
+            executed++;
+            try {
+               execute(sandbox.connection(), statement.sql());
+            } catch (final SQLException e) {
+               failures.add(new Failure(
+                     errorLine(statement, e.getMessage()), statement.sql(),
+                     e.getMessage()));
+            }
+         }
+      } finally {
+         release(sandbox);
+      }
+      return new Result(executed, failures, skipped,
+            (System.nanoTime() - start) / 1_000_000);
+   }
+}
@@ -0,0 +1,146 @@
+package de.gc.agent.erm.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zerlegt ein SQL-Skript in einzelne Anweisungen mit ihrer Zeilennummer.
+ *
+ * Semikolons in Zeichenketten ({@code '…'}, {@code "…"}), Bezeichnern
+ * ({@code `…`}) sowie Zeilen- ({@code --}, {@code #}) und
+ * Blockkommentaren trennen keine Anweisungen. Kommentare vor einer
+ * Anweisung gehören nicht zu ihr, damit die Zeilennummer auf das erste
+ * Schlüsselwort zeigt.
+ */
+public final class SqlScript {
+
+   /**
+    * Eine Anweisung des Skripts.
+    *
+    * @param sql  Der Text der Anweisung ohne abschließendes Semikolon.
+    * @param line Die Zeile (ab 1), in der die Anweisung beginnt.
+    */
+   public record Statement(String sql, int line) {
+   }
+
+   /**
+    * Gibt zurück, ob an der Position ein Zeilenkommentar beginnt
+    * ({@code --} mit folgendem Leerraum oder {@code #}).
+    *
+    * @param script Das Skript.
+    * @param i      Die Position.
+    *
+    * @return true bei einem Zeilenkommentar.
+    */
+   private static boolean isLineComment(final String script, final int i) {
+      final char c = script.charAt(i);
+      if (c == '#') {
+         return true;
+      }
+      return c == '-' && i + 1 < script.length()
+            && script.charAt(i + 1) == '-'
+            && (i + 2 == script.length()
+                  || Character.isWhitespace(script.charAt(i + 2)));
+   }
+
+   /**
+    * Zerlegt ein Skript in Anweisungen. Leere Anweisungen werden
+    * übersprungen, eine letzte Anweisung ohne Semikolon wird übernommen.
+    *
+    * @param script Das SQL-Skript (kann null sein).
+    *
+    * @return Die Anweisungen in Skriptreihenfolge.
+    */
+   public static List<Statement> split(final String script) {
+      final List<Statement> result = new ArrayList<>();
+      if (script == null) {
+         return result;
+      }
+      final StringBuilder current = new StringBuilder();
+      int line = 1;
+      int startLine = 0;
+      char quote = 0;
+      boolean lineComment = false;
+      boolean blockComment = false;
+
+      for (int i = 0; i < script.length(); i++) {
+         final char c = script.charAt(i);
+         if (c == '\n') {
+            line++;
+         }
+         if (lineComment) {
+            lineComment = c != '\n';
+            if (startLine > 0) {
+               current.append(c);
+            }
+            continue;
+         }
+         if (blockComment) {
+            if (c == '*' && i + 1 < script.length()
+                  && script.charAt(i + 1) == '/') {
+               blockComment = false;
+               if (startLine > 0) {
+                  current.append("*/");
+               }
+               i++;
+            } else if (startLine > 0) {
+               current.append(c);
+            }
+            continue;
+         }
+         if (quote != 0) {
+            current.append(c);
+            if (c == '\\' && quote != '`' && i + 1 < script.length()) {
+               current.append(script.charAt(++i));
+               if (script.charAt(i) == '\n') {
+                  line++;
+               }
+            } else if (c == quote) {
+               quote = 0;
+            }
+            continue;
+         }
+
+         if (isLineComment(script, i)) {
+            lineComment = true;
+            if (startLine > 0) {
+               current.append(c);
+            }
+         } else if (c == '/' && i + 1 < script.length()
+               && script.charAt(i + 1) == '*') {
+            blockComment = true;
+            if (startLine > 0) {
+               current.append("/*");
+            }
+            i++;
+         } else if (c == ';') {
+            if (startLine > 0) {
+               result.add(new Statement(current.toString()
+                  .trim(), startLine));
+            }
+            current.setLength(0);
+            startLine = 0;
+         } else if (startLine > 0 || !Character.isWhitespace(c)) {
+            if (startLine == 0) {
+               startLine = line;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+               quote = c;
+            }
+            current.append(c);
+         }
+      }
+      if (startLine > 0 && !current.toString()
+         .isBlank()) {
+         result.add(new Statement(current.toString()
+            .trim(), startLine));
+      }
+      return result;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private SqlScript() {
+   }
+}
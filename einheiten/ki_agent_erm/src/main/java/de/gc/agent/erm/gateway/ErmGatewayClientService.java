@@ -0,0 +1,329 @@
+package de.gc.agent.erm.gateway;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.model.tutor.TutorResponse;
+import de.gc.agent.erm.service.ErmGeneratorService;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Client-Variante des {@link ErmGeneratorService}, die alle KI-Aufrufe
+ * an ein {@link ErmGatewayServer} im Klassenraum weiterleitet.
+ *
+ * Rendern, Exportieren sowie Speichern und Laden bleiben lokal; nur die
+ * Analyse, das Tabellenmodell, das SQL-DDL und alle Tutor-Antworten
+ * werden über HTTP vom Gateway geholt. Die Benutzeroberfläche bleibt
+ * dadurch unverändert.
+ */
+public class ErmGatewayClientService extends ErmGeneratorService {
+
+   /**
+    * Platzhalter-Modell für die Basisklasse. Im Client-Modus werden keine
+    * lokalen KI-Modelle angesprochen, da alle KI-Methoden überschrieben
+    * sind.
+    */
+   private static final ChatModel NO_LOCAL_MODEL = new ChatModel() {
+      @Override
+      public ChatResponse doChat(final ChatRequest request) {
+         throw new IllegalStateException(
+               "Im Gateway-Client-Modus werden keine lokalen KI-Modelle verwendet.");
+      }
+   };
+
+   /**
+    * Ermittelt eine Standard-Kennung für diesen Rechner.
+    *
+    * @return Benutzername und Rechnername.
+    */
+   private static String defaultClientId() {
+      String hostName;
+      try {
+         hostName = InetAddress.getLocalHost()
+            .getHostName();
+      } catch (final IOException e) {
+         hostName = "unbekannt";
+      }
+      return System.getProperty("user.name") + "@" + hostName;
+   }
+
+   /** Basis-URL des Gateways (z.B. http://lehrer-pc:8086). */
+   private final URI baseUri;
+
+   /** Kennung dieses Clients für die faire Warteschlange. */
+   private final String clientId;
+
+   /** Wiederverwendeter HTTP-Client mit Keep-Alive-Verbindungen. */
+   private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+
+   /** Jackson-Objekt-Mapper für (De-)Serialisierung. */
+   private final ObjectMapper objectMapper = new JsonMapper();
+
+   /**
+    * Erstellt einen Client für das angegebene Gateway.
+    *
+    * @param baseUri Basis-URL des Gateways.
+    */
+   public ErmGatewayClientService(final URI baseUri) {
+      super(NO_LOCAL_MODEL, NO_LOCAL_MODEL, NO_LOCAL_MODEL, NO_LOCAL_MODEL);
+      this.baseUri = baseUri;
+      this.clientId = defaultClientId();
+   }
+
+   /**
+    * Lässt die Beschreibung vom Gateway analysieren.
+    *
+    * @param description Frei formulierter Beschreibungstext.
+    *
+    * @return Liste von Relationship-Objekten.
+    */
+   @Override
+   public List<Relationship> analyzeDescription(final String description) {
+      return post("/api/analyze", Map.of("description", description),
+            objectMapper.getTypeFactory()
+               .constructType(new TypeReference<List<Relationship>>() {
+               }));
+   }
+
+   /**
+    * Lässt das SQL-DDL-Skript vom Gateway erzeugen.
+    *
+    * @param logicalModelPuml PlantUML-Code für das logische Modell.
+    *
+    * @return SQL-DDL als String.
+    */
+   @Override
+   public String generateSqlDdl(final String logicalModelPuml) {
+      return postForText("/api/sql-ddl",
+            Map.of("logicalPlantUml", logicalModelPuml), "sql");
+   }
+
+   /**
+    * Lässt das logische Tabellenmodell vom Gateway erzeugen. Das
+    * Rendern erfolgt weiterhin lokal.
+    *
+    * @param ermPuml PlantUML-Quelltext des konzeptionellen Modells.
+    *
+    * @return PlantUML-Code des logischen Tabellenmodells.
+    */
+   @Override
+   public String generateTableModelPlantUml(final String ermPuml) {
+      return postForText("/api/table-model", Map.of("ermPlantUml", ermPuml),
+            "plantUml");
+   }
+
+   /**
+    * Holt die Antwort des Tutors "erm-diagram" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getErmDiagramTutorResponse(final String context,
+         final String question) {
+      return tutor("erm-diagram", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "erm-plantuml" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getErmPlantUmlTutorResponse(final String context,
+         final String question) {
+      return tutor("erm-plantuml", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "information" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getInformationTutorResponse(final String context,
+         final String question) {
+      return tutor("information", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "logical-model-plantuml" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getLogicalModelPlantUmlTutorResponse(
+         final String context, final String question) {
+      return tutor("logical-model-plantuml", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "logical-model" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getLogicalModelTutorResponse(final String context,
+         final String question) {
+      return tutor("logical-model", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "sql-ddl" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getSqlDdlTutorResponse(final String context,
+         final String question) {
+      return tutor("sql-ddl", context, question);
+   }
+
+   /**
+    * Holt die Antwort des Tutors "relationship" vom Gateway.
+    *
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return TutorResponse mit Erklärung und Vorschlägen.
+    */
+   @Override
+   public TutorResponse getTutorResponse(final String context,
+         final String question) {
+      return tutor("relationship", context, question);
+   }
+
+   /**
+    * Sendet eine JSON-Anfrage an das Gateway und liest die Antwort. Die
+    * Dauer wird im Timer "gateway &lt;Pfad&gt;" gemessen.
+    *
+    * @param <T>          Typ der Antwort.
+    * @param path         Pfad des Endpunkts.
+    * @param body         Felder der Anfrage.
+    * @param responseType Erwarteter Antworttyp.
+    *
+    * @return Die deserialisierte Antwort.
+    *
+    * @throws IllegalStateException Falls das Gateway einen Fehler meldet.
+    * @throws UncheckedIOException  Bei Verbindungsfehlern.
+    */
+   private <T> T post(final String path, final Map<String, String> body,
+         final JavaType responseType) {
+      return MetricsRegistry.global()
+         .time("gateway " + path, () -> send(path, body, responseType));
+   }
+
+   /**
+    * Sendet eine Anfrage und liefert ein einzelnes Textfeld der Antwort.
+    *
+    * @param path  Pfad des Endpunkts.
+    * @param body  Felder der Anfrage.
+    * @param field Name des Antwortfelds.
+    *
+    * @return Der Inhalt des Antwortfelds.
+    */
+   private String postForText(final String path,
+         final Map<String, String> body, final String field) {
+      final Map<String, String> result = post(path, body,
+            objectMapper.getTypeFactory()
+               .constructMapType(Map.class, String.class, String.class));
+      return result.get(field);
+   }
+
+   /**
+    * Sendet eine Anfrage an das Gateway und liest die Antwort.
+    *
+    * @param <T>          Typ der Antwort.
+    * @param path         Pfad des Endpunkts.
+    * @param body         Felder der Anfrage.
+    * @param responseType Typ der Antwort für Jackson.
+    *
+    * @return Die Antwort.
+    *
+    * @throws IllegalStateException Bei Fehlerantworten des Gateways.
+    * @throws UncheckedIOException  Falls das Gateway nicht erreichbar ist.
+    */
+   private <T> T send(final String path, final Map<String, String> body,
+         final JavaType responseType) {
+      try {
+         final HttpRequest request = HttpRequest.newBuilder(baseUri
+            .resolve(path))
+            .header("Content-Type", "application/json; charset=utf-8")
+            .header(ErmGatewayServer.CLIENT_ID_HEADER, clientId)
+            .POST(HttpRequest.BodyPublishers
+               .ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+         final HttpResponse<byte[]> response = httpClient.send(request,
+               HttpResponse.BodyHandlers.ofByteArray());
+         if (response.statusCode() != 200) {
+            final Map<String, String> error = objectMapper.readValue(
+                  response.body(), new TypeReference<Map<String, String>>() {
+                  });
+            throw new IllegalStateException("Gateway-Fehler ("
+                  + response.statusCode() + "): " + error.get("error"));
+         }
+         return objectMapper.readValue(response.body(), responseType);
+      } catch (final IOException e) {
+         throw new UncheckedIOException(
+               "Das Gateway " + baseUri + " ist nicht erreichbar.", e);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IllegalStateException("Anfrage an das Gateway abgebrochen.",
+               e);
+      }
+   }
+
+   /**
+    * Holt eine Tutor-Antwort vom Gateway.
+    *
+    * @param kind     Art des Tutors (Pfadsegment der API).
+    * @param context  Kontextinformation.
+    * @param question Schülerfrage.
+    *
+    * @return Die Tutor-Antwort.
+    */
+   private TutorResponse tutor(final String kind, final String context,
+         final String question) {
+      return post("/api/tutor/" + kind,
+            Map.of("context", context, "question", question),
+            objectMapper.getTypeFactory()
+               .constructType(TutorResponse.class));
+   }
+}
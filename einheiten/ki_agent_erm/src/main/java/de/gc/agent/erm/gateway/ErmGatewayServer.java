@@ -0,0 +1,361 @@
+package de.gc.agent.erm.gateway;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.tutor.TutorResponse;
+import de.gc.agent.erm.service.ErmGeneratorService;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Lokales HTTP-Gateway für den Klassenraum, das einen gemeinsamen
+ * {@link ErmGeneratorService} über eine kleine JSON-API bereitstellt.
+ *
+ * Alle Schülerrechner sprechen nicht mehr einzeln mit dem KI-Anbieter,
+ * sondern mit diesem Gateway. Dadurch teilen sich alle Clients einen
+ * Antwort-Cache, eine faire Warteschlange mit begrenzter Parallelität
+ * und die warmen Verbindungen zum Anbieter. Jede Anfrage läuft auf
+ * einem eigenen virtuellen Thread.
+ *
+ * Endpunkte (alle Anfragen und Antworten als JSON):
+ * <ul>
+ * <li>{@code POST /api/analyze} mit {@code description}</li>
+ * <li>{@code POST /api/table-model} mit {@code ermPlantUml}</li>
+ * <li>{@code POST /api/sql-ddl} mit {@code logicalPlantUml}</li>
+ * <li>{@code POST /api/tutor/<art>} mit {@code context} und
+ * {@code question}</li>
+ * <li>{@code GET /api/metrics} und {@code GET /api/health}</li>
+ * </ul>
+ *
+ * Ersatzantworten für unbrauchbare KI-Antworten (eine leere Analyse, ein
+ * leerer Code, die Fehlermeldung eines Tutors) werden nicht in den Cache
+ * übernommen, damit eine erneute Anfrage den Anbieter wieder erreicht.
+ */
+@Command(name = "ERM-Gateway", version = "1.0", mixinStandardHelpOptions = true, description = "Startet das lokale KI-Gateway für den ERM-Editor.")
+public class ErmGatewayServer implements Callable<Integer> {
+
+   /**
+    * Eine Operation des Gateways auf Basis der JSON-Felder der Anfrage.
+    *
+    * @param <T> Typ des Ergebnisses.
+    */
+   @FunctionalInterface
+   private interface Operation<T> {
+
+      /**
+       * Führt die Operation aus.
+       *
+       * @param body Die Felder der Anfrage.
+       *
+       * @return Das als JSON zu serialisierende Ergebnis.
+       *
+       * @throws Exception Bei Fehlern in der Verarbeitung.
+       */
+      T run(Map<String, String> body) throws Exception;
+   }
+
+   /** HTTP-Header, über den sich ein Client identifiziert. */
+   public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+   /**
+    * Hauptmethode: Startet Picocli und anschließend das Gateway.
+    *
+    * @param args Kommandozeilenargumente.
+    */
+   public static void main(final String[] args) {
+      final int exitCode = new CommandLine(new ErmGatewayServer())
+         .execute(args);
+      System.exit(exitCode);
+   }
+
+   @Parameters(index = "0", description = "Der Konfigurations-Präfix (z.B. 'ermsystem.gemini') aus der Properties-Datei.")
+   private String configPrefix;
+
+   @Parameters(index = "1", description = "Pfad zur Properties-Datei.")
+   private File configFile;
+
+   @Option(names = "--host", defaultValue = "127.0.0.1", description = "Adresse, an die das Gateway gebunden wird (für den Klassenraum z.B. 0.0.0.0).")
+   private String host;
+
+   @Option(names = "--port", defaultValue = "8086", description = "TCP-Port des Gateways.")
+   private int port;
+
+   @Option(names = "--max-concurrent", defaultValue = "4", description = "Maximale Anzahl gleichzeitiger Anfragen an den KI-Anbieter.")
+   private int maxConcurrent;
+
+   @Option(names = "--cache-size", defaultValue = "500", description = "Maximale Anzahl zwischengespeicherter Antworten (0 = kein Cache).")
+   private int cacheSize;
+
+   /** Jackson-Objekt-Mapper für (De-)Serialisierung. */
+   private final ObjectMapper objectMapper = new JsonMapper();
+
+   /** Der gemeinsam genutzte Service. */
+   private ErmGeneratorService service;
+
+   /** Faire Verteilung der Anbieter-Aufrufe auf die Clients. */
+   private FairRequestScheduler scheduler;
+
+   /** Gemeinsamer Antwort-Cache. */
+   private GatewayResponseCache cache;
+
+   /** Laufzeitkennzahlen. */
+   private final GatewayMetrics metrics = new GatewayMetrics();
+
+   /**
+    * Lädt die Konfiguration, erstellt den Service und startet das
+    * Gateway. Die Methode blockiert, bis die VM beendet wird.
+    *
+    * @return Exit-Code (0: Erfolg, 1: Fehler)
+    *
+    * @throws Exception Bei Initialisierungsschwierigkeiten.
+    */
+   @Override
+   public Integer call() throws Exception {
+      final Properties configProps;
+      try {
+         configProps = KiModelFactory.loadConfig(configFile);
+      } catch (final IOException e) {
+         System.err.println(
+               "Fehler beim Laden der Konfigurationsdatei: " + e.getMessage());
+         return 1;
+      }
+
+      System.out
+         .println("Lade KI-Modelle mit Präfix '" + configPrefix + "'...");
+      final ErmGeneratorService configured = ErmGeneratorService
+         .fromConfig(configProps, configPrefix);
+      final HttpServer server = start(configured);
+      System.out.println("ERM-Gateway läuft auf http://" + host + ":"
+            + server.getAddress()
+               .getPort());
+
+      final CountDownLatch stopped = new CountDownLatch(1);
+      Runtime.getRuntime()
+         .addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            stopped.countDown();
+         }));
+      stopped.await();
+      return 0;
+   }
+
+   /**
+    * Ermittelt die Client-Kennung einer Anfrage.
+    *
+    * @param exchange Die HTTP-Anfrage.
+    *
+    * @return Die Kennung aus dem Header oder die Adresse des Clients.
+    */
+   private String clientId(final HttpExchange exchange) {
+      final String header = exchange.getRequestHeaders()
+         .getFirst(CLIENT_ID_HEADER);
+      if (header != null && !header.isBlank()) {
+         return header;
+      }
+      return exchange.getRemoteAddress()
+         .getAddress()
+         .getHostAddress();
+   }
+
+   /**
+    * Verarbeitet eine Anfrage an einen KI-Endpunkt: Cache prüfen, in der
+    * fairen Warteschlange einreihen, Operation ausführen und Kennzahlen
+    * erfassen.
+    *
+    * @param <T>       Typ des Ergebnisses.
+    * @param exchange  Die HTTP-Anfrage.
+    * @param endpoint  Name des Endpunkts für Cache und Kennzahlen.
+    * @param keyFields Felder der Anfrage, die den Cache-Schlüssel bilden.
+    * @param operation Die auszuführende Operation.
+    * @param cacheable Prüft, ob ein Ergebnis mit anderen Clients geteilt
+    *                  werden darf; false für Ersatzantworten.
+    *
+    * @throws IOException Bei Fehlern in der HTTP-Kommunikation.
+    */
+   private <T> void handle(final HttpExchange exchange,
+         final String endpoint, final List<String> keyFields,
+         final Operation<T> operation, final Predicate<? super T> cacheable)
+         throws IOException {
+      final long started = System.nanoTime();
+      final String client = clientId(exchange);
+      final long[] waited = { 0 };
+      final boolean[] hit = { false };
+      boolean error = false;
+      try (exchange) {
+         if (!"POST".equals(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, Map.of("error", "Nur POST erlaubt."));
+            return;
+         }
+         final Map<String, String> body;
+         try (InputStream in = exchange.getRequestBody()) {
+            body = objectMapper.readValue(in,
+                  new TypeReference<Map<String, String>>() {
+                  });
+         } catch (final IOException e) {
+            error = true;
+            sendJson(exchange, 400,
+                  Map.of("error", "Ungültiges JSON: " + e.getMessage()));
+            return;
+         }
+         final String[] keyParts = keyFields.stream()
+            .map(body::get)
+            .toArray(String[]::new);
+         try {
+            final T result = cache.get(
+                  GatewayResponseCache.key(endpoint, keyParts),
+                  () -> scheduler.execute(client, () -> operation.run(body),
+                        waited),
+                  cacheable, hit);
+            exchange.getResponseHeaders()
+               .set("X-Cache", hit[0] ? "HIT" : "MISS");
+            MetricsRegistry.global()
+               .counter(hit[0] ? "gateway-cache-treffer"
+                     : "gateway-cache-fehlgriffe")
+               .increment();
+            sendJson(exchange, 200, result);
+         } catch (final Exception e) {
+            error = true;
+            e.printStackTrace();
+            sendJson(exchange, 502, Map.of("error",
+                  e.getMessage() == null ? e.toString() : e.getMessage()));
+         }
+      } finally {
+         metrics.record(endpoint, client, System.nanoTime() - started,
+               waited[0], hit[0], error);
+      }
+   }
+
+   /**
+    * Sendet ein Objekt als JSON-Antwort.
+    *
+    * @param exchange Die HTTP-Anfrage.
+    * @param status   HTTP-Statuscode.
+    * @param payload  Das zu serialisierende Objekt.
+    *
+    * @throws IOException Bei Fehlern in der HTTP-Kommunikation.
+    */
+   private void sendJson(final HttpExchange exchange, final int status,
+         final Object payload) throws IOException {
+      final byte[] bytes = objectMapper.writeValueAsBytes(payload);
+      exchange.getResponseHeaders()
+         .set("Content-Type", "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(status, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+         out.write(bytes);
+      }
+   }
+
+   /**
+    * Startet das Gateway für einen bereits erstellten Service. Nützlich,
+    * um das Gateway eingebettet (z.B. mit einem Stub-Modell) zu betreiben.
+    *
+    * @param ermService Der bereitzustellende Service.
+    *
+    * @return Der laufende HTTP-Server.
+    *
+    * @throws IOException Falls der Port nicht gebunden werden kann.
+    */
+   public HttpServer start(final ErmGeneratorService ermService)
+         throws IOException {
+      this.service = ermService;
+      this.scheduler = new FairRequestScheduler(
+            maxConcurrent > 0 ? maxConcurrent : 4);
+      this.cache = new GatewayResponseCache(Math.max(0, cacheSize));
+
+      final HttpServer server = HttpServer.create(
+            new InetSocketAddress(host == null ? "127.0.0.1" : host, port), 0);
+      server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+
+      // Eine leere Analyse heißt: die Antwort war nicht lesbar
+      server.createContext("/api/analyze",
+            exchange -> handle(exchange, "analyze", List.of("description"),
+                  body -> service.analyzeDescription(body.get("description")),
+                  relationships -> !relationships.isEmpty()));
+      server.createContext("/api/table-model",
+            exchange -> handle(exchange, "table-model", List.of("ermPlantUml"),
+                  body -> Map.of("plantUml", service
+                     .generateTableModelPlantUml(body.get("ermPlantUml"))),
+                  result -> !result.get("plantUml")
+                     .isBlank()));
+      server.createContext("/api/sql-ddl",
+            exchange -> handle(exchange, "sql-ddl", List.of("logicalPlantUml"),
+                  body -> Map.of("sql",
+                        service.generateSqlDdl(body.get("logicalPlantUml"))),
+                  result -> !result.get("sql")
+                     .isBlank()));
+
+      final Map<String, BiFunction<String, String, TutorResponse>> tutors = tutors();
+      server.createContext("/api/tutor/", exchange -> {
+         final String kind = exchange.getRequestURI()
+            .getPath()
+            .substring("/api/tutor/".length());
+         final BiFunction<String, String, TutorResponse> tutor = tutors
+            .get(kind);
+         if (tutor == null) {
+            try (exchange) {
+               sendJson(exchange, 404,
+                     Map.of("error", "Unbekannter Tutor: " + kind));
+            }
+            return;
+         }
+         handle(exchange, "tutor/" + kind, List.of("context", "question"),
+               body -> tutor.apply(body.get("context"), body.get("question")),
+               response -> !ErmGeneratorService
+                  .isUnreadableTutorResponse(response));
+      });
+
+      server.createContext("/api/metrics", exchange -> {
+         try (exchange) {
+            sendJson(exchange, 200, metrics.snapshot(scheduler, cache));
+         }
+      });
+      server.createContext("/api/health", exchange -> {
+         try (exchange) {
+            sendJson(exchange, 200, Map.of("status", "UP"));
+         }
+      });
+      server.start();
+      return server;
+   }
+
+   /**
+    * Ordnet den Tutor-Arten der API die passenden Service-Methoden zu.
+    *
+    * @return Tutor-Art auf Service-Methode.
+    */
+   private Map<String, BiFunction<String, String, TutorResponse>> tutors() {
+      final Map<String, BiFunction<String, String, TutorResponse>> tutors = new LinkedHashMap<>();
+      tutors.put("relationship", service::getTutorResponse);
+      tutors.put("erm-diagram", service::getErmDiagramTutorResponse);
+      tutors.put("erm-plantuml", service::getErmPlantUmlTutorResponse);
+      tutors.put("logical-model", service::getLogicalModelTutorResponse);
+      tutors.put("logical-model-plantuml",
+            service::getLogicalModelPlantUmlTutorResponse);
+      tutors.put("sql-ddl", service::getSqlDdlTutorResponse);
+      tutors.put("information", service::getInformationTutorResponse);
+      return tutors;
+   }
+}
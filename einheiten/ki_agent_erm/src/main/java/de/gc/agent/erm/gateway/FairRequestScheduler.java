@@ -0,0 +1,155 @@
+package de.gc.agent.erm.gateway;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Verteilt eine begrenzte Anzahl gleichzeitiger KI-Anfragen fair auf
+ * alle Clients des Gateways.
+ *
+ * Jeder Client erhält eine eigene Warteschlange. Freie Plätze werden
+ * reihum (Round-Robin) an die Clients mit wartenden Anfragen vergeben,
+ * sodass ein einzelner Schülerrechner mit vielen Anfragen die anderen
+ * nicht ausbremst. Die Anfrage selbst läuft auf dem aufrufenden
+ * (virtuellen) Thread, der bis zur Freigabe blockiert.
+ */
+public class FairRequestScheduler {
+
+   /**
+    * Ein wartender Auftrag eines Clients.
+    */
+   private static final class Ticket {
+
+      /** Wird geöffnet, sobald der Auftrag ausgeführt werden darf. */
+      private final CountDownLatch granted = new CountDownLatch(1);
+   }
+
+   /** Maximale Anzahl gleichzeitig laufender Aufträge. */
+   private final int maxConcurrent;
+
+   /** Warteschlangen je Client-Kennung. */
+   private final Map<String, Deque<Ticket>> queues = new HashMap<>();
+
+   /** Reihenfolge der Clients mit wartenden Aufträgen. */
+   private final Deque<String> rotation = new ArrayDeque<>();
+
+   /** Anzahl aktuell laufender Aufträge. */
+   private int running;
+
+   /** Anzahl aktuell wartender Aufträge. */
+   private int waiting;
+
+   /**
+    * Erzeugt einen Scheduler mit fester Obergrenze paralleler Aufträge.
+    *
+    * @param maxConcurrent Maximale Anzahl gleichzeitiger Aufträge.
+    */
+   public FairRequestScheduler(final int maxConcurrent) {
+      if (maxConcurrent < 1) {
+         throw new IllegalArgumentException(
+               "maxConcurrent muss mindestens 1 sein: " + maxConcurrent);
+      }
+      this.maxConcurrent = maxConcurrent;
+   }
+
+   /**
+    * Vergibt freie Plätze reihum an wartende Clients. Muss unter der
+    * Sperre des Schedulers aufgerufen werden.
+    */
+   private void dispatch() {
+      while (running < maxConcurrent && !rotation.isEmpty()) {
+         final String clientId = rotation.poll();
+         final Deque<Ticket> queue = queues.get(clientId);
+         final Ticket ticket = queue.poll();
+         if (queue.isEmpty()) {
+            queues.remove(clientId);
+         } else {
+            rotation.add(clientId);
+         }
+         running++;
+         waiting--;
+         ticket.granted.countDown();
+      }
+   }
+
+   /**
+    * Führt einen Auftrag aus, sobald der Client an der Reihe ist.
+    *
+    * @param <T>      Ergebnistyp des Auftrags.
+    * @param clientId Kennung des anfragenden Clients.
+    * @param work     Die auszuführende Arbeit.
+    * @param waitedNs Ein-Element-Array, in das die Wartezeit in
+    *                 Nanosekunden geschrieben wird (darf null sein).
+    *
+    * @return Das Ergebnis des Auftrags.
+    *
+    * @throws Exception Falls der Auftrag fehlschlägt oder der Thread
+    *                   unterbrochen wird.
+    */
+   public <T> T execute(final String clientId, final Callable<T> work,
+         final long[] waitedNs) throws Exception {
+      final long enqueued = System.nanoTime();
+      final Ticket ticket = new Ticket();
+      synchronized (this) {
+         final Deque<Ticket> queue = queues.computeIfAbsent(clientId,
+               id -> new ArrayDeque<>());
+         if (queue.isEmpty()) {
+            rotation.add(clientId);
+         }
+         queue.add(ticket);
+         waiting++;
+         dispatch();
+      }
+      try {
+         ticket.granted.await();
+      } catch (final InterruptedException e) {
+         synchronized (this) {
+            if (ticket.granted.getCount() > 0) {
+               // Noch nicht gestartet: aus der Warteschlange entfernen.
+               final Deque<Ticket> queue = queues.get(clientId);
+               if (queue != null && queue.remove(ticket)) {
+                  waiting--;
+                  if (queue.isEmpty()) {
+                     queues.remove(clientId);
+                     rotation.remove(clientId);
+                  }
+               }
+               throw e;
+            }
+         }
+      }
+      if (waitedNs != null) {
+         waitedNs[0] = System.nanoTime() - enqueued;
+      }
+      try {
+         return work.call();
+      } finally {
+         synchronized (this) {
+            running--;
+            dispatch();
+         }
+      }
+   }
+
+   /**
+    * Liefert die Anzahl aktuell laufender Aufträge.
+    *
+    * @return Laufende Aufträge.
+    */
+   public synchronized int getRunning() {
+      return running;
+   }
+
+   /**
+    * Liefert die Anzahl aktuell wartender Aufträge.
+    *
+    * @return Wartende Aufträge.
+    */
+   public synchronized int getWaiting() {
+      return waiting;
+   }
+}
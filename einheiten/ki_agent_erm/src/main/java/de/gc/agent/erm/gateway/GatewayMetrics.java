@@ -0,0 +1,133 @@
+package de.gc.agent.erm.gateway;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Einfache Laufzeitkennzahlen des Gateways je Endpunkt und je Client.
+ *
+ * Gezählt werden Anfragen, Cache-Treffer und Fehler sowie die Summe und
+ * das Maximum der Antwort- und Wartezeiten. Die Werte werden über den
+ * Endpunkt {@code /api/metrics} als JSON ausgeliefert.
+ */
+public class GatewayMetrics {
+
+   /**
+    * Kennzahlen eines einzelnen Endpunkts.
+    */
+   private static final class EndpointStats {
+
+      /** Anzahl Anfragen. */
+      private final LongAdder requests = new LongAdder();
+
+      /** Anzahl Anfragen, die aus dem Cache beantwortet wurden. */
+      private final LongAdder cacheHits = new LongAdder();
+
+      /** Anzahl fehlgeschlagener Anfragen. */
+      private final LongAdder errors = new LongAdder();
+
+      /** Summe der Antwortzeiten in Nanosekunden. */
+      private final LongAdder latencyNs = new LongAdder();
+
+      /** Summe der Wartezeiten in der Fair-Queue in Nanosekunden. */
+      private final LongAdder queueWaitNs = new LongAdder();
+
+      /** Größte Antwortzeit in Nanosekunden. */
+      private volatile long maxLatencyNs;
+   }
+
+   /**
+    * Rechnet Nanosekunden in Millisekunden mit zwei Nachkommastellen um.
+    *
+    * @param nanos Nanosekunden.
+    *
+    * @return Millisekunden.
+    */
+   private static double toMillis(final double nanos) {
+      return Math.round(nanos / 10_000.0) / 100.0;
+   }
+
+   /** Kennzahlen je Endpunkt. */
+   private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+   /** Anzahl Anfragen je Client-Kennung. */
+   private final Map<String, LongAdder> clients = new ConcurrentHashMap<>();
+
+   /** Startzeitpunkt des Gateways. */
+   private final long startedAt = System.currentTimeMillis();
+
+   /**
+    * Erfasst eine abgeschlossene Anfrage.
+    *
+    * @param endpoint    Name des Endpunkts.
+    * @param clientId    Kennung des Clients.
+    * @param latencyNs   Gesamte Antwortzeit in Nanosekunden.
+    * @param queueWaitNs Wartezeit in der Fair-Queue in Nanosekunden.
+    * @param cacheHit    Ob die Antwort aus dem Cache kam.
+    * @param error       Ob die Anfrage fehlgeschlagen ist.
+    */
+   public void record(final String endpoint, final String clientId,
+         final long latencyNs, final long queueWaitNs, final boolean cacheHit,
+         final boolean error) {
+      final EndpointStats stats = endpoints.computeIfAbsent(endpoint,
+            e -> new EndpointStats());
+      stats.requests.increment();
+      stats.latencyNs.add(latencyNs);
+      stats.queueWaitNs.add(queueWaitNs);
+      if (cacheHit) {
+         stats.cacheHits.increment();
+      }
+      if (error) {
+         stats.errors.increment();
+      }
+      synchronized (stats) {
+         if (latencyNs > stats.maxLatencyNs) {
+            stats.maxLatencyNs = latencyNs;
+         }
+      }
+      clients.computeIfAbsent(clientId, c -> new LongAdder())
+         .increment();
+   }
+
+   /**
+    * Erstellt eine serialisierbare Momentaufnahme aller Kennzahlen.
+    *
+    * @param scheduler Der Scheduler für laufende und wartende Aufträge.
+    * @param cache     Der Antwort-Cache für die Füllmenge.
+    *
+    * @return Kennzahlen als verschachtelte Map.
+    */
+   public Map<String, Object> snapshot(final FairRequestScheduler scheduler,
+         final GatewayResponseCache cache) {
+      final Map<String, Object> result = new LinkedHashMap<>();
+      result.put("uptimeSeconds",
+            (System.currentTimeMillis() - startedAt) / 1000);
+      result.put("inFlight", scheduler.getRunning());
+      result.put("queued", scheduler.getWaiting());
+      result.put("cacheEntries", cache.size());
+
+      final Map<String, Object> endpointMap = new TreeMap<>();
+      endpoints.forEach((name, stats) -> {
+         final long count = stats.requests.sum();
+         final Map<String, Object> values = new LinkedHashMap<>();
+         values.put("requests", count);
+         values.put("cacheHits", stats.cacheHits.sum());
+         values.put("errors", stats.errors.sum());
+         values.put("avgLatencyMillis",
+               count == 0 ? 0 : toMillis((double) stats.latencyNs.sum() / count));
+         values.put("maxLatencyMillis", toMillis(stats.maxLatencyNs));
+         values.put("avgQueueWaitMillis", count == 0 ? 0
+               : toMillis((double) stats.queueWaitNs.sum() / count));
+         endpointMap.put(name, values);
+      });
+      result.put("endpoints", endpointMap);
+
+      final Map<String, Long> clientMap = new TreeMap<>();
+      clients.forEach((id, count) -> clientMap.put(id, count.sum()));
+      result.put("clients", clientMap);
+      return result;
+   }
+}
@@ -0,0 +1,182 @@
+package de.gc.agent.erm.gateway;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Gemeinsamer Antwort-Cache des Gateways für alle Clients.
+ *
+ * Antworten werden unter einem SHA-256-Schlüssel aus Operation und
+ * Eingabe abgelegt und nach dem LRU-Prinzip verdrängt. Zusätzlich
+ * werden gleichzeitige identische Anfragen zusammengefasst: Fragen zwei
+ * Schüler zur selben Zeit dasselbe (z.B. die Begrüßung eines Tutors),
+ * wird der KI-Anbieter nur einmal aufgerufen.
+ *
+ * Ersatzantworten für unbrauchbare KI-Antworten (z.B. eine leere Analyse)
+ * werden weder gespeichert noch an gleichzeitig wartende Anfragen
+ * weitergegeben; diese rufen den Anbieter dann selbst erneut auf.
+ */
+public class GatewayResponseCache {
+
+   /**
+    * Berechnet eine Antwort, falls sie nicht im Cache liegt.
+    *
+    * @param <T> Typ der Antwort.
+    */
+   @FunctionalInterface
+   public interface Loader<T> {
+
+      /**
+       * Berechnet die Antwort.
+       *
+       * @return Die berechnete Antwort.
+       *
+       * @throws Exception Bei Fehlern während der Berechnung.
+       */
+      T load() throws Exception;
+   }
+
+   /**
+    * Bildet einen Cache-Schlüssel aus Operation und Eingabeteilen.
+    *
+    * @param operation Name der Operation (z.B. "analyze").
+    * @param parts     Eingabeteile der Anfrage.
+    *
+    * @return Hex-kodierter SHA-256-Hash.
+    */
+   public static String key(final String operation, final String... parts) {
+      try {
+         final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         digest.update(operation.getBytes(StandardCharsets.UTF_8));
+         for (final String part : parts) {
+            digest.update((byte) 0);
+            if (part != null) {
+               digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+         }
+         return HexFormat.of()
+            .formatHex(digest.digest());
+      } catch (final NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 nicht verfügbar.", e);
+      }
+   }
+
+   /**
+    * Ergebnis einer laufenden Berechnung, das nicht geteilt werden darf;
+    * wartende Anfragen berechnen dann selbst.
+    */
+   private static final Object NOT_SHARED = new Object();
+
+   /** Die zwischengespeicherten Antworten in LRU-Reihenfolge. */
+   private final Map<String, Object> entries;
+
+   /** Aktuell laufende Berechnungen je Schlüssel. */
+   private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+   /**
+    * Erzeugt einen Cache mit maximaler Anzahl Einträge.
+    *
+    * @param maxEntries Maximale Anzahl Einträge; 0 deaktiviert den Cache.
+    */
+   public GatewayResponseCache(final int maxEntries) {
+      this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, Object> eldest) {
+            return size() > maxEntries;
+         }
+      };
+   }
+
+   /**
+    * Liefert die Antwort zu einem Schlüssel aus dem Cache oder berechnet
+    * sie genau einmal, auch bei gleichzeitigen Anfragen. Eine Antwort, die
+    * {@code cacheable} ablehnt, wird nur an die eigene Anfrage geliefert;
+    * gleichzeitig wartende Anfragen berechnen dann selbst.
+    *
+    * @param <T>       Typ der Antwort.
+    * @param key       Der Cache-Schlüssel.
+    * @param loader    Berechnung bei einem Cache-Fehltreffer.
+    * @param cacheable Prüft, ob eine berechnete Antwort geteilt werden
+    *                  darf, z.B. false für Ersatzantworten.
+    * @param hit       Ein-Element-Array, in das {@code true} geschrieben
+    *                  wird, wenn keine eigene Berechnung nötig war.
+    *
+    * @return Die Antwort.
+    *
+    * @throws Exception Falls die Berechnung fehlschlägt.
+    */
+   @SuppressWarnings("unchecked")
+   public <T> T get(final String key, final Loader<T> loader,
+         final Predicate<? super T> cacheable, final boolean[] hit)
+         throws Exception {
+      while (true) {
+         synchronized (entries) {
+            final Object cached = entries.get(key);
+            if (cached != null) {
+               hit[0] = true;
+               return (T) cached;
+            }
+         }
+         final CompletableFuture<Object> own = new CompletableFuture<>();
+         final CompletableFuture<Object> running = inFlight.putIfAbsent(key,
+               own);
+         if (running != null) {
+            final Object shared;
+            try {
+               shared = running.get();
+            } catch (final ExecutionException e) {
+               throw e.getCause() instanceof final Exception cause ? cause
+                     : e;
+            }
+            if (shared != NOT_SHARED) {
+               hit[0] = true;
+               return (T) shared;
+            }
+            // Ersatzantwort der anderen Anfrage: selbst erneut versuchen
+            continue;
+         }
+         hit[0] = false;
+         final T value;
+         final boolean share;
+         try {
+            value = loader.load();
+            share = value != null && cacheable.test(value);
+         } catch (final Throwable e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+         }
+         if (share) {
+            synchronized (entries) {
+               entries.put(key, value);
+            }
+         }
+         // Erst austragen, damit erneut versuchende Anfragen neu rechnen
+         inFlight.remove(key, own);
+         own.complete(share ? value : NOT_SHARED);
+         return value;
+      }
+   }
+
+   /**
+    * Liefert die aktuelle Anzahl Einträge.
+    *
+    * @return Anzahl zwischengespeicherter Antworten.
+    */
+   public int size() {
+      synchronized (entries) {
+         return entries.size();
+      }
+   }
+}
@@ -0,0 +1,203 @@
+package de.gc.agent.erm.interactionlog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import de.gc.agent.erm.interactionlog.InteractionReport.Price;
+import de.gc.agent.erm.ki.model.InteractionLog;
+import de.gc.agent.erm.ki.model.InteractionLog.Entry;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Wertet Interaktionsprotokolle offline aus.
+ *
+ * Gelesen werden die JSON-Lines-Dateien des {@link InteractionLog} aus
+ * allen Einheiten; für eine rollierte Datei werden die älteren Dateien
+ * ({@code <datei>.1}, {@code .2}, ...) automatisch mitgelesen. Je Agent
+ * und Modell werden p50/p95/p99 der Antwortzeit, der Token-Verbrauch,
+ * Tokens pro Minute und - mit Preisangaben - die Kosten berechnet.
+ *
+ * <pre>
+ * java -cp erm.jar de.gc.agent.erm.interactionlog.InteractionLogAnalyzer \
+ *       logs/llm.jsonl --from 2026-10-19T08:00 --to 2026-10-19T09:30 \
+ *       --price gemini-2.5-flash=0.30/2.50 --price *=0/0
+ * </pre>
+ */
+@Command(name = "Interaktions-Analyse", version = "1.0", mixinStandardHelpOptions = true, description = "Wertet Interaktionsprotokolle aus: Antwortzeiten, Tokens pro Minute und Kosten je Agent und Modell.")
+public class InteractionLogAnalyzer implements Callable<Integer> {
+
+   /**
+    * Einstiegspunkt.
+    *
+    * @param args Kommandozeilenargumente.
+    */
+   public static void main(final String[] args) {
+      System.exit(new CommandLine(new InteractionLogAnalyzer()).execute(args));
+   }
+
+   /**
+    * Liest einen Zeitpunkt als Instant ({@code 2026-10-19T08:00:00Z}),
+    * lokale Zeit ({@code 2026-10-19T08:00}) oder Datum
+    * ({@code 2026-10-19}, Tagesbeginn).
+    *
+    * @param text Der Text oder null.
+    *
+    * @return Der Zeitpunkt oder null.
+    *
+    * @throws IllegalArgumentException Bei ungültigem Format.
+    */
+   static Instant parseTime(final String text) {
+      if (text == null) {
+         return null;
+      }
+      try {
+         return Instant.parse(text);
+      } catch (final DateTimeParseException e) {
+         // weitere Formate versuchen
+      }
+      try {
+         return LocalDateTime.parse(text)
+            .atZone(ZoneId.systemDefault())
+            .toInstant();
+      } catch (final DateTimeParseException e) {
+         // weitere Formate versuchen
+      }
+      try {
+         return LocalDate.parse(text)
+            .atStartOfDay(ZoneId.systemDefault())
+            .toInstant();
+      } catch (final DateTimeParseException e) {
+         throw new IllegalArgumentException("Ungültiger Zeitpunkt '" + text
+               + "', erwartet z.B. 2026-10-19T08:00 oder 2026-10-19.");
+      }
+   }
+
+   /** Die Protokolldateien. */
+   @Parameters(arity = "1..*", paramLabel = "DATEI", description = "Protokolldateien; ältere rollierte Dateien (.1, .2, ...) werden mitgelesen.")
+   private List<Path> files;
+
+   /** Beginn des Zeitraums. */
+   @Option(names = "--from", description = "Beginn des Zeitraums, z.B. 2026-10-19T08:00 (Standard: erster Eintrag).")
+   private String from;
+
+   /** Ende des Zeitraums. */
+   @Option(names = "--to", description = "Ende des Zeitraums (ausschließlich, Standard: letzter Eintrag).")
+   private String to;
+
+   /** Preise je Modell. */
+   @Option(names = "--price", paramLabel = "MODELL=EIN/AUS", description = "Preis in USD je 1 Mio. Tokens, z.B. gemini-2.5-flash=0.30/2.50; * gilt für alle übrigen Modelle.")
+   private Map<String, String> prices = new HashMap<>();
+
+   /** Optionale Ausgabedatei. */
+   @Option(names = "--report", description = "Schreibt den Bericht zusätzlich in diese Datei.")
+   private Path reportFile;
+
+   /**
+    * Liest die Protokolle und gibt den Bericht aus.
+    *
+    * @return Exit-Code (0: Erfolg, 1: Fehler)
+    *
+    * @throws Exception Bei Schreibfehlern.
+    */
+   @Override
+   public Integer call() throws Exception {
+      final Instant fromTime;
+      final Instant toTime;
+      final Map<String, Price> parsedPrices = new HashMap<>();
+      try {
+         fromTime = parseTime(from);
+         toTime = parseTime(to);
+         for (final Map.Entry<String, String> price : prices.entrySet()) {
+            parsedPrices.put(price.getKey(), Price.parse(price.getValue()));
+         }
+      } catch (final IllegalArgumentException e) {
+         System.err.println(e.getMessage());
+         return 1;
+      }
+
+      final List<Entry> entries = new ArrayList<>();
+      final List<String> skipped = new ArrayList<>();
+      try {
+         for (final Path file : logFiles()) {
+            entries.addAll(InteractionLog.load(file, skipped));
+         }
+      } catch (final IOException e) {
+         System.err.println("Fehler beim Lesen: " + e.getMessage());
+         return 1;
+      }
+
+      final List<Entry> selected = new ArrayList<>();
+      for (final Entry entry : entries) {
+         final Instant time;
+         try {
+            time = Instant.parse(entry.timestamp());
+         } catch (final DateTimeParseException | NullPointerException e) {
+            skipped.add(entry.toString());
+            continue;
+         }
+         if ((fromTime == null || !time.isBefore(fromTime))
+               && (toTime == null || time.isBefore(toTime))) {
+            selected.add(entry);
+         }
+      }
+
+      final String markdown = new InteractionReport(selected, fromTime, toTime,
+            parsedPrices, skipped.size()).toMarkdown();
+      System.out.println(markdown);
+      if (reportFile != null) {
+         Files.writeString(reportFile, markdown, StandardCharsets.UTF_8);
+         System.out.println("Bericht geschrieben nach: "
+               + reportFile.toAbsolutePath());
+      }
+      return 0;
+   }
+
+   /**
+    * Ermittelt alle zu lesenden Dateien einschließlich der rollierten
+    * älteren Dateien, die nicht ausdrücklich angegeben wurden.
+    *
+    * @return Die Dateien, älteste zuerst.
+    *
+    * @throws IOException Falls eine angegebene Datei fehlt.
+    */
+   private List<Path> logFiles() throws IOException {
+      final List<Path> result = new ArrayList<>();
+      for (final Path file : files) {
+         if (!Files.exists(file)) {
+            throw new IOException("Die Datei existiert nicht: "
+                  + file.toAbsolutePath());
+         }
+         if (result.contains(file)) {
+            continue;
+         }
+         final List<Path> rotated = new ArrayList<>();
+         for (int i = 1;; i++) {
+            final Path older = file.resolveSibling(file.getFileName() + "."
+                  + i);
+            if (!Files.exists(older)) {
+               break;
+            }
+            rotated.add(0, older);
+         }
+         rotated.removeIf(p -> files.contains(p) || result.contains(p));
+         result.addAll(rotated);
+         result.add(file);
+      }
+      return result;
+   }
+}
@@ -0,0 +1,276 @@
+package de.gc.agent.erm.interactionlog;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.gc.agent.erm.ki.model.InteractionLog;
+import de.gc.agent.erm.ki.model.InteractionLog.Entry;
+import de.gc.agent.erm.loadtest.LoadTestRecorder;
+
+/**
+ * Auswertung der Einträge eines Interaktionsprotokolls je Agent und
+ * Modell: Antwortzeiten (p50/p95/p99), Token-Verbrauch, Tokens pro Minute
+ * und geschätzte Kosten.
+ */
+public class InteractionReport {
+
+   /**
+    * Kennzahlen einer Gruppe von Aufrufen.
+    *
+    * @param agent           Der Agent.
+    * @param model           Das Modell.
+    * @param calls           Anzahl der Aufrufe.
+    * @param errors          Anzahl fehlgeschlagener Aufrufe.
+    * @param p50Millis       Median der Antwortzeit.
+    * @param p95Millis       95. Perzentil der Antwortzeit.
+    * @param p99Millis       99. Perzentil der Antwortzeit.
+    * @param inputTokens     Summe der Eingabe-Tokens.
+    * @param outputTokens    Summe der Ausgabe-Tokens.
+    * @param tokensPerMinute Ein- und Ausgabe-Tokens pro Minute im Zeitraum.
+    * @param costUsd         Geschätzte Kosten in USD oder null ohne Preis.
+    */
+   public record GroupStats(String agent, String model, int calls, int errors,
+         long p50Millis, long p95Millis, long p99Millis, long inputTokens,
+         long outputTokens, double tokensPerMinute, Double costUsd) {
+   }
+
+   /**
+    * Preis eines Modells.
+    *
+    * @param inputPerMillion  USD je 1 Mio. Eingabe-Tokens.
+    * @param outputPerMillion USD je 1 Mio. Ausgabe-Tokens.
+    */
+   public record Price(double inputPerMillion, double outputPerMillion) {
+
+      /**
+       * Liest einen Preis im Format {@code <ein>/<aus>}, z.B.
+       * {@code 0.30/2.50}.
+       *
+       * @param text Der Text.
+       *
+       * @return Der Preis.
+       *
+       * @throws IllegalArgumentException Bei ungültigem Format.
+       */
+      public static Price parse(final String text) {
+         final String[] parts = text.split("/");
+         try {
+            if (parts.length == 2) {
+               return new Price(Double.parseDouble(parts[0].trim()),
+                     Double.parseDouble(parts[1].trim()));
+            }
+         } catch (final NumberFormatException e) {
+            // unten gemeldet
+         }
+         throw new IllegalArgumentException("Ungültiger Preis '" + text
+               + "', erwartet z.B. 0.30/2.50 (USD je 1 Mio. Tokens ein/aus).");
+      }
+
+      /**
+       * Berechnet die Kosten.
+       *
+       * @param inputTokens  Anzahl Eingabe-Tokens.
+       * @param outputTokens Anzahl Ausgabe-Tokens.
+       *
+       * @return Die Kosten in USD.
+       */
+      public double cost(final long inputTokens, final long outputTokens) {
+         return inputTokens / 1_000_000.0 * inputPerMillion
+               + outputTokens / 1_000_000.0 * outputPerMillion;
+      }
+   }
+
+   /** Schlüssel für den Standardpreis aller nicht genannten Modelle. */
+   public static final String DEFAULT_PRICE = "*";
+
+   /** Die ausgewerteten Einträge. */
+   private final List<Entry> entries;
+
+   /** Beginn des Zeitraums. */
+   private final Instant from;
+
+   /** Ende des Zeitraums. */
+   private final Instant to;
+
+   /** Preise je Modell. */
+   private final Map<String, Price> prices;
+
+   /** Anzahl nicht lesbarer Zeilen. */
+   private final int skippedLines;
+
+   /**
+    * Erstellt eine Auswertung.
+    *
+    * @param entries      Die Einträge im Zeitraum.
+    * @param from         Beginn des Zeitraums (null: erster Eintrag).
+    * @param to           Ende des Zeitraums (null: letzter Eintrag).
+    * @param prices       Preise je Modellname; {@value #DEFAULT_PRICE}
+    *                     gilt für alle übrigen Modelle.
+    * @param skippedLines Anzahl nicht lesbarer Zeilen.
+    */
+   public InteractionReport(final List<Entry> entries, final Instant from,
+         final Instant to, final Map<String, Price> prices,
+         final int skippedLines) {
+      this.entries = List.copyOf(entries);
+      this.from = from != null ? from
+            : entries.stream()
+               .map(e -> Instant.parse(e.timestamp()))
+               .min(Comparator.naturalOrder())
+               .orElse(Instant.EPOCH);
+      this.to = to != null ? to
+            : entries.stream()
+               .map(e -> Instant.parse(e.timestamp()))
+               .max(Comparator.naturalOrder())
+               .orElse(this.from);
+      this.prices = Map.copyOf(prices);
+      this.skippedLines = skippedLines;
+   }
+
+   /**
+    * Hängt eine Tabellenzeile an.
+    *
+    * @param sb    Der Bericht.
+    * @param group Die Kennzahlen.
+    */
+   private void appendRow(final StringBuilder sb, final GroupStats group) {
+      sb.append(String.format(Locale.ROOT,
+            "| %s | %s | %d | %d | %d | %d | %d | %d | %d | %.0f | %s |%n",
+            group.agent(), group.model(), group.calls(), group.errors(),
+            group.p50Millis(), group.p95Millis(), group.p99Millis(),
+            group.inputTokens(), group.outputTokens(), group.tokensPerMinute(),
+            group.costUsd() == null ? "–"
+                  : String.format(Locale.ROOT, "%.4f", group.costUsd())));
+   }
+
+   /**
+    * Bildet die Kennzahlen einer Gruppe.
+    *
+    * @param agent   Der Agent.
+    * @param model   Das Modell.
+    * @param group   Die Einträge der Gruppe.
+    * @param price   Der Preis des Modells oder null.
+    *
+    * @return Die Kennzahlen.
+    */
+   private GroupStats build(final String agent, final String model,
+         final List<Entry> group, final Price price) {
+      final long[] millis = group.stream()
+         .mapToLong(Entry::latencyMillis)
+         .sorted()
+         .toArray();
+      final int errors = (int) group.stream()
+         .filter(e -> InteractionLog.OUTCOME_ERROR.equals(e.outcome()))
+         .count();
+      final long inputTokens = group.stream()
+         .mapToLong(e -> e.inputTokens() == null ? 0 : e.inputTokens())
+         .sum();
+      final long outputTokens = group.stream()
+         .mapToLong(e -> e.outputTokens() == null ? 0 : e.outputTokens())
+         .sum();
+      return new GroupStats(agent, model, group.size(), errors,
+            LoadTestRecorder.percentile(millis, 50),
+            LoadTestRecorder.percentile(millis, 95),
+            LoadTestRecorder.percentile(millis, 99), inputTokens, outputTokens,
+            (inputTokens + outputTokens) / minutes(),
+            price == null ? null : price.cost(inputTokens, outputTokens));
+   }
+
+   /**
+    * Liefert die Kennzahlen je Agent und Modell, sortiert nach Agent und
+    * Modell.
+    *
+    * @return Die Kennzahlen.
+    */
+   public List<GroupStats> groups() {
+      final Map<String, Map<String, List<Entry>>> grouped = new TreeMap<>();
+      for (final Entry entry : entries) {
+         grouped.computeIfAbsent(String.valueOf(entry.agent()),
+               k -> new TreeMap<>())
+            .computeIfAbsent(String.valueOf(entry.model()),
+                  k -> new ArrayList<>())
+            .add(entry);
+      }
+      final List<GroupStats> result = new ArrayList<>();
+      for (final Map.Entry<String, Map<String, List<Entry>>> agent : grouped
+         .entrySet()) {
+         for (final Map.Entry<String, List<Entry>> model : agent.getValue()
+            .entrySet()) {
+            result.add(build(agent.getKey(), model.getKey(), model.getValue(),
+                  priceOf(model.getKey())));
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Liefert die Länge des Zeitraums in Minuten, mindestens eine Minute.
+    *
+    * @return Die Minuten.
+    */
+   private double minutes() {
+      return Math.max(1.0, Duration.between(from, to)
+         .toMillis() / 60_000.0);
+   }
+
+   /**
+    * Sucht den Preis eines Modells.
+    *
+    * @param model Der Modellname.
+    *
+    * @return Der Preis oder null.
+    */
+   private Price priceOf(final String model) {
+      final Price price = prices.get(model);
+      return price != null ? price : prices.get(DEFAULT_PRICE);
+   }
+
+   /**
+    * Erstellt den Bericht als Markdown.
+    *
+    * @return Der Bericht.
+    */
+   public String toMarkdown() {
+      final List<GroupStats> groups = groups();
+      final StringBuilder sb = new StringBuilder();
+      sb.append("# Auswertung des Interaktionsprotokolls\n\n");
+      sb.append(String.format(Locale.ROOT,
+            "Zeitraum: %s bis %s (%.0f min), Aufrufe: %d, "
+                  + "nicht lesbare Zeilen: %d%n%n",
+            from, to, minutes(), entries.size(), skippedLines));
+
+      sb.append("| Agent | Modell | Aufrufe | Fehler | p50 ms | p95 ms "
+            + "| p99 ms | Tokens ein | Tokens aus | Tokens/min "
+            + "| Kosten USD |\n");
+      sb.append("|---|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+      double totalCost = 0;
+      boolean allPriced = true;
+      for (final GroupStats group : groups) {
+         appendRow(sb, group);
+         if (group.costUsd() == null) {
+            allPriced = false;
+         } else {
+            totalCost += group.costUsd();
+         }
+      }
+      if (groups.size() > 1) {
+         final GroupStats total = build("**Gesamt**", "", entries, null);
+         appendRow(sb, !allPriced ? total
+               : new GroupStats(total.agent(), total.model(), total.calls(),
+                     total.errors(), total.p50Millis(), total.p95Millis(),
+                     total.p99Millis(), total.inputTokens(),
+                     total.outputTokens(), total.tokensPerMinute(),
+                     totalCost));
+      }
+      if (!allPriced) {
+         sb.append(
+               "\nKosten nur für Modelle mit Preisangabe (--price MODELL=EIN/AUS).\n");
+      }
+      return sb.toString();
+   }
+}
@@ -0,0 +1,45 @@
+package de.gc.agent.erm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR-Ereignis für das erste Rendering eines Diagramms nach dem Start der
+ * Anwendung.
+ *
+ * Die Dauer des Ereignisses ist die Dauer dieses Renderings. Zusammen mit
+ * {@link #warmUp} lässt sich vergleichen, wie lange der erste Klick auf
+ * "ERM erstellen" mit und ohne Aufwärm-Rendering (Option
+ * {@code --no-warmup}) dauert.
+ */
+@Name(FirstRenderEvent.NAME)
+@Label("Erstes PlantUML-Rendering")
+@Category({ "EduKI", "PlantUML" })
+@Description("Erstes Rendering eines Diagramms nach dem Start")
+@StackTrace(false)
+public class FirstRenderEvent extends jdk.jfr.Event {
+
+   /** Name des Ereignisses in der JFR-Konfiguration. */
+   public static final String NAME = "de.gc.agent.FirstRender";
+
+   /**
+    * Stand des Aufwärm-Renderings zu Beginn: "aus", "laufend" oder
+    * "fertig".
+    */
+   @Label("Aufwärmen")
+   public String warmUp;
+
+   /** Dauer des Aufwärm-Renderings, 0 ohne abgeschlossenes Aufwärmen. */
+   @Label("Dauer des Aufwärmens")
+   @Timespan(Timespan.MILLISECONDS)
+   public long warmUpMillis;
+
+   /** Zeit seit dem Start der JVM bis zum Beginn des Renderings. */
+   @Label("Zeit seit Start")
+   @Timespan(Timespan.MILLISECONDS)
+   public long sinceStartMillis;
+}
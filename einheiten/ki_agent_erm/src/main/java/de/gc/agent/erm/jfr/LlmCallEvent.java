@@ -0,0 +1,53 @@
+package de.gc.agent.erm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-Ereignis für einen Aufruf eines Sprachmodells.
+ *
+ * Wird von {@link de.gc.agent.erm.ki.model.FlightRecorderChatModel}
+ * erzeugt. Die Dauer des Ereignisses ist die Antwortzeit des Modells.
+ * Die Einstellungen für eine Aufzeichnung stehen in {@code jfr/eduki.jfc}.
+ */
+@Name(LlmCallEvent.NAME)
+@Label("LLM-Aufruf")
+@Category({ "EduKI", "LLM" })
+@Description("Aufruf eines Sprachmodells mit Tokenverbrauch")
+@StackTrace(false)
+public class LlmCallEvent extends jdk.jfr.Event {
+
+   /** Name des Ereignisses in der JFR-Konfiguration. */
+   public static final String NAME = "de.gc.agent.LlmCall";
+
+   /** Der aufrufende Agent, z.B. "analysis" oder "tutor". */
+   @Label("Agent")
+   public String agent;
+
+   /** Der Anbieter des Modells. */
+   @Label("Anbieter")
+   public String provider;
+
+   /** Der Name des Modells. */
+   @Label("Modell")
+   public String model;
+
+   /** Anzahl der Eingabe-Tokens oder -1, wenn unbekannt. */
+   @Label("Eingabe-Tokens")
+   public int inputTokens = -1;
+
+   /** Anzahl der Ausgabe-Tokens oder -1, wenn unbekannt. */
+   @Label("Ausgabe-Tokens")
+   public int outputTokens = -1;
+
+   /** Grund für das Ende der Antwort. */
+   @Label("Abschlussgrund")
+   public String finishReason;
+
+   /** Fehlermeldung bei einem fehlgeschlagenen Aufruf. */
+   @Label("Fehler")
+   public String failure;
+}
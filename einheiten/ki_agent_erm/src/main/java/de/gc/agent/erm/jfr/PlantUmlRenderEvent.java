@@ -0,0 +1,38 @@
+package de.gc.agent.erm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für das Rendern eines PlantUML-Diagramms mit dem
+ * {@code SourceStringReader}.
+ */
+@Name(PlantUmlRenderEvent.NAME)
+@Label("PlantUML-Rendering")
+@Category({ "EduKI", "PlantUML" })
+@Description("Rendern eines PlantUML-Quelltexts in ein Bild")
+public class PlantUmlRenderEvent extends jdk.jfr.Event {
+
+   /** Name des Ereignisses in der JFR-Konfiguration. */
+   public static final String NAME = "de.gc.agent.PlantUmlRender";
+
+   /** Länge des PlantUML-Quelltexts in Zeichen. */
+   @Label("Quelltext-Länge")
+   public int sourceLength;
+
+   /** Das Ausgabeformat, z.B. "PNG" oder "SVG". */
+   @Label("Format")
+   public String format;
+
+   /** Größe des erzeugten Bildes. */
+   @Label("Bildgröße")
+   @DataAmount
+   public long bytes;
+
+   /** Fehlermeldung bei einem fehlgeschlagenen Rendering. */
+   @Label("Fehler")
+   public String failure;
+}
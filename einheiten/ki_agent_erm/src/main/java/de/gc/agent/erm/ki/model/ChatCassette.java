@@ -0,0 +1,188 @@
+package de.gc.agent.erm.ki.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Eine Kassette mit aufgezeichneten Anfragen und Antworten eines
+ * ChatModels.
+ *
+ * Die Kassette ist eine JSON-Lines-Datei: Jede Zeile enthält eine
+ * Anfrage (alle Nachrichten), die Antwort des KI-Anbieters, die
+ * Token-Zahlen und die gemessene Antwortzeit. Über einen
+ * SHA-256-Schlüssel aus den Nachrichten und den Tool-Namen wird beim
+ * Abspielen die passende Antwort gefunden.
+ */
+public final class ChatCassette {
+
+   /**
+    * Ein aufgezeichneter Aufruf.
+    *
+    * @param key           Schlüssel der Anfrage.
+    * @param request       Nachrichten der Anfrage als JSON.
+    * @param response      Antwortnachricht als JSON.
+    * @param modelName     Name des antwortenden Modells.
+    * @param inputTokens   Anzahl Eingabe-Tokens (kann null sein).
+    * @param outputTokens  Anzahl Ausgabe-Tokens (kann null sein).
+    * @param finishReason  Grund für das Ende der Antwort (kann null sein).
+    * @param latencyMillis Antwortzeit beim Aufzeichnen in Millisekunden.
+    * @param recordedAt    Zeitpunkt der Aufzeichnung (ISO-8601).
+    */
+   public record Entry(String key, String request, String response,
+         String modelName, Integer inputTokens, Integer outputTokens,
+         String finishReason, long latencyMillis, String recordedAt) {
+
+      /**
+       * Erstellt einen Eintrag aus Anfrage, Antwort und Antwortzeit.
+       *
+       * @param request       Die Anfrage an das Modell.
+       * @param response      Die Antwort des Modells.
+       * @param latencyMillis Die gemessene Antwortzeit in Millisekunden.
+       *
+       * @return Der neue Eintrag.
+       */
+      public static Entry of(final ChatRequest request,
+            final ChatResponse response, final long latencyMillis) {
+         final TokenUsage usage = response.tokenUsage();
+         return new Entry(ChatCassette.key(request),
+               ChatMessageSerializer.messagesToJson(request.messages()),
+               ChatMessageSerializer.messageToJson(response.aiMessage()),
+               response.modelName(),
+               usage == null ? null : usage.inputTokenCount(),
+               usage == null ? null : usage.outputTokenCount(),
+               response.finishReason() == null ? null
+                     : response.finishReason()
+                        .name(),
+               latencyMillis, Instant.now()
+                  .toString());
+      }
+
+      /**
+       * Baut aus dem Eintrag wieder eine ChatResponse.
+       *
+       * @return Die aufgezeichnete Antwort.
+       */
+      public ChatResponse toResponse() {
+         return ChatResponse.builder()
+            .aiMessage((AiMessage) ChatMessageDeserializer
+               .messageFromJson(response))
+            .modelName(modelName)
+            .tokenUsage(new TokenUsage(inputTokens, outputTokens))
+            .finishReason(
+                  finishReason == null ? null : FinishReason.valueOf(finishReason))
+            .build();
+      }
+   }
+
+   /** Jackson-Objekt-Mapper für die Zeilen der Kassette. */
+   private static final ObjectMapper MAPPER = new JsonMapper();
+
+   /**
+    * Hängt einen Eintrag an eine Kassettendatei an. Fehlende
+    * Verzeichnisse werden angelegt.
+    *
+    * @param file  Die Kassettendatei.
+    * @param entry Der neue Eintrag.
+    *
+    * @throws UncheckedIOException Falls die Datei nicht geschrieben werden
+    *                              kann.
+    */
+   public static synchronized void append(final Path file, final Entry entry) {
+      try {
+         if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+         }
+         try (BufferedWriter writer = Files.newBufferedWriter(file,
+               StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+               StandardOpenOption.APPEND)) {
+            writer.write(MAPPER.writeValueAsString(entry));
+            writer.newLine();
+         }
+      } catch (final IOException e) {
+         throw new UncheckedIOException(
+               "Kassette konnte nicht geschrieben werden: " + file, e);
+      }
+   }
+
+   /**
+    * Berechnet den Schlüssel einer Anfrage aus den Nachrichten und den
+    * Namen der angebotenen Tools. Modellparameter wie die Temperatur
+    * fließen bewusst nicht ein.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Hex-kodierter SHA-256-Hash.
+    */
+   public static String key(final ChatRequest request) {
+      final String tools = request.toolSpecifications() == null ? ""
+            : request.toolSpecifications()
+               .stream()
+               .map(tool -> tool.name())
+               .sorted()
+               .collect(Collectors.joining(","));
+      try {
+         final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         digest.update(ChatMessageSerializer.messagesToJson(request.messages())
+            .getBytes(StandardCharsets.UTF_8));
+         digest.update((byte) 0);
+         digest.update(tools.getBytes(StandardCharsets.UTF_8));
+         return HexFormat.of()
+            .formatHex(digest.digest());
+      } catch (final NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 nicht verfügbar.", e);
+      }
+   }
+
+   /**
+    * Liest alle Einträge einer Kassettendatei.
+    *
+    * @param file Die Kassettendatei.
+    *
+    * @return Die Einträge in Aufnahmereihenfolge.
+    *
+    * @throws IOException Falls die Datei fehlt oder fehlerhaft ist.
+    */
+   public static List<Entry> load(final Path file) throws IOException {
+      if (!Files.exists(file)) {
+         throw new IOException("Die Kassette existiert nicht: "
+               + file.toAbsolutePath());
+      }
+      final List<Entry> entries = new ArrayList<>();
+      for (final String line : Files.readAllLines(file,
+            StandardCharsets.UTF_8)) {
+         if (!line.isBlank()) {
+            entries.add(MAPPER.readValue(line, Entry.class));
+         }
+      }
+      return entries;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private ChatCassette() {
+   }
+}
@@ -0,0 +1,126 @@
+package de.gc.agent.erm.ki.model;
+
+import java.util.Set;
+
+import de.gc.agent.erm.jfr.LlmCallEvent;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Ein ChatModel, das jeden Aufruf an das eigentliche Modell weiterreicht
+ * und als {@link LlmCallEvent} im Java Flight Recorder aufzeichnet.
+ *
+ * Läuft keine Aufzeichnung, kostet ein Aufruf nur das Anlegen des
+ * Ereignisses. Alle Modelle aus {@link KiModelFactory} sind so umhüllt.
+ */
+public class FlightRecorderChatModel implements ChatModel {
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Der aufrufende Agent. */
+   private final String agent;
+
+   /** Der konfigurierte Modellname. */
+   private final String modelName;
+
+   /**
+    * Erstellt ein aufzeichnendes Modell.
+    *
+    * @param delegate  Das eigentliche Modell.
+    * @param agent     Der aufrufende Agent, z.B. "analysis".
+    * @param modelName Der konfigurierte Modellname; wird verwendet, wenn
+    *                  die Antwort keinen Modellnamen enthält.
+    */
+   public FlightRecorderChatModel(final ChatModel delegate, final String agent,
+         final String modelName) {
+      this.delegate = delegate;
+      this.agent = agent;
+      this.modelName = modelName;
+   }
+
+   /**
+    * Ergänzt die gemeinsamen Felder und schreibt das Ereignis.
+    *
+    * @param event Das beendete Ereignis.
+    */
+   private void commit(final LlmCallEvent event) {
+      event.agent = agent;
+      event.provider = String.valueOf(provider());
+      event.commit();
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ruft das eigentliche Modell auf und zeichnet Dauer, Modell und
+    * Tokenverbrauch auf.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final LlmCallEvent event = new LlmCallEvent();
+      event.begin();
+      try {
+         final ChatResponse response = delegate.chat(request);
+         event.end();
+         if (event.shouldCommit()) {
+            event.model = response.modelName() != null ? response.modelName()
+                  : modelName;
+            final TokenUsage usage = response.tokenUsage();
+            if (usage != null) {
+               if (usage.inputTokenCount() != null) {
+                  event.inputTokens = usage.inputTokenCount();
+               }
+               if (usage.outputTokenCount() != null) {
+                  event.outputTokens = usage.outputTokenCount();
+               }
+            }
+            if (response.finishReason() != null) {
+               event.finishReason = response.finishReason()
+                  .name();
+            }
+            commit(event);
+         }
+         return response;
+      } catch (final RuntimeException e) {
+         event.end();
+         if (event.shouldCommit()) {
+            event.model = modelName;
+            event.failure = e.getMessage();
+            commit(event);
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * Liefert das eigentliche Modell.
+    *
+    * @return Das eigentliche Modell.
+    */
+   public ChatModel getDelegate() {
+      return delegate;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
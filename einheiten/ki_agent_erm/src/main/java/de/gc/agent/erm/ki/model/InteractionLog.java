@@ -0,0 +1,219 @@
+package de.gc.agent.erm.ki.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Ein rollierendes Protokoll aller KI-Aufrufe im JSON-Lines-Format.
+ *
+ * Jede Zeile ist ein kompakter {@link Entry} ohne Prompt- und
+ * Antworttext: Zeitpunkt, Agent, Modell, Größen, Token-Verbrauch,
+ * Antwortzeit und Ergebnis. Überschreitet die Datei die maximale Größe,
+ * wird sie in {@code <datei>.1} umbenannt, ältere Dateien rücken nach
+ * ({@code .2}, {@code .3}, ...) und die älteste wird gelöscht.
+ *
+ * Das Format ist in allen Einheiten gleich, damit der
+ * {@code InteractionLogAnalyzer} die Protokolle gemeinsam auswerten kann.
+ */
+public final class InteractionLog {
+
+   /**
+    * Ein protokollierter Aufruf.
+    *
+    * @param timestamp     Zeitpunkt des Aufrufs (ISO-8601, UTC).
+    * @param agent         Der aufrufende Agent, z.B. "analysis".
+    * @param provider      Der Anbieter des Modells.
+    * @param model         Der Name des Modells.
+    * @param promptChars   Länge aller Nachrichten der Anfrage in Zeichen.
+    * @param responseChars Länge der Antwort in Zeichen.
+    * @param inputTokens   Anzahl Eingabe-Tokens (kann null sein).
+    * @param outputTokens  Anzahl Ausgabe-Tokens (kann null sein).
+    * @param latencyMillis Antwortzeit in Millisekunden.
+    * @param outcome       {@link #OUTCOME_OK} oder {@link #OUTCOME_ERROR}.
+    * @param error         Fehlermeldung (nur bei Fehlern).
+    */
+   @JsonInclude(JsonInclude.Include.NON_NULL)
+   public record Entry(String timestamp, String agent, String provider,
+         String model, int promptChars, int responseChars, Integer inputTokens,
+         Integer outputTokens, long latencyMillis, String outcome,
+         String error) {
+   }
+
+   /** Ergebnis eines erfolgreichen Aufrufs. */
+   public static final String OUTCOME_OK = "ok";
+
+   /** Ergebnis eines fehlgeschlagenen Aufrufs. */
+   public static final String OUTCOME_ERROR = "error";
+
+   /** Standardgröße einer Datei vor dem Rollieren: 10 MB. */
+   public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+
+   /** Standardanzahl aufbewahrter älterer Dateien. */
+   public static final int DEFAULT_MAX_FILES = 5;
+
+   /** Jackson-Objekt-Mapper für die Zeilen des Protokolls. */
+   private static final ObjectMapper MAPPER = new JsonMapper();
+
+   /** Die geöffneten Protokolle je Datei. */
+   private static final Map<Path, InteractionLog> LOGS = new ConcurrentHashMap<>();
+
+   /**
+    * Liest alle Einträge einer Protokolldatei. Nicht lesbare Zeilen (z.B.
+    * eine beim Absturz abgeschnittene letzte Zeile) werden übersprungen.
+    *
+    * @param file    Die Protokolldatei.
+    * @param skipped Nimmt die übersprungenen Zeilen auf (kann null sein).
+    *
+    * @return Die Einträge in Schreibreihenfolge.
+    *
+    * @throws IOException Falls die Datei nicht gelesen werden kann.
+    */
+   public static List<Entry> load(final Path file, final List<String> skipped)
+         throws IOException {
+      final List<Entry> entries = new ArrayList<>();
+      for (final String line : Files.readAllLines(file,
+            StandardCharsets.UTF_8)) {
+         if (line.isBlank()) {
+            continue;
+         }
+         try {
+            entries.add(MAPPER.readValue(line, Entry.class));
+         } catch (final IOException e) {
+            if (skipped != null) {
+               skipped.add(line);
+            }
+         }
+      }
+      return entries;
+   }
+
+   /**
+    * Liefert das Protokoll einer Datei. Alle Modelle, die in dieselbe
+    * Datei schreiben, teilen sich ein Protokoll.
+    *
+    * @param file     Die Protokolldatei.
+    * @param maxBytes Größe, ab der rolliert wird.
+    * @param maxFiles Anzahl aufbewahrter älterer Dateien.
+    *
+    * @return Das Protokoll.
+    */
+   public static InteractionLog open(final Path file, final long maxBytes,
+         final int maxFiles) {
+      return LOGS.computeIfAbsent(file.toAbsolutePath()
+         .normalize(), f -> new InteractionLog(f, maxBytes, maxFiles));
+   }
+
+   /** Die aktuelle Protokolldatei. */
+   private final Path file;
+
+   /** Größe, ab der rolliert wird. */
+   private final long maxBytes;
+
+   /** Anzahl aufbewahrter älterer Dateien. */
+   private final int maxFiles;
+
+   /** Aktuelle Größe der Datei oder -1, solange unbekannt. */
+   private long size = -1;
+
+   /**
+    * Erstellt ein Protokoll.
+    *
+    * @param file     Die Protokolldatei.
+    * @param maxBytes Größe, ab der rolliert wird.
+    * @param maxFiles Anzahl aufbewahrter älterer Dateien.
+    */
+   private InteractionLog(final Path file, final long maxBytes,
+         final int maxFiles) {
+      this.file = file;
+      this.maxBytes = maxBytes;
+      this.maxFiles = Math.max(0, maxFiles);
+   }
+
+   /**
+    * Hängt einen Eintrag an und rolliert die Datei bei Bedarf. Fehlende
+    * Verzeichnisse werden angelegt.
+    *
+    * @param entry Der neue Eintrag.
+    *
+    * @throws UncheckedIOException Falls die Datei nicht geschrieben werden
+    *                              kann.
+    */
+   public synchronized void append(final Entry entry) {
+      try {
+         final byte[] line = (MAPPER.writeValueAsString(entry) + "\n")
+            .getBytes(StandardCharsets.UTF_8);
+         if (size < 0) {
+            if (file.getParent() != null) {
+               Files.createDirectories(file.getParent());
+            }
+            size = Files.exists(file) ? Files.size(file) : 0;
+         }
+         if (size > 0 && size + line.length > maxBytes) {
+            rotate();
+         }
+         Files.write(file, line, StandardOpenOption.CREATE,
+               StandardOpenOption.APPEND);
+         size += line.length;
+      } catch (final IOException e) {
+         size = -1;
+         throw new UncheckedIOException(
+               "Interaktionsprotokoll konnte nicht geschrieben werden: " + file,
+               e);
+      }
+   }
+
+   /**
+    * Liefert die aktuelle Protokolldatei.
+    *
+    * @return Die Datei.
+    */
+   public Path getFile() {
+      return file;
+   }
+
+   /**
+    * Rolliert die Dateien: {@code .n-1} wird zu {@code .n}, ..., die
+    * aktuelle Datei wird zu {@code .1}.
+    *
+    * @throws IOException Falls eine Datei nicht umbenannt werden kann.
+    */
+   private void rotate() throws IOException {
+      if (maxFiles == 0) {
+         Files.delete(file);
+      } else {
+         Files.deleteIfExists(rotated(maxFiles));
+         for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+               Files.move(rotated(i), rotated(i + 1),
+                     StandardCopyOption.REPLACE_EXISTING);
+            }
+         }
+         Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+      }
+      size = 0;
+   }
+
+   /**
+    * Liefert den Namen einer älteren Datei.
+    *
+    * @param index Nummer der älteren Datei (1 = jüngste).
+    *
+    * @return Der Pfad, z.B. {@code llm.jsonl.1}.
+    */
+   private Path rotated(final int index) {
+      return file.resolveSibling(file.getFileName() + "." + index);
+   }
+}
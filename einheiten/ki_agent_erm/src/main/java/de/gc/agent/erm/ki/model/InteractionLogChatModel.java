@@ -0,0 +1,187 @@
+package de.gc.agent.erm.ki.model;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Set;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Ein ChatModel, das jeden Aufruf an das eigentliche Modell weiterreicht
+ * und als kompakten Eintrag in ein {@link InteractionLog} schreibt.
+ *
+ * Prompt- und Antworttexte werden nicht gespeichert, nur ihre Längen.
+ * Kann das Protokoll nicht geschrieben werden, wird nur eine Warnung
+ * ausgegeben; der Aufruf selbst ist davon nicht betroffen.
+ */
+public class InteractionLogChatModel implements ChatModel {
+
+   /**
+    * Berechnet die Länge einer Antwort einschließlich der Argumente von
+    * Tool-Aufrufen.
+    *
+    * @param message Die Antwortnachricht.
+    *
+    * @return Die Länge in Zeichen.
+    */
+   static int responseLength(final AiMessage message) {
+      if (message == null) {
+         return 0;
+      }
+      int length = message.text() == null ? 0
+            : message.text()
+               .length();
+      if (message.hasToolExecutionRequests()) {
+         for (final ToolExecutionRequest tool : message
+            .toolExecutionRequests()) {
+            length += tool.arguments() == null ? 0
+                  : tool.arguments()
+                     .length();
+         }
+      }
+      return length;
+   }
+
+   /**
+    * Berechnet die Länge einer Nachricht der Anfrage.
+    *
+    * @param message Die Nachricht.
+    *
+    * @return Die Länge in Zeichen; 0 bei Nicht-Text-Inhalten.
+    */
+   static int textLength(final ChatMessage message) {
+      if (message instanceof final SystemMessage system) {
+         return system.text()
+            .length();
+      }
+      if (message instanceof final UserMessage user && user.hasSingleText()) {
+         return user.singleText()
+            .length();
+      }
+      if (message instanceof final AiMessage ai) {
+         return responseLength(ai);
+      }
+      if (message instanceof final ToolExecutionResultMessage result) {
+         return result.text()
+            .length();
+      }
+      return 0;
+   }
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Das Protokoll. */
+   private final InteractionLog log;
+
+   /** Der aufrufende Agent. */
+   private final String agent;
+
+   /** Der konfigurierte Modellname. */
+   private final String modelName;
+
+   /**
+    * Erstellt ein protokollierendes Modell.
+    *
+    * @param delegate  Das eigentliche Modell.
+    * @param log       Das Protokoll.
+    * @param agent     Der aufrufende Agent, z.B. "analysis".
+    * @param modelName Der konfigurierte Modellname; wird verwendet, wenn
+    *                  die Antwort keinen Modellnamen enthält.
+    */
+   public InteractionLogChatModel(final ChatModel delegate,
+         final InteractionLog log, final String agent, final String modelName) {
+      this.delegate = delegate;
+      this.log = log;
+      this.agent = agent;
+      this.modelName = modelName;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ruft das eigentliche Modell auf und protokolliert den Aufruf, auch
+    * wenn er fehlschlägt.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final Instant timestamp = Instant.now();
+      final long start = System.nanoTime();
+      int promptChars = 0;
+      for (final ChatMessage message : request.messages()) {
+         promptChars += textLength(message);
+      }
+      try {
+         final ChatResponse response = delegate.chat(request);
+         final TokenUsage usage = response.tokenUsage();
+         write(new InteractionLog.Entry(timestamp.toString(), agent,
+               String.valueOf(provider()),
+               response.modelName() != null ? response.modelName()
+                     : modelName,
+               promptChars, responseLength(response.aiMessage()),
+               usage == null ? null : usage.inputTokenCount(),
+               usage == null ? null : usage.outputTokenCount(),
+               (System.nanoTime() - start) / 1_000_000,
+               InteractionLog.OUTCOME_OK, null));
+         return response;
+      } catch (final RuntimeException e) {
+         write(new InteractionLog.Entry(timestamp.toString(), agent,
+               String.valueOf(provider()), modelName, promptChars, 0, null,
+               null, (System.nanoTime() - start) / 1_000_000,
+               InteractionLog.OUTCOME_ERROR, e.getClass()
+                  .getSimpleName() + ": " + e.getMessage()));
+         throw e;
+      }
+   }
+
+   /**
+    * Liefert das eigentliche Modell.
+    *
+    * @return Das eigentliche Modell.
+    */
+   public ChatModel getDelegate() {
+      return delegate;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+
+   /**
+    * Schreibt einen Eintrag; Schreibfehler werden nur gemeldet.
+    *
+    * @param entry Der Eintrag.
+    */
+   private void write(final InteractionLog.Entry entry) {
+      try {
+         log.append(entry);
+      } catch (final UncheckedIOException e) {
+         System.err.println(e.getMessage());
+      }
+   }
+}
@@ -3,9 +3,14 @@ package de.gc.agent.erm.ki.model;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Properties;
+import java.util.Set;
 
+import com.azure.ai.inference.models.ChatCompletionsResponseFormatJsonObject;
+
+import dev.langchain4j.model.chat.Capability;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.github.GitHubModelsChatModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
@@ -16,9 +21,32 @@ import dev.langchain4j.model.ollama.OllamaChatModel;
  * auf Konfigurationen aus einer Properties-Datei.
  *
  * Diese Klasse liest Modell- und Systemparameter für verschiedene
- * KI-Modelle (Gemini, Ollama, GitHub) aus einer Properties-Datei und
- * gibt darauf basierend das passende ChatModel zurück. Die Auswahl des
- * Modells erfolgt über ein Präfix und den Typ des gewünschten Modells.
+ * KI-Modelle (Gemini, Ollama, GitHub, lokaler Stub, Kassette,
+ * Simulation) aus einer Properties-Datei und gibt darauf basierend das passende ChatModel
+ * zurück. Die Auswahl des Modells erfolgt über ein Präfix und den Typ
+ * des gewünschten Modells.
+ *
+ * Ist {@code <präfix>.<typ>.record.cassette} gesetzt, werden alle
+ * Aufrufe zusätzlich in diese Kassette aufgezeichnet. Mit dem System
+ * {@code REPLAY} wird eine solche Kassette ohne Netzwerk abgespielt
+ * ({@code .replay.cassette}, {@code .replay.latency=ORIGINAL|ZERO}).
+ * Das System {@code SIMULATED} bildet Antwortzeiten, Fehler und
+ * Parallelitätsgrenzen eines Anbieters für Lasttests nach
+ * ({@code .simulated.*}).
+ *
+ * Gemini und Ollama melden standardmäßig die Fähigkeit zu strukturierter
+ * Ausgabe, damit Agenten ein JSON-Schema als Antwortformat anfordern
+ * können ({@code <präfix>.<typ>.model.structuredOutput=false} schaltet
+ * das ab, z.B. für ältere Ollama-Versionen). Bei GitHub aktiviert
+ * {@code structuredOutput=true} den JSON-Modus für alle Aufrufe des
+ * Modells; er ist daher nur für das Tutor-Modell gedacht.
+ *
+ * Ist {@code <präfix>.interaction.log} gesetzt, wird jeder Aufruf der
+ * vier Modelle eines Sets als kompakter Eintrag in dieses rollierende
+ * {@link InteractionLog} geschrieben.
+ *
+ * Jedes Modell wird in ein {@link FlightRecorderChatModel} gehüllt, damit
+ * die Aufrufe in einer JFR-Aufzeichnung erscheinen.
  */
 public class KiModelFactory {
 
@@ -27,7 +55,7 @@ public class KiModelFactory {
     * die jeweiligen KI-Modelle.
     */
    public enum KiSystem {
-      GEMINI, GITHUB, OLLAMA, NONE
+      GEMINI, GITHUB, OLLAMA, STUB, REPLAY, SIMULATED, NONE
    }
 
    /**
@@ -69,19 +97,43 @@ public class KiModelFactory {
       final String baseUrl = getProperty(configProps,
             keyPrefix + ".model.baseUrl", "http://127.0.0.1:11434");
 
+      final String structuredOutput = getProperty(configProps,
+            keyPrefix + ".model.structuredOutput", null);
       final String token = resolveToken(configProps, prefix, keyPrefix);
 
       // Initialisiere das gewünschte ChatModel anhand des gewählten Systems.
-      return switch (system) {
+      final ChatModel model = switch (system) {
       case GEMINI -> createGeminiModel(modelName, token, temperature, topP,
-            logRequests, Duration.ofSeconds(timeout));
+            logRequests, Duration.ofSeconds(timeout),
+            !"false".equalsIgnoreCase(structuredOutput));
       case OLLAMA -> createOllamaModel(modelName, baseUrl, temperature, topP,
-            logRequests, Duration.ofSeconds(timeout));
+            logRequests, Duration.ofSeconds(timeout),
+            !"false".equalsIgnoreCase(structuredOutput));
       case GITHUB -> createGitHubModel(modelName, token, temperature, topP,
-            logRequests, Duration.ofSeconds(timeout));
+            logRequests, Duration.ofSeconds(timeout),
+            Boolean.parseBoolean(structuredOutput));
+      case STUB -> new StubChatModel();
+      case REPLAY -> createReplayModel(configProps, keyPrefix);
+      case SIMULATED -> createSimulatedModel(configProps, prefix, keyPrefix);
       default ->
          throw new IllegalArgumentException("Unsupported KI System: " + system);
       };
+
+      // Optional alle Aufrufe in eine Kassette aufzeichnen.
+      final String recordCassette = getProperty(configProps,
+            keyPrefix + ".record.cassette", null);
+      final ChatModel recorded = recordCassette == null ? model
+            : new RecordingChatModel(model, Path.of(recordCassette));
+
+      // Optional alle Aufrufe des Sets im Interaktionsprotokoll vermerken.
+      final InteractionLog interactionLog = openInteractionLog(configProps,
+            prefix);
+      final ChatModel logged = interactionLog == null ? recorded
+            : new InteractionLogChatModel(recorded, interactionLog, modelType,
+                  modelName);
+
+      // Jeden Aufruf als JFR-Ereignis sichtbar machen.
+      return new FlightRecorderChatModel(logged, modelType, modelName);
    }
 
    /**
@@ -93,6 +145,7 @@ public class KiModelFactory {
     * @param topP        Sampling-Parameter.
     * @param logRequests Protokollierung der Requests.
     * @param timeout     Timeout als Dauer.
+    * @param structured  Strukturierte Ausgabe (JSON-Schema) anbieten.
     *
     * @return Konfiguriertes GoogleAiGeminiChatModel.
     *
@@ -100,7 +153,8 @@ public class KiModelFactory {
     */
    private static ChatModel createGeminiModel(final String modelName,
          final String token, final double temperature, final double topP,
-         final boolean logRequests, final Duration timeout) {
+         final boolean logRequests, final Duration timeout,
+         final boolean structured) {
       if (token == null) {
          throw new IllegalArgumentException("API key for Gemini is required.");
       }
@@ -111,6 +165,7 @@ public class KiModelFactory {
          .topP(topP)
          .timeout(timeout)
          .logRequestsAndResponses(logRequests)
+         .supportedCapabilities(structuredCapabilities(structured))
          .build();
    }
 
@@ -123,6 +178,8 @@ public class KiModelFactory {
     * @param topP        Sampling-Parameter.
     * @param logRequests Protokollierung der Requests.
     * @param timeout     Timeout als Dauer.
+    * @param jsonMode    Alle Antworten als JSON-Objekt anfordern. GitHub
+    *                    unterstützt kein Antwortformat je Anfrage.
     *
     * @return Konfiguriertes GitHubModelsChatModel.
     *
@@ -130,7 +187,8 @@ public class KiModelFactory {
     */
    private static ChatModel createGitHubModel(final String modelName,
          final String token, final double temperature, final double topP,
-         final boolean logRequests, final Duration timeout) {
+         final boolean logRequests, final Duration timeout,
+         final boolean jsonMode) {
       if (token == null) {
          throw new IllegalArgumentException("GitHub token is required.");
       }
@@ -141,6 +199,8 @@ public class KiModelFactory {
          .topP(topP)
          .timeout(timeout)
          .logRequestsAndResponses(logRequests)
+         .responseFormat(
+               jsonMode ? new ChatCompletionsResponseFormatJsonObject() : null)
          .build();
    }
 
@@ -153,12 +213,14 @@ public class KiModelFactory {
     * @param topP        Sampling-Parameter.
     * @param logRequests Protokollierung der Requests.
     * @param timeout     Timeout als Dauer.
+    * @param structured  Strukturierte Ausgabe (JSON-Schema) anbieten.
     *
     * @return Konfiguriertes OllamaChatModel.
     */
    private static ChatModel createOllamaModel(final String modelName,
          final String baseUrl, final double temperature, final double topP,
-         final boolean logRequests, final Duration timeout) {
+         final boolean logRequests, final Duration timeout,
+         final boolean structured) {
       return OllamaChatModel.builder()
          .baseUrl(baseUrl)
          .modelName(modelName)
@@ -166,9 +228,84 @@ public class KiModelFactory {
          .topP(topP)
          .timeout(timeout)
          .logRequests(logRequests)
+         .supportedCapabilities(structuredCapabilities(structured))
          .build();
    }
 
+   /**
+    * Erstellt ein ChatModel, das eine aufgezeichnete Kassette abspielt.
+    *
+    * @param configProps Properties mit der Modell-Konfiguration.
+    * @param keyPrefix   Präfix des Modelltyps (z.B.
+    *                    "ermsystem.replay.analysis").
+    *
+    * @return Konfiguriertes ReplayChatModel.
+    *
+    * @throws IllegalArgumentException Falls keine Kassette angegeben ist.
+    * @throws RuntimeException         Falls die Kassette nicht geladen
+    *                                  werden kann.
+    */
+   private static ChatModel createReplayModel(final Properties configProps,
+         final String keyPrefix) {
+      final String cassette = getProperty(configProps,
+            keyPrefix + ".replay.cassette", null);
+      if (cassette == null) {
+         throw new IllegalArgumentException(
+               "Property '" + keyPrefix + ".replay.cassette' is required.");
+      }
+      final String latencyStr = getProperty(configProps,
+            keyPrefix + ".replay.latency", "ZERO");
+      final ReplayChatModel.Latency latency = ReplayChatModel.Latency
+         .valueOf(latencyStr.toUpperCase());
+      try {
+         return new ReplayChatModel(Path.of(cassette), latency);
+      } catch (final IOException e) {
+         throw new RuntimeException("Could not load cassette: " + cassette, e);
+      }
+   }
+
+   /**
+    * Erstellt ein simuliertes ChatModel für Last- und Scheduler-Tests.
+    * Ausgehend vom Profil ({@code .simulated.profile}, Standard "ollama")
+    * können alle Werte einzeln überschrieben werden.
+    *
+    * @param configProps Properties mit der Modell-Konfiguration.
+    * @param mainPrefix  Präfix des Hauptsystems; dient als Standardname
+    *                    des simulierten Servers.
+    * @param keyPrefix   Präfix des Modelltyps (z.B.
+    *                    "ermsystem.simulated.analysis").
+    *
+    * @return Konfiguriertes SimulatedChatModel.
+    */
+   private static ChatModel createSimulatedModel(final Properties configProps,
+         final String mainPrefix, final String keyPrefix) {
+      final String simPrefix = keyPrefix + ".simulated.";
+      final SimulatedChatModel.Settings profile = SimulatedChatModel.Settings
+         .profile(getProperty(configProps, simPrefix + "profile", "ollama"));
+      final SimulatedChatModel.Settings settings = new SimulatedChatModel.Settings(
+            SimulatedChatModel.Distribution.valueOf(getProperty(configProps,
+                  simPrefix + "distribution", profile.distribution()
+                     .name())
+               .toUpperCase()),
+            Long.parseLong(getProperty(configProps, simPrefix + "latencyMillis",
+                  String.valueOf(profile.latencyMillis()))),
+            Long.parseLong(getProperty(configProps, simPrefix + "jitterMillis",
+                  String.valueOf(profile.jitterMillis()))),
+            Double.parseDouble(getProperty(configProps,
+                  simPrefix + "tokensPerSecond",
+                  String.valueOf(profile.tokensPerSecond()))),
+            Double.parseDouble(getProperty(configProps, simPrefix + "errorRate",
+                  String.valueOf(profile.errorRate()))),
+            Integer.parseInt(getProperty(configProps, simPrefix + "maxConcurrent",
+                  String.valueOf(profile.maxConcurrent()))),
+            Boolean.parseBoolean(getProperty(configProps,
+                  simPrefix + "rejectWhenBusy",
+                  String.valueOf(profile.rejectWhenBusy()))),
+            Long.parseLong(getProperty(configProps, simPrefix + "seed", "0")));
+      return new SimulatedChatModel(settings,
+            getProperty(configProps, simPrefix + "server", mainPrefix));
+   }
+
    /**
     * Hilfsfunktion zum Auslesen einer Eigenschaft aus der
     * Properties-Datei.
@@ -202,6 +339,55 @@ public class KiModelFactory {
       return KiSystem.NONE;
    }
 
+   /**
+    * Lädt eine Konfigurationsdatei mit den Modell-Einstellungen.
+    *
+    * @param configFile Pfad zur Properties-Datei.
+    *
+    * @return Die geladenen Eigenschaften.
+    *
+    * @throws IOException Falls die Datei fehlt oder nicht lesbar ist.
+    */
+   public static Properties loadConfig(final File configFile)
+         throws IOException {
+      if (!configFile.exists()) {
+         throw new IOException(
+               "Die angegebene Konfigurationsdatei existiert nicht: "
+                     + configFile.getAbsolutePath());
+      }
+      final Properties configProps = new Properties();
+      try (FileInputStream fis = new FileInputStream(configFile)) {
+         configProps.load(fis);
+      }
+      return configProps;
+   }
+
+   /**
+    * Öffnet das Interaktionsprotokoll eines Konfigurations-Sets
+    * ({@code <präfix>.interaction.log}, optional {@code .maxBytes} und
+    * {@code .maxFiles}).
+    *
+    * @param configProps Die Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix.
+    *
+    * @return Das Protokoll oder null, wenn keines konfiguriert ist.
+    */
+   private static InteractionLog openInteractionLog(
+         final Properties configProps, final String prefix) {
+      final String file = getProperty(configProps, prefix + ".interaction.log",
+            null);
+      if (file == null) {
+         return null;
+      }
+      final long maxBytes = Long.parseLong(getProperty(configProps,
+            prefix + ".interaction.log.maxBytes",
+            String.valueOf(InteractionLog.DEFAULT_MAX_BYTES)));
+      final int maxFiles = Integer.parseInt(getProperty(configProps,
+            prefix + ".interaction.log.maxFiles",
+            String.valueOf(InteractionLog.DEFAULT_MAX_FILES)));
+      return InteractionLog.open(Path.of(file), maxBytes, maxFiles);
+   }
+
    /**
     * Löst das benötigte Token für das KI-System aus der Konfiguration oder
     * einer sicheren Properties-Datei auf.
@@ -255,4 +441,18 @@ public class KiModelFactory {
       // Fallback auf Klartext-Token aus Hauptkonfiguration
       return getProperty(configProps, modelPrefix + ".model.apiKey", null);
    }
+
+   /**
+    * Liefert die gemeldeten Fähigkeiten eines Anbieters mit oder ohne
+    * strukturierte Ausgabe.
+    *
+    * @param structured Strukturierte Ausgabe anbieten.
+    *
+    * @return Die Fähigkeiten.
+    */
+   private static Set<Capability> structuredCapabilities(
+         final boolean structured) {
+      return structured ? Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA)
+            : Set.of();
+   }
 }
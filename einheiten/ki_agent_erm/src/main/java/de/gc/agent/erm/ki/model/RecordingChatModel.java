@@ -0,0 +1,72 @@
+package de.gc.agent.erm.ki.model;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Ein ChatModel, das alle Aufrufe an ein echtes Modell weiterreicht und
+ * dabei Anfrage, Antwort und Antwortzeit in eine {@link ChatCassette}
+ * schreibt.
+ *
+ * Die aufgezeichnete Kassette kann später mit dem
+ * {@link ReplayChatModel} ohne Netzwerk abgespielt werden.
+ */
+public class RecordingChatModel implements ChatModel {
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Die Kassettendatei, an die angehängt wird. */
+   private final Path cassette;
+
+   /**
+    * Erstellt ein aufzeichnendes Modell.
+    *
+    * @param delegate Das eigentliche Modell.
+    * @param cassette Die Kassettendatei.
+    */
+   public RecordingChatModel(final ChatModel delegate, final Path cassette) {
+      this.delegate = delegate;
+      this.cassette = cassette;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ruft das eigentliche Modell auf und zeichnet den Aufruf auf.
+    * Fehlgeschlagene Aufrufe werden nicht aufgezeichnet.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final long start = System.nanoTime();
+      final ChatResponse response = delegate.chat(request);
+      final long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+      ChatCassette.append(cassette,
+            ChatCassette.Entry.of(request, response, latencyMillis));
+      return response;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
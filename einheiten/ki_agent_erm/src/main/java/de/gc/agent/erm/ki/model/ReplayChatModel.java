@@ -0,0 +1,109 @@
+package de.gc.agent.erm.ki.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Ein ChatModel, das Antworten aus einer zuvor aufgezeichneten
+ * {@link ChatCassette} abspielt, ohne einen KI-Anbieter anzusprechen.
+ *
+ * Wird dieselbe Anfrage mehrfach gestellt, werden die Aufnahmen in ihrer
+ * ursprünglichen Reihenfolge abgespielt; danach wird die letzte Aufnahme
+ * wiederholt. Die Antwortzeit kann wie bei der Aufnahme nachgebildet
+ * oder ganz weggelassen werden. Fehlt eine Anfrage in der Kassette, wird
+ * ein Fehler gemeldet, sodass Abweichungen in Regressionstests auffallen.
+ */
+public class ReplayChatModel implements ChatModel {
+
+   /**
+    * Wie die Antwortzeiten beim Abspielen nachgebildet werden.
+    */
+   public enum Latency {
+      /** Wartet so lange wie beim Aufzeichnen. */
+      ORIGINAL,
+      /** Antwortet sofort. */
+      ZERO
+   }
+
+   /** Aufnahmen je Anfrage-Schlüssel. */
+   private final Map<String, List<ChatCassette.Entry>> entries = new HashMap<>();
+
+   /** Anzahl bereits abgespielter Aufnahmen je Schlüssel. */
+   private final Map<String, Integer> played = new HashMap<>();
+
+   /** Die Kassettendatei (für Fehlermeldungen). */
+   private final Path cassette;
+
+   /** Nachbildung der Antwortzeit. */
+   private final Latency latency;
+
+   /**
+    * Lädt eine Kassette zum Abspielen.
+    *
+    * @param cassette Die Kassettendatei.
+    * @param latency  Nachbildung der Antwortzeit.
+    *
+    * @throws IOException Falls die Kassette fehlt oder fehlerhaft ist.
+    */
+   public ReplayChatModel(final Path cassette, final Latency latency)
+         throws IOException {
+      this.cassette = cassette;
+      this.latency = latency;
+      for (final ChatCassette.Entry entry : ChatCassette.load(cassette)) {
+         entries.computeIfAbsent(entry.key(), k -> new ArrayList<>())
+            .add(entry);
+      }
+   }
+
+   /**
+    * Liefert die aufgezeichnete Antwort zur Anfrage.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die aufgezeichnete Antwort.
+    *
+    * @throws IllegalStateException Falls die Anfrage nicht aufgezeichnet
+    *                               wurde.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final String key = ChatCassette.key(request);
+      final ChatCassette.Entry entry;
+      synchronized (this) {
+         final List<ChatCassette.Entry> recorded = entries.get(key);
+         if (recorded == null) {
+            throw new IllegalStateException(
+                  "Keine Aufnahme für diese Anfrage in der Kassette "
+                        + cassette + " (Schlüssel " + key + ").");
+         }
+         final int index = played.merge(key, 1, Integer::sum) - 1;
+         entry = recorded.get(Math.min(index, recorded.size() - 1));
+      }
+      if (latency == Latency.ORIGINAL && entry.latencyMillis() > 0) {
+         try {
+            Thread.sleep(entry.latencyMillis());
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+               .interrupt();
+         }
+      }
+      return entry.toResponse();
+   }
+
+   /**
+    * Liefert die Anzahl aufgezeichneter unterschiedlicher Anfragen.
+    *
+    * @return Anzahl Schlüssel in der Kassette.
+    */
+   public int size() {
+      return entries.size();
+   }
+}
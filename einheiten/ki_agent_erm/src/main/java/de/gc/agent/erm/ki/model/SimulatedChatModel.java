@@ -0,0 +1,261 @@
+package de.gc.agent.erm.ki.model;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Ein simuliertes ChatModel für Last- und Scheduler-Tests.
+ *
+ * Die Antworten entsprechen formal denen des {@link StubChatModel}
+ * (Pipe-Zeilen, PlantUML, SQL-DDL, Tutor-JSON). Zusätzlich werden die
+ * Eigenschaften eines echten Anbieters nachgebildet: eine zufällige
+ * Wartezeit bis zum ersten Token, eine Ausgabegeschwindigkeit in Tokens
+ * pro Sekunde, eine Fehlerquote und eine begrenzte Anzahl gleichzeitig
+ * bearbeiteter Anfragen.
+ *
+ * Alle Modelle mit demselben Servernamen teilen sich die
+ * Parallelitätsgrenze, so wie sich mehrere Agenten einen Ollama-Server
+ * teilen. Ist die Grenze erreicht, warten weitere Anfragen (Ollama) oder
+ * werden mit einem Rate-Limit-Fehler abgewiesen (Cloud-Anbieter).
+ */
+public class SimulatedChatModel implements ChatModel {
+
+   /**
+    * Verteilung der Wartezeit bis zum ersten Token.
+    */
+   public enum Distribution {
+      /** Immer genau der Mittelwert. */
+      CONSTANT,
+      /** Gleichverteilt im Bereich Mittelwert ± Streuung. */
+      UNIFORM,
+      /** Normalverteilt (negative Werte werden auf 0 gesetzt). */
+      NORMAL,
+      /** Log-normalverteilt mit langem Ausläufer nach oben. */
+      LOGNORMAL,
+      /** Exponentialverteilt (Streuung wird ignoriert). */
+      EXPONENTIAL
+   }
+
+   /**
+    * Einstellungen der Simulation.
+    *
+    * @param distribution    Verteilung der Wartezeit bis zum ersten Token.
+    * @param latencyMillis   Mittlere Wartezeit bis zum ersten Token.
+    * @param jitterMillis    Streuung (Standardabweichung) der Wartezeit.
+    * @param tokensPerSecond Ausgabegeschwindigkeit; 0 für unbegrenzt.
+    * @param errorRate       Anteil fehlschlagender Anfragen (0 bis 1).
+    * @param maxConcurrent   Maximale Anzahl gleichzeitiger Anfragen.
+    * @param rejectWhenBusy  Anfragen bei voller Auslastung abweisen statt
+    *                        warten lassen.
+    * @param seed            Startwert des Zufallsgenerators; 0 für einen
+    *                        zufälligen Startwert.
+    */
+   public record Settings(Distribution distribution, long latencyMillis,
+         long jitterMillis, double tokensPerSecond, double errorRate,
+         int maxConcurrent, boolean rejectWhenBusy, long seed) {
+
+      /**
+       * Einstellungen, die einem Cloud-Anbieter ähneln: viele parallele
+       * Anfragen, schnelle Ausgabe, gelegentliche Fehler und Rate-Limits.
+       *
+       * @return Die Einstellungen.
+       */
+      public static Settings cloud() {
+         return new Settings(Distribution.LOGNORMAL, 600, 250, 80.0, 0.02, 8,
+               true, 0);
+      }
+
+      /**
+       * Einstellungen, die einem lokalen Ollama-Server ähneln: eine
+       * Anfrage zur Zeit, langsame Ausgabe, keine Fehler.
+       *
+       * @return Die Einstellungen.
+       */
+      public static Settings ollama() {
+         return new Settings(Distribution.NORMAL, 400, 100, 20.0, 0.0, 1,
+               false, 0);
+      }
+
+      /**
+       * Liefert die Einstellungen eines benannten Profils.
+       *
+       * @param name Name des Profils ("ollama" oder "cloud").
+       *
+       * @return Die Einstellungen.
+       *
+       * @throws IllegalArgumentException Bei unbekanntem Profil.
+       */
+      public static Settings profile(final String name) {
+         return switch (name.toLowerCase()) {
+         case "ollama" -> ollama();
+         case "cloud" -> cloud();
+         default -> throw new IllegalArgumentException(
+               "Unbekanntes Simulationsprofil: " + name);
+         };
+      }
+   }
+
+   /** Gemeinsame Parallelitätsgrenzen je simuliertem Server. */
+   private static final Map<String, Semaphore> SERVERS = new ConcurrentHashMap<>();
+
+   /** Wartezeit auf einen freien Platz beim letzten Aufruf je Thread. */
+   private static final ThreadLocal<Long> LAST_QUEUE_WAIT = ThreadLocal
+      .withInitial(() -> 0L);
+
+   /**
+    * Liefert, wie lange der letzte Aufruf des aktuellen Threads auf einen
+    * freien Platz beim simulierten Server gewartet hat. Wird vom Lasttest
+    * ausgewertet, um die Warteschlangenzeit getrennt auszuweisen.
+    *
+    * @return Wartezeit in Nanosekunden.
+    */
+   public static long lastQueueWaitNanos() {
+      return LAST_QUEUE_WAIT.get();
+   }
+
+   /** Einstellungen der Simulation. */
+   private final Settings settings;
+
+   /** Parallelitätsgrenze des simulierten Servers. */
+   private final Semaphore permits;
+
+   /** Zufallsgenerator für Wartezeiten und Fehler. */
+   private final Random random;
+
+   /**
+    * Erstellt ein simuliertes Modell.
+    *
+    * @param settings Einstellungen der Simulation.
+    * @param server   Name des simulierten Servers; Modelle mit gleichem
+    *                 Namen teilen sich die Parallelitätsgrenze des zuerst
+    *                 erzeugten Modells.
+    */
+   public SimulatedChatModel(final Settings settings, final String server) {
+      this.settings = settings;
+      this.permits = SERVERS.computeIfAbsent(server,
+            s -> new Semaphore(Math.max(1, settings.maxConcurrent()), true));
+      this.random = settings.seed() == 0 ? new Random()
+            : new Random(settings.seed());
+   }
+
+   /**
+    * Beantwortet eine Anfrage nach der simulierten Warte- und
+    * Ausgabezeit.
+    *
+    * @param request Die Chat-Anfrage.
+    *
+    * @return Die Antwort im Format des erkannten Agenten.
+    *
+    * @throws RateLimitException      Falls der Server ausgelastet ist und
+    *                                 Anfragen abweist.
+    * @throws InternalServerException Bei einem simulierten Serverfehler.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final String prompt = StubChatModel.promptText(request);
+      final String answer = StubChatModel.responseFor(prompt);
+      final int outputTokens = StubChatModel.estimateTokens(answer);
+
+      final long queued = System.nanoTime();
+      LAST_QUEUE_WAIT.set(0L);
+      if (settings.rejectWhenBusy()) {
+         if (!permits.tryAcquire()) {
+            throw new RateLimitException(
+                  "Simulierter Fehler: 429 Too Many Requests");
+         }
+      } else {
+         try {
+            permits.acquire();
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+               .interrupt();
+            throw new IllegalStateException("Simulierte Anfrage abgebrochen.",
+                  e);
+         }
+         LAST_QUEUE_WAIT.set(System.nanoTime() - queued);
+      }
+      try {
+         final boolean fails;
+         final long firstTokenMillis;
+         synchronized (random) {
+            fails = random.nextDouble() < settings.errorRate();
+            firstTokenMillis = sampleLatency();
+         }
+         if (fails) {
+            sleep(firstTokenMillis);
+            throw new InternalServerException(
+                  "Simulierter Fehler: 503 Service Unavailable");
+         }
+         final long outputMillis = settings.tokensPerSecond() > 0
+               ? Math.round(outputTokens * 1000.0 / settings.tokensPerSecond())
+               : 0;
+         sleep(firstTokenMillis + outputMillis);
+      } finally {
+         permits.release();
+      }
+
+      return ChatResponse.builder()
+         .aiMessage(AiMessage.from(answer))
+         .modelName("simulated")
+         .tokenUsage(
+               new TokenUsage(StubChatModel.estimateTokens(prompt), outputTokens))
+         .finishReason(FinishReason.STOP)
+         .build();
+   }
+
+   /**
+    * Zieht eine Wartezeit bis zum ersten Token aus der eingestellten
+    * Verteilung. Muss unter der Sperre des Zufallsgenerators aufgerufen
+    * werden.
+    *
+    * @return Wartezeit in Millisekunden.
+    */
+   private long sampleLatency() {
+      final double mean = settings.latencyMillis();
+      final double jitter = settings.jitterMillis();
+      final double value = switch (settings.distribution()) {
+      case CONSTANT -> mean;
+      case UNIFORM -> mean - jitter + 2 * jitter * random.nextDouble();
+      case NORMAL -> mean + jitter * random.nextGaussian();
+      case LOGNORMAL -> {
+         if (mean <= 0) {
+            yield 0;
+         }
+         final double sigma2 = Math.log(1 + jitter * jitter / (mean * mean));
+         final double mu = Math.log(mean) - sigma2 / 2;
+         yield Math.exp(mu + Math.sqrt(sigma2) * random.nextGaussian());
+      }
+      case EXPONENTIAL -> -mean * Math.log(1 - random.nextDouble());
+      };
+      return Math.max(0, Math.round(value));
+   }
+
+   /**
+    * Wartet die angegebene Zeit.
+    *
+    * @param millis Wartezeit in Millisekunden.
+    */
+   private void sleep(final long millis) {
+      if (millis <= 0) {
+         return;
+      }
+      try {
+         Thread.sleep(millis);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IllegalStateException("Simulierte Anfrage abgebrochen.", e);
+      }
+   }
+}
@@ -0,0 +1,102 @@
+package de.gc.agent.erm.ki.model;
+
+import java.util.Set;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.request.ResponseFormatType;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Ein ChatModel, das jede Anfrage um ein festes JSON-Schema als
+ * Antwortformat ergänzt, sofern das eigentliche Modell strukturierte
+ * Ausgabe unterstützt ({@link Capability#RESPONSE_FORMAT_JSON_SCHEMA}).
+ *
+ * Der Anbieter liefert dann garantiert valides JSON nach dem Schema, das
+ * ohne Bereinigung gelesen werden kann. Modelle ohne diese Fähigkeit
+ * (z.B. Stub, Kassette, GitHub) erhalten die Anfrage unverändert.
+ */
+public class StructuredOutputChatModel implements ChatModel {
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Das Antwortformat mit dem JSON-Schema. */
+   private final ResponseFormat responseFormat;
+
+   /**
+    * Erstellt ein Modell mit strukturierter Ausgabe.
+    *
+    * @param delegate Das eigentliche Modell.
+    * @param schema   Das JSON-Schema der Antworten.
+    */
+   public StructuredOutputChatModel(final ChatModel delegate,
+         final JsonSchema schema) {
+      this.delegate = delegate;
+      this.responseFormat = ResponseFormat.builder()
+         .type(ResponseFormatType.JSON)
+         .jsonSchema(schema)
+         .build();
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ergänzt das Antwortformat, falls die Anfrage keines vorgibt, und ruft
+    * das eigentliche Modell auf.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      if (!isActive() || request.responseFormat() != null) {
+         return delegate.chat(request);
+      }
+      return delegate.chat(ChatRequest.builder()
+         .messages(request.messages())
+         .parameters(request.parameters()
+            .overrideWith(ChatRequestParameters.builder()
+               .responseFormat(responseFormat)
+               .build()))
+         .build());
+   }
+
+   /**
+    * Liefert das eigentliche Modell.
+    *
+    * @return Das eigentliche Modell.
+    */
+   public ChatModel getDelegate() {
+      return delegate;
+   }
+
+   /**
+    * Gibt zurück, ob das eigentliche Modell das Schema erhält.
+    *
+    * @return true, falls strukturierte Ausgabe unterstützt wird.
+    */
+   public boolean isActive() {
+      return delegate.supportedCapabilities()
+         .contains(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
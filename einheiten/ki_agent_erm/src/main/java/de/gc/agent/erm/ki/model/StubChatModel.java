@@ -0,0 +1,205 @@
+package de.gc.agent.erm.ki.model;
+
+import java.util.stream.Collectors;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Ein lokales Platzhalter-ChatModel, das ohne Netzwerk und ohne
+ * KI-Anbieter feste, formal gültige Antworten für alle Agenten des
+ * ERM-Editors liefert.
+ *
+ * Anhand des Prompts wird erkannt, welcher Agent anfragt
+ * (Beziehungsanalyse, Tabellenmodell, SQL-DDL oder Tutor), und eine
+ * passende Antwort im jeweils erwarteten Format zurückgegeben. Das
+ * Modell eignet sich für Tests auf localhost, z.B. für das Gateway oder
+ * die Benutzeroberfläche.
+ */
+public class StubChatModel implements ChatModel {
+
+   /** Antwort im Format des AnalysisAgent (Pipe-getrennte Zeilen). */
+   static final String ANALYSIS_RESPONSE = """
+         Klasse|1|besteht aus|*|Schüler
+         Klasse|1|hat KS|1|Schüler
+         Klasse|*|hat|*|Lehrkraft
+         Klasse|*|KL|1|Lehrkraft
+         """;
+
+   /** Antwort im Format des TableModelAgent (logisches PlantUML). */
+   static final String TABLE_MODEL_RESPONSE = """
+         @startuml
+         entity Klasse {
+           + id (PK)
+           --
+           name: varchar(255)
+           + sch_ks_id (FK)
+           + leh_kl_id (FK)
+         }
+         entity Schüler {
+           + id (PK)
+           --
+           vorname: varchar(255)
+           nachname: varchar(255)
+           + klas_id (FK)
+         }
+         entity Lehrkraft {
+           + id (PK)
+           --
+           vorname: varchar(255)
+           nachname: varchar(255)
+         }
+         entity Klasse_Lehrkraft {
+           + klas_id (FK) (PK)
+           + leh_id (FK) (PK)
+         }
+         Klasse "1" -- "*" Schüler : besteht aus >
+         Klasse "1" -- "1" Schüler : hat KS >
+         Klasse "1" -- "*" Klasse_Lehrkraft : hat >
+         Lehrkraft "1" -- "*" Klasse_Lehrkraft : hat >
+         Lehrkraft "1" -- "*" Klasse : KL >
+         @enduml
+         """;
+
+   /** Antwort im Format des SqlDdlAgent (MariaDB-DDL). */
+   static final String SQL_DDL_RESPONSE = """
+         -- Tabelle für die Klassen erstellen.
+         CREATE TABLE Klasse (
+           id INT AUTO_INCREMENT PRIMARY KEY,
+           name VARCHAR(255),
+           sch_ks_id INT,
+           leh_kl_id INT
+         );
+
+         -- Tabelle für die Schüler erstellen.
+         CREATE TABLE Schüler (
+           id INT AUTO_INCREMENT PRIMARY KEY,
+           vorname VARCHAR(255),
+           nachname VARCHAR(255),
+           klas_id INT
+         );
+
+         -- Tabelle für die Lehrkräfte erstellen.
+         CREATE TABLE Lehrkraft (
+           id INT AUTO_INCREMENT PRIMARY KEY,
+           vorname VARCHAR(255),
+           nachname VARCHAR(255)
+         );
+
+         -- Zwischentabelle für die n:m-Beziehung erstellen.
+         CREATE TABLE Klasse_Lehrkraft (
+           klas_id INT,
+           leh_id INT,
+           PRIMARY KEY (klas_id, leh_id)
+         );
+
+         -- Fremdschlüssel der Schüler auf ihre Klasse.
+         ALTER TABLE Schüler ADD CONSTRAINT fk_schueler_klasse
+           FOREIGN KEY (klas_id) REFERENCES Klasse(id);
+         """;
+
+   /** Antwort im Format der Tutor-Agenten (JSON). */
+   static final String TUTOR_RESPONSE = """
+         {
+           "answer": "Dies ist eine Platzhalter-Antwort des lokalen Stub-Modells.",
+           "suggested_questions": ["Was ist eine Entität?", "Was bedeutet die Kardinalität *?", "Wozu dient eine Zwischentabelle?"]
+         }
+         """;
+
+   /**
+    * Schätzt die Tokenanzahl eines Textes (ca. vier Zeichen pro Token).
+    *
+    * @param text Der Text.
+    *
+    * @return Geschätzte Anzahl Tokens.
+    */
+   static int estimateTokens(final String text) {
+      return Math.max(1, text.length() / 4);
+   }
+
+   /**
+    * Liefert den Textinhalt einer einzelnen Chat-Nachricht.
+    *
+    * @param message Die Nachricht.
+    *
+    * @return Der Text oder ein Leerstring bei Nicht-Text-Inhalten.
+    */
+   static String messageText(final ChatMessage message) {
+      if (message instanceof final SystemMessage system) {
+         return system.text();
+      }
+      if (message instanceof final UserMessage user && user.hasSingleText()) {
+         return user.singleText();
+      }
+      if (message instanceof final AiMessage ai && ai.text() != null) {
+         return ai.text();
+      }
+      return "";
+   }
+
+   /**
+    * Setzt alle Nachrichten einer Anfrage zu einem Text zusammen.
+    *
+    * @param request Die Chat-Anfrage.
+    *
+    * @return Der Text aller System-, Benutzer- und KI-Nachrichten.
+    */
+   static String promptText(final ChatRequest request) {
+      return request.messages()
+         .stream()
+         .map(StubChatModel::messageText)
+         .collect(Collectors.joining("\n"));
+   }
+
+   /**
+    * Bestimmt die passende feste Antwort zum Prompt eines Agenten.
+    *
+    * @param prompt Der gesamte Prompt-Text.
+    *
+    * @return Die Antwort im Format des erkannten Agenten.
+    */
+   static String responseFor(final String prompt) {
+      // Tutor-Prompts zuerst prüfen, da z.B. der SQL-Tutor auch
+      // "DDL-Skript" enthält.
+      if (prompt.contains("JSON-Objekt")) {
+         return TUTOR_RESPONSE;
+      }
+      if (prompt.contains("Entität1|Kardinalität1|Verb|Kardinalität2|Entität2")) {
+         return ANALYSIS_RESPONSE;
+      }
+      if (prompt.contains("logisches Tabellenmodell")) {
+         return TABLE_MODEL_RESPONSE;
+      }
+      if (prompt.contains("DDL-Skript")) {
+         return SQL_DDL_RESPONSE;
+      }
+      return "Antwort des lokalen Stub-Modells.";
+   }
+
+   /**
+    * Beantwortet eine Anfrage sofort mit der passenden festen Antwort.
+    *
+    * @param request Die Chat-Anfrage.
+    *
+    * @return Die Antwort inklusive geschätzter Token-Nutzung.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final String prompt = promptText(request);
+      final String answer = responseFor(prompt);
+      return ChatResponse.builder()
+         .aiMessage(AiMessage.from(answer))
+         .modelName("stub")
+         .tokenUsage(new TokenUsage(estimateTokens(prompt),
+               estimateTokens(answer)))
+         .finishReason(FinishReason.STOP)
+         .build();
+   }
+}
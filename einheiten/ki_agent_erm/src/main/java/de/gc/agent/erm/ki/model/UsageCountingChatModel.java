@@ -0,0 +1,114 @@
+package de.gc.agent.erm.ki.model;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Ein ChatModel, das jeden Aufruf an das eigentliche Modell weiterreicht
+ * und Aufrufe sowie Ein- und Ausgabe-Tokens zählt.
+ *
+ * Wird vom Pipeline-Benchmark und vom Vergleichsmodus verwendet, um den
+ * Verbrauch einzelner Arbeitsschritte aus der Differenz zweier
+ * {@link #usage()}-Abfragen zu bestimmen.
+ */
+public class UsageCountingChatModel implements ChatModel {
+
+   /**
+    * Ein Zählerstand.
+    *
+    * @param calls        Anzahl der Aufrufe (auch fehlgeschlagene).
+    * @param inputTokens  Summe der Eingabe-Tokens.
+    * @param outputTokens Summe der Ausgabe-Tokens.
+    */
+   public record Usage(long calls, long inputTokens, long outputTokens) {
+
+      /**
+       * Bildet die Differenz zu einem früheren Zählerstand.
+       *
+       * @param before Der frühere Zählerstand.
+       *
+       * @return Der Verbrauch seit dem früheren Zählerstand.
+       */
+      public Usage minus(final Usage before) {
+         return new Usage(calls - before.calls,
+               inputTokens - before.inputTokens,
+               outputTokens - before.outputTokens);
+      }
+   }
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Anzahl der Aufrufe. */
+   private final AtomicLong calls = new AtomicLong();
+
+   /** Summe der Eingabe-Tokens. */
+   private final AtomicLong inputTokens = new AtomicLong();
+
+   /** Summe der Ausgabe-Tokens. */
+   private final AtomicLong outputTokens = new AtomicLong();
+
+   /**
+    * Erstellt ein zählendes Modell.
+    *
+    * @param delegate Das eigentliche Modell.
+    */
+   public UsageCountingChatModel(final ChatModel delegate) {
+      this.delegate = delegate;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ruft das eigentliche Modell auf und zählt die Tokens der Antwort.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      calls.incrementAndGet();
+      final ChatResponse response = delegate.chat(request);
+      final TokenUsage usage = response.tokenUsage();
+      if (usage != null) {
+         if (usage.inputTokenCount() != null) {
+            inputTokens.addAndGet(usage.inputTokenCount());
+         }
+         if (usage.outputTokenCount() != null) {
+            outputTokens.addAndGet(usage.outputTokenCount());
+         }
+      }
+      return response;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+
+   /**
+    * Liefert den aktuellen Zählerstand.
+    *
+    * @return Der Zählerstand.
+    */
+   public Usage usage() {
+      return new Usage(calls.get(), inputTokens.get(), outputTokens.get());
+   }
+}
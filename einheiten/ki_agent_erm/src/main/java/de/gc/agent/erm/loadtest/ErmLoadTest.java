@@ -0,0 +1,269 @@
+package de.gc.agent.erm.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.model.ProjectState;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.service.ErmGeneratorService;
+import dev.langchain4j.model.chat.ChatModel;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Lasttest für den {@link ErmGeneratorService}, der eine ganze Klasse
+ * gleichzeitig arbeitender Schüler nachbildet.
+ *
+ * Jeder virtuelle Benutzer läuft auf einem eigenen virtuellen Thread und
+ * durchläuft den Arbeitsablauf der Oberfläche: Beschreibung analysieren,
+ * ERM rendern, Tutor fragen, Tabellenmodell erzeugen und rendern, SQL-DDL
+ * erzeugen, SQL-Tutor fragen, Projekt speichern und laden. Zwischen den
+ * Schritten wird eine zufällige Denkzeit eingelegt.
+ *
+ * Als KI-Anbieter dient ein beliebiges Konfigurations-Set, sinnvoll sind
+ * vor allem {@code STUB}, {@code REPLAY} und {@code SIMULATED}. Am Ende
+ * werden Durchsatz, Perzentile je Operation, Wartezeiten beim Anbieter
+ * sowie Heap- und Thread-Nutzung ausgegeben.
+ */
+@Command(name = "ERM-Lasttest", version = "1.0", mixinStandardHelpOptions = true, description = "Simuliert eine Klasse gleichzeitiger Benutzer des ERM-Editors.")
+public class ErmLoadTest implements Callable<Integer> {
+
+   /** Beschreibungstexte, aus denen die virtuellen Benutzer wählen. */
+   private static final String[] DESCRIPTIONS = {
+         "Eine Schule hat mehrere Klassen. Jede Klasse besteht aus vielen "
+               + "Schülern und hat genau einen Klassensprecher. Lehrkräfte "
+               + "unterrichten mehrere Klassen, eine Klasse wird von mehreren "
+               + "Lehrkräften unterrichtet. Jede Klasse hat eine Lehrkraft "
+               + "als Klassenleitung.",
+         "In einer Bibliothek können Leser Bücher ausleihen. Ein Buch hat "
+               + "mehrere Autoren, ein Autor schreibt mehrere Bücher. Jedes "
+               + "Buch gehört zu genau einem Verlag.",
+         "Ein Online-Shop verwaltet Kunden, Bestellungen und Artikel. Ein "
+               + "Kunde gibt viele Bestellungen auf. Eine Bestellung enthält "
+               + "mehrere Artikel, ein Artikel kann in vielen Bestellungen "
+               + "vorkommen.",
+         "Ein Sportverein hat Mitglieder und Mannschaften. Ein Mitglied "
+               + "spielt in mehreren Mannschaften. Jede Mannschaft hat genau "
+               + "einen Trainer, der ebenfalls Mitglied ist." };
+
+   /** Fragen an den Beziehungs-Tutor. */
+   private static final String[] TUTOR_QUESTIONS = {
+         "Warum ist die Beziehung zwischen Klasse und Lehrkraft n:m?",
+         "Was bedeutet die Kardinalität 1 bei Klassensprecher?",
+         "Wie erkenne ich eine Rolle in der Beschreibung?" };
+
+   /**
+    * Hauptmethode: Startet Picocli und anschließend den Lasttest.
+    *
+    * @param args Kommandozeilenargumente.
+    */
+   public static void main(final String[] args) {
+      final int exitCode = new CommandLine(new ErmLoadTest()).execute(args);
+      System.exit(exitCode);
+   }
+
+   @Parameters(index = "0", description = "Der Konfigurations-Präfix (z.B. 'ermsystem.simulated') aus der Properties-Datei.")
+   private String configPrefix;
+
+   @Parameters(index = "1", description = "Pfad zur Properties-Datei.")
+   private File configFile;
+
+   @Option(names = "--users", defaultValue = "30", description = "Anzahl virtueller Benutzer.")
+   private int users;
+
+   @Option(names = "--iterations", defaultValue = "1", description = "Anzahl Sitzungen je Benutzer.")
+   private int iterations;
+
+   @Option(names = "--ramp-up-seconds", defaultValue = "10", description = "Zeitraum, über den die Benutzer nacheinander starten.")
+   private int rampUpSeconds;
+
+   @Option(names = "--think-time-millis", defaultValue = "2000", description = "Mittlere Denkzeit zwischen zwei Schritten (exponentialverteilt, 0 = keine).")
+   private long thinkTimeMillis;
+
+   @Option(names = "--no-render", description = "Diagramme nicht mit PlantUML rendern.")
+   private boolean noRender;
+
+   @Option(names = "--seed", defaultValue = "1", description = "Startwert für Denkzeiten und Auswahl der Beschreibungen.")
+   private long seed;
+
+   /** Gemeinsamer Service aller virtuellen Benutzer. */
+   private ErmGeneratorService service;
+
+   /** Sammelt alle Messwerte. */
+   private final LoadTestRecorder recorder = new LoadTestRecorder();
+
+   /**
+    * Lädt die Konfiguration, startet alle virtuellen Benutzer und gibt
+    * den Bericht aus.
+    *
+    * @return Exit-Code (0: Erfolg, 1: Fehler)
+    *
+    * @throws Exception Bei Initialisierungsschwierigkeiten.
+    */
+   @Override
+   public Integer call() throws Exception {
+      final Properties configProps;
+      try {
+         configProps = KiModelFactory.loadConfig(configFile);
+      } catch (final IOException e) {
+         System.err.println(
+               "Fehler beim Laden der Konfigurationsdatei: " + e.getMessage());
+         return 1;
+      }
+      service = new ErmGeneratorService(metered(configProps, "analysis"),
+            metered(configProps, "table"), metered(configProps, "sql"),
+            metered(configProps, "tutor"));
+      // Jede Sitzung soll die Modelle und PlantUML tatsächlich belasten
+      service.setCaching(false);
+
+      final Path workDir = Files.createTempDirectory("erm-lasttest");
+      System.out.printf("Starte %d Benutzer mit je %d Sitzung(en) gegen '%s'"
+            + "...%n", users, iterations, configPrefix);
+
+      recorder.startSampling(250);
+      final long start = System.nanoTime();
+      try (ExecutorService executor = Executors
+         .newVirtualThreadPerTaskExecutor()) {
+         final List<Future<?>> futures = new ArrayList<>();
+         for (int user = 0; user < users; user++) {
+            final int userId = user;
+            final long delayMillis = users <= 1 ? 0
+                  : rampUpSeconds * 1000L * user / (users - 1);
+            futures.add(executor.submit(() -> {
+               Thread.sleep(delayMillis);
+               runUser(userId, workDir);
+               return null;
+            }));
+         }
+         for (final Future<?> future : futures) {
+            future.get();
+         }
+      } finally {
+         recorder.stopSampling();
+      }
+      recorder.printReport(System.out, System.nanoTime() - start);
+      return 0;
+   }
+
+   /**
+    * Erstellt das Modell eines Typs und umhüllt es für die Messung.
+    *
+    * @param configProps Die geladene Konfiguration.
+    * @param modelType   Der Modelltyp (z.B. "analysis").
+    *
+    * @return Das gemessene Modell.
+    */
+   private ChatModel metered(final Properties configProps,
+         final String modelType) {
+      return new MeteredChatModel(
+            KiModelFactory.createFromPrefix(configProps, configPrefix,
+                  modelType));
+   }
+
+   /**
+    * Durchläuft eine Sitzung wie ein Schüler in der Oberfläche.
+    *
+    * @param random  Zufallsgenerator des Benutzers.
+    * @param project Datei für Speichern und Laden.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void runSession(final Random random, final File project)
+         throws InterruptedException {
+      final String description = DESCRIPTIONS[random
+         .nextInt(DESCRIPTIONS.length)];
+
+      final List<Relationship> relationships = recorder.measure("analyse",
+            () -> service.analyzeDescription(description));
+      if (relationships == null) {
+         return;
+      }
+      final String ermPuml = service
+         .generatePlantUmlFromRelationships(relationships);
+      if (!noRender) {
+         recorder.measure("render-erm",
+               () -> service.renderPlantUmlPng(ermPuml));
+      }
+      think(random);
+
+      recorder.measure("tutor-beziehung",
+            () -> service.getTutorResponse(relationships.toString(),
+                  TUTOR_QUESTIONS[random.nextInt(TUTOR_QUESTIONS.length)]));
+      think(random);
+
+      final String tablePuml = recorder.measure("tabellenmodell",
+            () -> service.generateTableModelPlantUml(ermPuml));
+      if (tablePuml == null) {
+         return;
+      }
+      if (!noRender) {
+         recorder.measure("render-tabellenmodell",
+               () -> service.renderPlantUmlPng(tablePuml));
+      }
+      think(random);
+
+      final String sqlDdl = recorder.measure("sql-ddl",
+            () -> service.generateSqlDdl(tablePuml));
+      think(random);
+
+      recorder.measure("tutor-sql", () -> service.getSqlDdlTutorResponse(
+            sqlDdl == null ? "" : sqlDdl, "Wozu dient der Fremdschlüssel?"));
+
+      recorder.measure("speichern-laden", () -> {
+         service.saveProjectState(new ProjectState(description, relationships,
+               ermPuml, tablePuml, sqlDdl), project);
+         return service.loadProjectState(project);
+      });
+      recorder.sessionCompleted();
+   }
+
+   /**
+    * Führt alle Sitzungen eines virtuellen Benutzers aus.
+    *
+    * @param userId  Nummer des Benutzers.
+    * @param workDir Arbeitsverzeichnis für Projektdateien.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void runUser(final int userId, final Path workDir)
+         throws InterruptedException {
+      final Random random = new Random(seed + userId);
+      final File project = workDir.resolve("benutzer-" + userId + ".json")
+         .toFile();
+      recorder.beginUser();
+      try {
+         for (int i = 0; i < iterations; i++) {
+            runSession(random, project);
+         }
+      } finally {
+         recorder.endUser();
+      }
+   }
+
+   /**
+    * Wartet eine exponentialverteilte Denkzeit.
+    *
+    * @param random Zufallsgenerator des Benutzers.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void think(final Random random) throws InterruptedException {
+      if (thinkTimeMillis > 0) {
+         Thread.sleep(Math
+            .round(-thinkTimeMillis * Math.log(1 - random.nextDouble())));
+      }
+   }
+}
@@ -0,0 +1,343 @@
+package de.gc.agent.erm.loadtest;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Sammelt die Messwerte eines Lasttests und gibt am Ende einen Bericht
+ * aus.
+ *
+ * Je Operation werden alle Antwortzeiten gespeichert, sodass im Bericht
+ * Perzentile berechnet werden können. Zusätzlich wird je Operation
+ * erfasst, wie viel Zeit in KI-Aufrufen und davon in der Warteschlange
+ * des (simulierten) Anbieters verbracht wurde. Ein Hintergrund-Thread
+ * beobachtet Heap, Threads und Garbage Collection.
+ */
+public class LoadTestRecorder {
+
+   /**
+    * Messwerte der KI-Aufrufe innerhalb der aktuell gemessenen Operation.
+    */
+   private static final class CallContext {
+
+      /** Summe der Aufrufzeiten in Nanosekunden. */
+      private long modelNs;
+
+      /** Summe der Wartezeiten in Nanosekunden. */
+      private long queueNs;
+
+      /** Anzahl Eingabe-Tokens. */
+      private long inputTokens;
+
+      /** Anzahl Ausgabe-Tokens. */
+      private long outputTokens;
+   }
+
+   /**
+    * Messwerte einer einzelnen Operation über alle virtuellen Benutzer.
+    */
+   private static final class OperationStats {
+
+      /** Antwortzeiten erfolgreicher Ausführungen in Nanosekunden. */
+      private final List<Long> latencies = new ArrayList<>();
+
+      /** Anzahl fehlgeschlagener Ausführungen. */
+      private final LongAdder errors = new LongAdder();
+
+      /** Summe der KI-Aufrufzeiten in Nanosekunden. */
+      private final LongAdder modelNs = new LongAdder();
+
+      /** Summe der Wartezeiten beim Anbieter in Nanosekunden. */
+      private final LongAdder queueNs = new LongAdder();
+
+      /** Anzahl Eingabe-Tokens. */
+      private final LongAdder inputTokens = new LongAdder();
+
+      /** Anzahl Ausgabe-Tokens. */
+      private final LongAdder outputTokens = new LongAdder();
+
+      /** Erste Fehlermeldung (zur Diagnose im Bericht). */
+      private volatile String firstError;
+   }
+
+   /** KI-Aufrufe der Operation, die auf dem aktuellen Thread läuft. */
+   private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+
+   /**
+    * Berechnet ein Perzentil aus sortierten Werten (Nearest-Rank).
+    *
+    * @param sorted     Aufsteigend sortierte Werte.
+    * @param percentile Perzentil zwischen 0 und 100.
+    *
+    * @return Der Wert des Perzentils oder 0 bei leerer Eingabe.
+    */
+   public static long percentile(final long[] sorted,
+         final double percentile) {
+      if (sorted.length == 0) {
+         return 0;
+      }
+      final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+   }
+
+   /**
+    * Erfasst einen KI-Aufruf für die Operation des aktuellen Threads.
+    * Aufrufe außerhalb von {@link #measure(String, Callable)} werden
+    * ignoriert.
+    *
+    * @param modelNs Dauer des Aufrufs in Nanosekunden.
+    * @param queueNs Davon Wartezeit beim Anbieter in Nanosekunden.
+    * @param usage   Token-Nutzung (kann null sein).
+    */
+   static void recordModelCall(final long modelNs, final long queueNs,
+         final TokenUsage usage) {
+      final CallContext context = CURRENT.get();
+      if (context == null) {
+         return;
+      }
+      context.modelNs += modelNs;
+      context.queueNs += queueNs;
+      if (usage != null) {
+         context.inputTokens += usage.inputTokenCount() == null ? 0
+               : usage.inputTokenCount();
+         context.outputTokens += usage.outputTokenCount() == null ? 0
+               : usage.outputTokenCount();
+      }
+   }
+
+   /**
+    * Rechnet Nanosekunden in Millisekunden um.
+    *
+    * @param nanos Nanosekunden.
+    *
+    * @return Millisekunden.
+    */
+   private static double toMillis(final double nanos) {
+      return nanos / 1_000_000.0;
+   }
+
+   /** Messwerte je Operation, sortiert nach Namen. */
+   private final Map<String, OperationStats> operations = new ConcurrentSkipListMap<>();
+
+   /** Anzahl gerade aktiver virtueller Benutzer. */
+   private final AtomicInteger activeUsers = new AtomicInteger();
+
+   /** Höchste Anzahl gleichzeitig aktiver virtueller Benutzer. */
+   private final AtomicInteger peakActiveUsers = new AtomicInteger();
+
+   /** Anzahl abgeschlossener Sitzungen. */
+   private final LongAdder sessions = new LongAdder();
+
+   /** Höchster beobachteter Heap-Verbrauch in Bytes. */
+   private final AtomicLong peakHeapUsed = new AtomicLong();
+
+   /** Summe der beobachteten Heap-Werte (für den Mittelwert). */
+   private final LongAdder heapSamplesSum = new LongAdder();
+
+   /** Anzahl Heap-Beobachtungen. */
+   private final LongAdder heapSamples = new LongAdder();
+
+   /** Hintergrund-Thread für die Ressourcenbeobachtung. */
+   private ScheduledExecutorService sampler;
+
+   /** GC-Anzahl beim Start. */
+   private long gcCountAtStart;
+
+   /** GC-Zeit beim Start in Millisekunden. */
+   private long gcTimeAtStart;
+
+   /**
+    * Meldet den Start einer Sitzung eines virtuellen Benutzers.
+    */
+   public void beginUser() {
+      peakActiveUsers.accumulateAndGet(activeUsers.incrementAndGet(),
+            Math::max);
+   }
+
+   /**
+    * Meldet das Ende einer Sitzung eines virtuellen Benutzers.
+    */
+   public void endUser() {
+      activeUsers.decrementAndGet();
+   }
+
+   /**
+    * Liefert die Summen aus Anzahl und Zeit aller Garbage Collectors.
+    *
+    * @return Anzahl und Zeit in Millisekunden.
+    */
+   private long[] gcTotals() {
+      long count = 0;
+      long time = 0;
+      for (final GarbageCollectorMXBean gc : ManagementFactory
+         .getGarbageCollectorMXBeans()) {
+         count += Math.max(0, gc.getCollectionCount());
+         time += Math.max(0, gc.getCollectionTime());
+      }
+      return new long[] { count, time };
+   }
+
+   /**
+    * Führt eine Operation aus und misst sie. Fehler werden gezählt und
+    * nicht weitergereicht, damit der virtuelle Benutzer fortfahren kann.
+    *
+    * @param <T>       Ergebnistyp der Operation.
+    * @param operation Name der Operation im Bericht.
+    * @param work      Die auszuführende Arbeit.
+    *
+    * @return Das Ergebnis oder null bei einem Fehler.
+    */
+   public <T> T measure(final String operation, final Callable<T> work) {
+      final OperationStats stats = operations.computeIfAbsent(operation,
+            o -> new OperationStats());
+      final CallContext context = new CallContext();
+      CURRENT.set(context);
+      final long start = System.nanoTime();
+      try {
+         final T result = work.call();
+         final long elapsed = System.nanoTime() - start;
+         synchronized (stats.latencies) {
+            stats.latencies.add(elapsed);
+         }
+         return result;
+      } catch (final Exception e) {
+         stats.errors.increment();
+         if (stats.firstError == null) {
+            stats.firstError = e.getClass()
+               .getSimpleName() + ": " + e.getMessage();
+         }
+         return null;
+      } finally {
+         CURRENT.remove();
+         stats.modelNs.add(context.modelNs);
+         stats.queueNs.add(context.queueNs);
+         stats.inputTokens.add(context.inputTokens);
+         stats.outputTokens.add(context.outputTokens);
+      }
+   }
+
+   /**
+    * Gibt den Bericht aus.
+    *
+    * @param out       Ziel der Ausgabe.
+    * @param wallNanos Gesamtdauer des Lasttests in Nanosekunden.
+    */
+   public void printReport(final PrintStream out, final long wallNanos) {
+      final double seconds = wallNanos / 1_000_000_000.0;
+      out.println();
+      out.printf("Dauer: %.1f s, Sitzungen: %d (%.2f/min), "
+            + "max. gleichzeitige Benutzer: %d%n", seconds, sessions.sum(),
+            sessions.sum() / seconds * 60, peakActiveUsers.get());
+      out.println();
+      out.printf("%-22s %6s %6s %8s %8s %8s %8s %8s %8s %9s %9s %9s%n",
+            "Operation", "Anzahl", "Fehler", "pro s", "p50 ms", "p90 ms",
+            "p95 ms", "p99 ms", "max ms", "Ø KI ms", "Ø Warte", "Tokens");
+      long totalTokens = 0;
+      for (final Map.Entry<String, OperationStats> entry : operations
+         .entrySet()) {
+         final OperationStats stats = entry.getValue();
+         final long[] sorted;
+         synchronized (stats.latencies) {
+            sorted = stats.latencies.stream()
+               .mapToLong(Long::longValue)
+               .sorted()
+               .toArray();
+         }
+         final long executions = sorted.length + stats.errors.sum();
+         final long tokens = stats.inputTokens.sum() + stats.outputTokens.sum();
+         totalTokens += tokens;
+         out.printf(
+               "%-22s %6d %6d %8.2f %8.0f %8.0f %8.0f %8.0f %8.0f %9.0f %9.0f %9d%n",
+               entry.getKey(), executions, stats.errors.sum(),
+               executions / seconds, toMillis(percentile(sorted, 50)),
+               toMillis(percentile(sorted, 90)),
+               toMillis(percentile(sorted, 95)),
+               toMillis(percentile(sorted, 99)),
+               toMillis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+               executions == 0 ? 0
+                     : toMillis((double) stats.modelNs.sum() / executions),
+               executions == 0 ? 0
+                     : toMillis((double) stats.queueNs.sum() / executions),
+               tokens);
+      }
+      out.println();
+      out.printf("Tokens gesamt: %d (%.0f pro Minute)%n", totalTokens,
+            totalTokens / seconds * 60);
+
+      final long[] gc = gcTotals();
+      final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      out.printf(
+            "Heap: max. %.1f MB, Ø %.1f MB | Plattform-Threads: max. %d | "
+                  + "GC: %d Läufe, %d ms%n",
+            peakHeapUsed.get() / 1024.0 / 1024.0,
+            heapSamples.sum() == 0 ? 0
+                  : heapSamplesSum.sum() / (double) heapSamples.sum() / 1024.0
+                        / 1024.0,
+            threads.getPeakThreadCount(), gc[0] - gcCountAtStart,
+            gc[1] - gcTimeAtStart);
+
+      operations.forEach((name, stats) -> {
+         if (stats.firstError != null) {
+            out.println("Erster Fehler bei " + name + ": " + stats.firstError);
+         }
+      });
+   }
+
+   /**
+    * Meldet eine vollständig durchlaufene Sitzung.
+    */
+   public void sessionCompleted() {
+      sessions.increment();
+   }
+
+   /**
+    * Startet die Beobachtung von Heap und Garbage Collection.
+    *
+    * @param intervalMillis Abstand der Beobachtungen in Millisekunden.
+    */
+   public void startSampling(final long intervalMillis) {
+      final long[] gc = gcTotals();
+      gcCountAtStart = gc[0];
+      gcTimeAtStart = gc[1];
+      ManagementFactory.getThreadMXBean()
+         .resetPeakThreadCount();
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+         final Thread thread = new Thread(r, "lasttest-sampler");
+         thread.setDaemon(true);
+         return thread;
+      });
+      sampler.scheduleAtFixedRate(() -> {
+         final long used = memory.getHeapMemoryUsage()
+            .getUsed();
+         peakHeapUsed.accumulateAndGet(used, Math::max);
+         heapSamplesSum.add(used);
+         heapSamples.increment();
+      }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Beendet die Ressourcenbeobachtung.
+    */
+   public void stopSampling() {
+      if (sampler != null) {
+         sampler.shutdownNow();
+      }
+   }
+}
@@ -0,0 +1,85 @@
+package de.gc.agent.erm.loadtest;
+
+import java.util.Set;
+
+import de.gc.agent.erm.ki.model.FlightRecorderChatModel;
+import de.gc.agent.erm.ki.model.InteractionLogChatModel;
+import de.gc.agent.erm.ki.model.SimulatedChatModel;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Ein ChatModel für den Lasttest, das jeden Aufruf an das eigentliche
+ * Modell weiterreicht und Dauer, Wartezeit und Token-Nutzung an den
+ * {@link LoadTestRecorder} meldet.
+ */
+public class MeteredChatModel implements ChatModel {
+
+   /** Das eigentliche Modell. */
+   private final ChatModel delegate;
+
+   /** Ob das eigentliche Modell simuliert ist und Wartezeiten meldet. */
+   private final boolean simulated;
+
+   /**
+    * Erstellt ein gemessenes Modell.
+    *
+    * @param delegate Das eigentliche Modell.
+    */
+   public MeteredChatModel(final ChatModel delegate) {
+      this.delegate = delegate;
+      ChatModel model = delegate;
+      while (true) {
+         if (model instanceof final FlightRecorderChatModel recorder) {
+            model = recorder.getDelegate();
+         } else if (model instanceof final InteractionLogChatModel logged) {
+            model = logged.getDelegate();
+         } else {
+            break;
+         }
+      }
+      this.simulated = model instanceof SimulatedChatModel;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Ruft das eigentliche Modell auf und meldet die Messwerte.
+    *
+    * @param request Die Anfrage.
+    *
+    * @return Die Antwort des eigentlichen Modells.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final long start = System.nanoTime();
+      ChatResponse response = null;
+      try {
+         response = delegate.chat(request);
+         return response;
+      } finally {
+         final long queueNs = simulated
+               ? SimulatedChatModel.lastQueueWaitNanos()
+               : 0;
+         LoadTestRecorder.recordModelCall(System.nanoTime() - start, queueNs,
+               response == null ? null : response.tokenUsage());
+      }
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
@@ -0,0 +1,51 @@
+package de.gc.agent.erm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein Zähler, z.B. für Parse-Fehler oder Cache-Treffer.
+ */
+public class Counter implements CounterMXBean {
+
+   /** Name des Zählers. */
+   private final String name;
+
+   /** Der Zählerstand. */
+   private final LongAdder count = new LongAdder();
+
+   /**
+    * Erstellt einen Zähler. Zähler werden über
+    * {@link MetricsRegistry#counter(String)} angelegt.
+    *
+    * @param name Name des Zählers.
+    */
+   Counter(final String name) {
+      this.name = name;
+   }
+
+   /**
+    * Erhöht den Zähler um einen Wert.
+    *
+    * @param delta Der Wert.
+    */
+   public void add(final long delta) {
+      count.add(delta);
+   }
+
+   @Override
+   public long getCount() {
+      return count.sum();
+   }
+
+   @Override
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Erhöht den Zähler um eins.
+    */
+   public void increment() {
+      count.increment();
+   }
+}
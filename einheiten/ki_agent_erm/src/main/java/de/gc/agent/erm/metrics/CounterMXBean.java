@@ -0,0 +1,21 @@
+package de.gc.agent.erm.metrics;
+
+/**
+ * JMX-Schnittstelle eines {@link Counter}s.
+ */
+public interface CounterMXBean {
+
+   /**
+    * Aktueller Zählerstand.
+    *
+    * @return Der Zählerstand.
+    */
+   long getCount();
+
+   /**
+    * Name des Zählers.
+    *
+    * @return Der Name.
+    */
+   String getName();
+}
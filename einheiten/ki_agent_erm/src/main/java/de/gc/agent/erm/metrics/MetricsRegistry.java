@@ -0,0 +1,176 @@
+package de.gc.agent.erm.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Sammelt Zähler und Timer der Anwendung und meldet sie bei JMX an.
+ *
+ * Jeder Timer und jeder Zähler erscheint in JConsole bzw. VisualVM unter
+ * {@code de.gc.agent.erm:type=Timer,name=...} bzw.
+ * {@code de.gc.agent.erm:type=Counter,name=...}. Die Statusleiste im
+ * Hauptfenster liest dieselben Werte über {@link #timers()}.
+ */
+public class MetricsRegistry {
+
+   /**
+    * Eine gemessene Operation.
+    *
+    * @param <T> Typ des Ergebnisses.
+    * @param <E> Typ der geprüften Ausnahme.
+    */
+   @FunctionalInterface
+   public interface TimedCall<T, E extends Exception> {
+
+      /**
+       * Führt die Operation aus.
+       *
+       * @return Das Ergebnis.
+       *
+       * @throws E Bei Fehlern in der Operation.
+       */
+      T call() throws E;
+   }
+
+   /** JMX-Domäne der Anwendung. */
+   public static final String JMX_DOMAIN = "de.gc.agent.erm";
+
+   /** Die gemeinsame Registry der Anwendung. */
+   private static final MetricsRegistry GLOBAL = new MetricsRegistry(true);
+
+   /**
+    * Liefert die gemeinsame, bei JMX angemeldete Registry.
+    *
+    * @return Die Registry.
+    */
+   public static MetricsRegistry global() {
+      return GLOBAL;
+   }
+
+   /** Ob neue Timer und Zähler bei JMX angemeldet werden. */
+   private final boolean exportToJmx;
+
+   /** Die Timer nach Namen sortiert. */
+   private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+
+   /** Die Zähler nach Namen sortiert. */
+   private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+   /**
+    * Erstellt eine Registry.
+    *
+    * @param exportToJmx Ob neue Timer und Zähler bei JMX angemeldet
+    *                    werden.
+    */
+   public MetricsRegistry(final boolean exportToJmx) {
+      this.exportToJmx = exportToJmx;
+   }
+
+   /**
+    * Liefert einen Zähler und legt ihn bei Bedarf an.
+    *
+    * @param name Name des Zählers.
+    *
+    * @return Der Zähler.
+    */
+   public Counter counter(final String name) {
+      return counters.computeIfAbsent(name, n -> {
+         final Counter counter = new Counter(n);
+         register("Counter", n, counter);
+         return counter;
+      });
+   }
+
+   /**
+    * Liefert alle Zähler nach Namen sortiert.
+    *
+    * @return Die Zähler.
+    */
+   public List<Counter> counters() {
+      return List.copyOf(counters.values());
+   }
+
+   /**
+    * Meldet ein MXBean bei JMX an. Fehler werden nur gemeldet, da die
+    * Messwerte auch ohne JMX nutzbar bleiben.
+    *
+    * @param type Typ ("Timer" oder "Counter").
+    * @param name Name des Messwerts.
+    * @param bean Das MXBean.
+    */
+   private void register(final String type, final String name,
+         final Object bean) {
+      if (!exportToJmx) {
+         return;
+      }
+      try {
+         final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         final ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type="
+               + type + ",name=" + ObjectName.quote(name));
+         if (!server.isRegistered(objectName)) {
+            server.registerMBean(bean, objectName);
+         }
+      } catch (final JMException e) {
+         System.err.println("Messwert '" + name
+               + "' konnte nicht bei JMX angemeldet werden: " + e.getMessage());
+      }
+   }
+
+   /**
+    * Misst eine Operation mit dem Timer des angegebenen Namens. Wirft die
+    * Operation eine Ausnahme, wird der Aufruf als Fehler gezählt und die
+    * Ausnahme weitergereicht.
+    *
+    * @param <T>  Typ des Ergebnisses.
+    * @param <E>  Typ der geprüften Ausnahme.
+    * @param name Name des Timers.
+    * @param call Die Operation.
+    *
+    * @return Das Ergebnis der Operation.
+    *
+    * @throws E Bei Fehlern in der Operation.
+    */
+   public <T, E extends Exception> T time(final String name,
+         final TimedCall<T, E> call) throws E {
+      final Timer timer = timer(name);
+      final long start = timer.start();
+      boolean failed = true;
+      try {
+         final T result = call.call();
+         failed = false;
+         return result;
+      } finally {
+         timer.stop(start, failed);
+      }
+   }
+
+   /**
+    * Liefert einen Timer und legt ihn bei Bedarf an.
+    *
+    * @param name Name des Timers.
+    *
+    * @return Der Timer.
+    */
+   public Timer timer(final String name) {
+      return timers.computeIfAbsent(name, n -> {
+         final Timer timer = new Timer(n);
+         register("Timer", n, timer);
+         return timer;
+      });
+   }
+
+   /**
+    * Liefert alle Timer nach Namen sortiert.
+    *
+    * @return Die Timer.
+    */
+   public List<Timer> timers() {
+      return List.copyOf(timers.values());
+   }
+}
@@ -0,0 +1,208 @@
+package de.gc.agent.erm.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Misst die Dauer einer Operation.
+ *
+ * Erfasst werden Anzahl, Fehler, laufende Aufrufe, Summe und Maximum
+ * sowie ein Histogramm mit festen Klassen. Die Perzentile werden aus den
+ * letzten {@value #WINDOW} Messwerten berechnet, damit sie aktuelle
+ * Änderungen (z.B. ein überlasteter Server) schnell zeigen.
+ */
+public class Timer implements TimerMXBean {
+
+   /**
+    * Momentaufnahme eines Timers für die Anzeige.
+    *
+    * @param name       Name des Timers.
+    * @param count      Anzahl abgeschlossener Aufrufe.
+    * @param errors     Anzahl fehlgeschlagener Aufrufe.
+    * @param inFlight   Anzahl laufender Aufrufe.
+    * @param p50Millis  Median der letzten Aufrufe.
+    * @param p95Millis  95. Perzentil der letzten Aufrufe.
+    * @param maxMillis  Längste Dauer.
+    * @param meanMillis Mittlere Dauer.
+    */
+   public record Snapshot(String name, long count, long errors, int inFlight,
+         long p50Millis, long p95Millis, long maxMillis, double meanMillis) {
+   }
+
+   /** Anzahl der Messwerte für die Perzentile. */
+   public static final int WINDOW = 1024;
+
+   /** Obergrenzen der Histogramm-Klassen in Millisekunden. */
+   private static final long[] BOUNDS_MILLIS = { 5, 10, 25, 50, 100, 250,
+         500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000 };
+
+   /** Name des Timers. */
+   private final String name;
+
+   /** Anzahl abgeschlossener Aufrufe. */
+   private final LongAdder count = new LongAdder();
+
+   /** Anzahl fehlgeschlagener Aufrufe. */
+   private final LongAdder errors = new LongAdder();
+
+   /** Anzahl laufender Aufrufe. */
+   private final AtomicInteger inFlight = new AtomicInteger();
+
+   /** Summe aller Dauern in Nanosekunden. */
+   private final LongAdder totalNanos = new LongAdder();
+
+   /** Längste Dauer in Nanosekunden. */
+   private final AtomicLong maxNanos = new AtomicLong();
+
+   /** Anzahl je Histogramm-Klasse. */
+   private final AtomicLongArray histogram = new AtomicLongArray(
+         BOUNDS_MILLIS.length + 1);
+
+   /** Ringpuffer der letzten Dauern in Nanosekunden. */
+   private final long[] recent = new long[WINDOW];
+
+   /** Anzahl bisher in den Ringpuffer geschriebener Werte. */
+   private long recentWritten;
+
+   /**
+    * Erstellt einen Timer. Timer werden über
+    * {@link MetricsRegistry#timer(String)} angelegt.
+    *
+    * @param name Name des Timers.
+    */
+   Timer(final String name) {
+      this.name = name;
+   }
+
+   @Override
+   public long getCount() {
+      return count.sum();
+   }
+
+   @Override
+   public long getErrors() {
+      return errors.sum();
+   }
+
+   @Override
+   public long[] getHistogramBoundsMillis() {
+      return BOUNDS_MILLIS.clone();
+   }
+
+   @Override
+   public long[] getHistogramCounts() {
+      final long[] counts = new long[histogram.length()];
+      for (int i = 0; i < counts.length; i++) {
+         counts[i] = histogram.get(i);
+      }
+      return counts;
+   }
+
+   @Override
+   public int getInFlight() {
+      return inFlight.get();
+   }
+
+   @Override
+   public long getMaxMillis() {
+      return maxNanos.get() / 1_000_000;
+   }
+
+   @Override
+   public double getMeanMillis() {
+      final long n = count.sum();
+      return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+   }
+
+   @Override
+   public String getName() {
+      return name;
+   }
+
+   @Override
+   public long getP50Millis() {
+      return percentileMillis(50);
+   }
+
+   @Override
+   public long getP95Millis() {
+      return percentileMillis(95);
+   }
+
+   @Override
+   public long getP99Millis() {
+      return percentileMillis(99);
+   }
+
+   /**
+    * Berechnet ein Perzentil (Nearest-Rank) der letzten Messwerte.
+    *
+    * @param percentile Perzentil zwischen 0 und 100.
+    *
+    * @return Der Wert in Millisekunden oder 0 ohne Messwerte.
+    */
+   private long percentileMillis(final double percentile) {
+      final long[] sorted;
+      synchronized (recent) {
+         sorted = Arrays.copyOf(recent, (int) Math.min(recentWritten, WINDOW));
+      }
+      if (sorted.length == 0) {
+         return 0;
+      }
+      Arrays.sort(sorted);
+      final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(0, rank - 1)] / 1_000_000;
+   }
+
+   /**
+    * Erstellt eine Momentaufnahme für die Anzeige.
+    *
+    * @return Die Momentaufnahme.
+    */
+   public Snapshot snapshot() {
+      return new Snapshot(name, getCount(), getErrors(), getInFlight(),
+            getP50Millis(), getP95Millis(), getMaxMillis(), getMeanMillis());
+   }
+
+   /**
+    * Meldet den Beginn eines Aufrufs.
+    *
+    * @return Startzeitpunkt für {@link #stop(long, boolean)}.
+    */
+   public long start() {
+      inFlight.incrementAndGet();
+      return System.nanoTime();
+   }
+
+   /**
+    * Meldet das Ende eines Aufrufs.
+    *
+    * @param startNanos Rückgabewert von {@link #start()}.
+    * @param failed     Ob der Aufruf fehlgeschlagen ist.
+    */
+   public void stop(final long startNanos, final boolean failed) {
+      final long nanos = System.nanoTime() - startNanos;
+      inFlight.decrementAndGet();
+      count.increment();
+      if (failed) {
+         errors.increment();
+      }
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+
+      final long millis = nanos / 1_000_000;
+      int bucket = 0;
+      while (bucket < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[bucket]) {
+         bucket++;
+      }
+      histogram.incrementAndGet(bucket);
+
+      synchronized (recent) {
+         recent[(int) (recentWritten % WINDOW)] = nanos;
+         recentWritten++;
+      }
+   }
+}
@@ -0,0 +1,85 @@
+package de.gc.agent.erm.metrics;
+
+/**
+ * JMX-Schnittstelle eines {@link Timer}s. Alle Zeiten in Millisekunden.
+ */
+public interface TimerMXBean {
+
+   /**
+    * Anzahl abgeschlossener Aufrufe.
+    *
+    * @return Die Anzahl.
+    */
+   long getCount();
+
+   /**
+    * Anzahl fehlgeschlagener Aufrufe.
+    *
+    * @return Die Anzahl.
+    */
+   long getErrors();
+
+   /**
+    * Obergrenzen der Histogramm-Klassen; die letzte Klasse ist offen.
+    *
+    * @return Die Obergrenzen in Millisekunden.
+    */
+   long[] getHistogramBoundsMillis();
+
+   /**
+    * Anzahl der Aufrufe je Histogramm-Klasse (ein Eintrag mehr als
+    * {@link #getHistogramBoundsMillis()}).
+    *
+    * @return Die Anzahlen.
+    */
+   long[] getHistogramCounts();
+
+   /**
+    * Anzahl gerade laufender Aufrufe.
+    *
+    * @return Die Anzahl.
+    */
+   int getInFlight();
+
+   /**
+    * Längste Dauer.
+    *
+    * @return Die Dauer.
+    */
+   long getMaxMillis();
+
+   /**
+    * Mittlere Dauer aller Aufrufe.
+    *
+    * @return Die Dauer.
+    */
+   double getMeanMillis();
+
+   /**
+    * Name des Timers.
+    *
+    * @return Der Name.
+    */
+   String getName();
+
+   /**
+    * Median der letzten Aufrufe.
+    *
+    * @return Die Dauer.
+    */
+   long getP50Millis();
+
+   /**
+    * 95. Perzentil der letzten Aufrufe.
+    *
+    * @return Die Dauer.
+    */
+   long getP95Millis();
+
+   /**
+    * 99. Perzentil der letzten Aufrufe.
+    *
+    * @return Die Dauer.
+    */
+   long getP99Millis();
+}
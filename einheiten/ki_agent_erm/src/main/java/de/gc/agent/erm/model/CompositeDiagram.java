@@ -0,0 +1,41 @@
+package de.gc.agent.erm.model;
+
+import java.util.List;
+
+/**
+ * Ein in Teilbereiche zerlegtes und parallel gerendertes Diagramm: eine
+ * Übersicht und ein Bild je Bereich.
+ *
+ * @param overviewPng PNG der Übersicht (Bereiche und ihre Verbindungen).
+ * @param areas       Die gerenderten Bereiche.
+ * @param totalMillis Gesamtdauer vom Zerlegen bis zum letzten Bild.
+ * @param sumMillis   Summe der einzelnen Renderzeiten (entspricht grob
+ *                    der Dauer ohne Parallelisierung).
+ */
+public record CompositeDiagram(byte[] overviewPng, List<Area> areas,
+      long totalMillis, long sumMillis) {
+
+   /**
+    * Ein gerenderter Teilbereich.
+    *
+    * @param name        Der Anzeigename, z.B. "Bereich 2 (Klasse)".
+    * @param entityCount Anzahl der Entitäten im Bereich.
+    * @param plantUml    Der PlantUML-Quelltext des Bereichs.
+    * @param png         Das gerenderte Bild.
+    * @param millis      Die Renderzeit.
+    */
+   public record Area(String name, int entityCount, String plantUml,
+         byte[] png, long millis) {
+   }
+
+   /**
+    * Liefert eine kurze Zusammenfassung, z.B.
+    * {@code 5 Bereiche in 830 ms (einzeln zusammen 2900 ms)}.
+    *
+    * @return Die Zusammenfassung.
+    */
+   public String describe() {
+      return areas.size() + " Bereiche in " + totalMillis
+            + " ms (einzeln zusammen " + sumMillis + " ms)";
+   }
+}
@@ -7,7 +7,20 @@ import javafx.scene.image.Image;
  * Text und optional einem generierten Bild besteht.
  *
  * @param textContent Das generierte textuelle Ergebnis.
- * @param image       Die zugehörige, generierte Bildressource.
+ * @param image       Die zugehörige, generierte Bildressource; bei einem
+ *                    zerlegten Diagramm die Übersicht.
+ * @param composite   Die Teilbereiche eines zerlegten Diagramms oder null.
  */
-public record GenerationResult(String textContent, Image image) {
+public record GenerationResult(String textContent, Image image,
+      CompositeDiagram composite) {
+
+   /**
+    * Erstellt ein Ergebnis mit einem einzelnen Bild.
+    *
+    * @param textContent Das generierte textuelle Ergebnis.
+    * @param image       Die zugehörige, generierte Bildressource.
+    */
+   public GenerationResult(final String textContent, final Image image) {
+      this(textContent, image, null);
+   }
 }
@@ -14,6 +14,10 @@ import dev.langchain4j.service.V;
  *
  * Die Antwort enthält ausschließlich den PlantUML-Code des logischen
  * Modells ohne jegliche Kommentare oder zusätzliche Erklärungen.
+ *
+ * Ist ein erzeugtes Modell fehlerhaft, wird es mit
+ * {@link #repairTableModel(String, String, String)} gezielt korrigiert,
+ * statt das ganze Modell neu zu erzeugen.
  */
 public interface TableModelAgent {
 
@@ -91,4 +95,37 @@ public interface TableModelAgent {
          {{ermPuml}}
          """)
    String generateTableModel(@V("ermPuml") String ermPuml);
+
+   /**
+    * Korrigiert ein fehlerhaftes logisches Tabellenmodell anhand einer
+    * Liste konkreter Fehler. Der kurze Prompt kommt ohne das Beispiel aus
+    * und ist damit deutlich günstiger als eine Neuerzeugung.
+    *
+    * @param ermPuml        Das konzeptionelle ERM-Diagramm als PlantUML-Code.
+    * @param tableModelPuml Das fehlerhafte logische Tabellenmodell.
+    * @param errors         Die gefundenen Fehler, einer je Zeile.
+    *
+    * @return Das vollständige, korrigierte Tabellenmodell als
+    *         PlantUML-Code.
+    */
+   @UserMessage("""
+         Du bist ein PlantUML-Transformationsexperte. Das folgende logische Tabellenmodell wurde aus dem konzeptionellen Modell erzeugt, enthält aber Fehler.
+
+         FEHLER:
+         {{errors}}
+
+         ANWEISUNGEN:
+         1. Behebe genau diese Fehler und ändere sonst nichts.
+         2. Fremdschlüssel heißen <kürzel>[_<rolle>]_id (FK), wobei das Kürzel der Anfang des Tabellennamens ist; jede n:m-Beziehung wird über eine Zwischentabelle mit zwei Fremdschlüsseln aufgelöst.
+         3. Gib NUR den vollständigen, korrigierten PlantUML-Code von @startuml bis @enduml zurück. KEINE Kommentare, KEINE Erklärungen.
+
+         --- KONZEPTIONELLES MODELL ---
+         {{ermPuml}}
+
+         --- FEHLERHAFTES LOGISCHES TABELLENMODELL ---
+         {{tableModelPuml}}
+         """)
+   String repairTableModel(@V("ermPuml") String ermPuml,
+         @V("tableModelPuml") String tableModelPuml,
+         @V("errors") String errors);
 }
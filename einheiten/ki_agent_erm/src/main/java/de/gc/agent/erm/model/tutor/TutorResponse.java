@@ -4,6 +4,11 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import dev.langchain4j.model.chat.request.json.JsonArraySchema;
+import dev.langchain4j.model.chat.request.json.JsonObjectSchema;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import dev.langchain4j.model.chat.request.json.JsonStringSchema;
+
 /**
  * Diese Klasse repräsentiert die strukturierte Antwort eines
  * Tutor-Agenten.
@@ -18,4 +23,23 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public record TutorResponse(
       @JsonProperty("answer") String answer,
       @JsonProperty("suggested_questions") List<String> suggestedQuestions) {
+
+   /**
+    * JSON-Schema der Antwort für Anbieter mit strukturierter Ausgabe. Die
+    * Feldnamen entsprechen den {@link JsonProperty}-Namen, damit die
+    * Antwort ohne Umwege gelesen werden kann.
+    */
+   public static final JsonSchema JSON_SCHEMA = JsonSchema.builder()
+      .name("TutorResponse")
+      .rootElement(JsonObjectSchema.builder()
+         .addStringProperty("answer",
+               "Die ausführliche Antwort des Tutors auf Deutsch.")
+         .addProperty("suggested_questions", JsonArraySchema.builder()
+            .description("Drei vorgeschlagene Folgefragen.")
+            .items(new JsonStringSchema())
+            .build())
+         .required("answer", "suggested_questions")
+         .additionalProperties(false)
+         .build())
+      .build();
 }
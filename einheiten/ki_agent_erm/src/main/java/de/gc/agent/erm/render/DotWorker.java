@@ -0,0 +1,214 @@
+package de.gc.agent.erm.render;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ein dauerhaft laufender {@code dot -Tsvg}-Prozess.
+ *
+ * Graphviz liest beliebig viele Graphen nacheinander von der
+ * Standardeingabe und schreibt je Graph ein SVG-Dokument. Damit der
+ * Parser einen Graphen sofort abschließt und nicht erst beim nächsten
+ * Rendering, folgt jedem Graphen ein leerer Wächter-Graph, dessen
+ * Ausgabe verworfen wird.
+ *
+ * Ein Worker rendert immer nur einen Graphen gleichzeitig.
+ */
+final class DotWorker implements AutoCloseable {
+
+   /** Name des Wächter-Graphen. */
+   private static final String SENTINEL_NAME = "eduki_dotworker_sentinel";
+
+   /** Der Wächter-Graph. */
+   private static final byte[] SENTINEL = ("\ndigraph " + SENTINEL_NAME
+         + " {}\n").getBytes(StandardCharsets.UTF_8);
+
+   /** Ende eines SVG-Dokuments. */
+   private static final byte[] SVG_END = "</svg>"
+      .getBytes(StandardCharsets.UTF_8);
+
+   /**
+    * Sucht eine Bytefolge.
+    *
+    * @param data    Die Daten.
+    * @param length  Die Anzahl gültiger Bytes.
+    * @param pattern Die gesuchte Folge.
+    * @param from    Die Startposition.
+    *
+    * @return Die Position oder -1.
+    */
+   private static int indexOf(final byte[] data, final int length,
+         final byte[] pattern, final int from) {
+      final int last = length - pattern.length;
+      outer: for (int i = Math.max(0, from); i <= last; i++) {
+         for (int j = 0; j < pattern.length; j++) {
+            if (data[i + j] != pattern[j]) {
+               continue outer;
+            }
+         }
+         return i;
+      }
+      return -1;
+   }
+
+   /** Der dot-Prozess. */
+   private final Process process;
+
+   /** Die Standardeingabe des Prozesses. */
+   private final OutputStream stdin;
+
+   /** Vollständige SVG-Dokumente (ohne Wächter). */
+   private final BlockingQueue<byte[]> documents = new LinkedBlockingQueue<>();
+
+   /** Fehlerausgaben des Prozesses. */
+   private final BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+
+   /**
+    * Startet einen Worker.
+    *
+    * @param dotExe Die dot-Programmdatei.
+    *
+    * @throws IOException Falls der Prozess nicht startet.
+    */
+   DotWorker(final File dotExe) throws IOException {
+      process = new ProcessBuilder(dotExe.getAbsolutePath(), "-Tsvg")
+         .start();
+      stdin = process.getOutputStream();
+      startDaemon("dot-worker-stdout", this::readDocuments);
+      startDaemon("dot-worker-stderr", this::readErrors);
+   }
+
+   /**
+    * Beendet den Prozess.
+    */
+   @Override
+   public void close() {
+      process.destroy();
+   }
+
+   /**
+    * Gibt zurück, ob der Prozess noch läuft.
+    *
+    * @return true, solange der Prozess läuft.
+    */
+   boolean isAlive() {
+      return process.isAlive();
+   }
+
+   /**
+    * Liest die Standardausgabe und zerlegt sie in SVG-Dokumente.
+    */
+   private void readDocuments() {
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      final byte[] chunk = new byte[8192];
+      try (InputStream in = process.getInputStream()) {
+         int read;
+         while ((read = in.read(chunk)) >= 0) {
+            final int searchFrom = buffer.size() - SVG_END.length;
+            buffer.write(chunk, 0, read);
+            byte[] data = buffer.toByteArray();
+            int end = indexOf(data, data.length, SVG_END, searchFrom);
+            while (end >= 0) {
+               final int docEnd = end + SVG_END.length;
+               final byte[] document = Arrays.copyOf(data, docEnd);
+               if (indexOf(document, document.length, SENTINEL_NAME
+                  .getBytes(StandardCharsets.UTF_8), 0) < 0) {
+                  documents.add(document);
+               }
+               // Zeilenumbrüche vor dem nächsten Dokument überspringen
+               int next = docEnd;
+               while (next < data.length
+                     && Character.isWhitespace(data[next])) {
+                  next++;
+               }
+               data = Arrays.copyOfRange(data, next, data.length);
+               end = indexOf(data, data.length, SVG_END, 0);
+            }
+            buffer.reset();
+            buffer.write(data);
+         }
+      } catch (final IOException e) {
+         errors.add("Error: " + e.getMessage());
+      }
+   }
+
+   /**
+    * Liest die Fehlerausgabe zeilenweise.
+    */
+   private void readErrors() {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            process.getErrorStream(), StandardCharsets.UTF_8))) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            errors.add(line);
+         }
+      } catch (final IOException e) {
+         errors.add("Error: " + e.getMessage());
+      }
+   }
+
+   /**
+    * Rendert einen Graphen.
+    *
+    * @param dot           Der Graph in der dot-Sprache.
+    * @param timeoutMillis Maximale Wartezeit.
+    *
+    * @return Das SVG-Dokument.
+    *
+    * @throws IOException Bei einem Fehler von dot, wenn der Prozess endet
+    *                     oder die Wartezeit abläuft.
+    */
+   byte[] render(final String dot, final long timeoutMillis)
+         throws IOException {
+      documents.clear();
+      errors.clear();
+      stdin.write(dot.getBytes(StandardCharsets.UTF_8));
+      stdin.write(SENTINEL);
+      stdin.flush();
+      final long deadline = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      try {
+         while (System.nanoTime() < deadline) {
+            final byte[] document = documents.poll(20, TimeUnit.MILLISECONDS);
+            if (document != null) {
+               return document;
+            }
+            final String error = errors.poll();
+            if (error != null && error.contains("Error")) {
+               throw new IOException("dot: " + error);
+            }
+            if (!process.isAlive()) {
+               throw new IOException("Der dot-Prozess wurde beendet.");
+            }
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IOException("Warten auf dot unterbrochen.", e);
+      }
+      throw new IOException("Keine Antwort von dot nach " + timeoutMillis
+            + " ms.");
+   }
+
+   /**
+    * Startet einen Daemon-Thread.
+    *
+    * @param name   Der Name des Threads.
+    * @param action Die Aufgabe.
+    */
+   private void startDaemon(final String name, final Runnable action) {
+      final Thread thread = new Thread(action, name);
+      thread.setDaemon(true);
+      thread.start();
+   }
+}
@@ -0,0 +1,228 @@
+package de.gc.agent.erm.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import net.sourceforge.plantuml.dot.ExeState;
+import net.sourceforge.plantuml.dot.Graphviz;
+import net.sourceforge.plantuml.dot.GraphvizFactory;
+import net.sourceforge.plantuml.dot.GraphvizRuntimeEnvironment;
+import net.sourceforge.plantuml.dot.ProcessState;
+import net.sourceforge.plantuml.style.ISkinParam;
+
+/**
+ * Stellt PlantUML dauerhaft laufende {@code dot}-Prozesse
+ * ({@link DotWorker}) statt eines neuen Prozesses je Rendering bereit.
+ *
+ * PlantUML findet die Fabrik über den {@link java.util.ServiceLoader}
+ * ({@code META-INF/services}). Sie ist nur für Renderings aktiv, die
+ * {@link #setActive(boolean)} im selben Thread eingeschaltet haben; für
+ * alle anderen liefert sie null, und PlantUML startet wie gewohnt einen
+ * eigenen Prozess.
+ *
+ * Es laufen höchstens {@link #setMaxWorkers(int)} Prozesse (Standard: 2);
+ * weitere Renderings warten auf einen freien Prozess. Ein Prozess, der
+ * nicht antwortet, wird beendet und bei Bedarf neu gestartet.
+ */
+public class DotWorkerFactory implements GraphvizFactory {
+
+   /** Maximale Wartezeit auf ein Ergebnis von dot. */
+   private static final long TIMEOUT_MILLIS = 30_000;
+
+   /** Ob die Renderings des aktuellen Threads die Worker nutzen. */
+   private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal
+      .withInitial(() -> Boolean.FALSE);
+
+   /** Die freien Worker. */
+   private static final BlockingQueue<DotWorker> IDLE = new LinkedBlockingQueue<>();
+
+   /** Anzahl der laufenden Worker. */
+   private static final AtomicInteger STARTED = new AtomicInteger();
+
+   /** Maximale Anzahl laufender Worker. */
+   private static volatile int maxWorkers = 2;
+
+   static {
+      Runtime.getRuntime()
+         .addShutdownHook(new Thread(DotWorkerFactory::shutdown));
+   }
+
+   /**
+    * Leiht einen freien Worker aus oder startet einen neuen, solange die
+    * Höchstzahl nicht erreicht ist; andernfalls wird gewartet.
+    *
+    * @param dotExe Die dot-Programmdatei.
+    *
+    * @return Der Worker.
+    *
+    * @throws IOException          Falls dot nicht startet.
+    * @throws InterruptedException Beim Warten unterbrochen.
+    */
+   private static DotWorker acquire(final File dotExe)
+         throws IOException, InterruptedException {
+      DotWorker worker = IDLE.poll();
+      while (worker == null || !worker.isAlive()) {
+         if (worker != null) {
+            STARTED.decrementAndGet();
+         }
+         if (STARTED.incrementAndGet() <= maxWorkers) {
+            try {
+               return new DotWorker(dotExe);
+            } catch (final IOException e) {
+               STARTED.decrementAndGet();
+               throw e;
+            }
+         }
+         STARTED.decrementAndGet();
+         worker = IDLE.poll(100, TimeUnit.MILLISECONDS);
+      }
+      return worker;
+   }
+
+   /**
+    * Liefert die dot-Programmdatei, wie PlantUML sie findet
+    * ({@code GRAPHVIZ_DOT} oder Suchpfad).
+    *
+    * @return Die Datei oder null, falls Graphviz nicht installiert ist.
+    */
+   public static File dotExecutable() {
+      final File dotExe = GraphvizRuntimeEnvironment.getInstance()
+         .getDotExe();
+      return dotExe != null && ExeState.checkFile(dotExe) == ExeState.OK
+            ? dotExe
+            : null;
+   }
+
+   /**
+    * Gibt zurück, ob Graphviz installiert ist.
+    *
+    * @return true, falls dot gefunden wurde.
+    */
+   public static boolean isDotAvailable() {
+      return dotExecutable() != null;
+   }
+
+   /**
+    * Rendert einen Graphen mit einem Worker.
+    *
+    * @param dotExe Die dot-Programmdatei.
+    * @param dot    Der Graph in der dot-Sprache.
+    * @param out    Ziel für das SVG-Dokument.
+    *
+    * @return Der Status für PlantUML.
+    */
+   private static ProcessState render(final File dotExe, final String dot,
+         final OutputStream out) {
+      final DotWorker worker;
+      try {
+         worker = acquire(dotExe);
+      } catch (final IOException e) {
+         return ProcessState.EXCEPTION(e);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         return ProcessState.EXCEPTION(e);
+      }
+      try {
+         out.write(MetricsRegistry.global()
+            .time("dot-worker", () -> worker.render(dot, TIMEOUT_MILLIS)));
+         IDLE.add(worker);
+         return ProcessState.TERMINATED_OK();
+      } catch (final IOException e) {
+         worker.close();
+         STARTED.decrementAndGet();
+         return ProcessState.EXCEPTION(e);
+      }
+   }
+
+   /**
+    * Schaltet die Worker für die Renderings des aktuellen Threads ein oder
+    * aus.
+    *
+    * @param active true, um die Worker zu nutzen.
+    */
+   public static void setActive(final boolean active) {
+      ACTIVE.set(active);
+   }
+
+   /**
+    * Legt die maximale Anzahl gleichzeitig laufender dot-Prozesse fest.
+    *
+    * @param workers Die Anzahl (mindestens 1).
+    */
+   public static void setMaxWorkers(final int workers) {
+      maxWorkers = Math.max(1, workers);
+   }
+
+   /**
+    * Beendet alle freien Worker.
+    */
+   public static void shutdown() {
+      DotWorker worker;
+      while ((worker = IDLE.poll()) != null) {
+         worker.close();
+         STARTED.decrementAndGet();
+      }
+   }
+
+   /**
+    * Liefert einen Graphviz-Zugang über die Worker, falls sie im aktuellen
+    * Thread eingeschaltet sind und PlantUML ein SVG-Layout anfordert.
+    *
+    * @param skinParam Die Darstellungsparameter (ungenutzt).
+    * @param dotString Der Graph in der dot-Sprache.
+    * @param type      Die Ausgabeformate.
+    *
+    * @return Der Zugang oder null für das Standardverhalten.
+    */
+   @Override
+   public Graphviz create(final ISkinParam skinParam, final String dotString,
+         final String... type) {
+      if (!ACTIVE.get() || type.length != 1 || !"svg".equals(type[0])) {
+         return null;
+      }
+      final File dotExe = dotExecutable();
+      if (dotExe == null) {
+         return null;
+      }
+      return new Graphviz() {
+
+         @Override
+         public ProcessState createFile3(final OutputStream os) {
+            return render(dotExe, dotString, os);
+         }
+
+         @Override
+         public String dotVersion() {
+            try {
+               return GraphvizRuntimeEnvironment.getInstance()
+                  .dotVersion();
+            } catch (final IOException | InterruptedException e) {
+               return "Fehler: " + e.getMessage();
+            }
+         }
+
+         @Override
+         public File getDotExe() {
+            return dotExe;
+         }
+
+         @Override
+         public ExeState getExeState() {
+            return ExeState.OK;
+         }
+
+         @Override
+         public boolean graphviz244onWindows() {
+            return GraphvizRuntimeEnvironment.getInstance()
+               .graphviz244onWindows();
+         }
+      };
+   }
+}
@@ -0,0 +1,106 @@
+package de.gc.agent.erm.render;
+
+import java.util.regex.Pattern;
+
+/**
+ * Layout-Verfahren für Diagramme, die PlantUML mit Graphviz anordnet
+ * (z.B. Entity- und Klassendiagramme).
+ */
+public enum LayoutBackend {
+
+   /**
+    * Graphviz wie von PlantUML vorgesehen: ein neuer {@code dot}-Prozess
+    * je Rendering.
+    */
+   GRAPHVIZ("graphviz"),
+
+   /**
+    * Smetana, die Java-Portierung von Graphviz in PlantUML: kein externer
+    * Prozess, funktioniert auch ohne installiertes Graphviz.
+    */
+   SMETANA("smetana"),
+
+   /**
+    * Graphviz über dauerhaft laufende {@code dot}-Prozesse, die über
+    * mehrere Renderings wiederverwendet werden, siehe
+    * {@link DotWorkerFactory}.
+    */
+   DOT_WORKER("dot-worker");
+
+   /** Vorhandene Layout-Anweisung im Quelltext. */
+   private static final Pattern LAYOUT_PRAGMA = Pattern
+      .compile("(?im)^\\s*!pragma\\s+layout\\b");
+
+   /**
+    * Liefert das Verfahren zu einem Konfigurationswert.
+    *
+    * @param value Der Wert, z.B. "smetana" oder "dot-worker"; null oder
+    *              leer ergibt {@link #GRAPHVIZ}.
+    *
+    * @return Das Verfahren.
+    *
+    * @throws IllegalArgumentException Bei einem unbekannten Wert.
+    */
+   public static LayoutBackend fromConfig(final String value) {
+      if (value == null || value.isBlank()) {
+         return GRAPHVIZ;
+      }
+      for (final LayoutBackend backend : values()) {
+         if (backend.configValue.equalsIgnoreCase(value.trim())
+               || backend.name()
+                  .equalsIgnoreCase(value.trim())) {
+            return backend;
+         }
+      }
+      throw new IllegalArgumentException("Unbekanntes Layout '" + value
+            + "', erlaubt: graphviz, smetana, dot-worker.");
+   }
+
+   /** Der Wert in der Konfiguration. */
+   private final String configValue;
+
+   /**
+    * Erstellt ein Verfahren.
+    *
+    * @param configValue Der Wert in der Konfiguration.
+    */
+   LayoutBackend(final String configValue) {
+      this.configValue = configValue;
+   }
+
+   /**
+    * Bereitet einen PlantUML-Quelltext für dieses Verfahren vor. Für
+    * {@link #SMETANA} wird {@code !pragma layout smetana} nach
+    * {@code @startuml} eingefügt, sofern der Quelltext kein eigenes Layout
+    * vorgibt.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return Der vorbereitete Quelltext.
+    */
+   public String apply(final String plantUml) {
+      if (this != SMETANA || LAYOUT_PRAGMA.matcher(plantUml)
+         .find()) {
+         return plantUml;
+      }
+      final int start = plantUml.indexOf("@startuml");
+      if (start < 0) {
+         return plantUml;
+      }
+      final int lineEnd = plantUml.indexOf('\n', start);
+      if (lineEnd < 0) {
+         return plantUml;
+      }
+      return plantUml.substring(0, lineEnd + 1) + "!pragma layout smetana\n"
+            + plantUml.substring(lineEnd + 1);
+   }
+
+   /**
+    * Liefert den Wert in der Konfiguration.
+    *
+    * @return Der Wert, z.B. "dot-worker".
+    */
+   public String getConfigValue() {
+      return configValue;
+   }
+}
@@ -0,0 +1,270 @@
+package de.gc.agent.erm.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Greift das fertig gezeichnete Bild von PlantUML ab, bevor es als PNG
+ * kodiert wird.
+ *
+ * PlantUML zeichnet PNG-Diagramme mit Java2D in ein
+ * {@link BufferedImage} und übergibt es zum Kodieren an
+ * {@code ImageIO.write(image, "png", out)}. Für die Vorschau wird das Bild
+ * aber gleich wieder dekodiert. Diese Klasse meldet dazu einen eigenen
+ * PNG-Writer bei ImageIO an, der nur in {@link #capture(CaptureCall)}
+ * greift: Er merkt sich das Bild, statt es zu kodieren. Außerhalb davon
+ * liefert sein Provider den normalen PNG-Writer des JDK.
+ *
+ * PlantUML muss dafür ohne Metadaten rendern
+ * ({@code new FileFormatOption(FileFormat.PNG, false)}), da der Weg mit
+ * Metadaten eigene Metadaten des Writers erwartet.
+ */
+public final class PixelCapture {
+
+   /**
+    * Ein Rendering, das ein PNG über ImageIO schreibt.
+    */
+   @FunctionalInterface
+   public interface CaptureCall {
+
+      /**
+       * Führt das Rendering aus.
+       *
+       * @throws IOException Bei Bildgenerierungsfehlern.
+       */
+      void render() throws IOException;
+   }
+
+   /**
+    * Writer, der das Bild abgreift, statt es zu kodieren.
+    */
+   private static final class CapturingWriter extends ImageWriter {
+
+      /**
+       * Erstellt den Writer.
+       *
+       * @param provider Der zugehörige Provider.
+       */
+      CapturingWriter(final ImageWriterSpi provider) {
+         super(provider);
+      }
+
+      @Override
+      public IIOMetadata convertImageMetadata(final IIOMetadata inData,
+            final ImageTypeSpecifier imageType, final ImageWriteParam param) {
+         return null;
+      }
+
+      @Override
+      public IIOMetadata convertStreamMetadata(final IIOMetadata inData,
+            final ImageWriteParam param) {
+         return null;
+      }
+
+      @Override
+      public IIOMetadata getDefaultImageMetadata(
+            final ImageTypeSpecifier imageType, final ImageWriteParam param) {
+         return null;
+      }
+
+      @Override
+      public IIOMetadata getDefaultStreamMetadata(
+            final ImageWriteParam param) {
+         return null;
+      }
+
+      @Override
+      public void write(final IIOMetadata streamMetadata,
+            final IIOImage image, final ImageWriteParam param) {
+         final RenderedImage[] target = CAPTURED.get();
+         if (target != null) {
+            target[0] = image.getRenderedImage();
+         }
+      }
+   }
+
+   /**
+    * Provider des abgreifenden Writers.
+    */
+   private static final class CapturingWriterSpi extends ImageWriterSpi {
+
+      /** Der normale PNG-Writer außerhalb von capture. */
+      private final ImageWriterSpi fallback;
+
+      /**
+       * Erstellt den Provider für das Format "png".
+       *
+       * @param fallback Der normale PNG-Writer.
+       */
+      CapturingWriterSpi(final ImageWriterSpi fallback) {
+         super("EduKI", "1.0", new String[] { "png", "PNG" },
+               new String[] { "png" }, new String[] { "image/png" },
+               CapturingWriter.class.getName(),
+               new Class<?>[] { ImageOutputStream.class }, null,
+               false, null, null, null, null, false, null, null, null, null);
+         this.fallback = fallback;
+      }
+
+      @Override
+      public boolean canEncodeImage(final ImageTypeSpecifier type) {
+         return CAPTURED.get() != null || fallback.canEncodeImage(type);
+      }
+
+      @Override
+      public ImageWriter createWriterInstance(final Object extension)
+            throws IOException {
+         return CAPTURED.get() != null ? new CapturingWriter(this)
+               : fallback.createWriterInstance(extension);
+      }
+
+      @Override
+      public String getDescription(final Locale locale) {
+         return "Abgreifen der Pixel für die Vorschau";
+      }
+   }
+
+   /** Farbmodell von {@link BufferedImage#TYPE_INT_ARGB_PRE}. */
+   private static final ColorModel ARGB_PRE = new BufferedImage(1, 1,
+         BufferedImage.TYPE_INT_ARGB_PRE).getColorModel();
+
+   /** Ziel für das abgegriffene Bild; null außerhalb von capture. */
+   private static final ThreadLocal<RenderedImage[]> CAPTURED = new ThreadLocal<>();
+
+   static {
+      final IIORegistry registry = IIORegistry.getDefaultInstance();
+      final Iterator<ImageWriterSpi> png = registry.getServiceProviders(
+            ImageWriterSpi.class,
+            provider -> Arrays.asList(((ImageWriterSpi) provider)
+               .getFormatNames())
+               .contains("png"),
+            true);
+      if (png.hasNext()) {
+         final ImageWriterSpi fallback = png.next();
+         final CapturingWriterSpi capturing = new CapturingWriterSpi(
+               fallback);
+         registry.registerServiceProvider(capturing, ImageWriterSpi.class);
+         registry.setOrdering(ImageWriterSpi.class, capturing, fallback);
+      }
+   }
+
+   /**
+    * Führt ein PNG-Rendering aus und liefert das gezeichnete Bild statt
+    * des PNG.
+    *
+    * @param call Das Rendering.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern oder wenn kein Bild
+    *                     geschrieben wurde.
+    */
+   public static BufferedImage capture(final CaptureCall call)
+         throws IOException {
+      final RenderedImage[] target = new RenderedImage[1];
+      CAPTURED.set(target);
+      try {
+         call.render();
+      } finally {
+         CAPTURED.remove();
+      }
+      if (target[0] instanceof final BufferedImage image) {
+         return image;
+      }
+      throw new IOException("PlantUML hat kein Bild gezeichnet.");
+   }
+
+   /**
+    * Liefert ein Bild im Format {@link BufferedImage#TYPE_INT_ARGB_PRE}
+    * mit einem int-Array ohne Lücken, wie es z.B. JavaFX ohne Kopie
+    * übernehmen kann. Bilder von PlantUML (RGB oder ARGB) werden dazu in
+    * einem Durchlauf an Ort und Stelle umgerechnet und mit demselben
+    * Raster neu verpackt; nur andere Formate werden kopiert.
+    *
+    * @param image Das Bild; wird ggf. verändert und danach nicht mehr
+    *              verwendet.
+    *
+    * @return Das Bild im Format ARGB_PRE.
+    */
+   public static BufferedImage toArgbPre(final BufferedImage image) {
+      final int type = image.getType();
+      if (type == BufferedImage.TYPE_INT_ARGB_PRE && isPacked(image)) {
+         return image;
+      }
+      if ((type == BufferedImage.TYPE_INT_RGB
+            || type == BufferedImage.TYPE_INT_ARGB) && isPacked(image)) {
+         final int[] pixels = ((DataBufferInt) image.getRaster()
+            .getDataBuffer()).getData();
+         for (int i = 0; i < pixels.length; i++) {
+            final int pixel = pixels[i];
+            if (type == BufferedImage.TYPE_INT_RGB) {
+               pixels[i] = pixel | 0xFF000000;
+            } else {
+               final int alpha = pixel >>> 24;
+               if (alpha != 0xFF) {
+                  pixels[i] = alpha << 24
+                        | ((pixel >> 16 & 0xFF) * alpha / 0xFF) << 16
+                        | ((pixel >> 8 & 0xFF) * alpha / 0xFF) << 8
+                        | (pixel & 0xFF) * alpha / 0xFF;
+               }
+            }
+         }
+         final WritableRaster raster = Raster.createPackedRaster(image
+            .getRaster()
+            .getDataBuffer(), image.getWidth(), image.getHeight(),
+               image.getWidth(),
+               new int[] { 0xFF0000, 0xFF00, 0xFF, 0xFF000000 }, null);
+         return new BufferedImage(ARGB_PRE, raster, true, null);
+      }
+      final BufferedImage copy = new BufferedImage(image.getWidth(),
+            image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+      copy.createGraphics()
+         .drawImage(image, 0, 0, null);
+      return copy;
+   }
+
+   /**
+    * Prüft, ob die Pixel eines Bildes lückenlos in einem int-Array mit
+    * den Kanälen A, R, G, B (bzw. x, R, G, B) liegen.
+    *
+    * @param image Das Bild.
+    *
+    * @return true, wenn das Array direkt nutzbar ist.
+    */
+   private static boolean isPacked(final BufferedImage image) {
+      return image.getRaster()
+         .getDataBuffer() instanceof final DataBufferInt buffer
+            && buffer.getNumBanks() == 1 && buffer.getOffset() == 0
+            && image.getRaster()
+               .getSampleModel() instanceof final SinglePixelPackedSampleModel model
+            && model.getScanlineStride() == image.getWidth()
+            && image.getRaster()
+               .getParent() == null
+            && image.getColorModel() instanceof final DirectColorModel colors
+            && colors.getRedMask() == 0xFF0000;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private PixelCapture() {
+   }
+}
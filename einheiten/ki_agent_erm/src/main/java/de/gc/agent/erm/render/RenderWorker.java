@@ -0,0 +1,244 @@
+package de.gc.agent.erm.render;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.plantuml.FileFormat;
+
+/**
+ * Ein Render-Prozess ({@link RenderWorkerMain}) mit eigener JVM.
+ *
+ * Ein Rendering, das länger als die Wartezeit dauert, wird durch Beenden
+ * des Prozesses abgebrochen. Ein Worker rendert immer nur ein Diagramm
+ * gleichzeitig.
+ */
+final class RenderWorker implements AutoCloseable {
+
+   /**
+    * Ein Austausch von Nachrichten mit dem Prozess.
+    *
+    * @param <T> Typ des Ergebnisses.
+    */
+   @FunctionalInterface
+   private interface Exchange<T> {
+
+      /**
+       * Führt den Austausch aus.
+       *
+       * @return Das Ergebnis.
+       *
+       * @throws IOException Bei Fehlern der Verbindung oder des Renderings.
+       */
+      T run() throws IOException;
+   }
+
+   /**
+    * Ein Fehler, den der Prozess gemeldet hat; der Prozess bleibt
+    * benutzbar.
+    */
+   private static final class RenderFailure extends IOException {
+
+      /** Serialisierungs-ID. */
+      private static final long serialVersionUID = 1L;
+
+      /**
+       * Erstellt den Fehler.
+       *
+       * @param message Die Meldung des Prozesses.
+       */
+      RenderFailure(final String message) {
+         super(message);
+      }
+   }
+
+   /** Logger für die Fehlerausgaben der Prozesse. */
+   private static final Logger logger = LoggerFactory
+      .getLogger(RenderWorker.class);
+
+   /** Beendet Prozesse nach Ablauf der Wartezeit. */
+   private static final ScheduledExecutorService WATCHDOG = Executors
+      .newSingleThreadScheduledExecutor(runnable -> {
+         final Thread thread = new Thread(runnable, "render-worker-watchdog");
+         thread.setDaemon(true);
+         return thread;
+      });
+
+   /** Der Prozess. */
+   private final Process process;
+
+   /** Die Standardeingabe des Prozesses (Aufträge). */
+   private final DataOutputStream requests;
+
+   /** Die Standardausgabe des Prozesses (Ergebnisse). */
+   private final DataInputStream responses;
+
+   /** Die letzte Zeile der Fehlerausgabe. */
+   private volatile String lastError = "";
+
+   /** Anzahl der Renderings dieses Prozesses. */
+   private int renders;
+
+   /** Ob der Prozess nach einem Abbruch nicht mehr benutzbar ist. */
+   private boolean broken;
+
+   /**
+    * Startet einen Worker und wartet, bis er aufgewärmt ist.
+    *
+    * @param command       Der Befehl zum Start der JVM.
+    * @param timeoutMillis Maximale Wartezeit auf die Bereitschaft.
+    *
+    * @throws IOException Falls der Prozess nicht startet oder sich nicht
+    *                     rechtzeitig meldet.
+    */
+   RenderWorker(final List<String> command, final long timeoutMillis)
+         throws IOException {
+      process = new ProcessBuilder(command).start();
+      requests = new DataOutputStream(new BufferedOutputStream(process
+         .getOutputStream()));
+      responses = new DataInputStream(new BufferedInputStream(process
+         .getInputStream()));
+      final Thread errors = new Thread(this::readErrors,
+            "render-worker-stderr");
+      errors.setDaemon(true);
+      errors.start();
+      final int ready = withTimeout(timeoutMillis, responses::readInt);
+      if (ready != RenderWorkerMain.READY) {
+         close();
+         throw new IOException("Ungültige Antwort des Render-Prozesses.");
+      }
+   }
+
+   /**
+    * Beendet den Prozess.
+    */
+   @Override
+   public void close() {
+      process.destroyForcibly();
+   }
+
+   /**
+    * Liefert die Anzahl der Renderings dieses Prozesses.
+    *
+    * @return Die Anzahl.
+    */
+   int getRenders() {
+      return renders;
+   }
+
+   /**
+    * Gibt zurück, ob der Prozess weitere Diagramme rendern kann.
+    *
+    * @return true, solange der Prozess läuft und nicht abgebrochen wurde.
+    */
+   boolean isUsable() {
+      return !broken && process.isAlive();
+   }
+
+   /**
+    * Liest die Fehlerausgabe und gibt sie im Debug-Log aus.
+    */
+   private void readErrors() {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            process.getErrorStream(), StandardCharsets.UTF_8))) {
+         String line;
+         while ((line = reader.readLine()) != null) {
+            lastError = line;
+            logger.debug("Render-Prozess {}: {}", process.pid(), line);
+         }
+      } catch (final IOException e) {
+         logger.debug("Fehlerausgabe des Render-Prozesses geschlossen.", e);
+      }
+   }
+
+   /**
+    * Rendert ein Diagramm.
+    *
+    * @param plantUml      Der PlantUML-Quelltext.
+    * @param backend       Das Layout-Verfahren.
+    * @param format        Das Ausgabeformat.
+    * @param timeoutMillis Maximale Dauer.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei einem Fehler von PlantUML, wenn der Prozess
+    *                     endet oder die Wartezeit abläuft.
+    */
+   byte[] render(final String plantUml, final LayoutBackend backend,
+         final FileFormat format, final long timeoutMillis)
+         throws IOException {
+      renders++;
+      final byte[] source = plantUml.getBytes(StandardCharsets.UTF_8);
+      return withTimeout(timeoutMillis, () -> {
+         requests.writeUTF(backend.name());
+         requests.writeUTF(format.name());
+         requests.writeInt(source.length);
+         requests.write(source);
+         requests.flush();
+         final byte status = responses.readByte();
+         if (status == RenderWorkerMain.ERROR) {
+            throw new RenderFailure(responses.readUTF());
+         }
+         if (status != RenderWorkerMain.OK) {
+            throw new IOException(responses.readUTF());
+         }
+         final byte[] image = new byte[responses.readInt()];
+         responses.readFully(image);
+         return image;
+      });
+   }
+
+   /**
+    * Führt einen Austausch mit dem Prozess aus und beendet den Prozess,
+    * falls er nicht rechtzeitig fertig wird.
+    *
+    * @param <T>           Typ des Ergebnisses.
+    * @param timeoutMillis Maximale Dauer.
+    * @param exchange      Der Austausch.
+    *
+    * @return Das Ergebnis.
+    *
+    * @throws IOException Bei Fehlern, wenn der Prozess endet oder die
+    *                     Wartezeit abläuft.
+    */
+   private <T> T withTimeout(final long timeoutMillis,
+         final Exchange<T> exchange) throws IOException {
+      final ScheduledFuture<?> watchdog = WATCHDOG.schedule(
+            process::destroyForcibly, timeoutMillis, TimeUnit.MILLISECONDS);
+      try {
+         return exchange.run();
+      } catch (final RenderFailure e) {
+         if (!process.isAlive()) {
+            broken = true;
+         }
+         throw e;
+      } catch (final IOException e) {
+         broken = true;
+         if (watchdog.isDone()) {
+            throw new IOException("Rendering nach " + timeoutMillis
+                  + " ms abgebrochen.", e);
+         }
+         if (!process.isAlive() || e instanceof EOFException) {
+            throw new IOException("Der Render-Prozess wurde beendet: "
+                  + lastError, e);
+         }
+         throw e;
+      } finally {
+         watchdog.cancel(false);
+      }
+   }
+}
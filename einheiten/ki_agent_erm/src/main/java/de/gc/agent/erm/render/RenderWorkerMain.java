@@ -0,0 +1,142 @@
+package de.gc.agent.erm.render;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+/**
+ * Einstiegspunkt eines Render-Prozesses von {@link RenderWorkerPool}.
+ *
+ * Der Prozess rendert nach dem Start ein kleines Diagramm zum Aufwärmen
+ * und meldet dann seine Bereitschaft ({@link #READY}). Danach liest er
+ * Aufträge von der Standardeingabe und schreibt die Ergebnisse auf die
+ * Standardausgabe, bis die Eingabe endet:
+ *
+ * <pre>
+ * Auftrag:  UTF Layout-Verfahren, UTF Ausgabeformat, int Länge, Quelltext (UTF-8)
+ * Ergebnis: byte 0, int Länge, Bild  oder  byte 1 bzw. 2, UTF Fehlermeldung
+ * </pre>
+ *
+ * Alle übrigen Ausgaben (z.B. von PlantUML) gehen auf die
+ * Fehlerausgabe. Nach einem {@link OutOfMemoryError} meldet der Prozess
+ * den Fehler mit der Kennung {@link #FATAL} und beendet sich.
+ */
+public final class RenderWorkerMain {
+
+   /** Bereitschaftsmeldung nach dem Aufwärmen. */
+   static final int READY = 0x45524D31;
+
+   /** Kennung eines erfolgreichen Ergebnisses. */
+   static final byte OK = 0;
+
+   /** Kennung einer Fehlermeldung. */
+   static final byte ERROR = 1;
+
+   /** Kennung einer Fehlermeldung, nach der sich der Prozess beendet. */
+   static final byte FATAL = 2;
+
+   /** Diagramm zum Aufwärmen von PlantUML. */
+   private static final String WARM_UP = """
+         @startuml
+         entity A {
+           * id : INT
+         }
+         entity B {
+           * id : INT
+         }
+         A ||--o{ B
+         @enduml
+         """;
+
+   /**
+    * Startet den Render-Prozess.
+    *
+    * @param args Keine.
+    *
+    * @throws IOException Wenn die Verbindung zum Hauptprozess abbricht.
+    */
+   public static void main(final String[] args) throws IOException {
+      final DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+      System.setOut(System.err);
+      final DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+
+      render(LayoutBackend.SMETANA, FileFormat.PNG, WARM_UP);
+      out.writeInt(READY);
+      out.flush();
+
+      while (true) {
+         final LayoutBackend backend;
+         final FileFormat format;
+         final byte[] source;
+         try {
+            backend = LayoutBackend.valueOf(in.readUTF());
+            format = FileFormat.valueOf(in.readUTF());
+            source = new byte[in.readInt()];
+            in.readFully(source);
+         } catch (final EOFException e) {
+            return;
+         }
+         try {
+            final byte[] image = render(backend, format,
+                  new String(source, StandardCharsets.UTF_8));
+            out.writeByte(OK);
+            out.writeInt(image.length);
+            out.write(image);
+            out.flush();
+         } catch (final OutOfMemoryError e) {
+            out.writeByte(FATAL);
+            out.writeUTF("Speicherlimit des Render-Prozesses überschritten.");
+            out.flush();
+            System.exit(2);
+         } catch (final IOException | RuntimeException e) {
+            out.writeByte(ERROR);
+            out.writeUTF(String.valueOf(e.getMessage()));
+            out.flush();
+         }
+      }
+   }
+
+   /**
+    * Rendert ein Diagramm.
+    *
+    * @param backend Das Layout-Verfahren.
+    * @param format  Das Ausgabeformat.
+    * @param source  Der PlantUML-Quelltext.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   private static byte[] render(final LayoutBackend backend,
+         final FileFormat format, final String source) throws IOException {
+      DotWorkerFactory.setActive(backend == LayoutBackend.DOT_WORKER);
+      try {
+         final ByteArrayOutputStream os = new ByteArrayOutputStream();
+         new SourceStringReader(backend.apply(source)).outputImage(os,
+               new FileFormatOption(format));
+         return os.toByteArray();
+      } finally {
+         DotWorkerFactory.setActive(false);
+      }
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private RenderWorkerMain() {
+   }
+}
@@ -0,0 +1,229 @@
+package de.gc.agent.erm.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import net.sourceforge.plantuml.FileFormat;
+
+/**
+ * Rendert PlantUML-Diagramme in eigenen JVM-Prozessen
+ * ({@link RenderWorkerMain}) statt im Prozess der Anwendung.
+ *
+ * Ein Diagramm, das PlantUML in eine Endlosschleife treibt oder den
+ * Speicher erschöpft, trifft so nur einen Worker: Jedes Rendering hat
+ * eine Höchstdauer, nach der der Worker beendet wird, und jeder Worker
+ * eine eigene Heap-Grenze ({@code -Xmx}). Nach einer festen Anzahl
+ * Renderings wird ein Worker durch einen frischen ersetzt, damit sich
+ * Caches und Fragmentierung von PlantUML nicht ansammeln.
+ *
+ * Es laufen höchstens {@code size} Worker; weitere Renderings warten auf
+ * einen freien Worker. Mit {@link #start()} werden alle Worker im
+ * Hintergrund gestartet und aufgewärmt, sodass schon das erste Rendering
+ * keinen JVM-Start kostet.
+ */
+public class RenderWorkerPool implements AutoCloseable {
+
+   /** Logger für die Protokollierung von Ereignissen in dieser Klasse. */
+   private static final Logger logger = LoggerFactory
+      .getLogger(RenderWorkerPool.class);
+
+   /** Maximale Wartezeit auf den Start eines Workers. */
+   private static final long STARTUP_TIMEOUT_MILLIS = 60_000;
+
+   /**
+    * Liefert den Befehl zum Start eines Workers mit der JVM und dem
+    * Klassenpfad der laufenden Anwendung.
+    *
+    * @param heapMegabytes Die Heap-Grenze des Workers.
+    *
+    * @return Der Befehl.
+    */
+   private static List<String> workerCommand(final int heapMegabytes) {
+      final String java = ProcessHandle.current()
+         .info()
+         .command()
+         .orElse(System.getProperty("java.home") + File.separator + "bin"
+               + File.separator + "java");
+      return List.of(java, "-Xmx" + heapMegabytes + "m", "-XX:+UseSerialGC",
+            "-Djava.awt.headless=true", "-cp",
+            System.getProperty("java.class.path"),
+            RenderWorkerMain.class.getName());
+   }
+
+   /** Die freien Worker. */
+   private final BlockingQueue<RenderWorker> idle = new LinkedBlockingQueue<>();
+
+   /** Anzahl der laufenden oder startenden Worker. */
+   private final AtomicInteger started = new AtomicInteger();
+
+   /** Messwerte der Renderings. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /** Maximale Anzahl der Worker. */
+   private final int size;
+
+   /** Höchstdauer eines Renderings. */
+   private final long timeoutMillis;
+
+   /** Renderings je Worker, bevor er ersetzt wird. */
+   private final int maxRenders;
+
+   /** Der Befehl zum Start eines Workers. */
+   private final List<String> command;
+
+   /** Ob der Pool geschlossen wurde. */
+   private volatile boolean closed;
+
+   /**
+    * Erstellt einen Pool; es wird noch kein Worker gestartet.
+    *
+    * @param size          Maximale Anzahl der Worker (mindestens 1).
+    * @param timeoutMillis Höchstdauer eines Renderings.
+    * @param heapMegabytes Heap-Grenze je Worker in MB.
+    * @param maxRenders    Renderings je Worker, bevor er ersetzt wird.
+    */
+   public RenderWorkerPool(final int size, final long timeoutMillis,
+         final int heapMegabytes, final int maxRenders) {
+      this.size = Math.max(1, size);
+      this.timeoutMillis = timeoutMillis;
+      this.maxRenders = Math.max(1, maxRenders);
+      this.command = workerCommand(heapMegabytes);
+      Runtime.getRuntime()
+         .addShutdownHook(new Thread(this::close));
+   }
+
+   /**
+    * Leiht einen freien Worker aus oder startet einen neuen, solange die
+    * Höchstzahl nicht erreicht ist; andernfalls wird gewartet.
+    *
+    * @return Der Worker.
+    *
+    * @throws IOException Falls der Worker nicht startet oder der Pool
+    *                     geschlossen ist.
+    */
+   private RenderWorker acquire() throws IOException {
+      try {
+         RenderWorker worker = idle.poll();
+         while (worker == null || !worker.isUsable()) {
+            if (closed) {
+               throw new IOException("Der Render-Pool ist geschlossen.");
+            }
+            if (worker != null) {
+               worker.close();
+               started.decrementAndGet();
+            }
+            if (started.incrementAndGet() <= size) {
+               return startWorker();
+            }
+            started.decrementAndGet();
+            worker = idle.poll(100, TimeUnit.MILLISECONDS);
+         }
+         return worker;
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IOException("Warten auf einen Render-Prozess unterbrochen.",
+               e);
+      }
+   }
+
+   /**
+    * Beendet alle freien Worker. Laufende Renderings werden noch
+    * abgeschlossen, ihre Worker danach beendet; neue Worker werden nicht
+    * mehr gestartet.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      RenderWorker worker;
+      while ((worker = idle.poll()) != null) {
+         worker.close();
+         started.decrementAndGet();
+      }
+   }
+
+   /**
+    * Rendert ein Diagramm in einem Worker.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    * @param backend  Das Layout-Verfahren.
+    * @param format   Das Ausgabeformat.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei einem Fehler von PlantUML, wenn die
+    *                     Höchstdauer oder die Heap-Grenze überschritten
+    *                     wird oder kein Worker startet.
+    */
+   public byte[] render(final String plantUml, final LayoutBackend backend,
+         final FileFormat format) throws IOException {
+      final RenderWorker worker = acquire();
+      try {
+         return metrics.time("render-worker",
+               () -> worker.render(plantUml, backend, format, timeoutMillis));
+      } finally {
+         if (!worker.isUsable()) {
+            metrics.counter("render-worker-abbruch")
+               .increment();
+            worker.close();
+            started.decrementAndGet();
+         } else if (worker.getRenders() >= maxRenders || closed) {
+            metrics.counter("render-worker-ersetzt")
+               .increment();
+            worker.close();
+            started.decrementAndGet();
+         } else {
+            idle.add(worker);
+         }
+      }
+   }
+
+   /**
+    * Startet und wärmt alle Worker im Hintergrund auf.
+    */
+   public void start() {
+      final Thread thread = new Thread(() -> {
+         while (!closed) {
+            if (started.incrementAndGet() > size) {
+               started.decrementAndGet();
+               return;
+            }
+            try {
+               idle.add(startWorker());
+            } catch (final IOException e) {
+               logger.warn("Render-Prozess konnte nicht gestartet werden.", e);
+               return;
+            }
+         }
+      }, "render-worker-start");
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /**
+    * Startet einen Worker; der Zähler {@link #started} ist bereits
+    * erhöht und wird bei einem Fehler zurückgesetzt.
+    *
+    * @return Der aufgewärmte Worker.
+    *
+    * @throws IOException Falls der Worker nicht startet.
+    */
+   private RenderWorker startWorker() throws IOException {
+      try {
+         return metrics.time("render-worker-start",
+               () -> new RenderWorker(command, STARTUP_TIMEOUT_MILLIS));
+      } catch (final IOException e) {
+         started.decrementAndGet();
+         throw e;
+      }
+   }
+}
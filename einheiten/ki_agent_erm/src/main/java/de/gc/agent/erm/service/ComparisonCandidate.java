@@ -0,0 +1,100 @@
+package de.gc.agent.erm.service;
+
+import java.util.List;
+import java.util.Properties;
+
+import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.ki.model.UsageCountingChatModel;
+import de.gc.agent.erm.ki.model.UsageCountingChatModel.Usage;
+
+/**
+ * Ein Konfigurations-Set im Vergleichsmodus: ein eigener
+ * {@link ErmGeneratorService}, dessen vier Modelle den Token-Verbrauch
+ * zählen.
+ */
+public final class ComparisonCandidate {
+
+   /**
+    * Erstellt den Kandidaten eines Konfigurations-Sets.
+    *
+    * @param configProps Die geladene Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix (z.B.
+    *                    "ermsystem.ollama").
+    *
+    * @return Der Kandidat.
+    */
+   public static ComparisonCandidate fromConfig(final Properties configProps,
+         final String prefix) {
+      final List<UsageCountingChatModel> models = List
+         .of("analysis", "table", "sql", "tutor")
+         .stream()
+         .map(type -> new UsageCountingChatModel(
+               KiModelFactory.createFromPrefix(configProps, prefix, type)))
+         .toList();
+      final ErmGeneratorService service = new ErmGeneratorService(models
+         .get(0), models.get(1), models.get(2), models.get(3));
+      // Jeder Vergleichslauf soll Dauer und Tokens tatsächlich messen
+      service.setCaching(false);
+      return new ComparisonCandidate(prefix, service, models);
+   }
+
+   /** Der Konfigurations-Präfix. */
+   private final String prefix;
+
+   /** Der Service des Konfigurations-Sets. */
+   private final ErmGeneratorService service;
+
+   /** Die zählenden Modelle des Services. */
+   private final List<UsageCountingChatModel> models;
+
+   /**
+    * Erstellt einen Kandidaten.
+    *
+    * @param prefix  Der Konfigurations-Präfix.
+    * @param service Der Service des Konfigurations-Sets.
+    * @param models  Die zählenden Modelle des Services.
+    */
+   private ComparisonCandidate(final String prefix,
+         final ErmGeneratorService service,
+         final List<UsageCountingChatModel> models) {
+      this.prefix = prefix;
+      this.service = service;
+      this.models = models;
+   }
+
+   /**
+    * Liefert den Konfigurations-Präfix.
+    *
+    * @return Der Präfix.
+    */
+   public String getPrefix() {
+      return prefix;
+   }
+
+   /**
+    * Liefert den Service des Konfigurations-Sets.
+    *
+    * @return Der Service.
+    */
+   public ErmGeneratorService getService() {
+      return service;
+   }
+
+   /**
+    * Liefert den bisherigen Verbrauch aller vier Modelle zusammen.
+    *
+    * @return Der Zählerstand.
+    */
+   public Usage usage() {
+      long calls = 0;
+      long inputTokens = 0;
+      long outputTokens = 0;
+      for (final UsageCountingChatModel model : models) {
+         final Usage usage = model.usage();
+         calls += usage.calls();
+         inputTokens += usage.inputTokens();
+         outputTokens += usage.outputTokens();
+      }
+      return new Usage(calls, inputTokens, outputTokens);
+   }
+}
@@ -0,0 +1,430 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Zerlegt ein großes ERM- oder Tabellenmodell (PlantUML) in Teilbereiche,
+ * die einzeln und parallel gerendert werden können.
+ *
+ * Die Layout-Berechnung wächst überproportional mit der Anzahl der
+ * Entitäten; mehrere kleine Diagramme sind zusammen deutlich schneller
+ * gerendert als ein großes. Zerlegt wird so:
+ * <ol>
+ * <li>Zusammenhangskomponenten über die Beziehungen bilden.</li>
+ * <li>Komponenten mit mehr als {@code maxEntities} Entitäten per
+ * Breitensuche ab der am stärksten verbundenen Entität in
+ * zusammenhängende Stücke teilen.</li>
+ * <li>Kleine Komponenten zu Bereichen bis {@code maxEntities} Entitäten
+ * zusammenfassen.</li>
+ * </ol>
+ * Beziehungen zwischen zwei Bereichen erscheinen in beiden; die fremde
+ * Entität wird dort nur als Platzhalter mit dem Namen ihres Bereichs als
+ * Stereotyp gezeigt. Die Übersicht zeigt die Bereiche und die Anzahl der
+ * Beziehungen zwischen ihnen.
+ */
+public final class DiagramPartitioner {
+
+   /**
+    * Ein Teilbereich des Modells.
+    *
+    * @param name     Der Anzeigename, z.B. "Bereich 2 (Klasse)".
+    * @param entities Die Entitäten des Bereichs.
+    * @param plantUml Der PlantUML-Quelltext des Bereichs.
+    */
+   public record Area(String name, List<String> entities, String plantUml) {
+   }
+
+   /**
+    * Das zerlegte Modell.
+    *
+    * @param areas    Die Teilbereiche (mindestens einer).
+    * @param overview Der PlantUML-Quelltext der Übersicht.
+    */
+   public record Partition(List<Area> areas, String overview) {
+   }
+
+   /**
+    * Die geparsten Bestandteile eines Modells.
+    */
+   private static final class Model {
+
+      /** Eine Beziehung mit ihrer Quelltextzeile. */
+      private record Link(String from, String to, String line) {
+      }
+
+      /** Zeilen, die keine Entität oder Beziehung sind. */
+      private final List<String> header = new ArrayList<>();
+
+      /** Deklarationen der Entitäten (Kopfzeile bis schließende Klammer). */
+      private final Map<String, String> blocks = new LinkedHashMap<>();
+
+      /** Schlüsselwort der Deklaration je Entität, z.B. "entity". */
+      private final Map<String, String> keywords = new LinkedHashMap<>();
+
+      /** Die Beziehungen. */
+      private final List<Link> links = new ArrayList<>();
+
+      /** Nachbarn je Entität (auch für Entitäten ohne Beziehung). */
+      private final Map<String, Set<String>> neighbours = new LinkedHashMap<>();
+
+      /**
+       * Parst einen PlantUML-Quelltext.
+       *
+       * @param plantUml Der Quelltext.
+       */
+      Model(final String plantUml) {
+         final String[] lines = plantUml.split("\\R");
+         for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i];
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("@startuml")
+                  || trimmed.startsWith("@enduml")) {
+               continue;
+            }
+            final Matcher entity = ENTITY.matcher(line);
+            if (entity.find()) {
+               final StringBuilder block = new StringBuilder(line);
+               final int open = line.indexOf('{');
+               if (open >= 0 && line.indexOf('}', open) < 0) {
+                  while (i + 1 < lines.length) {
+                     block.append('\n')
+                        .append(lines[++i]);
+                     if (lines[i].trim()
+                        .startsWith("}")) {
+                        break;
+                     }
+                  }
+               }
+               final String name = name(entity, 2);
+               blocks.put(name, block.toString());
+               keywords.put(name, entity.group(1));
+               neighbours.computeIfAbsent(name, k -> new LinkedHashSet<>());
+               continue;
+            }
+            final Matcher link = RELATIONSHIP.matcher(line);
+            if (!trimmed.startsWith("!") && link.find()) {
+               final String from = name(link, 1);
+               final String to = name(link, 4);
+               links.add(new Link(from, to, line));
+               neighbours.computeIfAbsent(from, k -> new LinkedHashSet<>())
+                  .add(to);
+               neighbours.computeIfAbsent(to, k -> new LinkedHashSet<>())
+                  .add(from);
+               continue;
+            }
+            header.add(line);
+         }
+      }
+
+      /**
+       * Erzeugt den Quelltext eines Bereichs.
+       *
+       * @param area   Die Nummer des Bereichs.
+       * @param areaOf Der Bereich je Entität.
+       * @param names  Die Namen der Bereiche.
+       *
+       * @return Der PlantUML-Quelltext.
+       */
+      String areaPlantUml(final int area, final Map<String, Integer> areaOf,
+            final List<String> names) {
+         final StringBuilder sb = new StringBuilder();
+         appendHeader(sb, header);
+         final Set<String> stubs = new LinkedHashSet<>();
+         final List<String> ownLinks = new ArrayList<>();
+         for (final Link link : links) {
+            final boolean from = areaOf.get(link.from()) == area;
+            final boolean to = areaOf.get(link.to()) == area;
+            if (from || to) {
+               ownLinks.add(link.line());
+               if (!from) {
+                  stubs.add(link.from());
+               }
+               if (!to) {
+                  stubs.add(link.to());
+               }
+            }
+         }
+         for (final Map.Entry<String, Integer> entry : areaOf.entrySet()) {
+            final String block = blocks.get(entry.getKey());
+            if (entry.getValue() == area && block != null) {
+               sb.append(block)
+                  .append('\n');
+            }
+         }
+         for (final String stub : stubs) {
+            // Entitäten ohne Deklaration legt PlantUML selbst an
+            if (blocks.containsKey(stub)) {
+               sb.append(keywords.get(stub))
+                  .append(' ')
+                  .append(stub)
+                  .append(" <<")
+                  .append(names.get(areaOf.get(stub)))
+                  .append(">>\n");
+            }
+         }
+         for (final String line : ownLinks) {
+            sb.append(line)
+               .append('\n');
+         }
+         return sb.append("@enduml\n")
+            .toString();
+      }
+
+      /**
+       * Erzeugt den Quelltext der Übersicht: ein Rechteck je Bereich und
+       * eine Linie mit der Anzahl der Beziehungen zwischen zwei Bereichen.
+       *
+       * @param areaOf Der Bereich je Entität.
+       * @param names  Die Namen der Bereiche.
+       *
+       * @return Der PlantUML-Quelltext.
+       */
+      String overview(final Map<String, Integer> areaOf,
+            final List<String> names) {
+         final int[] sizes = new int[names.size()];
+         areaOf.values()
+            .forEach(area -> sizes[area]++);
+         final Map<String, Integer> crossings = new LinkedHashMap<>();
+         for (final Link link : links) {
+            final int from = areaOf.get(link.from());
+            final int to = areaOf.get(link.to());
+            if (from != to) {
+               crossings.merge("B" + Math.min(from, to) + " -- B"
+                     + Math.max(from, to), 1, Integer::sum);
+            }
+         }
+         final StringBuilder sb = new StringBuilder("@startuml\n");
+         for (int i = 0; i < names.size(); i++) {
+            sb.append("rectangle \"")
+               .append(names.get(i))
+               .append("\\n")
+               .append(sizes[i])
+               .append(" Entitäten\" as B")
+               .append(i)
+               .append('\n');
+         }
+         crossings.forEach((edge, count) -> sb.append(edge)
+            .append(" : ")
+            .append(count)
+            .append('\n'));
+         return sb.append("@enduml\n")
+            .toString();
+      }
+   }
+
+   /**
+    * Name einer Entität in drei Gruppen: einfacher Name in oder ohne
+    * Anführungszeichen oder ein anderer Name samt Anführungszeichen, z.B.
+    * {@code "Neue Entität"}, der so auch in Platzhaltern stehen muss.
+    */
+   private static final String NAME = "(?:\"([\\p{L}\\w]+)\"|([\\p{L}\\w]+)"
+         + "|(\"[^\"]+\"))";
+
+   /** Deklaration einer Entität, z.B. {@code entity "Lehrer" as L {}. */
+   private static final Pattern ENTITY = Pattern.compile(
+         "^\\s*(entity|class|table|abstract|interface|enum)\\s+"
+               + "(?:\"[^\"]*\"\\s+as\\s+)?" + NAME);
+
+   /**
+    * Beziehung, z.B. {@code Klasse "1" -- "*" Schüler : hat >} oder
+    * {@code A ||--o{ B}.
+    */
+   private static final Pattern RELATIONSHIP = Pattern.compile("^\\s*"
+         + NAME + "\\s*(?:\"[^\"]*\"\\s*)?"
+         + "[^\\s\\w\"]*[-.][^\\s\"]*\\s*(?:\"[^\"]*\"\\s*)?" + NAME);
+
+   /**
+    * Hängt die Zeilen eines Bereichs an.
+    *
+    * @param sb     Das Ziel.
+    * @param header Die Kopfzeilen des Modells.
+    */
+   private static void appendHeader(final StringBuilder sb,
+         final List<String> header) {
+      sb.append("@startuml\n");
+      for (final String line : header) {
+         sb.append(line)
+            .append('\n');
+      }
+   }
+
+   /**
+    * Teilt eine Komponente per Breitensuche in zusammenhängende Stücke
+    * mit höchstens {@code maxEntities} Entitäten.
+    *
+    * @param component   Die Entitäten der Komponente.
+    * @param neighbours  Die Nachbarn jeder Entität.
+    * @param maxEntities Die Höchstzahl je Stück.
+    *
+    * @return Die Stücke.
+    */
+   private static List<List<String>> chunk(final Set<String> component,
+         final Map<String, Set<String>> neighbours, final int maxEntities) {
+      final List<List<String>> chunks = new ArrayList<>();
+      final Set<String> remaining = new LinkedHashSet<>(component);
+      while (!remaining.isEmpty()) {
+         final String start = remaining.stream()
+            .max(Comparator.comparingInt(e -> neighbours.get(e)
+               .size()))
+            .orElseThrow();
+         final List<String> chunk = new ArrayList<>();
+         final Deque<String> queue = new ArrayDeque<>();
+         queue.add(start);
+         remaining.remove(start);
+         while (!queue.isEmpty() && chunk.size() < maxEntities) {
+            final String entity = queue.poll();
+            chunk.add(entity);
+            for (final String next : neighbours.get(entity)) {
+               if (remaining.remove(next)) {
+                  queue.add(next);
+               }
+            }
+         }
+         // Nicht mehr aufgenommene Entitäten zurückgeben
+         remaining.addAll(queue);
+         chunks.add(chunk);
+      }
+      return chunks;
+   }
+
+   /**
+    * Ermittelt die Zusammenhangskomponenten.
+    *
+    * @param neighbours Die Nachbarn jeder Entität.
+    *
+    * @return Die Komponenten in der Reihenfolge des Quelltexts.
+    */
+   private static List<Set<String>> components(
+         final Map<String, Set<String>> neighbours) {
+      final List<Set<String>> components = new ArrayList<>();
+      final Set<String> seen = new LinkedHashSet<>();
+      for (final String start : neighbours.keySet()) {
+         if (!seen.add(start)) {
+            continue;
+         }
+         final Set<String> component = new LinkedHashSet<>();
+         final Deque<String> queue = new ArrayDeque<>();
+         queue.add(start);
+         while (!queue.isEmpty()) {
+            final String entity = queue.poll();
+            component.add(entity);
+            for (final String next : neighbours.get(entity)) {
+               if (seen.add(next)) {
+                  queue.add(next);
+               }
+            }
+         }
+         components.add(component);
+      }
+      return components;
+   }
+
+   /**
+    * Zählt die Entitäten eines Modells.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return Die Anzahl der deklarierten oder in Beziehungen genutzten
+    *         Entitäten.
+    */
+   public static int countEntities(final String plantUml) {
+      return new Model(plantUml).neighbours.size();
+   }
+
+   /**
+    * Liefert den Namen einer Entität aus den drei Gruppen von
+    * {@link #NAME}.
+    *
+    * @param matcher Der Treffer.
+    * @param group   Die erste der drei Gruppen.
+    *
+    * @return Der Name.
+    */
+   private static String name(final Matcher matcher, final int group) {
+      for (int i = group; i < group + 2; i++) {
+         if (matcher.group(i) != null) {
+            return matcher.group(i);
+         }
+      }
+      return matcher.group(group + 2);
+   }
+
+   /**
+    * Zerlegt ein Modell in Bereiche mit höchstens {@code maxEntities}
+    * Entitäten.
+    *
+    * @param plantUml    Der PlantUML-Quelltext.
+    * @param maxEntities Die Höchstzahl der Entitäten je Bereich (mind. 2).
+    *
+    * @return Die Zerlegung; bei kleinen Modellen ein einziger Bereich mit
+    *         dem unveränderten Quelltext.
+    */
+   public static Partition partition(final String plantUml,
+         final int maxEntities) {
+      final int limit = Math.max(2, maxEntities);
+      final Model model = new Model(plantUml);
+      if (model.neighbours.size() <= limit) {
+         final Area single = new Area("Gesamtes Modell",
+               List.copyOf(model.neighbours.keySet()), plantUml);
+         return new Partition(List.of(single), plantUml);
+      }
+
+      // Komponenten teilen und die Stücke in Bereiche packen (First Fit)
+      final List<List<String>> chunks = new ArrayList<>();
+      for (final Set<String> component : components(model.neighbours)) {
+         chunks.addAll(chunk(component, model.neighbours, limit));
+      }
+      chunks.sort(Comparator.comparingInt(List<String>::size)
+         .reversed());
+      final List<List<String>> groups = new ArrayList<>();
+      for (final List<String> chunk : chunks) {
+         final List<String> group = groups.stream()
+            .filter(g -> g.size() + chunk.size() <= limit)
+            .findFirst()
+            .orElseGet(() -> {
+               final List<String> created = new ArrayList<>();
+               groups.add(created);
+               return created;
+            });
+         group.addAll(chunk);
+      }
+
+      final Map<String, Integer> areaOf = new LinkedHashMap<>();
+      final List<String> names = new ArrayList<>();
+      for (int i = 0; i < groups.size(); i++) {
+         final List<String> group = groups.get(i);
+         final String hub = group.stream()
+            .max(Comparator.comparingInt(e -> model.neighbours.get(e)
+               .size()))
+            .orElseThrow();
+         names.add("Bereich " + (i + 1) + " (" + hub.replace("\"", "")
+               + ")");
+         for (final String entity : group) {
+            areaOf.put(entity, i);
+         }
+      }
+
+      final List<Area> areas = new ArrayList<>();
+      for (int i = 0; i < groups.size(); i++) {
+         areas.add(new Area(names.get(i), List.copyOf(groups.get(i)),
+               model.areaPlantUml(i, areaOf, names)));
+      }
+      return new Partition(areas, model.overview(areaOf, names));
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private DiagramPartitioner() {
+   }
+}
@@ -1,22 +1,44 @@
 package de.gc.agent.erm.service;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.IntBuffer;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gc.agent.erm.db.DdlSandbox;
+import de.gc.agent.erm.jfr.FirstRenderEvent;
+import de.gc.agent.erm.jfr.PlantUmlRenderEvent;
+import de.gc.agent.erm.ki.model.KiModelFactory;
+import de.gc.agent.erm.ki.model.StructuredOutputChatModel;
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.CompositeDiagram;
 import de.gc.agent.erm.model.GenerationResult;
 import de.gc.agent.erm.model.ProjectState;
 import de.gc.agent.erm.model.Relationship;
@@ -31,9 +53,18 @@ import de.gc.agent.erm.model.agent.SqlDdlTutorAgent;
 import de.gc.agent.erm.model.agent.TableModelAgent;
 import de.gc.agent.erm.model.agent.TutorAgent;
 import de.gc.agent.erm.model.tutor.TutorResponse;
+import de.gc.agent.erm.render.DotWorkerFactory;
+import de.gc.agent.erm.render.LayoutBackend;
+import de.gc.agent.erm.render.PixelCapture;
+import de.gc.agent.erm.render.RenderWorkerPool;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.service.AiServices;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.SourceStringReader;
@@ -46,9 +77,297 @@ import net.sourceforge.plantuml.SourceStringReader;
  * Modellumwandlung, Tutor-Dialoge), die Umwandlung von
  * Relationship-Listen in PlantUML, die Bildgenerierung sowie das
  * Speichern/Laden des Projektzustands.
+ *
+ * Alle KI-Aufrufe, das Rendern sowie Speichern und Laden werden in der
+ * gemeinsamen {@link MetricsRegistry} gemessen; fehlerhafte Zeilen der
+ * Analyse und nicht lesbare Tutor-Antworten werden gezählt.
+ *
+ * Die Tutor-Agenten fordern bei Anbietern mit strukturierter Ausgabe das
+ * {@link TutorResponse#JSON_SCHEMA} als Antwortformat an. Solche
+ * Antworten werden direkt gelesen; alle anderen durchlaufen den
+ * toleranten {@link LenientJsonParser}, der auch Prosa, abgeschnittene
+ * Antworten und überzählige Kommas verkraftet, bevor eine Fehlerantwort
+ * erzeugt wird.
+ *
+ * Das logische Tabellenmodell wird vor der Rückgabe lokal mit dem
+ * {@link TableModelValidator} geprüft; bei Fehlern erhält der Agent einen
+ * kurzen Reparatur-Prompt mit den konkreten Fehlern, statt das Modell
+ * teuer neu zu erzeugen.
+ *
+ * Das SQL-DDL-Skript kann mit {@link #verifySqlDdl(String)} in einem
+ * gepoolten Sandbox-Schema der MariaDB ausgeführt werden; Fehler werden
+ * mit Zeilennummer gemeldet.
+ *
+ * Renderings und die Generatoren für Tabellenmodell und SQL-DDL werden
+ * übersprungen, wenn sich die {@link PlantUmlNormalForm} der Eingabe
+ * nicht geändert hat, z.B. nach Änderungen an Leerraum, Kommentaren oder
+ * der Reihenfolge von Deklarationen und Beziehungen.
+ *
+ * Große Diagramme können mit {@link #renderPartitioned(String, int)} in
+ * Teilbereiche zerlegt und parallel gerendert werden.
  */
 public class ErmGeneratorService {
 
+   /** Maximale Anzahl an Reparaturversuchen für ein Tabellenmodell. */
+   private static final int MAX_TABLE_MODEL_REPAIRS = 2;
+
+   /** Maximale Anzahl zwischengespeicherter Diagramme. */
+   private static final int RENDER_CACHE_SIZE = 32;
+
+   /**
+    * Maximale Anzahl zwischengespeicherter Vorschaubilder; sie sind
+    * unkomprimiert und daher deutlich größer als ein PNG.
+    */
+   private static final int PIXEL_CACHE_SIZE = 4;
+
+   /** Maximale Anzahl zwischengespeicherter KI-Ergebnisse je Operation. */
+   private static final int RESULT_CACHE_SIZE = 16;
+
+   /** Beginn der Ersatzantwort für nicht lesbare Tutor-Antworten. */
+   private static final String UNREADABLE_TUTOR_ANSWER = "Entschuldigung, bei der Verarbeitung der Antwort ist ein Fehler aufgetreten. Die Rohdaten waren:\n\n";
+
+   /** Logger für die Protokollierung von Ereignissen in dieser Klasse. */
+   private static final Logger logger = LoggerFactory
+      .getLogger(ErmGeneratorService.class);
+
+   /**
+    * Typisches konzeptionelles Modell zum Aufwärmen, wie es
+    * {@link #generatePlantUmlFromRelationships(List)} erzeugt.
+    */
+   private static final String WARM_UP_ERM = """
+         @startuml
+
+         entity Klasse {}
+         entity Schüler {}
+         entity Lehrkraft {}
+         entity Fach {}
+
+         Klasse "1" -- "*" Schüler : besteht aus >
+         Klasse "*" -- "1" Lehrkraft : KL >
+         Lehrkraft "*" -- "*" Fach : unterrichtet >
+
+         @enduml""";
+
+   /** Typisches logisches Tabellenmodell zum Aufwärmen. */
+   private static final String WARM_UP_TABLE = """
+         @startuml
+         entity Klasse {
+           + id (PK)
+           --
+           name: varchar(255)
+           + leh_kl_id (FK)
+         }
+         entity Schüler {
+           + id (PK)
+           --
+           vorname: varchar(255)
+           nachname: varchar(255)
+           + klas_id (FK)
+         }
+         entity Lehrkraft {
+           + id (PK)
+           --
+           nachname: varchar(255)
+         }
+         Klasse "1" -- "*" Schüler : besteht aus >
+         Klasse "*" -- "1" Lehrkraft : KL >
+         @enduml""";
+
+   /** Standard-Höchstdauer eines Renderings in einem Render-Prozess. */
+   private static final long DEFAULT_WORKER_TIMEOUT_MILLIS = 20_000;
+
+   /** Standard-Heap-Grenze eines Render-Prozesses in MB. */
+   private static final int DEFAULT_WORKER_HEAP_MB = 256;
+
+   /** Standardanzahl Renderings, nach der ein Render-Prozess ersetzt wird. */
+   private static final int DEFAULT_WORKER_RENDERS = 50;
+
+   /** Threads für das parallele Rendern von Teilbereichen. */
+   private static final ExecutorService RENDER_POOL = Executors
+      .newFixedThreadPool(Runtime.getRuntime()
+         .availableProcessors(), runnable -> {
+            final Thread thread = new Thread(runnable, "plantuml-render");
+            thread.setDaemon(true);
+            return thread;
+         });
+
+   /**
+    * Platzhalter-Modell für {@link #renderOnly(Properties, String)}; ein
+    * Aufruf ist ein Programmierfehler.
+    */
+   private static final ChatModel NO_MODEL = new ChatModel() {
+      @Override
+      public ChatResponse doChat(final ChatRequest request) {
+         throw new IllegalStateException(
+               "Dieser Service rendert nur; es sind keine KI-Modelle geladen.");
+      }
+   };
+
+   /**
+    * Wartet auf ein paralleles Rendering.
+    *
+    * @param <T>    Typ des Ergebnisses.
+    * @param future Das laufende Rendering.
+    *
+    * @return Das Ergebnis.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern oder Unterbrechung.
+    */
+   private static <T> T await(final Future<T> future) throws IOException {
+      try {
+         return future.get();
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IOException("Rendern unterbrochen.", e);
+      } catch (final ExecutionException e) {
+         if (e.getCause() instanceof final IOException io) {
+            throw io;
+         }
+         if (e.getCause() instanceof final RuntimeException runtime) {
+            throw runtime;
+         }
+         throw new IOException(e.getCause());
+      }
+   }
+
+   /**
+    * Übernimmt die Einstellungen für das Rendering aus
+    * {@code <prefix>.render.*}, siehe
+    * {@link #fromConfig(Properties, String)}.
+    *
+    * @param service     Der Service.
+    * @param configProps Die geladene Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix.
+    */
+   private static void configureRendering(final ErmGeneratorService service,
+         final Properties configProps, final String prefix) {
+      service.setLayoutBackend(LayoutBackend.fromConfig(configProps
+         .getProperty(prefix + ".render.layout")));
+      final String dotWorkers = configProps
+         .getProperty(prefix + ".render.dotWorkers");
+      if (dotWorkers != null && !dotWorkers.isBlank()) {
+         DotWorkerFactory.setMaxWorkers(Integer.parseInt(dotWorkers.trim()));
+      }
+      final String partitionSize = configProps
+         .getProperty(prefix + ".render.partitionSize");
+      if (partitionSize != null && !partitionSize.isBlank()) {
+         service.setPartitionSize(Integer.parseInt(partitionSize.trim()));
+      }
+      final int workers = Integer.parseInt(configProps
+         .getProperty(prefix + ".render.workers", "0")
+         .trim());
+      if (workers > 0) {
+         final RenderWorkerPool pool = new RenderWorkerPool(workers,
+               Long.parseLong(configProps
+                  .getProperty(prefix + ".render.workerTimeoutMillis",
+                        String.valueOf(DEFAULT_WORKER_TIMEOUT_MILLIS))
+                  .trim()),
+               Integer.parseInt(configProps
+                  .getProperty(prefix + ".render.workerHeapMb",
+                        String.valueOf(DEFAULT_WORKER_HEAP_MB))
+                  .trim()),
+               Integer.parseInt(configProps
+                  .getProperty(prefix + ".render.workerRenders",
+                        String.valueOf(DEFAULT_WORKER_RENDERS))
+                  .trim()));
+         pool.start();
+         service.setRenderWorkers(pool);
+      }
+   }
+
+   /**
+    * Erstellt einen Service mit den vier KI-Modellen eines
+    * Konfigurations-Sets (Analyse, Tabellenmodell, SQL, Tutoren) und dem
+    * Layout-Verfahren aus {@code <prefix>.render.layout} (siehe
+    * {@link LayoutBackend}). Mit {@code <prefix>.render.partitionSize}
+    * werden Diagramme ab dieser Anzahl Entitäten in Teilbereiche zerlegt.
+    * Ist {@code <prefix>.render.workers} größer als 0, wird in so vielen
+    * eigenen Prozessen gerendert (siehe {@link RenderWorkerPool}), mit
+    * {@code .render.workerTimeoutMillis}, {@code .render.workerHeapMb} und
+    * {@code .render.workerRenders} als Grenzen.
+    *
+    * @param configProps Die geladene Konfiguration.
+    * @param prefix      Der Konfigurations-Präfix (z.B.
+    *                    "ermsystem.gemini").
+    *
+    * @return Der initialisierte Service.
+    */
+   public static ErmGeneratorService fromConfig(final Properties configProps,
+         final String prefix) {
+      final ChatModel analysisModel = KiModelFactory
+         .createFromPrefix(configProps, prefix, "analysis");
+      final ChatModel tableModel = KiModelFactory.createFromPrefix(configProps,
+            prefix, "table");
+      final ChatModel sqlModel = KiModelFactory.createFromPrefix(configProps,
+            prefix, "sql");
+      final ChatModel tutorModel = KiModelFactory.createFromPrefix(configProps,
+            prefix, "tutor");
+      final ErmGeneratorService service = new ErmGeneratorService(
+            analysisModel, tableModel, sqlModel, tutorModel);
+      configureRendering(service, configProps, prefix);
+      return service;
+   }
+
+   /**
+    * Prüft, ob eine Tutor-Antwort die Ersatzantwort für eine nicht
+    * lesbare KI-Antwort ist. Solche Antworten dürfen nicht
+    * wiederverwendet werden, z.B. im Cache des Gateways.
+    *
+    * @param response Die Antwort.
+    *
+    * @return true für die Ersatzantwort.
+    */
+   public static boolean isUnreadableTutorResponse(
+         final TutorResponse response) {
+      return response.answer() != null && response.answer()
+         .startsWith(UNREADABLE_TUTOR_ANSWER);
+   }
+
+   /**
+    * Erstellt eine Map, die bei Überschreiten der Größe den am längsten
+    * nicht genutzten Eintrag verdrängt.
+    *
+    * @param <V>        Typ der Werte.
+    * @param maxEntries Maximale Anzahl Einträge.
+    *
+    * @return Die leere Map (nicht synchronisiert).
+    */
+   private static <V> Map<String, V> lruMap(final int maxEntries) {
+      return new LinkedHashMap<>(16, 0.75f, true) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, V> eldest) {
+            return size() > maxEntries;
+         }
+      };
+   }
+
+   /**
+    * Erstellt einen Service ohne KI-Modelle, der nur lädt, rendert und
+    * exportiert, z.B. für {@code --export}. Es werden weder API-Tokens
+    * noch ein erreichbarer Modell-Server benötigt; KI-Aufrufe scheitern
+    * mit einer {@link IllegalStateException}.
+    *
+    * @param configProps Die geladene Konfiguration für die Einstellungen
+    *                    {@code <prefix>.render.*} oder null für die
+    *                    Standardwerte.
+    * @param prefix      Der Konfigurations-Präfix oder null.
+    *
+    * @return Der Service.
+    */
+   public static ErmGeneratorService renderOnly(final Properties configProps,
+         final String prefix) {
+      final ErmGeneratorService service = new ErmGeneratorService(NO_MODEL,
+            NO_MODEL, NO_MODEL, NO_MODEL);
+      if (configProps != null && prefix != null) {
+         configureRendering(service, configProps, prefix);
+      }
+      return service;
+   }
+
    /** Agent für die semantische Analyse von Beschreibungen */
    private final AnalysisAgent analysisAgent;
 
@@ -85,6 +404,49 @@ public class ErmGeneratorService {
    /** Jackson-Objekt-Mapper für (De-)Serialisierung */
    private final ObjectMapper objectMapper = new JsonMapper();
 
+   /** Messwerte aller Operationen. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /** Sandbox für die DDL-Prüfung; wird beim ersten Bedarf erstellt. */
+   private DdlSandbox ddlSandbox;
+
+   /** Layout-Verfahren für Renderings ohne eigene Angabe. */
+   private volatile LayoutBackend layoutBackend = LayoutBackend.GRAPHVIZ;
+
+   /**
+    * Anzahl Entitäten, ab der Diagramme in Teilbereiche zerlegt werden;
+    * 0 schaltet die Zerlegung aus.
+    */
+   private volatile int partitionSize;
+
+   /** Render-Prozesse außerhalb der Anwendung oder null. */
+   private volatile RenderWorkerPool renderWorkers;
+
+   /** Ob das erste Rendering nach dem Start bereits begonnen hat. */
+   private final AtomicBoolean firstRenderStarted = new AtomicBoolean();
+
+   /** Stand des Aufwärmens: "aus", "laufend" oder "fertig". */
+   private volatile String warmUpState = "aus";
+
+   /** Dauer des abgeschlossenen Aufwärmens. */
+   private volatile long warmUpMillis;
+
+   /** Ob Renderings und Generator-Ergebnisse wiederverwendet werden. */
+   private volatile boolean caching = true;
+
+   /** Gerenderte Diagramme je Layout, Format und Fingerabdruck. */
+   private final Map<String, byte[]> renderCache = lruMap(RENDER_CACHE_SIZE);
+
+   /** Vorschaubilder (ARGB_PRE) je Layout und Fingerabdruck. */
+   private final Map<String, BufferedImage> pixelCache = lruMap(
+         PIXEL_CACHE_SIZE);
+
+   /**
+    * Ergebnisse der Generatoren je Operation und Fingerabdruck der
+    * Eingabe.
+    */
+   private final Map<String, String> resultCache = lruMap(RESULT_CACHE_SIZE);
+
    /**
     * Initialisiert den Service und alle KI-Agenten mit den
     * Modell-Konfigurationen.
@@ -92,7 +454,9 @@ public class ErmGeneratorService {
     * @param analysisModel Modell für die Beziehungsanalyse.
     * @param tableModel    Modell für die Tabellenmodellierung.
     * @param sqlModel      Modell für die SQL-DDL-Erstellung.
-    * @param tutorModel    Gemeinsames Modell für alle Tutor-Agenten.
+    * @param tutorModel    Gemeinsames Modell für alle Tutor-Agenten; es
+    *                      wird um das JSON-Schema der Tutor-Antworten
+    *                      ergänzt.
     */
    public ErmGeneratorService(final ChatModel analysisModel,
          final ChatModel tableModel,
@@ -104,21 +468,24 @@ public class ErmGeneratorService {
             tableModel);
       this.sqlDdlAgent = AiServices.create(SqlDdlAgent.class, sqlModel);
 
-      // Alle Tutor-Agenten können das gleiche Modell nutzen
+      // Alle Tutor-Agenten nutzen das gleiche Modell mit strukturierter
+      // Ausgabe
+      final ChatModel structuredTutorModel = new StructuredOutputChatModel(
+            tutorModel, TutorResponse.JSON_SCHEMA);
       this.relationshipTutorAgent = AiServices.create(TutorAgent.class,
-            tutorModel);
+            structuredTutorModel);
       this.ermDiagramTutorAgent = AiServices.create(ErmDiagramTutorAgent.class,
-            tutorModel);
+            structuredTutorModel);
       this.ermPlantUmlTutorAgent = AiServices
-         .create(ErmPlantUmlTutorAgent.class, tutorModel);
+         .create(ErmPlantUmlTutorAgent.class, structuredTutorModel);
       this.logicalModelTutorAgent = AiServices
-         .create(LogicalModelTutorAgent.class, tutorModel);
+         .create(LogicalModelTutorAgent.class, structuredTutorModel);
       this.logicalModelPlantUmlTutorAgent = AiServices
-         .create(LogicalModelPlantUmlTutorAgent.class, tutorModel);
+         .create(LogicalModelPlantUmlTutorAgent.class, structuredTutorModel);
       this.sqlDdlTutorAgent = AiServices.create(SqlDdlTutorAgent.class,
-            tutorModel);
+            structuredTutorModel);
       this.informationTutorAgent = AiServices
-         .create(InformationTutorAgent.class, tutorModel);
+         .create(InformationTutorAgent.class, structuredTutorModel);
    }
 
    /**
@@ -130,41 +497,52 @@ public class ErmGeneratorService {
     * @return Liste von Relationship-Objekten.
     */
    public List<Relationship> analyzeDescription(final String description) {
-      final String rawAnalysis = analysisAgent
-         .analyzeRelationships(description);
+      final String rawAnalysis = metrics.time("analyse",
+            () -> analysisAgent.analyzeRelationships(description));
       final List<Relationship> parsedList = parseAnalysisResult(rawAnalysis);
       return prioritizeAndDeduplicateRelationships(parsedList);
    }
 
    /**
-    * Bereinigt einen Raw-JSON-String, indem falsch eingefügte Markdown-Wrapper entfernt werden.
+    * Liefert ein zwischengespeichertes Generator-Ergebnis und zählt den
+    * eingesparten KI-Aufruf.
+    *
+    * @param key Operation und Fingerabdruck der Eingabe.
     *
-    * @param rawJson Ursprünglicher JSON-String (ggf. mit Markdown-Wrappern).
-    * @return Der bereinigte, reine JSON-String.
+    * @return Das Ergebnis oder null.
     */
-   private String cleanJsonString(final String rawJson) {
-      if (rawJson == null) {
-         return "";
+   private String cachedResult(final String key) {
+      if (!caching) {
+         return null;
       }
-      String cleaned = rawJson.trim();
-      if (cleaned.startsWith("```json")) {
-         cleaned = cleaned.substring(7);
+      final String cached;
+      synchronized (resultCache) {
+         cached = resultCache.get(key);
       }
-      if (cleaned.startsWith("```sql")) {
-         cleaned = cleaned.substring(6);
+      if (cached != null) {
+         metrics.counter("ki-uebersprungen")
+            .increment();
       }
-      if (cleaned.startsWith("```")) {
-         cleaned = cleaned.substring(3);
-      }
-      if (cleaned.endsWith("```")) {
-         cleaned = cleaned.substring(0, cleaned.length() - 3);
-      }
-      return cleaned.trim();
+      return cached;
+   }
+
+   /**
+    * Prüft die Syntax eines PlantUML-Quelltexts ohne Bilderzeugung, z.B.
+    * während der Eingabe. Das dauert nur wenige Millisekunden.
+    *
+    * @param plantUmlSource Der PlantUML-Quelltext.
+    *
+    * @return Die Syntaxfehler mit Zeilennummer; leer, wenn fehlerfrei.
+    */
+   public List<PlantUmlSyntax.Error> checkPlantUmlSyntax(
+         final String plantUmlSource) {
+      return metrics.time("syntax-pruefung",
+            () -> PlantUmlSyntax.check(plantUmlSource));
    }
 
    /**
     * Exportiert ein PlantUML-Diagramm als Bilddatei mit gewünschtem
-    * Format.
+    * Format. Ein bereits gerendertes Diagramm wird nicht erneut gerendert.
     *
     * @param plantUmlSource Der PlantUML-Quellcode des Diagramms.
     * @param file           Zieldatei für das Bild.
@@ -174,10 +552,48 @@ public class ErmGeneratorService {
     */
    public void exportDiagram(final String plantUmlSource, final File file,
          final FileFormat format) throws IOException {
-      try (FileOutputStream fos = new FileOutputStream(file)) {
-         final SourceStringReader reader = new SourceStringReader(
-               plantUmlSource);
-         reader.outputImage(fos, new FileFormatOption(format));
+      metrics.time("export", () -> {
+         final byte[] imageBytes = renderCached(plantUmlSource, layoutBackend,
+               format);
+         try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(imageBytes);
+         }
+         return null;
+      });
+   }
+
+   /**
+    * Führt ein Rendering aus und misst es, falls es das erste nach dem
+    * Start ist, als Timer "render-erstes" und {@link FirstRenderEvent}.
+    *
+    * @param <T>    Typ des Ergebnisses.
+    * @param render Das Rendering.
+    *
+    * @return Das Ergebnis des Renderings.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   private <T> T firstRender(
+         final MetricsRegistry.TimedCall<T, IOException> render)
+         throws IOException {
+      if (firstRenderStarted.get()
+            || !firstRenderStarted.compareAndSet(false, true)) {
+         return render.call();
+      }
+      final FirstRenderEvent event = new FirstRenderEvent();
+      event.warmUp = warmUpState;
+      event.warmUpMillis = warmUpMillis;
+      event.sinceStartMillis = ManagementFactory.getRuntimeMXBean()
+         .getUptime();
+      event.begin();
+      final long start = System.nanoTime();
+      try {
+         return metrics.time("render-erstes", render);
+      } finally {
+         event.end();
+         event.commit();
+         logger.info("Erstes Rendering nach dem Start: {} ms (Aufwärmen: {}).",
+               (System.nanoTime() - start) / 1_000_000, event.warmUp);
       }
    }
 
@@ -191,26 +607,7 @@ public class ErmGeneratorService {
     */
    public String generatePlantUmlFromRelationships(
          final List<Relationship> relationships) {
-      if (relationships == null || relationships.isEmpty()) {
-         return "@startuml\n@enduml";
-      }
-      final StringBuilder sb = new StringBuilder("@startuml\n\n");
-      final Set<String> entities = new HashSet<>();
-      for (final Relationship rel : relationships) {
-         entities.add(rel.getEntity1());
-         entities.add(rel.getEntity2());
-      }
-      for (final String entity : entities) {
-         sb.append(String.format("entity %s {}\n", entity));
-      }
-      sb.append("\n");
-      for (final Relationship rel : relationships) {
-         sb.append(String.format("%s \"%s\" -- \"%s\" %s : %s %s\n",
-               rel.getEntity1(), rel.getCardinality1(), rel.getCardinality2(),
-               rel.getEntity2(), rel.getVerb(), rel.getDirection()));
-      }
-      sb.append("\n@enduml");
-      return sb.toString();
+      return new ErmPlantUmlSource(relationships).text();
    }
 
    /**
@@ -222,7 +619,20 @@ public class ErmGeneratorService {
     * @return SQL-DDL als String.
     */
    public String generateSqlDdl(final String logicalModelPuml) {
-      return sqlDdlAgent.generateSqlDdl(logicalModelPuml);
+      final String key = "sql-ddl:"
+            + PlantUmlNormalForm.fingerprint(logicalModelPuml);
+      final String cached = cachedResult(key);
+      if (cached != null) {
+         return cached;
+      }
+      final String sqlDdl = metrics.time("sql-ddl",
+            () -> sqlDdlAgent.generateSqlDdl(logicalModelPuml));
+      if (caching) {
+         synchronized (resultCache) {
+            resultCache.put(key, sqlDdl);
+         }
+      }
+      return sqlDdl;
    }
 
    /**
@@ -237,9 +647,59 @@ public class ErmGeneratorService {
     */
    public GenerationResult generateTableModel(final String ermPuml)
          throws IOException {
-      final String tableModelPuml = tableModelAgent.generateTableModel(ermPuml);
-      return new GenerationResult(tableModelPuml,
-            renderPlantUml(tableModelPuml));
+      return renderResult(generateTableModelPlantUml(ermPuml));
+   }
+
+   /**
+    * Wandelt einen konzeptionellen PlantUML-ERM-Code in den PlantUML-Code
+    * des logischen Tabellenmodells um, ohne das Diagramm zu rendern.
+    *
+    * Die Antwort wird lokal geprüft (Syntax, Fremdschlüssel,
+    * Zwischentabellen) und bei Fehlern bis zu
+    * {@value #MAX_TABLE_MODEL_REPAIRS}-mal gezielt repariert. Bleibt das
+    * Modell fehlerhaft, wird der letzte Stand zurückgegeben. Nur gültige
+    * Modelle werden für ein unverändertes ERM wiederverwendet.
+    *
+    * @param ermPuml PlantUML-Quelltext des konzeptionellen Modells.
+    *
+    * @return PlantUML-Code des logischen Tabellenmodells.
+    */
+   public String generateTableModelPlantUml(final String ermPuml) {
+      final String key = "tabellenmodell:"
+            + PlantUmlNormalForm.fingerprint(ermPuml);
+      final String cached = cachedResult(key);
+      if (cached != null) {
+         return cached;
+      }
+      String tableModelPuml = TableModelValidator
+         .extractPlantUml(metrics.time("tabellenmodell",
+               () -> tableModelAgent.generateTableModel(ermPuml)));
+      List<String> errors = TableModelValidator.validate(ermPuml,
+            tableModelPuml);
+      if (!errors.isEmpty()) {
+         metrics.counter("tabellenmodell-ungueltig")
+            .increment();
+      }
+      for (int attempt = 0; !errors.isEmpty()
+            && attempt < MAX_TABLE_MODEL_REPAIRS; attempt++) {
+         final String invalid = tableModelPuml;
+         final String errorList = "- " + String.join("\n- ", errors);
+         tableModelPuml = TableModelValidator
+            .extractPlantUml(metrics.time("tabellenmodell-reparatur",
+                  () -> tableModelAgent.repairTableModel(ermPuml, invalid,
+                        errorList)));
+         errors = TableModelValidator.validate(ermPuml, tableModelPuml);
+      }
+      if (!errors.isEmpty()) {
+         metrics.counter("tabellenmodell-nicht-repariert")
+            .increment();
+         System.err.println("Tabellenmodell bleibt fehlerhaft: " + errors);
+      } else if (caching) {
+         synchronized (resultCache) {
+            resultCache.put(key, tableModelPuml);
+         }
+      }
+      return tableModelPuml;
    }
 
    /**
@@ -253,7 +713,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getErmDiagramTutorResponse(final String context,
          final String question) {
-      final String rawJson = ermDiagramTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-erm-diagramm",
+            () -> ermDiagramTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -268,7 +729,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getErmPlantUmlTutorResponse(final String context,
          final String question) {
-      final String rawJson = ermPlantUmlTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-erm-plantuml",
+            () -> ermPlantUmlTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -282,7 +744,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getInformationTutorResponse(final String context,
          final String question) {
-      final String rawJson = informationTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-wissen",
+            () -> informationTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -297,8 +760,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getLogicalModelPlantUmlTutorResponse(
          final String context, final String question) {
-      final String rawJson = logicalModelPlantUmlTutorAgent.chat(context,
-            question);
+      final String rawJson = metrics.time("tutor-tabellenmodell-plantuml",
+            () -> logicalModelPlantUmlTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -312,10 +775,21 @@ public class ErmGeneratorService {
     */
    public TutorResponse getLogicalModelTutorResponse(final String context,
          final String question) {
-      final String rawJson = logicalModelTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-tabellenmodell",
+            () -> logicalModelTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
+   /**
+    * Liefert die Anzahl Entitäten, ab der Diagramme in Teilbereiche
+    * zerlegt werden.
+    *
+    * @return Die Anzahl; 0, wenn nicht zerlegt wird.
+    */
+   public int getPartitionSize() {
+      return partitionSize;
+   }
+
    /**
     * Ruft die Antwort des Tutor-Agenten für SQL-DDL-Fragen ab.
     *
@@ -326,7 +800,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getSqlDdlTutorResponse(final String context,
          final String question) {
-      final String rawJson = sqlDdlTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-sql-ddl",
+            () -> sqlDdlTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -340,7 +815,8 @@ public class ErmGeneratorService {
     */
    public TutorResponse getTutorResponse(final String context,
          final String question) {
-      final String rawJson = relationshipTutorAgent.chat(context, question);
+      final String rawJson = metrics.time("tutor-beziehungen",
+            () -> relationshipTutorAgent.chat(context, question));
       return parseTutorResponse(rawJson);
    }
 
@@ -369,7 +845,8 @@ public class ErmGeneratorService {
     * @throws IOException Bei Datei- oder Deserialisierungsfehlern.
     */
    public ProjectState loadProjectState(final File file) throws IOException {
-      return objectMapper.readValue(file, ProjectState.class);
+      return metrics.time("laden",
+            () -> objectMapper.readValue(file, ProjectState.class));
    }
 
    /**
@@ -383,9 +860,10 @@ public class ErmGeneratorService {
     */
    public List<Relationship> loadRelationshipsFromJson(final File file)
          throws IOException {
-      return objectMapper.readValue(file,
-            new TypeReference<List<Relationship>>() {
-            });
+      return metrics.time("beziehungen-laden",
+            () -> objectMapper.readValue(file,
+                  new TypeReference<List<Relationship>>() {
+                  }));
    }
 
    /**
@@ -396,7 +874,7 @@ public class ErmGeneratorService {
     *
     * @return Liste von Relationship-Objekten.
     */
-   private List<Relationship> parseAnalysisResult(final String rawAnalysis) {
+   List<Relationship> parseAnalysisResult(final String rawAnalysis) {
       final List<Relationship> relationships = new ArrayList<>();
       if (rawAnalysis == null || rawAnalysis.isBlank()) {
          return relationships;
@@ -412,6 +890,8 @@ public class ErmGeneratorService {
                   parts[2].trim(), parts[3].trim(), parts[4].trim(), ">"));
          } else {
             System.err.println("Skipping malformed line from AI: " + line);
+            metrics.counter("analyse-zeile-fehlerhaft")
+               .increment();
          }
       }
       return relationships;
@@ -419,24 +899,45 @@ public class ErmGeneratorService {
 
    /**
     * Parst eine Tutor-Agenten-Antwort (JSON-String) in ein
-    * TutorResponse-Objekt. Bereinigt zunächst String-Wrapper und liest
-    * dann die Daten.
+    * TutorResponse-Objekt. Antworten mit strukturierter Ausgabe werden
+    * direkt gelesen; gelingt das nicht, wird das erste JSON-Objekt mit dem
+    * {@link LenientJsonParser} gesucht und repariert. Fehlen danach die
+    * Vorschlagsfragen, wird eine leere Liste verwendet. Reparaturen und
+    * Fehler werden gezählt.
     *
     * @param rawJson Roher JSON-Antwortstring.
     *
     * @return TutorResponse-Objekt oder Fehlerantwort.
     */
-   private TutorResponse parseTutorResponse(final String rawJson) {
-      final String cleanedJson = cleanJsonString(rawJson);
-      try {
-         return objectMapper.readValue(cleanedJson, TutorResponse.class);
-      } catch (final IOException e) {
-         e.printStackTrace();
-         return new TutorResponse(
-               "Entschuldigung, bei der Verarbeitung der Antwort ist ein Fehler aufgetreten. Die Rohdaten waren:\n\n"
-                     + rawJson,
-               List.of());
+   TutorResponse parseTutorResponse(final String rawJson) {
+      if (rawJson != null && rawJson.startsWith("{")) {
+         try {
+            return objectMapper.readValue(rawJson, TutorResponse.class);
+         } catch (final IOException e) {
+            // mit Reparatur erneut versuchen
+         }
       }
+      final String repairedJson = LenientJsonParser.repair(rawJson);
+      if (repairedJson != null) {
+         try {
+            final TutorResponse response = objectMapper
+               .readerFor(TutorResponse.class)
+               .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+               .readValue(repairedJson);
+            if (response.answer() != null) {
+               metrics.counter("tutor-json-repariert")
+                  .increment();
+               return response.suggestedQuestions() != null ? response
+                     : new TutorResponse(response.answer(), List.of());
+            }
+         } catch (final IOException e) {
+            // unten als Fehler gezählt
+         }
+      }
+      System.err.println("Tutor-Antwort nicht lesbar: " + rawJson);
+      metrics.counter("tutor-json-fehler")
+         .increment();
+      return new TutorResponse(UNREADABLE_TUTOR_ANSWER + rawJson, List.of());
    }
 
    /**
@@ -447,7 +948,7 @@ public class ErmGeneratorService {
     *
     * @return Bereinigte, priorisierte Relationship-Liste.
     */
-   private List<Relationship> prioritizeAndDeduplicateRelationships(
+   List<Relationship> prioritizeAndDeduplicateRelationships(
          final List<Relationship> rawList) {
       if (rawList == null) {
          return new ArrayList<>();
@@ -467,29 +968,325 @@ public class ErmGeneratorService {
    }
 
    /**
-    * Rendern eines PlantUML-Diagrammquelltexts als JavaFX-Image.
+    * Rendert ein Diagramm in einem Ausgabeformat. Ein Diagramm mit
+    * unveränderter Normalform wird je Layout-Verfahren und Format nicht
+    * erneut gerendert; das gelieferte Array darf daher nicht verändert
+    * werden.
     *
     * @param plantUmlSource PlantUML-Quelltext.
+    * @param backend        Das Layout-Verfahren.
+    * @param format         Das Ausgabeformat.
     *
-    * @return Das gerenderte Diagramm als Image.
+    * @return Das gerenderte Diagramm.
     *
-    * @throws IOException Bei Bildgenerierungsfehlern.
+    * @throws IOException Bei leerer Eingabe oder Bildgenerierungsfehlern.
     */
-   public Image renderPlantUml(final String plantUmlSource) throws IOException {
+   private byte[] renderCached(final String plantUmlSource,
+         final LayoutBackend backend, final FileFormat format)
+         throws IOException {
       if (plantUmlSource == null || plantUmlSource.trim()
          .isEmpty()) {
          throw new IOException("Leere PlantUML-Eingabe.");
       }
-      final ByteArrayOutputStream os = new ByteArrayOutputStream();
-      final SourceStringReader reader = new SourceStringReader(plantUmlSource);
-      reader.outputImage(os);
-      os.close();
-      final byte[] imageBytes = os.toByteArray();
+      final String key = backend.name() + ":" + format.name() + ":"
+            + PlantUmlNormalForm.fingerprint(plantUmlSource);
+      synchronized (renderCache) {
+         final byte[] cached = caching ? renderCache.get(key) : null;
+         if (cached != null) {
+            metrics.counter("render-uebersprungen")
+               .increment();
+            return cached;
+         }
+      }
+      final byte[] imageBytes = firstRender(() -> metrics.time("render",
+            () -> renderImage(plantUmlSource, new FileFormatOption(format),
+                  backend)));
       if (imageBytes.length == 0) {
          throw new IOException(
                "PlantUML konnte kein Bild generieren. Prüfen Sie die Syntax.");
       }
-      return new Image(new ByteArrayInputStream(imageBytes));
+      if (caching) {
+         synchronized (renderCache) {
+            renderCache.put(key, imageBytes);
+         }
+      }
+      return imageBytes;
+   }
+
+   /**
+    * Rendert ein Diagramm mit dem eingestellten Layout-Verfahren in einem
+    * Ausgabeformat, z.B. für den Export. Gerenderte Diagramme werden wie
+    * bei {@link #renderPlantUmlPng(String)} wiederverwendet.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    * @param format         Das Ausgabeformat (z.B. PNG oder SVG).
+    *
+    * @return Das gerenderte Diagramm; darf nicht verändert werden.
+    *
+    * @throws IOException Bei leerer Eingabe oder Bildgenerierungsfehlern.
+    */
+   public byte[] renderDiagram(final String plantUmlSource,
+         final FileFormat format) throws IOException {
+      return renderCached(plantUmlSource, layoutBackend, format);
+   }
+
+   /**
+    * Rendert einen PlantUML-Quelltext mit dem {@link SourceStringReader}
+    * und zeichnet das Rendering als {@link PlantUmlRenderEvent} auf. Ist
+    * Graphviz nicht installiert, wird mit {@link LayoutBackend#SMETANA}
+    * gerendert. Sind Render-Prozesse eingerichtet
+    * ({@link #setRenderWorkers(RenderWorkerPool)}), rendert einer von
+    * ihnen; Metadaten-Optionen werden dann nicht übertragen.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    * @param option         Das Ausgabeformat.
+    * @param backend        Das Layout-Verfahren.
+    *
+    * @return Das gerenderte Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   private byte[] renderImage(final String plantUmlSource,
+         final FileFormatOption option, final LayoutBackend backend)
+         throws IOException {
+      LayoutBackend effective = backend;
+      if (effective != LayoutBackend.SMETANA
+            && !DotWorkerFactory.isDotAvailable()) {
+         metrics.counter("render-smetana-fallback")
+            .increment();
+         effective = LayoutBackend.SMETANA;
+      }
+      final PlantUmlRenderEvent event = new PlantUmlRenderEvent();
+      event.begin();
+      DotWorkerFactory.setActive(effective == LayoutBackend.DOT_WORKER);
+      try {
+         final RenderWorkerPool workers = renderWorkers;
+         if (workers != null) {
+            final byte[] image = workers.render(plantUmlSource, effective,
+                  option.getFileFormat());
+            event.bytes = image.length;
+            return image;
+         }
+         final ByteArrayOutputStream os = new ByteArrayOutputStream();
+         final SourceStringReader reader = new SourceStringReader(
+               effective.apply(plantUmlSource));
+         reader.outputImage(os, option);
+         event.bytes = os.size();
+         return os.toByteArray();
+      } catch (final IOException | RuntimeException e) {
+         event.failure = e.getMessage();
+         throw e;
+      } finally {
+         DotWorkerFactory.setActive(false);
+         event.end();
+         if (event.shouldCommit()) {
+            event.sourceLength = plantUmlSource.length();
+            event.format = option.getFileFormat()
+               .name();
+            event.commit();
+         }
+      }
+   }
+
+   /**
+    * Zerlegt ein Diagramm mit dem {@link DiagramPartitioner} in
+    * Teilbereiche und rendert die Übersicht und alle Bereiche parallel.
+    * Unveränderte Bereiche kommen aus dem Render-Cache, sodass nach einer
+    * Änderung nur die betroffenen Bereiche neu gerendert werden.
+    * Smetana-Layouts laufen wegen einer globalen Sperre in PlantUML
+    * nacheinander; der Gewinn kommt dann allein aus den kleineren
+    * Layouts.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    * @param maxEntities    Höchstzahl der Entitäten je Bereich.
+    *
+    * @return Übersicht, Bereiche und Renderzeiten.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public CompositeDiagram renderPartitioned(final String plantUmlSource,
+         final int maxEntities) throws IOException {
+      return metrics.time("render-partitioniert", () -> {
+         final long start = System.nanoTime();
+         final DiagramPartitioner.Partition partition = DiagramPartitioner
+            .partition(plantUmlSource, maxEntities);
+         final LayoutBackend backend = layoutBackend;
+         final List<Future<CompositeDiagram.Area>> futures = new ArrayList<>();
+         for (final DiagramPartitioner.Area area : partition.areas()) {
+            futures.add(RENDER_POOL.submit(() -> {
+               final long areaStart = System.nanoTime();
+               final byte[] png = renderPlantUmlPng(area.plantUml(), backend);
+               return new CompositeDiagram.Area(area.name(), area.entities()
+                  .size(), area.plantUml(), png,
+                     (System.nanoTime() - areaStart) / 1_000_000);
+            }));
+         }
+         final Future<byte[]> overview = partition.areas()
+            .size() > 1
+                  ? RENDER_POOL.submit(() -> renderPlantUmlPng(
+                        partition.overview(), backend))
+                  : null;
+         final List<CompositeDiagram.Area> areas = new ArrayList<>();
+         long sumMillis = 0;
+         for (final Future<CompositeDiagram.Area> future : futures) {
+            final CompositeDiagram.Area area = await(future);
+            areas.add(area);
+            sumMillis += area.millis();
+         }
+         final byte[] overviewPng = overview == null ? areas.get(0)
+            .png() : await(overview);
+         return new CompositeDiagram(overviewPng, areas,
+               (System.nanoTime() - start) / 1_000_000, sumMillis);
+      });
+   }
+
+   /**
+    * Rendert ein Diagramm als Bild im Format
+    * {@link BufferedImage#TYPE_INT_ARGB_PRE}, ohne Cache und Messung.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    * @param backend        Das Layout-Verfahren.
+    *
+    * @return Das Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   private BufferedImage renderPixels(final String plantUmlSource,
+         final LayoutBackend backend) throws IOException {
+      if (renderWorkers != null) {
+         // Das Bild entsteht in einem anderen Prozess und kommt als PNG
+         final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(
+               renderImage(plantUmlSource,
+                     new FileFormatOption(FileFormat.PNG), backend)));
+         if (decoded == null) {
+            throw new IOException("Der Render-Prozess hat kein PNG geliefert.");
+         }
+         return PixelCapture.toArgbPre(decoded);
+      }
+      return PixelCapture.toArgbPre(PixelCapture.capture(
+            () -> renderImage(plantUmlSource,
+                  new FileFormatOption(FileFormat.PNG, false), backend)));
+   }
+
+   /**
+    * Rendern eines PlantUML-Diagrammquelltexts als JavaFX-Image. Das
+    * Image nutzt die Pixel aus {@link #renderPlantUmlPixels(String)} ohne
+    * Kopie; ein PNG entsteht nur für den Export und
+    * {@link #renderPlantUmlPng(String)}.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    *
+    * @return Das gerenderte Diagramm als Image.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public Image renderPlantUml(final String plantUmlSource) throws IOException {
+      final BufferedImage pixels = renderPlantUmlPixels(plantUmlSource);
+      final int[] data = ((DataBufferInt) pixels.getRaster()
+         .getDataBuffer()).getData();
+      return new WritableImage(new PixelBuffer<>(pixels.getWidth(),
+            pixels.getHeight(), IntBuffer.wrap(data),
+            PixelFormat.getIntArgbPreInstance()));
+   }
+
+   /**
+    * Rendern eines PlantUML-Diagrammquelltexts als unkomprimiertes Bild
+    * für die Vorschau, ohne den Umweg über PNG: Das von PlantUML
+    * gezeichnete Bild wird direkt übernommen (siehe {@link PixelCapture}).
+    * Nur mit Render-Prozessen wird ein PNG übertragen und dekodiert.
+    * Ein Diagramm mit unveränderter Normalform wird nicht erneut
+    * gerendert; das gelieferte Bild darf daher nicht verändert werden.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    *
+    * @return Das Bild im Format {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public BufferedImage renderPlantUmlPixels(final String plantUmlSource)
+         throws IOException {
+      if (plantUmlSource == null || plantUmlSource.trim()
+         .isEmpty()) {
+         throw new IOException("Leere PlantUML-Eingabe.");
+      }
+      final LayoutBackend backend = layoutBackend;
+      final String key = backend.name() + ":"
+            + PlantUmlNormalForm.fingerprint(plantUmlSource);
+      synchronized (pixelCache) {
+         final BufferedImage cached = caching ? pixelCache.get(key) : null;
+         if (cached != null) {
+            metrics.counter("render-uebersprungen")
+               .increment();
+            return cached;
+         }
+      }
+      final BufferedImage pixels = firstRender(() -> metrics
+         .time("render-vorschau", () -> renderPixels(plantUmlSource,
+               backend)));
+      if (caching) {
+         synchronized (pixelCache) {
+            pixelCache.put(key, pixels);
+         }
+      }
+      return pixels;
+   }
+
+   /**
+    * Rendern eines PlantUML-Diagrammquelltexts als PNG, ohne JavaFX zu
+    * benötigen (z.B. für Lasttests oder das Gateway). Ein Diagramm mit
+    * unveränderter Normalform wird nicht erneut gerendert; das gelieferte
+    * Array darf daher nicht verändert werden.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    *
+    * @return Das gerenderte Diagramm als PNG-Bytes.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public byte[] renderPlantUmlPng(final String plantUmlSource)
+         throws IOException {
+      return renderPlantUmlPng(plantUmlSource, layoutBackend);
+   }
+
+   /**
+    * Rendern eines PlantUML-Diagrammquelltexts als PNG mit einem
+    * bestimmten Layout-Verfahren, z.B. für den Vergleich der Verfahren.
+    * Gerenderte Diagramme werden je Verfahren wiederverwendet.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    * @param backend        Das Layout-Verfahren.
+    *
+    * @return Das gerenderte Diagramm als PNG-Bytes.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public byte[] renderPlantUmlPng(final String plantUmlSource,
+         final LayoutBackend backend) throws IOException {
+      return renderCached(plantUmlSource, backend, FileFormat.PNG);
+   }
+
+   /**
+    * Rendert ein Diagramm für die Anzeige: als ein Bild oder, wenn es
+    * größer als {@link #getPartitionSize()} ist, zerlegt in Teilbereiche.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    *
+    * @return Quelltext und Bild, bei Zerlegung mit den Teilbereichen und
+    *         der Übersicht als Bild.
+    *
+    * @throws IOException Bei Bildgenerierungsfehlern.
+    */
+   public GenerationResult renderResult(final String plantUmlSource)
+         throws IOException {
+      if (!shouldPartition(plantUmlSource)) {
+         return new GenerationResult(plantUmlSource,
+               renderPlantUml(plantUmlSource));
+      }
+      final CompositeDiagram composite = renderPartitioned(plantUmlSource,
+            partitionSize);
+      return new GenerationResult(plantUmlSource,
+            new Image(new ByteArrayInputStream(composite.overviewPng())),
+            composite);
    }
 
    /**
@@ -502,8 +1299,11 @@ public class ErmGeneratorService {
     */
    public void saveProjectState(final ProjectState projectState,
          final File file) throws IOException {
-      objectMapper.writerWithDefaultPrettyPrinter()
-         .writeValue(file, projectState);
+      metrics.time("speichern", () -> {
+         objectMapper.writerWithDefaultPrettyPrinter()
+            .writeValue(file, projectState);
+         return null;
+      });
    }
 
    /**
@@ -516,7 +1316,134 @@ public class ErmGeneratorService {
     */
    public void saveRelationshipsToJson(final List<Relationship> relationships,
          final File file) throws IOException {
-      objectMapper.writerWithDefaultPrettyPrinter()
-         .writeValue(file, relationships);
+      metrics.time("beziehungen-speichern", () -> {
+         objectMapper.writerWithDefaultPrettyPrinter()
+            .writeValue(file, relationships);
+         return null;
+      });
+   }
+
+   /**
+    * Schaltet die Wiederverwendung von Renderings und Generator-Ergebnissen
+    * für unveränderte Eingaben ein oder aus, z.B. für Benchmarks, die jeden
+    * Aufruf messen sollen. Beim Ausschalten werden die Caches geleert.
+    *
+    * @param caching true, um Ergebnisse wiederzuverwenden (Standard).
+    */
+   public void setCaching(final boolean caching) {
+      this.caching = caching;
+      if (!caching) {
+         synchronized (renderCache) {
+            renderCache.clear();
+         }
+         synchronized (pixelCache) {
+            pixelCache.clear();
+         }
+         synchronized (resultCache) {
+            resultCache.clear();
+         }
+      }
+   }
+
+   /**
+    * Legt das Layout-Verfahren für Renderings ohne eigene Angabe fest.
+    *
+    * @param layoutBackend Das Verfahren.
+    */
+   public void setLayoutBackend(final LayoutBackend layoutBackend) {
+      this.layoutBackend = layoutBackend;
+   }
+
+   /**
+    * Legt fest, ab wie vielen Entitäten ein Diagramm in Teilbereiche
+    * zerlegt wird (siehe {@link #renderPartitioned(String, int)}).
+    *
+    * @param partitionSize Die Anzahl; 0 schaltet die Zerlegung aus.
+    */
+   public void setPartitionSize(final int partitionSize) {
+      this.partitionSize = Math.max(0, partitionSize);
+   }
+
+   /**
+    * Legt fest, ob Diagramme in eigenen Prozessen gerendert werden.
+    *
+    * @param renderWorkers Die Render-Prozesse oder null, um im Prozess der
+    *                      Anwendung zu rendern.
+    */
+   public void setRenderWorkers(final RenderWorkerPool renderWorkers) {
+      this.renderWorkers = renderWorkers;
+   }
+
+   /**
+    * Gibt zurück, ob ein Diagramm so groß ist, dass es in Teilbereiche
+    * zerlegt werden soll.
+    *
+    * @param plantUmlSource PlantUML-Quelltext.
+    *
+    * @return true, wenn die Zerlegung eingeschaltet ist und das Diagramm
+    *         mehr Entitäten hat.
+    */
+   public boolean shouldPartition(final String plantUmlSource) {
+      final int size = partitionSize;
+      return size > 0 && plantUmlSource != null
+            && DiagramPartitioner.countEntities(plantUmlSource) > size;
+   }
+
+   /**
+    * Prüft ein SQL-DDL-Skript, indem es in einem leeren Sandbox-Schema
+    * der MariaDB ausgeführt wird. Die Sandbox wird beim ersten Aufruf aus
+    * {@code db.properties} erstellt.
+    *
+    * @param sqlDdl Das SQL-DDL-Skript.
+    *
+    * @return Das Ergebnis mit den fehlgeschlagenen Anweisungen und ihren
+    *         Zeilennummern.
+    *
+    * @throws SQLException Falls keine Sandbox verfügbar ist.
+    */
+   public DdlSandbox.Result verifySqlDdl(final String sqlDdl)
+         throws SQLException {
+      final DdlSandbox sandbox;
+      synchronized (this) {
+         if (ddlSandbox == null) {
+            ddlSandbox = DdlSandbox.fromProperties();
+         }
+         sandbox = ddlSandbox;
+      }
+      final DdlSandbox.Result result = metrics.time("ddl-pruefung",
+            () -> sandbox.verify(sqlDdl));
+      if (!result.isValid()) {
+         metrics.counter("ddl-fehlerhaft")
+            .increment();
+      }
+      return result;
+   }
+
+   /**
+    * Rendert ein typisches ERM- und ein Tabellen-Diagramm, ohne die
+    * Ergebnisse zu verwenden, und prüft ihre Syntax. Dabei werden PlantUML,
+    * das Layout und der Font- und Grafik-Stack geladen und vom JIT
+    * übersetzt, sodass das erste Rendering des Benutzers nicht die
+    * Ladezeit trägt. Gedacht für einen Hintergrund-Thread direkt nach dem
+    * Start; Fehler werden nur protokolliert.
+    */
+   public void warmUp() {
+      warmUpState = "laufend";
+      final long start = System.nanoTime();
+      try {
+         metrics.time("render-aufwaermen", () -> {
+            for (final String plantUml : List.of(WARM_UP_ERM, WARM_UP_TABLE)) {
+               PlantUmlSyntax.check(plantUml);
+               renderPixels(plantUml, layoutBackend);
+            }
+            return null;
+         });
+         warmUpMillis = (System.nanoTime() - start) / 1_000_000;
+         warmUpState = "fertig";
+         logger.info("PlantUML in {} ms aufgewärmt.", warmUpMillis);
+      } catch (final IOException | RuntimeException e) {
+         warmUpState = "aus";
+         logger.warn("Aufwärmen von PlantUML fehlgeschlagen.", e);
+      }
    }
 }
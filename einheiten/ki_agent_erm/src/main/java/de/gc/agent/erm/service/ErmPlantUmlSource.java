@@ -0,0 +1,235 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.Relationship;
+
+/**
+ * PlantUML-Code des konzeptionellen Modells, der zeilenweise mit der
+ * Beziehungstabelle Schritt hält.
+ *
+ * Jede Tabellenzeile entspricht einer Beziehungszeile; für jede Entität
+ * wird gezählt, in wie vielen Tabellenzeilen sie vorkommt. Wird eine
+ * Tabellenzeile eingefügt, geändert oder gelöscht, ändern sich nur ihre
+ * Beziehungszeile und ggf. die Zeilen der Entitäten, die dadurch hinzu
+ * kommen oder wegfallen. Der Code hat dasselbe Format wie
+ * {@link ErmGeneratorService#generatePlantUmlFromRelationships(List)}.
+ *
+ * Namen, die keine PlantUML-Bezeichner sind (z.B. "Neue Entität"), werden
+ * in Anführungszeichen gesetzt. Zeilen mit leerem Entitätsnamen erzeugen
+ * keinen Code, bis der Name in der Tabelle eingetragen ist.
+ *
+ * Die Indizes entsprechen denen der Tabelle; die Aufrufe folgen den
+ * Änderungen der Liste in derselben Reihenfolge.
+ */
+public class ErmPlantUmlSource {
+
+   /**
+    * Eine Tabellenzeile.
+    *
+    * @param entity1 Die erste Entität in PlantUML-Schreibweise oder null.
+    * @param entity2 Die zweite Entität in PlantUML-Schreibweise oder null.
+    * @param line    Die Beziehungszeile; leer, solange ein Name fehlt.
+    */
+   private record Row(String entity1, String entity2, String line) {
+   }
+
+   /** Namen, die PlantUML ohne Anführungszeichen akzeptiert. */
+   private static final Pattern IDENTIFIER = Pattern
+      .compile("[\\p{L}_][\\p{L}\\p{N}_]*");
+
+   /**
+    * Bildet die PlantUML-Schreibweise eines Entitätsnamens.
+    *
+    * @param name Der Name aus der Tabelle.
+    *
+    * @return Der Name, bei Bedarf in Anführungszeichen; null, wenn er
+    *         leer ist.
+    */
+   private static String name(final String name) {
+      if (name == null || name.isBlank()) {
+         return null;
+      }
+      final String trimmed = name.strip();
+      if (IDENTIFIER.matcher(trimmed)
+         .matches()) {
+         return trimmed;
+      }
+      // Anführungszeichen im Namen würden den Namen beenden
+      return "\"" + trimmed.replace('"', '\'') + "\"";
+   }
+
+   /**
+    * Bildet die Beziehungszeile einer Tabellenzeile.
+    *
+    * @param relationship Die Beziehung.
+    *
+    * @return Die Zeile mit Zeilenumbruch.
+    */
+   private static Row row(final Relationship relationship) {
+      final String entity1 = name(relationship.getEntity1());
+      final String entity2 = name(relationship.getEntity2());
+      if (entity1 == null || entity2 == null) {
+         return new Row(null, null, "");
+      }
+      return new Row(entity1, entity2, String.format(
+            "%s \"%s\" -- \"%s\" %s : %s %s\n", entity1, relationship
+               .getCardinality1(), relationship.getCardinality2(), entity2,
+            relationship.getVerb(), relationship.getDirection()));
+   }
+
+   /** Die Tabellenzeilen in Tabellenreihenfolge. */
+   private final List<Row> rows = new ArrayList<>();
+
+   /**
+    * Anzahl der Vorkommen je Entität, in der Reihenfolge des ersten
+    * Auftretens.
+    */
+   private final Map<String, Integer> entities = new LinkedHashMap<>();
+
+   /** Messwerte der Aktualisierungen. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /**
+    * Erstellt den Code für eine leere Tabelle.
+    */
+   public ErmPlantUmlSource() {
+   }
+
+   /**
+    * Erstellt den Code für eine Tabelle.
+    *
+    * @param relationships Die Beziehungen der Tabelle.
+    */
+   public ErmPlantUmlSource(final List<Relationship> relationships) {
+      reset(relationships);
+   }
+
+   /**
+    * Fügt eine Tabellenzeile ein.
+    *
+    * @param index        Position der Zeile in der Tabelle.
+    * @param relationship Die Beziehung.
+    */
+   public void add(final int index, final Relationship relationship) {
+      final Row row = row(relationship);
+      rows.add(index, row);
+      count(row, 1);
+      metrics.counter("erm-code-zeile")
+         .increment();
+   }
+
+   /**
+    * Zählt die Entitäten einer Tabellenzeile hinzu oder ab.
+    *
+    * @param row   Die Tabellenzeile.
+    * @param delta 1 beim Einfügen, -1 beim Löschen.
+    */
+   private void count(final Row row, final int delta) {
+      if (row.entity1() == null) {
+         return;
+      }
+      // Eine Summe von 0 entfernt die Entität
+      entities.merge(row.entity1(), delta, (a, b) -> a + b > 0 ? a + b
+            : null);
+      entities.merge(row.entity2(), delta, (a, b) -> a + b > 0 ? a + b
+            : null);
+   }
+
+   /**
+    * Löscht Tabellenzeilen.
+    *
+    * @param from Erste gelöschte Zeile.
+    * @param to   Erste nicht mehr gelöschte Zeile.
+    */
+   public void remove(final int from, final int to) {
+      final List<Row> removed = rows.subList(from, to);
+      for (final Row row : removed) {
+         count(row, -1);
+      }
+      metrics.counter("erm-code-zeile")
+         .add(removed.size());
+      removed.clear();
+   }
+
+   /**
+    * Baut den Code für eine ganze Tabelle neu auf, z.B. nach dem Sortieren.
+    *
+    * @param relationships Die Beziehungen der Tabelle.
+    */
+   public void reset(final List<Relationship> relationships) {
+      rows.clear();
+      entities.clear();
+      if (relationships == null) {
+         return;
+      }
+      for (final Relationship relationship : relationships) {
+         final Row row = row(relationship);
+         rows.add(row);
+         count(row, 1);
+      }
+   }
+
+   /**
+    * Ersetzt eine Tabellenzeile nach einer Änderung in einer Zelle.
+    *
+    * @param index        Position der Zeile in der Tabelle.
+    * @param relationship Die geänderte Beziehung.
+    *
+    * @return true, wenn sich der Code dadurch geändert hat.
+    */
+   public boolean set(final int index, final Relationship relationship) {
+      final Row row = row(relationship);
+      final Row old = rows.set(index, row);
+      if (old.line()
+         .equals(row.line())) {
+         return false;
+      }
+      if (!Objects.equals(old.entity1(), row.entity1()) || !Objects.equals(
+            old.entity2(), row.entity2())) {
+         count(row, 1);
+         count(old, -1);
+      }
+      metrics.counter("erm-code-zeile")
+         .increment();
+      return true;
+   }
+
+   /**
+    * Liefert die Anzahl der Tabellenzeilen.
+    *
+    * @return Die Anzahl.
+    */
+   public int size() {
+      return rows.size();
+   }
+
+   /**
+    * Liefert den vollständigen PlantUML-Code.
+    *
+    * @return Der Code; für eine leere Tabelle ein leeres Diagramm.
+    */
+   public String text() {
+      if (rows.isEmpty()) {
+         return "@startuml\n@enduml";
+      }
+      final StringBuilder sb = new StringBuilder("@startuml\n\n");
+      for (final String entity : entities.keySet()) {
+         sb.append("entity ")
+            .append(entity)
+            .append(" {}\n");
+      }
+      sb.append("\n");
+      for (final Row row : rows) {
+         sb.append(row.line());
+      }
+      sb.append("\n@enduml");
+      return sb.toString();
+   }
+}
@@ -0,0 +1,252 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Toleranter Extraktor für JSON-Objekte aus Modellantworten.
+ *
+ * Der Text wird in einem Durchgang gelesen: Das erste JSON-Objekt wird
+ * auch in Prosa oder Markdown-Codeblöcken gefunden, typische Fehler
+ * werden dabei repariert:
+ * <ul>
+ * <li>typografische Anführungszeichen („…“, “…”) als
+ * String-Begrenzer, auch mit verschachtelten Zitaten im Text,</li>
+ * <li>Zeilenumbrüche und Tabulatoren in Strings,</li>
+ * <li>Kommas vor {@code ]} und {@code }},</li>
+ * <li>abgeschnittene Antworten: Ein offener String-Wert eines Objekts wird
+ * geschlossen, unvollständige Array-Elemente und Schlüssel werden
+ * verworfen, offene Arrays und Objekte werden geschlossen.</li>
+ * </ul>
+ * So bleiben bei einer abgebrochenen Tutor-Antwort die Antwort und alle
+ * vollständigen Vorschlagsfragen erhalten.
+ */
+public final class LenientJsonParser {
+
+   /**
+    * Ein offenes Objekt oder Array.
+    */
+   private static final class Frame {
+
+      /** true für ein Objekt, false für ein Array. */
+      private final boolean object;
+
+      /** Länge der Ausgabe nach dem letzten vollständigen Element. */
+      private int safeLength;
+
+      /** true, wenn im Objekt nach dem Doppelpunkt ein Wert folgt. */
+      private boolean expectValue;
+
+      /**
+       * Erstellt einen Rahmen.
+       *
+       * @param object     true für ein Objekt.
+       * @param safeLength Länge der Ausgabe direkt nach der Klammer.
+       */
+      private Frame(final boolean object, final int safeLength) {
+         this.object = object;
+         this.safeLength = safeLength;
+      }
+   }
+
+   /**
+    * Findet den Anfang des ersten JSON-Objekts: bevorzugt eine Klammer,
+    * auf die ein Schlüssel oder {@code }} folgt, sonst die erste Klammer.
+    *
+    * @param text Der Text.
+    *
+    * @return Die Position oder -1.
+    */
+   private static int findStart(final String text) {
+      final int first = text.indexOf('{');
+      for (int i = first; i >= 0; i = text.indexOf('{', i + 1)) {
+         int next = i + 1;
+         while (next < text.length()
+               && Character.isWhitespace(text.charAt(next))) {
+            next++;
+         }
+         if (next < text.length()
+               && (isQuote(text.charAt(next)) || text.charAt(next) == '}')) {
+            return i;
+         }
+      }
+      return first;
+   }
+
+   /**
+    * Gibt zurück, ob ein Zeichen ein String öffnen kann.
+    *
+    * @param c Das Zeichen.
+    *
+    * @return true für {@code "} und typografische Anführungszeichen.
+    */
+   private static boolean isQuote(final char c) {
+      return c == '"' || isSmartQuote(c);
+   }
+
+   /**
+    * Gibt zurück, ob ein Zeichen ein typografisches doppeltes
+    * Anführungszeichen ist.
+    *
+    * @param c Das Zeichen.
+    *
+    * @return true für „ “ ” und ″.
+    */
+   private static boolean isSmartQuote(final char c) {
+      return c == '„' || c == '“' || c == '”' || c == '″';
+   }
+
+   /**
+    * Markiert ein abgeschlossenes Element im umgebenden Rahmen.
+    *
+    * @param stack Die offenen Rahmen.
+    * @param out   Die bisherige Ausgabe.
+    */
+   private static void markComplete(final Deque<Frame> stack,
+         final StringBuilder out) {
+      final Frame frame = stack.peek();
+      if (frame != null) {
+         frame.safeLength = out.length();
+         frame.expectValue = false;
+      }
+   }
+
+   /**
+    * Entfernt Leerraum und ein Komma am Ende der Ausgabe.
+    *
+    * @param out Die Ausgabe.
+    */
+   private static void removeTrailingComma(final StringBuilder out) {
+      int end = out.length();
+      while (end > 0 && Character.isWhitespace(out.charAt(end - 1))) {
+         end--;
+      }
+      if (end > 0 && out.charAt(end - 1) == ',') {
+         out.setLength(end - 1);
+      }
+   }
+
+   /**
+    * Sucht das erste JSON-Objekt im Text und repariert es.
+    *
+    * @param text Die Modellantwort (kann null sein).
+    *
+    * @return Das reparierte JSON-Objekt oder null, wenn der Text kein
+    *         Objekt enthält.
+    */
+   public static String repair(final String text) {
+      if (text == null) {
+         return null;
+      }
+      final int start = findStart(text);
+      if (start < 0) {
+         return null;
+      }
+      final StringBuilder out = new StringBuilder(text.length() - start + 8);
+      final Deque<Frame> stack = new ArrayDeque<>();
+      boolean inString = false;
+      boolean smartString = false;
+      boolean keyString = false;
+      int nestedQuotes = 0;
+
+      for (int i = start; i < text.length(); i++) {
+         final char c = text.charAt(i);
+         if (inString) {
+            if (c == '\\') {
+               if (i + 1 < text.length()) {
+                  out.append(c)
+                     .append(text.charAt(++i));
+               }
+            } else if (smartString && c == '„') {
+               // Zitat im Text, z.B. „Mit „Zitat“ darin“
+               nestedQuotes++;
+               out.append(c);
+            } else if (smartString && nestedQuotes > 0 && isSmartQuote(c)) {
+               nestedQuotes--;
+               out.append(c);
+            } else if (smartString ? isSmartQuote(c) : c == '"') {
+               out.append('"');
+               inString = false;
+               if (!keyString) {
+                  markComplete(stack, out);
+               }
+            } else if (c == '"') {
+               out.append("\\\"");
+            } else if (c == '\n') {
+               out.append("\\n");
+            } else if (c == '\r') {
+               out.append("\\r");
+            } else if (c == '\t') {
+               out.append("\\t");
+            } else if (c < 0x20) {
+               out.append(String.format("\\u%04x", (int) c));
+            } else {
+               out.append(c);
+            }
+            continue;
+         }
+
+         if (isQuote(c)) {
+            final Frame frame = stack.peek();
+            inString = true;
+            smartString = c != '"';
+            nestedQuotes = 0;
+            keyString = frame != null && frame.object && !frame.expectValue;
+            out.append('"');
+         } else if (c == '{' || c == '[') {
+            out.append(c);
+            stack.push(new Frame(c == '{', out.length()));
+         } else if (c == '}' || c == ']') {
+            if (stack.isEmpty()) {
+               break;
+            }
+            removeTrailingComma(out);
+            out.append(stack.pop().object ? '}' : ']');
+            if (stack.isEmpty()) {
+               return out.toString();
+            }
+            markComplete(stack, out);
+         } else if (c == ',') {
+            final Frame frame = stack.peek();
+            if (frame != null && frame.expectValue) {
+               // Primitiver Wert (Zahl, true, false, null) ist vollständig
+               markComplete(stack, out);
+            } else if (frame != null && !frame.object) {
+               frame.safeLength = Math.max(frame.safeLength, out.length());
+            }
+            out.append(c);
+         } else if (c == ':') {
+            final Frame frame = stack.peek();
+            if (frame != null && frame.object) {
+               frame.expectValue = true;
+            }
+            out.append(c);
+         } else {
+            out.append(c);
+         }
+      }
+
+      // Abgeschnittene Antwort schließen
+      if (inString) {
+         final Frame frame = stack.peek();
+         if (!keyString && frame != null && frame.object) {
+            out.append('"');
+            markComplete(stack, out);
+         }
+      }
+      while (!stack.isEmpty()) {
+         final Frame frame = stack.pop();
+         out.setLength(frame.safeLength);
+         removeTrailingComma(out);
+         out.append(frame.object ? '}' : ']');
+         markComplete(stack, out);
+      }
+      return out.toString();
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private LenientJsonParser() {
+   }
+}
@@ -0,0 +1,243 @@
+package de.gc.agent.erm.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Kanonische Normalform eines PlantUML-Modells und ihr Fingerabdruck.
+ *
+ * Zwei Quelltexte mit derselben Normalform beschreiben dasselbe Modell;
+ * sie unterscheiden sich nur in
+ * <ul>
+ * <li>Leerraum und Leerzeilen,</li>
+ * <li>Kommentaren ({@code '} und Blockkommentare),</li>
+ * <li>der Reihenfolge der Entitäts- und Klassendeklarationen und der
+ * Beziehungen.</li>
+ * </ul>
+ * Alle übrigen Anweisungen ({@code skinparam}, {@code hide}/{@code show},
+ * Richtungsangaben, ...) können sich gegenseitig überschreiben und bleiben
+ * deshalb in ihrer Reihenfolge; umsortiert werden nur Deklarationen und
+ * Beziehungen zwischen zwei solchen Anweisungen.
+ * Die Reihenfolge der Attribute innerhalb einer Entität bleibt erhalten,
+ * weil sie im Diagramm sichtbar ist; ebenso die der Zeilen mehrzeiliger
+ * Anweisungen wie {@code note ... end note}, {@code legend ... endlegend}
+ * oder {@code title ... end title}. Quelltexte mit
+ * Präprozessor-Anweisungen ({@code !define}, {@code !include}, ...)
+ * werden nicht umsortiert, da dort die Reihenfolge zählt.
+ *
+ * Der {@link ErmGeneratorService} nutzt den Fingerabdruck, um Renderings
+ * und KI-Aufrufe für unveränderte Modelle zu überspringen.
+ */
+public final class PlantUmlNormalForm {
+
+   /**
+    * Name in einer Beziehung, einfach oder in Anführungszeichen.
+    */
+   private static final String NAME = "(?:\"[^\"]+\"|[\\p{L}\\w]+)";
+
+   /** Blockkommentar {@code /' ... '/}. */
+   private static final Pattern BLOCK_COMMENT = Pattern
+      .compile("(?s)/'.*?'/");
+
+   /**
+    * Beginn einer Anweisung, die mit {@code end ...} endet; Gruppe 1 ist
+    * das Schlüsselwort, Gruppe 2 der Rest der Zeile.
+    */
+   private static final Pattern END_BLOCK_START = Pattern.compile(
+         "(?i)(?:(?:left|right|center)\\s+)?"
+               + "(r?note|hnote|legend|title|header|footer)\\b\\s*(.*)");
+
+   /**
+    * Rest einer mehrzeiligen Notiz, z.B. {@code left of A} oder
+    * {@code as N1}; einzeilige Notizen enthalten einen Doppelpunkt.
+    */
+   private static final Pattern MULTILINE_NOTE = Pattern.compile(
+         "(?i)(?:(?:left|right|top|bottom|over|across|on link|as)\\b[^:]*)?");
+
+   /** Rest eines Legendenbeginns: nur die Position. */
+   private static final Pattern LEGEND_POSITION = Pattern.compile(
+         "(?i)(?:(?:top|bottom|left|right|center)\\s*)*");
+
+   /**
+    * Anweisung, deren Position im Quelltext keine Rolle spielt: eine
+    * Deklaration wie {@code entity Lehrer {...}} oder eine Beziehung wie
+    * {@code Klasse "1" -- "*" Schüler : hat >}.
+    */
+   private static final Pattern SORTABLE = Pattern.compile("(?is)"
+         + "(?:entity|class|abstract|table|interface|enum|object)\\s.*"
+         + "|" + NAME + "\\s*(?:\"[^\"]*\"\\s*)?[^\\s\\w\"]*[-.][^\\s\"]*"
+         + "\\s*(?:\"[^\"]*\"\\s*)?" + NAME + "\\s*(?::.*)?");
+
+   /**
+    * Bildet die kanonische Normalform eines PlantUML-Quelltexts.
+    *
+    * @param plantUml Der PlantUML-Quelltext (kann null sein).
+    *
+    * @return Die Normalform; Anweisungen durch Zeilenumbrüche getrennt.
+    */
+   public static String canonicalize(final String plantUml) {
+      if (plantUml == null) {
+         return "";
+      }
+      final List<String> statements = new ArrayList<>();
+      final StringBuilder block = new StringBuilder();
+      int depth = 0;
+      Pattern blockEnd = null;
+      boolean ordered = false;
+      for (final String rawLine : BLOCK_COMMENT.matcher(plantUml)
+         .replaceAll("")
+         .split("\\R")) {
+         final String line = collapseWhitespace(rawLine);
+         if (line.isEmpty() || line.startsWith("'")) {
+            continue;
+         }
+         if (line.startsWith("!")) {
+            ordered = true;
+         }
+         if (depth > 0 || blockEnd != null) {
+            block.append('\n')
+               .append(line);
+         } else {
+            block.setLength(0);
+            block.append(line);
+         }
+         if (blockEnd != null) {
+            // Zeilen einer Notiz o.ä. sind Text, keine Anweisungen
+            if (blockEnd.matcher(line)
+               .matches()) {
+               blockEnd = null;
+            }
+         } else {
+            blockEnd = blockEnd(line);
+            if (blockEnd == null && line.endsWith("{")) {
+               depth++;
+            } else if (blockEnd == null && line.startsWith("}")
+                  && depth > 0) {
+               depth--;
+            }
+         }
+         if (depth == 0 && blockEnd == null) {
+            statements.add(block.toString());
+         }
+      }
+      if (depth > 0 || blockEnd != null) {
+         // Nicht geschlossener Block: trotzdem berücksichtigen
+         statements.add(block.toString());
+      }
+      if (!ordered) {
+         sortDeclarations(statements);
+      }
+      return String.join("\n", statements);
+   }
+
+   /**
+    * Erkennt den Beginn einer mehrzeiligen Anweisung, die mit
+    * {@code end ...} endet.
+    *
+    * @param line Die bereinigte Zeile.
+    *
+    * @return Das Muster der letzten Zeile oder null, wenn die Zeile keine
+    *         solche Anweisung beginnt.
+    */
+   private static Pattern blockEnd(final String line) {
+      final Matcher matcher = END_BLOCK_START.matcher(line);
+      if (!matcher.matches()) {
+         return null;
+      }
+      final String keyword = matcher.group(1)
+         .toLowerCase();
+      final String rest = matcher.group(2);
+      final boolean multiline = switch (keyword) {
+         case "note", "rnote", "hnote" -> MULTILINE_NOTE.matcher(rest)
+            .matches();
+         case "legend" -> LEGEND_POSITION.matcher(rest)
+            .matches();
+         default -> rest.isEmpty();
+      };
+      if (!multiline) {
+         return null;
+      }
+      return Pattern.compile("(?i)end ?" + (keyword.endsWith("note")
+            ? "[rh]?note"
+            : keyword));
+   }
+
+   /**
+    * Fasst Leerraum außerhalb von Anführungszeichen zu einem Leerzeichen
+    * zusammen und entfernt ihn am Anfang und Ende.
+    *
+    * @param line Die Zeile.
+    *
+    * @return Die bereinigte Zeile.
+    */
+   private static String collapseWhitespace(final String line) {
+      final StringBuilder sb = new StringBuilder(line.length());
+      boolean quoted = false;
+      boolean space = false;
+      for (int i = 0; i < line.length(); i++) {
+         final char c = line.charAt(i);
+         if (c == '"') {
+            quoted = !quoted;
+         }
+         if (!quoted && Character.isWhitespace(c)) {
+            space = sb.length() > 0;
+            continue;
+         }
+         if (space) {
+            sb.append(' ');
+            space = false;
+         }
+         sb.append(c);
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Berechnet den Fingerabdruck der Normalform.
+    *
+    * @param plantUml Der PlantUML-Quelltext (kann null sein).
+    *
+    * @return Hex-kodierter SHA-256-Hash der Normalform.
+    */
+   public static String fingerprint(final String plantUml) {
+      try {
+         return HexFormat.of()
+            .formatHex(MessageDigest.getInstance("SHA-256")
+               .digest(canonicalize(plantUml)
+                  .getBytes(StandardCharsets.UTF_8)));
+      } catch (final NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 nicht verfügbar.", e);
+      }
+   }
+
+   /**
+    * Sortiert jede zusammenhängende Folge von Deklarationen und Beziehungen;
+    * alle anderen Anweisungen bleiben an ihrer Stelle.
+    *
+    * @param statements Die Anweisungen in Reihenfolge des Quelltexts.
+    */
+   private static void sortDeclarations(final List<String> statements) {
+      int start = 0;
+      for (int i = 0; i <= statements.size(); i++) {
+         if (i < statements.size() && SORTABLE.matcher(statements.get(i))
+            .matches()) {
+            continue;
+         }
+         Collections.sort(statements.subList(start, i));
+         start = i + 1;
+      }
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private PlantUmlNormalForm() {
+   }
+}
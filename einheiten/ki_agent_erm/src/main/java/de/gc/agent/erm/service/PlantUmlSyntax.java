@@ -0,0 +1,99 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.plantuml.BlockUml;
+import net.sourceforge.plantuml.ErrorUml;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.error.PSystemError;
+
+/**
+ * Syntaxprüfung von PlantUML ohne Bilderzeugung.
+ *
+ * PlantUML zerlegt den Quelltext in Blöcke und baut daraus das Diagramm
+ * auf; ein Syntaxfehler ergibt ein {@link PSystemError} mit Zeilenangabe.
+ * Layout und Bilderzeugung, die beim Rendern den Großteil der Zeit
+ * kosten, entfallen, daher dauert die Prüfung nur wenige Millisekunden.
+ * Scheitert PlantUML an einer Eingabe mit einer Ausnahme, wird diese als
+ * Syntaxfehler gemeldet.
+ */
+public final class PlantUmlSyntax {
+
+   /**
+    * Ein Syntaxfehler.
+    *
+    * @param line    Die Zeile (ab 1) oder 0, falls unbekannt.
+    * @param source  Der Text der Zeile oder null.
+    * @param message Die Fehlermeldung von PlantUML.
+    */
+   public record Error(int line, String source, String message) {
+
+      /**
+       * Liefert eine kurze Beschreibung des Fehlers, z.B.
+       * {@code Zeile 3 ("A -->> B"): Syntax Error?}.
+       *
+       * @return Die Beschreibung.
+       */
+      public String describe() {
+         return line > 0
+               ? "Zeile " + line + " (\"" + source + "\"): " + message
+               : "Syntaxfehler: " + message;
+      }
+   }
+
+   /**
+    * Prüft die PlantUML-Syntax, ohne das Diagramm zu rendern.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return Die Syntaxfehler; leer, wenn fehlerfrei.
+    */
+   public static List<Error> check(final String plantUml) {
+      final List<Error> errors = new ArrayList<>();
+      if (plantUml == null || plantUml.isBlank()) {
+         errors.add(new Error(0, null, "Leere PlantUML-Eingabe."));
+         return errors;
+      }
+      final List<BlockUml> blocks;
+      final Object diagram;
+      try {
+         blocks = new SourceStringReader(plantUml).getBlocks();
+         diagram = blocks.isEmpty() ? null
+               : blocks.get(0)
+                  .getDiagram();
+      } catch (final RuntimeException e) {
+         // PlantUML scheitert bei manchen Eingaben mit einer Ausnahme
+         errors.add(new Error(0, null, e.getMessage() != null
+               ? e.getMessage()
+               : e.getClass()
+                  .getSimpleName()));
+         return errors;
+      }
+      if (blocks.isEmpty()) {
+         errors.add(new Error(0, null,
+               "Kein Block von @startuml bis @enduml gefunden."));
+      } else if (diagram instanceof final PSystemError error) {
+         final String[] lines = plantUml.split("\n", -1);
+         for (final ErrorUml uml : error.getErrorsUml()) {
+            final int line = uml.getLineLocation() == null ? -1
+                  : uml.getLineLocation()
+                     .getPosition();
+            errors.add(line < 0 || line >= lines.length
+                  ? new Error(0, null, uml.getError())
+                  : new Error(line + 1, lines[line].trim(), uml.getError()));
+         }
+         if (errors.isEmpty()) {
+            errors.add(new Error(0, null, String.valueOf(error
+               .getWarningOrError())));
+         }
+      }
+      return errors;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private PlantUmlSyntax() {
+   }
+}
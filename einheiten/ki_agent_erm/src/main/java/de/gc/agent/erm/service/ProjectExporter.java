@@ -0,0 +1,254 @@
+package de.gc.agent.erm.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.ProjectState;
+import net.sourceforge.plantuml.FileFormat;
+
+/**
+ * Exportiert alle Ergebnisse eines Projekts in einem Schritt: ERM und
+ * Tabellenmodell als PNG, SVG und PlantUML-Code sowie das SQL-DDL-Skript.
+ *
+ * Die Diagramme werden gleichzeitig gerendert; bereits gerenderte
+ * Diagramme kommen aus dem Render-Cache des {@link ErmGeneratorService}.
+ * Jede Datei wird geschrieben, sobald sie fertig ist, entweder in ein
+ * ZIP-Archiv (Ziel endet auf {@code .zip}) oder in ein Verzeichnis. Leere
+ * Teile des Projekts werden übersprungen.
+ */
+public class ProjectExporter {
+
+   /**
+    * Ergebnis eines Exports.
+    *
+    * @param target Das ZIP-Archiv oder Verzeichnis.
+    * @param files  Die geschriebenen Dateien in der Reihenfolge des
+    *               Schreibens.
+    * @param bytes  Die Größe aller Dateien.
+    * @param millis Die Dauer des gesamten Exports.
+    */
+   public record Result(Path target, List<String> files, long bytes,
+         long millis) {
+
+      /**
+       * Beschreibt das Ergebnis für eine Meldung.
+       *
+       * @return z.B. "7 Dateien (84 KB) in 912 ms nach projekt.zip".
+       */
+      public String describe() {
+         return String.format("%d Dateien (%d KB) in %d ms nach %s", files
+            .size(), (bytes + 1023) / 1024, millis, target);
+      }
+   }
+
+   /**
+    * Eine exportierte Datei.
+    *
+    * @param name    Der Dateiname.
+    * @param content Der Inhalt.
+    */
+   private record Artifact(String name, byte[] content) {
+   }
+
+   /** Schreibt eine Datei in das Ziel. */
+   @FunctionalInterface
+   private interface Sink {
+
+      /**
+       * Schreibt eine Datei.
+       *
+       * @param artifact Die Datei.
+       *
+       * @throws IOException Bei Schreibfehlern.
+       */
+      void write(Artifact artifact) throws IOException;
+   }
+
+   /** Formate, in denen jedes Diagramm exportiert wird. */
+   private static final List<FileFormat> DIAGRAM_FORMATS = List.of(
+         FileFormat.PNG, FileFormat.SVG);
+
+   /**
+    * Wartet auf die nächste fertige Datei.
+    *
+    * @param completion Die laufenden Aufgaben.
+    *
+    * @return Die Datei.
+    *
+    * @throws IOException Bei Fehlern einer Aufgabe oder Unterbrechung.
+    */
+   private static Artifact next(final CompletionService<Artifact> completion)
+         throws IOException {
+      try {
+         return completion.take()
+            .get();
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IOException("Export unterbrochen.", e);
+      } catch (final ExecutionException e) {
+         if (e.getCause() instanceof final IOException io) {
+            throw io;
+         }
+         throw new IOException(e.getCause());
+      }
+   }
+
+   /**
+    * Bildet eine Textdatei mit Zeilenumbruch am Ende, wie beim Export
+    * einzelner Dateien.
+    *
+    * @param name Der Dateiname.
+    * @param text Der Inhalt.
+    *
+    * @return Die Datei.
+    */
+   private static Artifact text(final String name, final String text) {
+      return new Artifact(name, (text + System.lineSeparator()).getBytes(
+            StandardCharsets.UTF_8));
+   }
+
+   /** Der Service für das Rendering. */
+   private final ErmGeneratorService service;
+
+   /** Messwerte der Exporte. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /**
+    * Erstellt den Export für einen Service.
+    *
+    * @param service Der Service für das Rendering.
+    */
+   public ProjectExporter(final ErmGeneratorService service) {
+      this.service = service;
+   }
+
+   /**
+    * Fügt die Aufgaben für ein Diagramm hinzu.
+    *
+    * @param tasks    Die Aufgaben.
+    * @param baseName Dateiname ohne Endung.
+    * @param plantUml Der PlantUML-Code; leer, falls das Diagramm fehlt.
+    */
+   private void addDiagram(final List<Callable<Artifact>> tasks,
+         final String baseName, final String plantUml) {
+      if (plantUml == null || plantUml.isBlank()) {
+         return;
+      }
+      tasks.add(() -> text(baseName + ".puml", plantUml));
+      for (final FileFormat format : DIAGRAM_FORMATS) {
+         tasks.add(() -> new Artifact(baseName + format.getFileSuffix(),
+               service.renderDiagram(plantUml, format)));
+      }
+   }
+
+   /**
+    * Führt die Aufgaben gleichzeitig aus und schreibt jede Datei, sobald
+    * sie fertig ist.
+    *
+    * @param tasks Die Aufgaben.
+    * @param sink  Das Ziel.
+    * @param files Nimmt die Namen der geschriebenen Dateien auf.
+    *
+    * @return Die Größe aller Dateien.
+    *
+    * @throws IOException Bei Render- oder Schreibfehlern.
+    */
+   private long collect(final List<Callable<Artifact>> tasks,
+         final Sink sink, final List<String> files) throws IOException {
+      final ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+            tasks.size(), Runtime.getRuntime()
+               .availableProcessors()), runnable -> {
+                  final Thread thread = new Thread(runnable, "export");
+                  thread.setDaemon(true);
+                  return thread;
+               });
+      try {
+         final CompletionService<Artifact> completion = new ExecutorCompletionService<>(
+               executor);
+         for (final Callable<Artifact> task : tasks) {
+            completion.submit(task);
+         }
+         long bytes = 0;
+         for (int i = 0; i < tasks.size(); i++) {
+            final Artifact artifact = next(completion);
+            sink.write(artifact);
+            files.add(artifact.name());
+            bytes += artifact.content().length;
+         }
+         return bytes;
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Exportiert ein Projekt.
+    *
+    * @param state  Das Projekt.
+    * @param target Ein ZIP-Archiv ({@code .zip}) oder ein Verzeichnis,
+    *               das bei Bedarf angelegt wird.
+    *
+    * @return Das Ergebnis mit Dateien und Dauer.
+    *
+    * @throws IOException Wenn das Projekt leer ist oder eine Datei nicht
+    *                     gerendert oder geschrieben werden kann; ein
+    *                     unvollständiges ZIP-Archiv wird gelöscht.
+    */
+   public Result export(final ProjectState state, final Path target)
+         throws IOException {
+      final List<Callable<Artifact>> tasks = new ArrayList<>();
+      addDiagram(tasks, "erm", state.ermPlantUml());
+      addDiagram(tasks, "tabellenmodell", state.tableModelPlantUml());
+      final String sqlDdl = state.sqlDdl();
+      if (sqlDdl != null && !sqlDdl.isBlank()) {
+         tasks.add(() -> text("schema.sql", sqlDdl));
+      }
+      if (tasks.isEmpty()) {
+         throw new IOException(
+               "Das Projekt enthält noch nichts zum Exportieren.");
+      }
+
+      return metrics.time("export-alle", () -> {
+         final long start = System.nanoTime();
+         final List<String> files = new ArrayList<>();
+         final long bytes;
+         if (target.getFileName()
+            .toString()
+            .toLowerCase()
+            .endsWith(".zip")) {
+            try (ZipOutputStream zip = new ZipOutputStream(
+                  new BufferedOutputStream(Files.newOutputStream(target)))) {
+               bytes = collect(tasks, artifact -> {
+                  zip.putNextEntry(new ZipEntry(artifact.name()));
+                  zip.write(artifact.content());
+                  zip.closeEntry();
+               }, files);
+            } catch (final IOException e) {
+               Files.deleteIfExists(target);
+               throw e;
+            }
+         } else {
+            Files.createDirectories(target);
+            bytes = collect(tasks, artifact -> Files.write(target.resolve(
+                  artifact.name()), artifact.content()), files);
+         }
+         return new Result(target, List.copyOf(files), bytes,
+               (System.nanoTime() - start) / 1_000_000);
+      });
+   }
+}
@@ -0,0 +1,262 @@
+package de.gc.agent.erm.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lokale Prüfung eines logischen Tabellenmodells (PlantUML), wie es der
+ * {@code TableModelAgent} liefert.
+ *
+ * Geprüft werden ohne Rendern:
+ * <ul>
+ * <li>die PlantUML-Syntax (mit Zeilennummer),</li>
+ * <li>ob jede Beziehung nur vorhandene Tabellen verbindet,</li>
+ * <li>ob jeder Fremdschlüssel ({@code <kürzel>[_<rolle>]_id (FK)}) auf
+ * eine vorhandene Tabelle verweist,</li>
+ * <li>ob jede n:m-Beziehung des konzeptionellen Modells eine
+ * Zwischentabelle hat.</li>
+ * </ul>
+ * Die Fehlermeldungen sind kurz gehalten, damit sie direkt in einen
+ * Reparatur-Prompt passen.
+ */
+public final class TableModelValidator {
+
+   /** Kopfzeile einer Entität, z.B. {@code entity Klasse {}. */
+   private static final Pattern ENTITY = Pattern
+      .compile("^\\s*(?:entity|class|table)\\s+\"?([\\p{L}\\w]+)\"?.*\\{");
+
+   /** Beziehung, z.B. {@code Klasse "1" -- "*" Schüler : hat >}. */
+   private static final Pattern RELATIONSHIP = Pattern.compile(
+         "^\\s*([\\p{L}\\w]+)\\s+\"([^\"]*)\"\\s+-+\\s+\"([^\"]*)\"\\s+([\\p{L}\\w]+)");
+
+   /** Name einer Spalte am Zeilenanfang, z.B. {@code + klas_id (FK)}. */
+   private static final Pattern COLUMN = Pattern
+      .compile("^\\s*[+*#~-]?\\s*([\\p{L}\\w]+)");
+
+   /**
+    * Schneidet den PlantUML-Block aus einer Modellantwort aus, z.B. wenn
+    * das Modell ihn in einen Markdown-Codeblock oder Erklärungen
+    * eingebettet hat.
+    *
+    * @param text Die Modellantwort.
+    *
+    * @return Der Text von {@code @startuml} bis {@code @enduml} oder der
+    *         unveränderte, getrimmte Text.
+    */
+   public static String extractPlantUml(final String text) {
+      if (text == null) {
+         return "";
+      }
+      final int start = text.indexOf("@startuml");
+      final int end = text.lastIndexOf("@enduml");
+      if (start < 0 || end < start) {
+         return text.trim();
+      }
+      return text.substring(start, end + "@enduml".length());
+   }
+
+   /**
+    * Ermittelt die Tabellen, auf die ein Fremdschlüssel verweisen kann:
+    * Das Kürzel vor dem ersten Unterstrich ist der Anfang des
+    * Tabellennamens, alternativ enthält die Spalte den ganzen Namen.
+    *
+    * @param column Der Spaltenname.
+    * @param tables Die normalisierten Tabellennamen.
+    *
+    * @return Die passenden Tabellen (normalisiert).
+    */
+   private static Set<String> fkTargets(final String column,
+         final Set<String> tables) {
+      final String name = normalize(column).replaceAll("_?id$", "");
+      final String abbreviation = name.contains("_")
+            ? name.substring(0, name.indexOf('_'))
+            : name;
+      final Set<String> result = new LinkedHashSet<>();
+      for (final String table : tables) {
+         if (!abbreviation.isEmpty() && table.startsWith(abbreviation)
+               || name.contains(table)) {
+            result.add(table);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Sucht die Zwischentabelle einer n:m-Beziehung: eine dritte Tabelle
+    * mit Fremdschlüsseln auf beide Seiten oder mit beiden Namen.
+    *
+    * @param references Die Verweise je Tabelle (normalisiert).
+    * @param a          Die erste Seite (normalisiert).
+    * @param b          Die zweite Seite (normalisiert).
+    *
+    * @return true, falls eine Zwischentabelle vorhanden ist.
+    */
+   private static boolean hasJoinTable(
+         final Map<String, Set<String>> references, final String a,
+         final String b) {
+      for (final Map.Entry<String, Set<String>> table : references
+         .entrySet()) {
+         final String name = table.getKey();
+         if (name.equals(a) || name.equals(b)) {
+            continue;
+         }
+         if (table.getValue()
+            .containsAll(List.of(a, b))
+               || name.contains(a) && name.contains(b)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Normalisiert einen Tabellennamen für den Vergleich.
+    *
+    * @param name Der Name.
+    *
+    * @return Der normalisierte Name.
+    */
+   private static String normalize(final String name) {
+      return name.toLowerCase(Locale.ROOT)
+         .replace("ä", "ae")
+         .replace("ö", "oe")
+         .replace("ü", "ue")
+         .replace("ß", "ss")
+         .replaceAll("[^a-z0-9_]", "");
+   }
+
+   /**
+    * Prüft die PlantUML-Syntax mit {@link PlantUmlSyntax}, ohne das
+    * Diagramm zu rendern.
+    *
+    * @param plantUml Der PlantUML-Quelltext.
+    *
+    * @return Die Syntaxfehler mit Zeilennummer; leer, wenn fehlerfrei.
+    */
+   public static List<String> syntaxErrors(final String plantUml) {
+      final List<String> errors = new ArrayList<>();
+      for (final PlantUmlSyntax.Error error : PlantUmlSyntax.check(plantUml)) {
+         errors.add(error.describe());
+      }
+      return errors;
+   }
+
+   /**
+    * Prüft ein logisches Tabellenmodell gegen das konzeptionelle Modell,
+    * aus dem es erzeugt wurde.
+    *
+    * @param ermPuml        Das konzeptionelle ERM (PlantUML), kann null
+    *                       sein; dann entfällt die n:m-Prüfung.
+    * @param tableModelPuml Das logische Tabellenmodell (PlantUML).
+    *
+    * @return Die gefundenen Fehler; leer, wenn das Modell gültig ist.
+    */
+   public static List<String> validate(final String ermPuml,
+         final String tableModelPuml) {
+      if (tableModelPuml == null || tableModelPuml.isBlank()) {
+         return List.of("Die Antwort enthält kein Tabellenmodell.");
+      }
+      final List<String> errors = syntaxErrors(tableModelPuml);
+      if (!errors.isEmpty()) {
+         // Struktur erst prüfen, wenn PlantUML den Text lesen kann
+         return errors;
+      }
+
+      // Tabellen mit ihren Fremdschlüsseln und Beziehungen einlesen
+      final Map<String, String> tables = new LinkedHashMap<>();
+      final Map<String, List<String>> foreignKeys = new LinkedHashMap<>();
+      final List<String[]> relationships = new ArrayList<>();
+      String current = null;
+      for (final String line : tableModelPuml.split("\n")) {
+         final Matcher entity = ENTITY.matcher(line);
+         if (entity.find()) {
+            current = entity.group(1);
+            tables.put(normalize(current), current);
+            foreignKeys.put(current, new ArrayList<>());
+            if (line.trim()
+               .endsWith("}")) {
+               current = null;
+            }
+            continue;
+         }
+         if (current != null) {
+            if (line.trim()
+               .startsWith("}")) {
+               current = null;
+            } else if (line.contains("(FK)")) {
+               final Matcher column = COLUMN.matcher(line);
+               if (column.find()) {
+                  foreignKeys.get(current)
+                     .add(column.group(1));
+               }
+            }
+            continue;
+         }
+         final Matcher rel = RELATIONSHIP.matcher(line);
+         if (rel.find()) {
+            relationships.add(new String[] { rel.group(1), rel.group(4) });
+         }
+      }
+      if (tables.isEmpty()) {
+         return List.of("Das Tabellenmodell enthält keine Tabelle (entity).");
+      }
+
+      for (final String[] rel : relationships) {
+         for (final String name : rel) {
+            if (!tables.containsKey(normalize(name))) {
+               errors.add("Beziehung " + rel[0] + " -- " + rel[1]
+                     + ": Tabelle " + name + " ist nicht definiert.");
+            }
+         }
+      }
+
+      final Map<String, Set<String>> references = new LinkedHashMap<>();
+      for (final Map.Entry<String, List<String>> table : foreignKeys
+         .entrySet()) {
+         final Set<String> targets = new LinkedHashSet<>();
+         for (final String column : table.getValue()) {
+            final Set<String> found = fkTargets(column, tables.keySet());
+            if (found.isEmpty()) {
+               errors.add("Tabelle " + table.getKey() + ": Fremdschlüssel "
+                     + column + " verweist auf keine vorhandene Tabelle.");
+            }
+            targets.addAll(found);
+         }
+         references.put(normalize(table.getKey()), targets);
+      }
+
+      if (ermPuml != null) {
+         for (final String line : ermPuml.split("\n")) {
+            final Matcher rel = RELATIONSHIP.matcher(line);
+            if (!rel.find() || !rel.group(2)
+               .contains("*")
+                  || !rel.group(3)
+                     .contains("*")) {
+               continue;
+            }
+            final String a = normalize(rel.group(1));
+            final String b = normalize(rel.group(4));
+            if (!hasJoinTable(references, a, b)) {
+               errors.add("n:m-Beziehung " + rel.group(1) + " -- "
+                     + rel.group(4) + ": Zwischentabelle (z.B. "
+                     + rel.group(1) + "_" + rel.group(4)
+                     + " mit zwei Fremdschlüsseln) fehlt.");
+            }
+         }
+      }
+      return errors;
+   }
+
+   /**
+    * Verhindert die Instanziierung der Hilfsklasse.
+    */
+   private TableModelValidator() {
+   }
+}
@@ -0,0 +1,194 @@
+package de.gc.agent.erm.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.gc.agent.erm.ki.model.UsageCountingChatModel.Usage;
+import de.gc.agent.erm.service.ComparisonCandidate;
+import de.gc.agent.erm.view.ComparisonOperation.Outcome;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Controller für den Vergleichsmodus.
+ *
+ * Führt denselben Arbeitsschritt mit denselben Eingaben gleichzeitig für
+ * mehrere Konfigurations-Sets aus und zeigt die Ergebnisse
+ * nebeneinander an, jeweils mit Laufzeit, Token-Verbrauch und ob die
+ * Antwort im erwarteten Format verarbeitet werden konnte. So lässt sich
+ * z.B. vor einer Unterrichtsstunde entscheiden, welches Modell schnell
+ * genug ist.
+ */
+public class ComparisonController {
+
+   /**
+    * Ergebnis eines Kandidaten.
+    *
+    * @param outcome Das Ergebnis des Arbeitsschritts.
+    * @param millis  Die gemessene Laufzeit in Millisekunden.
+    * @param usage   Der Verbrauch des Arbeitsschritts.
+    */
+   private record Result(Outcome outcome, long millis, Usage usage) {
+   }
+
+   /** Die verglichenen Konfigurations-Sets. */
+   private final List<ComparisonCandidate> candidates;
+
+   /** Statuszeile je Kandidat. */
+   private final List<Label> statusLabels = new ArrayList<>();
+
+   /** Ausgabefeld je Kandidat. */
+   private final List<TextArea> outputAreas = new ArrayList<>();
+
+   /** Anzahl der noch laufenden Aufgaben. */
+   private int running;
+
+   @FXML
+   private ComboBox<ComparisonOperation> operationComboBox;
+   @FXML
+   private TextArea inputTextArea;
+   @FXML
+   private Button compareButton;
+   @FXML
+   private HBox columnsBox;
+
+   /**
+    * Konstruktor des ComparisonController, injiziert die Kandidaten.
+    *
+    * @param candidates Die zu vergleichenden Konfigurations-Sets.
+    */
+   public ComparisonController(final List<ComparisonCandidate> candidates) {
+      this.candidates = candidates;
+   }
+
+   /**
+    * Erstellt die Spalte eines Kandidaten.
+    *
+    * @param candidate Der Kandidat.
+    *
+    * @return Die Spalte.
+    */
+   private VBox createColumn(final ComparisonCandidate candidate) {
+      final Label titleLabel = new Label(candidate.getPrefix());
+      titleLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 1.2em;");
+
+      final Label statusLabel = new Label("bereit");
+      final TextArea outputArea = new TextArea();
+      outputArea.setEditable(false);
+      outputArea.setWrapText(true);
+      VBox.setVgrow(outputArea, Priority.ALWAYS);
+
+      statusLabels.add(statusLabel);
+      outputAreas.add(outputArea);
+
+      final VBox column = new VBox(5, titleLabel, statusLabel, outputArea);
+      column.setMinWidth(300);
+      HBox.setHgrow(column, Priority.ALWAYS);
+      return column;
+   }
+
+   /**
+    * Initialisiert Auswahlliste und Spalten.
+    */
+   @FXML
+   public void initialize() {
+      operationComboBox.getItems()
+         .setAll(ComparisonOperation.values());
+      operationComboBox.getSelectionModel()
+         .selectedItemProperty()
+         .addListener((obs, oldVal, newVal) -> inputTextArea
+            .setPromptText(newVal.getInputHint()));
+      operationComboBox.getSelectionModel()
+         .selectFirst();
+
+      for (final ComparisonCandidate candidate : candidates) {
+         columnsBox.getChildren()
+            .add(createColumn(candidate));
+      }
+   }
+
+   /**
+    * Startet den gewählten Arbeitsschritt für alle Kandidaten
+    * gleichzeitig.
+    */
+   @FXML
+   private void onCompareClicked() {
+      final String input = inputTextArea.getText();
+      if (input == null || input.isBlank()) {
+         new Alert(Alert.AlertType.WARNING, "Bitte geben Sie eine Eingabe ein.")
+            .show();
+         return;
+      }
+      final ComparisonOperation operation = operationComboBox.getValue();
+      compareButton.setDisable(true);
+      running = candidates.size();
+
+      for (int i = 0; i < candidates.size(); i++) {
+         final ComparisonCandidate candidate = candidates.get(i);
+         final Label statusLabel = statusLabels.get(i);
+         final TextArea outputArea = outputAreas.get(i);
+         statusLabel.setText("läuft ...");
+         statusLabel.setStyle("");
+         outputArea.clear();
+
+         final Task<Result> task = new Task<>() {
+            @Override
+            protected Result call() {
+               final Usage before = candidate.usage();
+               final long start = System.nanoTime();
+               final Outcome outcome = operation.run(candidate.getService(),
+                     input);
+               return new Result(outcome,
+                     (System.nanoTime() - start) / 1_000_000,
+                     candidate.usage()
+                        .minus(before));
+            }
+         };
+         task.setOnSucceeded(event -> {
+            final Result result = task.getValue();
+            outputArea.setText(result.outcome()
+               .text());
+            statusLabel.setText(String.format(
+                  "%d ms · Tokens %d ein / %d aus · %s", result.millis(),
+                  result.usage()
+                     .inputTokens(),
+                  result.usage()
+                     .outputTokens(),
+                  result.outcome()
+                     .parsed() ? "Format OK" : "Format fehlerhaft"));
+            statusLabel.setStyle(result.outcome()
+               .parsed() ? "-fx-text-fill: #2E7D32;" : "-fx-text-fill: #C62828;");
+            taskFinished();
+         });
+         task.setOnFailed(event -> {
+            task.getException()
+               .printStackTrace();
+            outputArea.setText(task.getException()
+               .getMessage());
+            statusLabel.setText("Fehler");
+            statusLabel.setStyle("-fx-text-fill: #C62828;");
+            taskFinished();
+         });
+         new Thread(task).start();
+      }
+   }
+
+   /**
+    * Gibt den Vergleichs-Button wieder frei, sobald alle Aufgaben beendet
+    * sind. Wird auf dem JavaFX-Thread aufgerufen.
+    */
+   private void taskFinished() {
+      running--;
+      if (running == 0) {
+         compareButton.setDisable(false);
+      }
+   }
+}
@@ -0,0 +1,122 @@
+package de.gc.agent.erm.view;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import de.gc.agent.erm.benchmark.StructureCheck;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.model.tutor.TutorResponse;
+import de.gc.agent.erm.service.ErmGeneratorService;
+
+/**
+ * Die Arbeitsschritte, die im Vergleichsmodus gegen mehrere
+ * Konfigurations-Sets gleichzeitig ausgeführt werden können.
+ *
+ * Jeder Schritt liefert den anzuzeigenden Text und ob die Antwort des
+ * Modells im erwarteten Format verarbeitet werden konnte.
+ */
+public enum ComparisonOperation {
+
+   /** Beschreibungstext analysieren. */
+   ANALYSIS("Beschreibung analysieren",
+         "Beschreibungstext, z.B. 'Eine Klasse besteht aus vielen Schülern ...'") {
+      @Override
+      public Outcome run(final ErmGeneratorService service,
+            final String input) {
+         final List<Relationship> relationships = service
+            .analyzeDescription(input);
+         return new Outcome(relationships.stream()
+            .map(rel -> String.join(" | ", rel.getEntity1(),
+                  rel.getCardinality1(), rel.getVerb(), rel.getCardinality2(),
+                  rel.getEntity2()))
+            .collect(Collectors.joining("\n")), !relationships.isEmpty());
+      }
+   },
+
+   /** ERM (PlantUML) in ein Tabellenmodell umwandeln. */
+   TABLE_MODEL("Tabellenmodell erzeugen",
+         "PlantUML-Code des konzeptionellen ERM") {
+      @Override
+      public Outcome run(final ErmGeneratorService service,
+            final String input) {
+         final String puml = service.generateTableModelPlantUml(input);
+         return new Outcome(puml, StructureCheck.isValidPlantUml(puml));
+      }
+   },
+
+   /** Tabellenmodell (PlantUML) in SQL-DDL umwandeln. */
+   SQL_DDL("SQL-DDL erzeugen", "PlantUML-Code des logischen Tabellenmodells") {
+      @Override
+      public Outcome run(final ErmGeneratorService service,
+            final String input) {
+         final String sql = service.generateSqlDdl(input);
+         return new Outcome(sql, !StructureCheck.ddlTables(sql)
+            .isEmpty());
+      }
+   },
+
+   /** Eine Frage an den Beziehungs-Tutor stellen. */
+   TUTOR("Tutor fragen", "Frage an den Tutor, z.B. 'Was ist eine n:m-Beziehung?'") {
+      @Override
+      public Outcome run(final ErmGeneratorService service,
+            final String input) {
+         final TutorResponse response = service.getTutorResponse("", input);
+         // Die Fehlerantwort von parseTutorResponse hat keine Vorschläge.
+         return new Outcome(response.answer(),
+               response.suggestedQuestions() != null
+                     && !response.suggestedQuestions()
+                        .isEmpty());
+      }
+   };
+
+   /**
+    * Ergebnis eines Arbeitsschritts.
+    *
+    * @param text   Der anzuzeigende Text.
+    * @param parsed Ob die Antwort im erwarteten Format verarbeitet werden
+    *               konnte.
+    */
+   public record Outcome(String text, boolean parsed) {
+   }
+
+   /** Anzeigename in der Auswahlliste. */
+   private final String label;
+
+   /** Hinweis für das Eingabefeld. */
+   private final String inputHint;
+
+   /**
+    * Erstellt einen Arbeitsschritt.
+    *
+    * @param label     Anzeigename in der Auswahlliste.
+    * @param inputHint Hinweis für das Eingabefeld.
+    */
+   ComparisonOperation(final String label, final String inputHint) {
+      this.label = label;
+      this.inputHint = inputHint;
+   }
+
+   /**
+    * Liefert den Hinweis für das Eingabefeld.
+    *
+    * @return Der Hinweis.
+    */
+   public String getInputHint() {
+      return inputHint;
+   }
+
+   /**
+    * Führt den Arbeitsschritt mit einem Service aus.
+    *
+    * @param service Der Service des Konfigurations-Sets.
+    * @param input   Die Eingabe des Benutzers.
+    *
+    * @return Das Ergebnis.
+    */
+   public abstract Outcome run(ErmGeneratorService service, String input);
+
+   @Override
+   public String toString() {
+      return label;
+   }
+}
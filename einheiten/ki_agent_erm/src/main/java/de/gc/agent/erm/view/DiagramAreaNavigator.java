@@ -0,0 +1,104 @@
+package de.gc.agent.erm.view;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.gc.agent.erm.model.CompositeDiagram;
+import de.gc.agent.erm.model.GenerationResult;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+
+/**
+ * Zeigt ein Diagramm in einer {@link TiledDiagramView} an; ein in
+ * Teilbereiche zerlegtes Diagramm (siehe {@link CompositeDiagram}) über
+ * eine Auswahlliste mit der Übersicht und einem Eintrag je Bereich.
+ *
+ * Die Auswahlliste ist nur bei zerlegten Diagrammen sichtbar. Die Bilder
+ * der Bereiche werden erst bei der Auswahl dekodiert.
+ */
+public class DiagramAreaNavigator {
+
+   /** Die Auswahlliste der Bereiche. */
+   private final ComboBox<String> selector;
+
+   /** Die Anzeige des Diagramms. */
+   private final TiledDiagramView target;
+
+   /** Die Bilder je Eintrag der Auswahlliste; null, solange nicht dekodiert. */
+   private final List<Image> images = new ArrayList<>();
+
+   /** Das angezeigte zerlegte Diagramm oder null. */
+   private CompositeDiagram composite;
+
+   /**
+    * Verbindet Auswahlliste und Anzeige.
+    *
+    * @param selector Die Auswahlliste der Bereiche.
+    * @param target   Die Anzeige des Diagramms.
+    */
+   public DiagramAreaNavigator(final ComboBox<String> selector,
+         final TiledDiagramView target) {
+      this.selector = selector;
+      this.target = target;
+      selector.managedProperty()
+         .bind(selector.visibleProperty());
+      selector.setVisible(false);
+      selector.getSelectionModel()
+         .selectedIndexProperty()
+         .addListener((obs, oldIndex, newIndex) -> select(newIndex
+            .intValue()));
+   }
+
+   /**
+    * Zeigt einen Eintrag der Auswahlliste an.
+    *
+    * @param index Der Eintrag: 0 ist die Übersicht, danach die Bereiche.
+    */
+   private void select(final int index) {
+      if (composite == null || index < 0 || index >= images.size()) {
+         return;
+      }
+      if (images.get(index) == null) {
+         images.set(index, new Image(new ByteArrayInputStream(composite
+            .areas()
+            .get(index - 1)
+            .png())));
+      }
+      target.setImage(images.get(index));
+   }
+
+   /**
+    * Zeigt das Bild eines Ergebnisses an, bei einem zerlegten Diagramm
+    * zunächst die Übersicht.
+    *
+    * @param result Das Ergebnis mit Bild und ggf. Teilbereichen.
+    */
+   public void show(final GenerationResult result) {
+      composite = result.composite();
+      images.clear();
+      if (composite == null) {
+         selector.getItems()
+            .clear();
+         selector.setVisible(false);
+         target.setImage(result.image());
+         return;
+      }
+      final List<String> items = new ArrayList<>();
+      items.add("Übersicht");
+      images.add(result.image());
+      for (final CompositeDiagram.Area area : composite.areas()) {
+         items.add(area.name() + " - " + area.entityCount() + " Entitäten");
+         images.add(null);
+      }
+      selector.getItems()
+         .setAll(items);
+      selector.setTooltip(new Tooltip("Großes Diagramm, zerlegt in "
+            + composite.describe()));
+      selector.setVisible(true);
+      selector.getSelectionModel()
+         .select(0);
+      target.setImage(result.image());
+   }
+}
@@ -0,0 +1,412 @@
+package de.gc.agent.erm.view;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.Relationship;
+import de.gc.agent.erm.view.ErmLayout.Edge;
+import de.gc.agent.erm.view.ErmLayout.Position;
+import javafx.geometry.Point2D;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Live-Ansicht des konzeptionellen Modells, die direkt aus der
+ * Beziehungstabelle gezeichnet wird.
+ *
+ * Anders als das PlantUML-Diagramm wird bei einer Änderung nicht das
+ * ganze Diagramm neu angeordnet und gerastert: {@link ErmLayout} bewegt
+ * nur die betroffenen Entitäten, danach wird die Zeichenfläche neu
+ * gezeichnet. Entitäten lassen sich mit der Maus verschieben und bleiben
+ * dann an ihrer Stelle; ein Ziehen auf der freien Fläche verschiebt den
+ * Ausschnitt.
+ *
+ * Die Ansicht dient nur dem Bearbeiten; Export und Tutor arbeiten
+ * weiterhin mit dem PlantUML-Code.
+ */
+public class ErmCanvasView extends ScrollPane {
+
+   /** Rand um das Diagramm in Pixeln. */
+   private static final double MARGIN = 30;
+
+   /** Waagerechter Innenabstand einer Entität. */
+   private static final double PADDING = 12;
+
+   /** Höhe einer Entität. */
+   private static final double BOX_HEIGHT = 30;
+
+   /** Abstand paralleler Beziehungen zwischen denselben Entitäten. */
+   private static final double EDGE_SPACING = 18;
+
+   /** Abstand der Kardinalitäten von der Entität entlang der Linie. */
+   private static final double CARDINALITY_DISTANCE = 14;
+
+   /** Hintergrund der Zeichenfläche. */
+   private static final Color BACKGROUND = Color.WHITE;
+
+   /** Füllung der Entitäten (wie bei PlantUML). */
+   private static final Color FILL = Color.web("#F1F1F1");
+
+   /** Linien und Schrift (wie bei PlantUML). */
+   private static final Color LINE = Color.web("#181818");
+
+   /**
+    * Liefert den Abstand vom Mittelpunkt eines Rechtecks bis zu seinem
+    * Rand in einer Richtung.
+    *
+    * @param halfWidth  Halbe Breite.
+    * @param halfHeight Halbe Höhe.
+    * @param ux         Waagerechter Anteil der Richtung (Einheitsvektor).
+    * @param uy         Senkrechter Anteil der Richtung.
+    *
+    * @return Der Abstand.
+    */
+   private static double border(final double halfWidth,
+         final double halfHeight, final double ux, final double uy) {
+      final double x = ux == 0 ? Double.POSITIVE_INFINITY
+            : halfWidth / Math.abs(ux);
+      final double y = uy == 0 ? Double.POSITIVE_INFINITY
+            : halfHeight / Math.abs(uy);
+      return Math.min(x, y);
+   }
+
+   /**
+    * Liefert einen Schlüssel für ein ungeordnetes Paar von Entitäten.
+    *
+    * @param edge Die Beziehung.
+    *
+    * @return Der Schlüssel.
+    */
+   private static String pair(final Edge edge) {
+      return edge.from()
+         .compareTo(edge.to()) <= 0 ? edge.from() + "\n" + edge.to()
+               : edge.to() + "\n" + edge.from();
+   }
+
+   /** Das Layout der Entitäten. */
+   private final ErmLayout layout = new ErmLayout();
+
+   /** Die Zeichenfläche. */
+   private final Canvas canvas = new Canvas();
+
+   /** Schrift für Namen und Beschriftungen. */
+   private final Font font = Font.font(12);
+
+   /** Hilfsknoten zum Messen von Textbreiten. */
+   private final Text measure = new Text();
+
+   /** Zwischengespeicherte Textbreiten. */
+   private final Map<String, Double> textWidths = new HashMap<>();
+
+   /** Messwerte des Layouts. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /** Verschiebung von Layout- zu Zeichenflächen-Koordinaten. */
+   private double offsetX;
+
+   /** Verschiebung von Layout- zu Zeichenflächen-Koordinaten. */
+   private double offsetY;
+
+   /** Die gerade gezogene Entität oder null. */
+   private String dragged;
+
+   /** Abstand des Mauszeigers vom Mittelpunkt der gezogenen Entität. */
+   private double grabX;
+
+   /** Abstand des Mauszeigers vom Mittelpunkt der gezogenen Entität. */
+   private double grabY;
+
+   /** Ob sich das Modell geändert hat, während die Ansicht verborgen war. */
+   private boolean dirty;
+
+   /**
+    * Erstellt eine leere Ansicht. Wird vom FXML-Loader aufgerufen.
+    */
+   public ErmCanvasView() {
+      setContent(canvas);
+      measure.setFont(font);
+      visibleProperty().addListener((obs, wasVisible, isVisible) -> {
+         if (isVisible && dirty) {
+            draw();
+         }
+      });
+      // Ziehen auf einer Entität verschiebt sie, sonst den Ausschnitt
+      addEventFilter(MouseEvent.MOUSE_PRESSED, event -> {
+         final Point2D point = canvas.sceneToLocal(event.getSceneX(), event
+            .getSceneY());
+         final double x = point.getX() - offsetX;
+         final double y = point.getY() - offsetY;
+         dragged = entityAt(x, y);
+         setPannable(dragged == null);
+         if (dragged != null) {
+            final Position position = layout.positions()
+               .get(dragged);
+            grabX = position.x() - x;
+            grabY = position.y() - y;
+         }
+      });
+      canvas.setOnMouseDragged(event -> {
+         if (dragged != null) {
+            final double halfWidth = boxWidth(dragged) / 2;
+            layout.pin(dragged, Math.max(event.getX() - offsetX + grabX,
+                  halfWidth - offsetX), Math.max(event.getY() - offsetY
+                        + grabY, BOX_HEIGHT / 2 - offsetY));
+            draw();
+            event.consume();
+         }
+      });
+      canvas.setOnMouseReleased(event -> {
+         if (dragged != null) {
+            dragged = null;
+            draw();
+         }
+      });
+   }
+
+   /**
+    * Liefert die Breite einer Entität.
+    *
+    * @param name Name der Entität.
+    *
+    * @return Die Breite in Pixeln.
+    */
+   private double boxWidth(final String name) {
+      return textWidth(name) + 2 * PADDING;
+   }
+
+   /**
+    * Zeichnet das Diagramm neu. Außer während des Ziehens wird die
+    * Zeichenfläche dabei an das Diagramm angepasst.
+    */
+   private void draw() {
+      dirty = false;
+      final Map<String, Position> positions = layout.positions();
+      double minX = 0;
+      double minY = 0;
+      double maxX = 0;
+      double maxY = 0;
+      boolean first = true;
+      for (final Map.Entry<String, Position> entry : positions.entrySet()) {
+         final double halfWidth = boxWidth(entry.getKey()) / 2;
+         final Position position = entry.getValue();
+         minX = first ? position.x() - halfWidth
+               : Math.min(minX, position.x() - halfWidth);
+         minY = first ? position.y() - BOX_HEIGHT / 2
+               : Math.min(minY, position.y() - BOX_HEIGHT / 2);
+         maxX = first ? position.x() + halfWidth
+               : Math.max(maxX, position.x() + halfWidth);
+         maxY = first ? position.y() + BOX_HEIGHT / 2
+               : Math.max(maxY, position.y() + BOX_HEIGHT / 2);
+         first = false;
+      }
+      if (dragged == null) {
+         offsetX = MARGIN - minX;
+         offsetY = MARGIN - minY;
+      }
+      canvas.setWidth(Math.max(0, maxX + offsetX + MARGIN));
+      canvas.setHeight(Math.max(0, maxY + offsetY + MARGIN));
+
+      final GraphicsContext gc = canvas.getGraphicsContext2D();
+      gc.setFill(BACKGROUND);
+      gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+      gc.setFont(font);
+      gc.setStroke(LINE);
+      gc.setLineWidth(1);
+      gc.setTextAlign(TextAlignment.CENTER);
+      gc.setTextBaseline(VPos.CENTER);
+
+      final Map<String, Integer> pairCounts = new HashMap<>();
+      for (final Edge edge : layout.edges()) {
+         pairCounts.merge(pair(edge), 1, Integer::sum);
+      }
+      final Map<String, Integer> pairIndexes = new HashMap<>();
+      for (final Edge edge : layout.edges()) {
+         final String pair = pair(edge);
+         final int index = pairIndexes.merge(pair, 1, Integer::sum) - 1;
+         if (edge.from()
+            .equals(edge.to())) {
+            drawLoop(gc, edge, positions.get(edge.from()), index);
+         } else {
+            // Parallele Beziehungen symmetrisch nebeneinander
+            final double shift = (index - (pairCounts.get(pair) - 1) / 2.0)
+                  * EDGE_SPACING;
+            drawEdge(gc, edge, positions.get(edge.from()), positions.get(edge
+               .to()), edge.from()
+                  .compareTo(edge.to()) <= 0 ? shift : -shift);
+         }
+      }
+
+      for (final Map.Entry<String, Position> entry : positions.entrySet()) {
+         final double width = boxWidth(entry.getKey());
+         final double x = entry.getValue()
+            .x() + offsetX;
+         final double y = entry.getValue()
+            .y() + offsetY;
+         gc.setFill(FILL);
+         gc.fillRoundRect(x - width / 2, y - BOX_HEIGHT / 2, width,
+               BOX_HEIGHT, 8, 8);
+         gc.strokeRoundRect(x - width / 2, y - BOX_HEIGHT / 2, width,
+               BOX_HEIGHT, 8, 8);
+         gc.setFill(LINE);
+         gc.fillText(entry.getKey(), x, y);
+      }
+   }
+
+   /**
+    * Zeichnet eine Beziehung zwischen zwei Entitäten mit Kardinalitäten
+    * und Verb.
+    *
+    * @param gc    Der Zeichenkontext.
+    * @param edge  Die Beziehung.
+    * @param from  Mittelpunkt der ersten Entität.
+    * @param to    Mittelpunkt der zweiten Entität.
+    * @param shift Seitlicher Versatz für parallele Beziehungen.
+    */
+   private void drawEdge(final GraphicsContext gc, final Edge edge,
+         final Position from, final Position to, final double shift) {
+      final double dx = to.x() - from.x();
+      final double dy = to.y() - from.y();
+      final double length = Math.hypot(dx, dy);
+      if (length < 1) {
+         return;
+      }
+      final double ux = dx / length;
+      final double uy = dy / length;
+      final double px = -uy * shift;
+      final double py = ux * shift;
+      final double fromBorder = border(boxWidth(edge.from()) / 2,
+            BOX_HEIGHT / 2, ux, uy);
+      final double toBorder = border(boxWidth(edge.to()) / 2, BOX_HEIGHT / 2,
+            ux, uy);
+      if (fromBorder + toBorder >= length) {
+         return;
+      }
+      final double startX = from.x() + offsetX + px + ux * fromBorder;
+      final double startY = from.y() + offsetY + py + uy * fromBorder;
+      final double endX = to.x() + offsetX + px - ux * toBorder;
+      final double endY = to.y() + offsetY + py - uy * toBorder;
+      gc.strokeLine(startX, startY, endX, endY);
+
+      // Kardinalitäten neben die Linie, auf die Seite des Versatzes
+      final double side = shift < 0 ? -8 : 8;
+      gc.setFill(LINE);
+      gc.fillText(edge.fromCardinality(), startX + ux * CARDINALITY_DISTANCE
+            - uy * side, startY + uy * CARDINALITY_DISTANCE + ux * side);
+      gc.fillText(edge.toCardinality(), endX - ux * CARDINALITY_DISTANCE - uy
+            * side, endY - uy * CARDINALITY_DISTANCE + ux * side);
+      drawLabel(gc, edge.label(), (startX + endX) / 2, (startY + endY) / 2);
+   }
+
+   /**
+    * Zeichnet eine Beschriftung mit weißem Hintergrund.
+    *
+    * @param gc    Der Zeichenkontext.
+    * @param label Der Text.
+    * @param x     Waagerechte Mitte.
+    * @param y     Senkrechte Mitte.
+    */
+   private void drawLabel(final GraphicsContext gc, final String label,
+         final double x, final double y) {
+      if (label.isEmpty()) {
+         return;
+      }
+      final double width = textWidth(label) + 4;
+      gc.setFill(BACKGROUND);
+      gc.fillRect(x - width / 2, y - 8, width, 16);
+      gc.setFill(LINE);
+      gc.fillText(label, x, y);
+   }
+
+   /**
+    * Zeichnet eine Beziehung einer Entität mit sich selbst als Schleife an
+    * der rechten oberen Ecke.
+    *
+    * @param gc     Der Zeichenkontext.
+    * @param edge   Die Beziehung.
+    * @param center Mittelpunkt der Entität.
+    * @param index  Nummer der Schleife an dieser Entität.
+    */
+   private void drawLoop(final GraphicsContext gc, final Edge edge,
+         final Position center, final int index) {
+      final double radius = 14 + index * EDGE_SPACING / 2;
+      final double cornerX = center.x() + offsetX + boxWidth(edge.from()) / 2
+            - 10;
+      final double cornerY = center.y() + offsetY - BOX_HEIGHT / 2;
+      gc.strokeOval(cornerX - radius, cornerY - radius, 2 * radius,
+            2 * radius);
+      gc.setFill(LINE);
+      gc.fillText(edge.fromCardinality(), cornerX - radius - 8, cornerY
+            - 8);
+      gc.fillText(edge.toCardinality(), cornerX + radius + 8, cornerY + 8);
+      drawLabel(gc, edge.label(), cornerX + radius, cornerY - radius - 8);
+   }
+
+   /**
+    * Sucht die Entität an einer Stelle.
+    *
+    * @param x Waagerechte Layout-Koordinate.
+    * @param y Senkrechte Layout-Koordinate.
+    *
+    * @return Name der obersten Entität an der Stelle oder null.
+    */
+   private String entityAt(final double x, final double y) {
+      String hit = null;
+      for (final Map.Entry<String, Position> entry : layout.positions()
+         .entrySet()) {
+         final Position position = entry.getValue();
+         if (Math.abs(x - position.x()) <= boxWidth(entry.getKey()) / 2
+               && Math.abs(y - position.y()) <= BOX_HEIGHT / 2) {
+            hit = entry.getKey();
+         }
+      }
+      return hit;
+   }
+
+   /**
+    * Liefert die Breite eines Textes in der Schrift der Ansicht.
+    *
+    * @param text Der Text.
+    *
+    * @return Die Breite in Pixeln.
+    */
+   private double textWidth(final String text) {
+      return textWidths.computeIfAbsent(text, key -> {
+         measure.setText(key);
+         return measure.getLayoutBounds()
+            .getWidth();
+      });
+   }
+
+   /**
+    * Übernimmt geänderte Beziehungen aus der Tabelle. Nur die betroffenen
+    * Entitäten werden neu angeordnet; gezeichnet wird erst, wenn die
+    * Ansicht sichtbar ist.
+    *
+    * @param relationships Die Beziehungen der Tabelle.
+    */
+   public void update(final List<Relationship> relationships) {
+      final Set<String> moved = metrics.time("erm-live-layout",
+            () -> layout.update(relationships));
+      metrics.counter("erm-live-bewegt")
+         .add(moved.size());
+      // Beim Tippen entstehen viele Zwischennamen
+      if (textWidths.size() > 1024) {
+         textWidths.clear();
+      }
+      if (isVisible()) {
+         draw();
+      } else {
+         dirty = true;
+      }
+   }
+}
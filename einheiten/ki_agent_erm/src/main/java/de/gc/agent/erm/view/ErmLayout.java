@@ -0,0 +1,379 @@
+package de.gc.agent.erm.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.gc.agent.erm.model.Relationship;
+
+/**
+ * Inkrementelles, kräftebasiertes Layout für die Live-Ansicht des ERM
+ * ({@link ErmCanvasView}).
+ *
+ * Entitäten stoßen sich gegenseitig ab, Beziehungen ziehen ihre
+ * Entitäten auf etwa {@value #EDGE_LENGTH} Pixel zusammen
+ * (Fruchterman-Reingold). Beim ersten Aufruf von {@link #update(List)}
+ * wird das ganze Diagramm angeordnet; danach werden nur die betroffenen
+ * Entitäten bewegt: neue Entitäten und solche mit einer neuen Beziehung.
+ * Alle übrigen bleiben an ihrer Stelle, damit das Diagramm beim
+ * Bearbeiten einer Tabellenzeile nicht springt. Wird genau eine Entität
+ * umbenannt, übernimmt der neue Name die Position des alten.
+ *
+ * Von Hand verschobene Entitäten ({@link #pin}) bewegt das Layout nicht
+ * mehr.
+ */
+final class ErmLayout {
+
+   /**
+    * Eine Beziehung, wie sie gezeichnet wird.
+    *
+    * @param from            Name der ersten Entität.
+    * @param to              Name der zweiten Entität.
+    * @param fromCardinality Kardinalität an der ersten Entität.
+    * @param toCardinality   Kardinalität an der zweiten Entität.
+    * @param label           Verb und Leserichtung.
+    */
+   record Edge(String from, String to, String fromCardinality,
+         String toCardinality, String label) {
+   }
+
+   /**
+    * Der Mittelpunkt einer Entität.
+    *
+    * @param x Waagerechte Koordinate.
+    * @param y Senkrechte Koordinate.
+    */
+   record Position(double x, double y) {
+   }
+
+   /** Position und Zustand einer Entität während des Layouts. */
+   private static final class Node {
+
+      /** Waagerechte Koordinate des Mittelpunkts. */
+      private double x;
+
+      /** Senkrechte Koordinate des Mittelpunkts. */
+      private double y;
+
+      /** Waagerechte Verschiebung im laufenden Schritt. */
+      private double dx;
+
+      /** Senkrechte Verschiebung im laufenden Schritt. */
+      private double dy;
+
+      /** Ob die Entität von Hand platziert wurde. */
+      private boolean pinned;
+
+      /**
+       * Erstellt eine Entität an einer Position.
+       *
+       * @param x Waagerechte Koordinate.
+       * @param y Senkrechte Koordinate.
+       */
+      private Node(final double x, final double y) {
+         this.x = x;
+         this.y = y;
+      }
+   }
+
+   /** Angestrebte Länge einer Beziehung in Pixeln. */
+   static final double EDGE_LENGTH = 180;
+
+   /** Abstand, ab dem sich Entitäten nicht mehr abstoßen. */
+   private static final double REPULSION_RANGE = 3 * EDGE_LENGTH;
+
+   /** Schritte beim ersten Layout. */
+   private static final int FULL_ITERATIONS = 300;
+
+   /** Schritte beim Einfügen betroffener Entitäten. */
+   private static final int INCREMENTAL_ITERATIONS = 80;
+
+   /**
+    * Fügt eine Entität in die Nachbarschaftslisten ein.
+    *
+    * @param neighbours Die Nachbarn je Entität.
+    * @param name       Name der Entität.
+    *
+    * @return Die Nachbarn der Entität.
+    */
+   private static Set<String> neighboursOf(
+         final Map<String, Set<String>> neighbours, final String name) {
+      return neighbours.computeIfAbsent(name, key -> new LinkedHashSet<>());
+   }
+
+   /**
+    * Bereinigt einen Tabellenwert.
+    *
+    * @param value Der Wert, ggf. null.
+    *
+    * @return Der Wert ohne umgebende Leerzeichen, nie null.
+    */
+   private static String text(final String value) {
+      return value == null ? "" : value.strip();
+   }
+
+   /** Die Entitäten in der Reihenfolge ihres ersten Auftretens. */
+   private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+   /** Die Nachbarn je Entität. */
+   private Map<String, Set<String>> neighbours = Map.of();
+
+   /** Die Beziehungen in Tabellenreihenfolge. */
+   private List<Edge> edges = List.of();
+
+   /**
+    * Liefert die Beziehungen.
+    *
+    * @return Die Beziehungen in Tabellenreihenfolge.
+    */
+   List<Edge> edges() {
+      return edges;
+   }
+
+   /**
+    * Setzt eine Entität an eine feste Position, an der sie auch bei
+    * späteren Änderungen bleibt.
+    *
+    * @param name Name der Entität.
+    * @param x    Waagerechte Koordinate des Mittelpunkts.
+    * @param y    Senkrechte Koordinate des Mittelpunkts.
+    */
+   void pin(final String name, final double x, final double y) {
+      final Node node = nodes.get(name);
+      if (node != null) {
+         node.x = x;
+         node.y = y;
+         node.pinned = true;
+      }
+   }
+
+   /**
+    * Setzt eine neue Entität neben ihre bereits platzierten Nachbarn, vom
+    * Schwerpunkt des Diagramms weg. Entitäten ohne platzierte Nachbarn
+    * kommen rechts neben das bisherige Diagramm.
+    *
+    * @param name           Name der Entität.
+    * @param nodeNeighbours Die Nachbarn der Entität.
+    *
+    * @return Die neue Entität.
+    */
+   private Node place(final String name, final Set<String> nodeNeighbours) {
+      if (nodes.isEmpty()) {
+         return new Node(0, 0);
+      }
+      double centerX = 0;
+      double centerY = 0;
+      double maxX = Double.NEGATIVE_INFINITY;
+      for (final Node node : nodes.values()) {
+         centerX += node.x;
+         centerY += node.y;
+         maxX = Math.max(maxX, node.x);
+      }
+      centerX /= nodes.size();
+      centerY /= nodes.size();
+
+      double x = 0;
+      double y = 0;
+      int placed = 0;
+      for (final String neighbour : nodeNeighbours) {
+         final Node node = nodes.get(neighbour);
+         if (node != null) {
+            x += node.x;
+            y += node.y;
+            placed++;
+         }
+      }
+      if (placed == 0) {
+         return new Node(maxX + EDGE_LENGTH, centerY);
+      }
+      x /= placed;
+      y /= placed;
+      // Vom Schwerpunkt weg, mit einem vom Namen abhängigen Winkel, damit
+      // mehrere neue Nachbarn derselben Entität nicht übereinander liegen
+      final double angle = Math.atan2(y - centerY, x - centerX)
+            + (Math.floorMod(name.hashCode(), 7) - 3) * Math.PI / 8;
+      return new Node(x + EDGE_LENGTH * Math.cos(angle),
+            y + EDGE_LENGTH * Math.sin(angle));
+   }
+
+   /**
+    * Liefert die Mittelpunkte aller Entitäten.
+    *
+    * @return Die Mittelpunkte in der Reihenfolge des ersten Auftretens.
+    */
+   Map<String, Position> positions() {
+      final Map<String, Position> positions = new LinkedHashMap<>();
+      nodes.forEach((name, node) -> positions.put(name, new Position(node.x,
+            node.y)));
+      return positions;
+   }
+
+   /**
+    * Verschiebt die freien Entitäten schrittweise, bis die Kräfte
+    * ausgeglichen sind. Alle anderen Entitäten wirken mit, bewegen sich
+    * aber nicht.
+    *
+    * @param free       Namen der beweglichen Entitäten.
+    * @param iterations Anzahl der Schritte.
+    */
+   private void relax(final Set<String> free, final int iterations) {
+      final double startTemperature = iterations == FULL_ITERATIONS
+            ? EDGE_LENGTH
+            : EDGE_LENGTH / 2;
+      for (int i = 0; i < iterations; i++) {
+         final double temperature = startTemperature * (1 - (double) i
+               / iterations);
+         for (final String name : free) {
+            final Node node = nodes.get(name);
+            node.dx = 0;
+            node.dy = 0;
+            for (final Map.Entry<String, Node> other : nodes.entrySet()) {
+               final Node o = other.getValue();
+               if (o == node) {
+                  continue;
+               }
+               double dx = node.x - o.x;
+               double dy = node.y - o.y;
+               if (Math.abs(dx) < 0.01 && Math.abs(dy) < 0.01) {
+                  // Gleiche Position: stabil nach dem Namen auseinander
+                  dx = name.compareTo(other.getKey()) < 0 ? -1 : 1;
+                  dy = 0;
+               }
+               final double distance = Math.hypot(dx, dy);
+               if (distance < REPULSION_RANGE) {
+                  final double force = EDGE_LENGTH * EDGE_LENGTH / distance;
+                  node.dx += dx / distance * force;
+                  node.dy += dy / distance * force;
+               }
+            }
+         }
+         for (final Edge edge : edges) {
+            final Node from = nodes.get(edge.from());
+            final Node to = nodes.get(edge.to());
+            final boolean fromFree = free.contains(edge.from());
+            final boolean toFree = free.contains(edge.to());
+            if (from == to || !fromFree && !toFree) {
+               continue;
+            }
+            final double dx = to.x - from.x;
+            final double dy = to.y - from.y;
+            final double distance = Math.max(Math.hypot(dx, dy), 0.01);
+            final double force = distance / EDGE_LENGTH;
+            if (fromFree) {
+               from.dx += dx * force;
+               from.dy += dy * force;
+            }
+            if (toFree) {
+               to.dx -= dx * force;
+               to.dy -= dy * force;
+            }
+         }
+         for (final String name : free) {
+            final Node node = nodes.get(name);
+            final double length = Math.hypot(node.dx, node.dy);
+            if (length > 0) {
+               final double step = Math.min(length, temperature) / length;
+               node.x += node.dx * step;
+               node.y += node.dy * step;
+            }
+         }
+      }
+   }
+
+   /**
+    * Übernimmt die Beziehungen aus der Tabelle und ordnet die betroffenen
+    * Entitäten neu an.
+    *
+    * Eine Änderung nur an Verb, Kardinalität oder Richtung bewegt keine
+    * Entität.
+    *
+    * @param relationships Die Beziehungen der Tabelle.
+    *
+    * @return Die Namen der bewegten Entitäten.
+    */
+   Set<String> update(final List<Relationship> relationships) {
+      final List<Edge> newEdges = new ArrayList<>();
+      final Map<String, Set<String>> newNeighbours = new LinkedHashMap<>();
+      for (final Relationship relationship : relationships) {
+         final String from = text(relationship.getEntity1());
+         final String to = text(relationship.getEntity2());
+         if (!from.isEmpty()) {
+            neighboursOf(newNeighbours, from);
+         }
+         if (!to.isEmpty()) {
+            neighboursOf(newNeighbours, to);
+         }
+         if (from.isEmpty() || to.isEmpty()) {
+            continue;
+         }
+         neighboursOf(newNeighbours, from).add(to);
+         neighboursOf(newNeighbours, to).add(from);
+         newEdges.add(new Edge(from, to, text(relationship.getCardinality1()),
+               text(relationship.getCardinality2()), (text(relationship
+                  .getVerb()) + " " + text(relationship.getDirection()))
+                  .strip()));
+      }
+
+      final boolean initial = nodes.isEmpty();
+      final List<String> removed = new ArrayList<>(nodes.keySet());
+      removed.removeAll(newNeighbours.keySet());
+      final List<String> added = new ArrayList<>(newNeighbours.keySet());
+      added.removeAll(nodes.keySet());
+
+      // Umbenennung: der neue Name übernimmt Position und Nachbarn
+      final Map<String, Set<String>> oldNeighbours = new LinkedHashMap<>(
+            neighbours);
+      if (removed.size() == 1 && added.size() == 1) {
+         final String oldName = removed.get(0);
+         final String newName = added.get(0);
+         nodes.put(newName, nodes.remove(oldName));
+         oldNeighbours.put(newName, oldNeighbours.remove(oldName));
+         for (final Set<String> names : oldNeighbours.values()) {
+            if (names.remove(oldName)) {
+               names.add(newName);
+            }
+         }
+         removed.clear();
+         added.clear();
+      }
+      removed.forEach(nodes::remove);
+
+      final Set<String> affected = new LinkedHashSet<>(added);
+      newNeighbours.forEach((name, names) -> {
+         final Set<String> before = oldNeighbours.getOrDefault(name, Set.of());
+         if (!before.containsAll(names)) {
+            affected.add(name);
+         }
+      });
+
+      // Neue Entitäten der Reihe nach neben bereits platzierte Nachbarn
+      final List<String> pending = new ArrayList<>(added);
+      while (!pending.isEmpty()) {
+         String next = pending.get(0);
+         for (final String name : pending) {
+            if (!Collections.disjoint(newNeighbours.get(name), nodes
+               .keySet())) {
+               next = name;
+               break;
+            }
+         }
+         pending.remove(next);
+         nodes.put(next, place(next, newNeighbours.get(next)));
+      }
+
+      edges = List.copyOf(newEdges);
+      neighbours = newNeighbours;
+
+      affected.removeIf(name -> nodes.get(name).pinned);
+      if (initial) {
+         relax(affected, FULL_ITERATIONS);
+      } else if (!affected.isEmpty()) {
+         relax(affected, INCREMENTAL_ITERATIONS);
+      }
+      return affected;
+   }
+}
@@ -0,0 +1,126 @@
+package de.gc.agent.erm.view;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.model.GenerationResult;
+import de.gc.agent.erm.service.ErmGeneratorService;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.TextArea;
+import javafx.util.Duration;
+
+/**
+ * Rendert ein Diagramm im Hintergrund neu, wenn sich sein Code durch
+ * Änderungen in der Beziehungstabelle ändert.
+ *
+ * Anforderungen werden zusammengefasst: Erst nach einer kurzen Pause
+ * ohne weitere Änderung wird gerendert, und zwar immer nur der neueste
+ * Code. Läuft bereits ein Rendering, wird danach nur noch der zuletzt
+ * angeforderte Code gerendert; alle Zwischenstände dazwischen entfallen.
+ * Ein Ergebnis wird nur angezeigt, wenn das Textfeld noch genau diesen
+ * Code enthält. Bei großen Modellen kommen unveränderte Teilbereiche aus
+ * dem Render-Cache des {@link ErmGeneratorService}.
+ */
+public class LiveDiagramRenderer {
+
+   /** Logger für die Protokollierung von Ereignissen in dieser Klasse. */
+   private static final Logger logger = LoggerFactory
+      .getLogger(LiveDiagramRenderer.class);
+
+   /** Wartezeit nach der letzten Änderung. */
+   private static final Duration DELAY = Duration.millis(300);
+
+   /** Gemeinsamer Hintergrund-Thread für alle Renderings. */
+   private static final ExecutorService RENDERER = Executors
+      .newSingleThreadExecutor(runnable -> {
+         final Thread thread = new Thread(runnable, "diagramm-live");
+         thread.setDaemon(true);
+         return thread;
+      });
+
+   /** Der Service für das Rendering. */
+   private final ErmGeneratorService service;
+
+   /** Das Textfeld mit dem Code des Diagramms. */
+   private final TextArea area;
+
+   /** Die Anzeige des Diagramms. */
+   private final DiagramAreaNavigator navigator;
+
+   /** Verzögert das Rendering bis zur Pause. */
+   private final PauseTransition pause = new PauseTransition(DELAY);
+
+   /** Messwerte der Anforderungen und Renderings. */
+   private final MetricsRegistry metrics = MetricsRegistry.global();
+
+   /** Der neueste noch nicht gerenderte Code oder null. */
+   private String pending;
+
+   /** Ob gerade ein Rendering läuft. */
+   private boolean running;
+
+   /**
+    * Verbindet das Rendering mit einem Textfeld und einer Anzeige.
+    *
+    * @param service   Der Service für das Rendering.
+    * @param area      Das Textfeld mit dem Code des Diagramms.
+    * @param navigator Die Anzeige des Diagramms.
+    */
+   public LiveDiagramRenderer(final ErmGeneratorService service,
+         final TextArea area, final DiagramAreaNavigator navigator) {
+      this.service = service;
+      this.area = area;
+      this.navigator = navigator;
+      pause.setOnFinished(event -> renderPending());
+   }
+
+   /**
+    * Startet das Rendering des neuesten Codes, sofern keines läuft und
+    * die Wartezeit abgelaufen ist.
+    */
+   private void renderPending() {
+      if (running || pending == null
+            || pause.getStatus() == Animation.Status.RUNNING) {
+         return;
+      }
+      final String plantUml = pending;
+      pending = null;
+      running = true;
+      RENDERER.execute(() -> {
+         GenerationResult result = null;
+         try {
+            result = metrics.time("diagramm-live", () -> service.renderResult(
+                  plantUml));
+         } catch (final IOException | RuntimeException e) {
+            logger.warn("Live-Rendering fehlgeschlagen.", e);
+         }
+         final GenerationResult rendered = result;
+         Platform.runLater(() -> {
+            running = false;
+            if (rendered != null && plantUml.equals(area.getText())) {
+               navigator.show(rendered);
+            }
+            renderPending();
+         });
+      });
+   }
+
+   /**
+    * Fordert ein Rendering an. Muss im JavaFX-Thread aufgerufen werden.
+    *
+    * @param plantUml Der neue Code des Diagramms.
+    */
+   public void request(final String plantUml) {
+      pending = plantUml;
+      metrics.counter("diagramm-live-anforderung")
+         .increment();
+      pause.playFromStart();
+   }
+}
@@ -3,10 +3,13 @@ package de.gc.agent.erm.view;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import de.gc.agent.erm.MainApp;
+import de.gc.agent.erm.db.DdlSandbox;
 import de.gc.agent.erm.model.GenerationResult;
 import de.gc.agent.erm.model.ProjectState;
 import de.gc.agent.erm.model.Relationship;
@@ -19,8 +22,13 @@ import de.gc.agent.erm.model.tutor.RelationshipTutorStrategy;
 import de.gc.agent.erm.model.tutor.SqlDdlTutorStrategy;
 import de.gc.agent.erm.model.tutor.TutorStrategy;
 import de.gc.agent.erm.service.ErmGeneratorService;
+import de.gc.agent.erm.service.ErmPlantUmlSource;
+import de.gc.agent.erm.service.PlantUmlSyntax;
+import de.gc.agent.erm.service.ProjectExporter;
+import javafx.beans.Observable;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -29,13 +37,14 @@ import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.control.cell.TextFieldTableCell;
-import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
@@ -57,7 +66,10 @@ public class MainController {
 
    /** Observable-Tabelle für die Beziehungen in der UI. */
    private final ObservableList<Relationship> relationships = FXCollections
-      .observableArrayList();
+      .observableArrayList(relationship -> new Observable[] { relationship
+         .entity1Property(), relationship.cardinality1Property(), relationship
+            .verbProperty(), relationship.cardinality2Property(), relationship
+               .entity2Property(), relationship.directionProperty() });
 
    /** Merkt die zuletzt gesetzten SplitPane-Positionen (Pane-Layout). */
    private double[] lastDividerPositions = { 0.25, 0.5, 0.75 };
@@ -65,6 +77,25 @@ public class MainController {
    /** Sperrflag gegen rekursive Divider-Änderungen. */
    private boolean isUpdatingDividers = false;
 
+   /** Anzeige des ERM-Diagramms, ggf. in Teilbereichen. */
+   private DiagramAreaNavigator ermDiagramNavigator;
+
+   /** Anzeige des Tabellen-Diagramms, ggf. in Teilbereichen. */
+   private DiagramAreaNavigator tableModelNavigator;
+
+   /** ERM-Code, der zeilenweise mit der Beziehungstabelle Schritt hält. */
+   private final ErmPlantUmlSource ermSource = new ErmPlantUmlSource();
+
+   /**
+    * Zuletzt aus der Tabelle erzeugter ERM-Code. Solange das Textfeld
+    * genau diesen Code enthält, folgen Code und Diagramm der Tabelle;
+    * nach einer Änderung von Hand nicht mehr.
+    */
+   private String generatedErmPlantUml = "";
+
+   /** Rendert das ERM nach Änderungen in der Tabelle neu. */
+   private LiveDiagramRenderer ermLiveRenderer;
+
    // --- FXML Components ---
    @FXML
    private SplitPane mainSplitPane;
@@ -85,11 +116,19 @@ public class MainController {
    @FXML
    private TableColumn<Relationship, String> directionCol;
    @FXML
-   private ImageView ermDiagramImageView;
+   private TiledDiagramView ermDiagramView;
+   @FXML
+   private ErmCanvasView ermLiveView;
+   @FXML
+   private ToggleButton ermLiveToggle;
+   @FXML
+   private ComboBox<String> ermAreaComboBox;
    @FXML
    private TextArea ermPlantUmlTextArea;
    @FXML
-   private ImageView tableModelImageView;
+   private TiledDiagramView tableModelDiagramView;
+   @FXML
+   private ComboBox<String> tableModelAreaComboBox;
    @FXML
    private TextArea tableModelPlantUmlTextArea;
    @FXML
@@ -131,16 +170,25 @@ public class MainController {
       return fc;
    }
 
+   /**
+    * Liefert den aktuellen Arbeitsstand aller Felder.
+    *
+    * @return Der Projektzustand.
+    */
+   private ProjectState currentState() {
+      return new ProjectState(descriptionTextArea.getText(), List.copyOf(
+            relationships), ermPlantUmlTextArea.getText(),
+            tableModelPlantUmlTextArea.getText(), sqlDdlTextArea.getText());
+   }
+
    // --- Action Handlers ---
 
    /**
     * Exportiert ein Diagramm im gewählten Format aus dem Source-Textarea.
     *
-    * @param imageView Ziel-ImageView (für spätere Aktualisierung).
-    * @param textArea  Source-TextArea mit dem Modellcode.
+    * @param textArea Source-TextArea mit dem Modellcode.
     */
-   private void exportDiagram(final ImageView imageView,
-         final TextArea textArea) {
+   private void exportDiagram(final TextArea textArea) {
       final FileChooser fc = createFileChooser("Diagramm exportieren",
             new FileChooser.ExtensionFilter("PNG-Bild", "*.png"),
             new FileChooser.ExtensionFilter("SVG-Vektorgrafik", "*.svg"));
@@ -232,6 +280,25 @@ public class MainController {
          .get(2)
          .positionProperty()
          .addListener(dividerListener);
+
+      // Live-Ansicht folgt jeder Änderung der Tabelle, auch in einer Zelle
+      ermLiveView.visibleProperty()
+         .bind(ermLiveToggle.selectedProperty());
+      ermDiagramView.visibleProperty()
+         .bind(ermLiveToggle.selectedProperty()
+            .not());
+      relationships.addListener(this::onRelationshipsChanged);
+
+      ermDiagramNavigator = new DiagramAreaNavigator(ermAreaComboBox,
+            ermDiagramView);
+      ermLiveRenderer = new LiveDiagramRenderer(service, ermPlantUmlTextArea,
+            ermDiagramNavigator);
+      tableModelNavigator = new DiagramAreaNavigator(tableModelAreaComboBox,
+            tableModelDiagramView);
+
+      // Syntaxprüfung während der Eingabe, ohne zu rendern
+      new PlantUmlSyntaxHighlighter(ermPlantUmlTextArea, service);
+      new PlantUmlSyntaxHighlighter(tableModelPlantUmlTextArea, service);
    }
 
    // --- Tutor Handlers ---
@@ -330,21 +397,18 @@ public class MainController {
          showAlert(Alert.AlertType.WARNING, "Die Beziehungstabelle ist leer.");
          return;
       }
-      final List<Relationship> currentRelationships = List
-         .copyOf(relationshipTableView.getItems());
+      final String plantUml = ermSource.text();
       final Task<GenerationResult> task = new Task<>() {
          @Override
          protected GenerationResult call() throws IOException {
-            final String plantUml = service
-               .generatePlantUmlFromRelationships(currentRelationships);
-            return new GenerationResult(plantUml,
-                  service.renderPlantUml(plantUml));
+            return service.renderResult(plantUml);
          }
       };
       task.setOnSucceeded(event -> {
          final GenerationResult result = task.getValue();
+         generatedErmPlantUml = result.textContent();
          ermPlantUmlTextArea.setText(result.textContent());
-         ermDiagramImageView.setImage(result.image());
+         ermDiagramNavigator.show(result);
       });
       runTask(task);
    }
@@ -393,7 +457,7 @@ public class MainController {
       task.setOnSucceeded(event -> {
          final GenerationResult result = task.getValue();
          tableModelPlantUmlTextArea.setText(result.textContent());
-         tableModelImageView.setImage(result.image());
+         tableModelNavigator.show(result);
       });
       runTask(task);
    }
@@ -411,9 +475,35 @@ public class MainController {
    }
 
    // --- Export & Save/Load ---
+   /**
+    * Exportiert alle Diagramme (PNG und SVG), beide PlantUML-Codes und das
+    * SQL-Skript in einem Schritt in ein ZIP-Archiv.
+    */
+   @FXML
+   private void onExportAllClicked() {
+      final FileChooser fc = createFileChooser("Alles exportieren",
+            new FileChooser.ExtensionFilter("ZIP-Archiv", "*.zip"));
+      fc.setInitialFileName("erm-projekt.zip");
+      final File file = fc.showSaveDialog(getWindow());
+      if (file == null) {
+         return;
+      }
+      final ProjectState state = currentState();
+      final Task<ProjectExporter.Result> task = new Task<>() {
+         @Override
+         protected ProjectExporter.Result call() throws IOException {
+            return new ProjectExporter(service).export(state, file.toPath());
+         }
+      };
+      task.setOnSucceeded(event -> showAlert(Alert.AlertType.INFORMATION,
+            "Exportiert: " + task.getValue()
+               .describe()));
+      runTask(task);
+   }
+
    @FXML
    private void onExportErmDiagramClicked() {
-      exportDiagram(ermDiagramImageView, ermPlantUmlTextArea);
+      exportDiagram(ermPlantUmlTextArea);
    }
 
    @FXML
@@ -444,7 +534,7 @@ public class MainController {
 
    @FXML
    private void onExportTableModelDiagramClicked() {
-      exportDiagram(tableModelImageView, tableModelPlantUmlTextArea);
+      exportDiagram(tableModelPlantUmlTextArea);
    }
 
    @FXML
@@ -562,13 +652,13 @@ public class MainController {
             if (loadedState.ermPlantUml() != null
                   && !loadedState.ermPlantUml()
                      .isBlank()) {
-               updateDiagramFromCode(ermPlantUmlTextArea, ermDiagramImageView);
+               updateDiagramFromCode(ermPlantUmlTextArea, ermDiagramNavigator);
             }
             if (loadedState.tableModelPlantUml() != null
                   && !loadedState.tableModelPlantUml()
                      .isBlank()) {
                updateDiagramFromCode(tableModelPlantUmlTextArea,
-                     tableModelImageView);
+                     tableModelNavigator);
             }
 
          } catch (final IOException e) {
@@ -578,6 +668,47 @@ public class MainController {
       }
    }
 
+   /**
+    * Überträgt Änderungen der Beziehungstabelle (Zeile hinzufügen,
+    * kopieren, löschen, Zelle bearbeiten) zeilenweise in den ERM-Code und
+    * in die Live-Ansicht. Ist das ERM bereits erstellt und sein Code nicht
+    * von Hand geändert, werden Code und Diagramm nachgeführt; das
+    * Rendering wird zusammengefasst im Hintergrund ausgeführt.
+    *
+    * @param change Die Änderung der Liste.
+    */
+   private void onRelationshipsChanged(
+         final ListChangeListener.Change<? extends Relationship> change) {
+      final boolean following = !generatedErmPlantUml.isEmpty()
+            && generatedErmPlantUml.equals(ermPlantUmlTextArea.getText());
+      boolean changed = false;
+      while (change.next()) {
+         if (change.wasPermutated()) {
+            ermSource.reset(relationships);
+            changed = true;
+         } else if (change.wasUpdated()) {
+            for (int i = change.getFrom(); i < change.getTo(); i++) {
+               changed |= ermSource.set(i, relationships.get(i));
+            }
+         } else {
+            if (change.wasRemoved()) {
+               ermSource.remove(change.getFrom(), change.getFrom()
+                     + change.getRemovedSize());
+            }
+            for (int i = change.getFrom(); i < change.getTo(); i++) {
+               ermSource.add(i, relationships.get(i));
+            }
+            changed = true;
+         }
+      }
+      ermLiveView.update(relationships);
+      if (following && changed && !relationships.isEmpty()) {
+         generatedErmPlantUml = ermSource.text();
+         ermPlantUmlTextArea.setText(generatedErmPlantUml);
+         ermLiveRenderer.request(generatedErmPlantUml);
+      }
+   }
+
    /**
     * Setzt die SplitPane-Trenner auf die Standardausrichtung zurück.
     */
@@ -612,12 +743,7 @@ public class MainController {
       final File file = fc.showSaveDialog(getWindow());
       if (file != null) {
          try {
-            final ProjectState currentState = new ProjectState(
-                  descriptionTextArea.getText(), List.copyOf(relationships),
-                  ermPlantUmlTextArea.getText(),
-                  tableModelPlantUmlTextArea.getText(),
-                  sqlDdlTextArea.getText());
-            service.saveProjectState(currentState, file);
+            service.saveProjectState(currentState(), file);
          } catch (final IOException e) {
             showAlert(Alert.AlertType.ERROR,
                   "Fehler beim Speichern des Projekts: " + e.getMessage());
@@ -632,7 +758,7 @@ public class MainController {
     */
    @FXML
    private void onUpdateErmDiagramFromCodeClicked() {
-      updateDiagramFromCode(ermPlantUmlTextArea, ermDiagramImageView);
+      updateDiagramFromCode(ermPlantUmlTextArea, ermDiagramNavigator);
    }
 
    /**
@@ -640,7 +766,58 @@ public class MainController {
     */
    @FXML
    private void onUpdateTableModelDiagramFromCodeClicked() {
-      updateDiagramFromCode(tableModelPlantUmlTextArea, tableModelImageView);
+      updateDiagramFromCode(tableModelPlantUmlTextArea, tableModelNavigator);
+   }
+
+   /**
+    * Führt das SQL-DDL-Skript in einem Sandbox-Schema aus, meldet das
+    * Ergebnis und setzt den Cursor auf die erste fehlerhafte Zeile.
+    */
+   @FXML
+   private void onVerifySqlClicked() {
+      final String sqlDdl = sqlDdlTextArea.getText();
+      if (sqlDdl.isBlank()) {
+         showAlert(Alert.AlertType.INFORMATION, "Kein SQL-Code zum Prüfen.");
+         return;
+      }
+      final Task<DdlSandbox.Result> task = new Task<>() {
+         @Override
+         protected DdlSandbox.Result call() throws SQLException {
+            return service.verifySqlDdl(sqlDdl);
+         }
+      };
+      task.setOnSucceeded(event -> {
+         final DdlSandbox.Result result = task.getValue();
+         final StringBuilder message = new StringBuilder();
+         if (result.isValid()) {
+            message.append(String.format(
+                  "Alle %d Anweisungen wurden fehlerfrei ausgeführt (%d ms).",
+                  result.statements(), result.millis()));
+         } else {
+            message.append(String.format(
+                  "%d von %d Anweisungen sind fehlerhaft (%d ms):%n",
+                  result.failures()
+                     .size(),
+                  result.statements(), result.millis()));
+            for (final DdlSandbox.Failure failure : result.failures()) {
+               message.append(String.format("%nZeile %d: %s", failure.line(),
+                     failure.message()));
+            }
+            selectLine(sqlDdlTextArea, result.failures()
+               .get(0)
+               .line());
+         }
+         if (!result.skipped()
+            .isEmpty()) {
+            message.append(String.format(
+                  "%n%n%d Anweisungen außerhalb der Sandbox übersprungen (z.B. USE).",
+                  result.skipped()
+                     .size()));
+         }
+         showAlert(result.isValid() ? Alert.AlertType.INFORMATION
+               : Alert.AlertType.WARNING, message.toString());
+      });
+      runTask(task);
    }
 
    // --- Hilfsmethoden für UI und Layout ---
@@ -674,6 +851,26 @@ public class MainController {
       new Thread(task).start();
    }
 
+   /**
+    * Markiert eine Zeile in einem Textfeld.
+    *
+    * @param area Das Textfeld.
+    * @param line Die Zeile (ab 1).
+    */
+   private void selectLine(final TextArea area, final int line) {
+      final String text = area.getText();
+      int start = 0;
+      for (int i = 1; i < line; i++) {
+         start = text.indexOf('\n', start) + 1;
+         if (start == 0) {
+            return;
+         }
+      }
+      final int end = text.indexOf('\n', start);
+      area.requestFocus();
+      area.selectRange(start, end < 0 ? text.length() : end);
+   }
+
    /**
     * Setzt eine Spalte der Beziehungstabelle bearbeitbar.
     *
@@ -745,18 +942,46 @@ public class MainController {
 
    /**
     * Aktualisiert ein Diagramm anhand des PlantUML-Quelltexts in einem
-    * TextArea.
+    * TextArea. Syntaxprüfung und Rendering laufen im Hintergrund; große
+    * Diagramme werden dabei zerlegt und parallel gerendert.
     *
     * @param source Quell-TextArea mit PlantUML-Code.
-    * @param target Ziel-ImageView für das gerenderte Diagramm.
+    * @param target Ziel-Anzeige für das gerenderte Diagramm.
     */
    private void updateDiagramFromCode(final TextArea source,
-         final ImageView target) {
-      try {
-         target.setImage(service.renderPlantUml(source.getText()));
-      } catch (final IOException e) {
-         showAlert(Alert.AlertType.ERROR,
-               "Fehler beim Rendern des Diagramms: " + e.getMessage());
-      }
+         final DiagramAreaNavigator target) {
+      final String plantUml = source.getText();
+      final List<PlantUmlSyntax.Error> errors = new ArrayList<>();
+      final Task<GenerationResult> task = new Task<>() {
+         @Override
+         protected GenerationResult call() throws IOException {
+            errors.addAll(service.checkPlantUmlSyntax(plantUml));
+            if (!errors.isEmpty()) {
+               // Nur gültigen Code rendern
+               return null;
+            }
+            return service.shouldPartition(plantUml)
+                  ? service.renderResult(plantUml)
+                  : new GenerationResult(plantUml,
+                        service.renderPlantUml(plantUml));
+         }
+      };
+      task.setOnSucceeded(event -> {
+         if (errors.isEmpty()) {
+            target.show(task.getValue());
+            return;
+         }
+         // Erste Fehlerzeile markieren
+         if (errors.get(0)
+            .line() > 0) {
+            selectLine(source, errors.get(0)
+               .line());
+         }
+         showAlert(Alert.AlertType.WARNING,
+               "Der PlantUML-Code enthält Fehler:\n" + errors.stream()
+                  .map(PlantUmlSyntax.Error::describe)
+                  .collect(Collectors.joining("\n")));
+      });
+      runTask(task);
    }
 }
@@ -0,0 +1,173 @@
+package de.gc.agent.erm.view;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import de.gc.agent.erm.metrics.Counter;
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import de.gc.agent.erm.metrics.Timer;
+import de.gc.agent.erm.metrics.Timer.Snapshot;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * Statusleiste mit den Messwerten der {@link MetricsRegistry}.
+ *
+ * Die Leiste zeigt die laufenden Operationen sowie Median und
+ * 95. Perzentil der zuletzt benutzten Operation. Über den Schalter
+ * "Messwerte" wird eine Tabelle mit allen Timern und Zählern
+ * eingeblendet. Die Anzeige wird einmal pro Sekunde aktualisiert.
+ */
+public class MetricsStatusPanel extends VBox {
+
+   /** Die angezeigte Registry. */
+   private final MetricsRegistry registry;
+
+   /** Zusammenfassung in der Statusleiste. */
+   private final Label summaryLabel = new Label();
+
+   /** Zählerstände in der Statusleiste. */
+   private final Label countersLabel = new Label();
+
+   /** Tabelle aller Timer. */
+   private final TableView<Snapshot> timerTable = new TableView<>();
+
+   /** Name des zuletzt benutzten Timers. */
+   private String lastTimer;
+
+   /** Aufrufzahl je Timer bei der letzten Aktualisierung. */
+   private final Map<String, Long> previousCounts = new HashMap<>();
+
+   /**
+    * Erstellt die Statusleiste für die gemeinsame Registry. Wird vom
+    * FXML-Loader aufgerufen.
+    */
+   public MetricsStatusPanel() {
+      this(MetricsRegistry.global());
+   }
+
+   /**
+    * Erstellt die Statusleiste.
+    *
+    * @param registry Die angezeigte Registry.
+    */
+   public MetricsStatusPanel(final MetricsRegistry registry) {
+      super(5);
+      this.registry = registry;
+      setStyle("-fx-padding: 2 10 4 10;");
+
+      final ToggleButton detailsButton = new ToggleButton("Messwerte");
+      detailsButton.getStyleClass()
+         .add("layout-button");
+      detailsButton.setTooltip(new Tooltip(
+            "Blendet die Laufzeiten aller KI-Aufrufe, Renderings und Dateizugriffe ein."));
+
+      final Pane spacer = new Pane();
+      HBox.setHgrow(spacer, Priority.ALWAYS);
+      final HBox statusBar = new HBox(10, summaryLabel, spacer, countersLabel,
+            detailsButton);
+      statusBar.setAlignment(Pos.CENTER_LEFT);
+
+      timerTable.getColumns()
+         .setAll(List.of(column("Operation", Snapshot::name),
+               column("Anzahl", Snapshot::count),
+               column("Fehler", Snapshot::errors),
+               column("Laufend", Snapshot::inFlight),
+               column("p50 ms", Snapshot::p50Millis),
+               column("p95 ms", Snapshot::p95Millis),
+               column("max ms", Snapshot::maxMillis)));
+      timerTable.setColumnResizePolicy(
+            TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+      timerTable.setPrefHeight(180);
+      timerTable.setPlaceholder(new Label("Noch keine Messwerte."));
+      timerTable.visibleProperty()
+         .bind(detailsButton.selectedProperty());
+      timerTable.managedProperty()
+         .bind(detailsButton.selectedProperty());
+
+      getChildren().setAll(statusBar, timerTable);
+
+      refresh();
+      final Timeline timeline = new Timeline(
+            new KeyFrame(Duration.seconds(1), event -> refresh()));
+      timeline.setCycleCount(Animation.INDEFINITE);
+      timeline.play();
+   }
+
+   /**
+    * Erstellt eine Tabellenspalte.
+    *
+    * @param <T>      Typ der Spaltenwerte.
+    * @param title    Spaltenüberschrift.
+    * @param accessor Liefert den Wert aus der Momentaufnahme.
+    *
+    * @return Die Spalte.
+    */
+   private <T> TableColumn<Snapshot, T> column(final String title,
+         final Function<Snapshot, T> accessor) {
+      final TableColumn<Snapshot, T> column = new TableColumn<>(title);
+      column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(
+            accessor.apply(cellData.getValue())));
+      return column;
+   }
+
+   /**
+    * Liest die aktuellen Messwerte und aktualisiert die Anzeige.
+    */
+   private void refresh() {
+      final List<Snapshot> snapshots = registry.timers()
+         .stream()
+         .map(Timer::snapshot)
+         .toList();
+
+      int inFlight = 0;
+      for (final Snapshot snapshot : snapshots) {
+         inFlight += snapshot.inFlight();
+         final Long previous = previousCounts.put(snapshot.name(),
+               snapshot.count());
+         if (snapshot.inFlight() > 0 || previous == null && snapshot.count() > 0
+               || previous != null && previous != snapshot.count()) {
+            lastTimer = snapshot.name();
+         }
+      }
+
+      final StringBuilder summary = new StringBuilder("Laufend: " + inFlight);
+      snapshots.stream()
+         .filter(s -> s.name()
+            .equals(lastTimer))
+         .findFirst()
+         .ifPresent(s -> summary.append(String.format(
+               "   |   %s: p50 %d ms, p95 %d ms (%d Aufrufe)", s.name(),
+               s.p50Millis(), s.p95Millis(), s.count())));
+      summaryLabel.setText(summary.toString());
+
+      final StringBuilder counters = new StringBuilder();
+      for (final Counter counter : registry.counters()) {
+         if (!counters.isEmpty()) {
+            counters.append("   ");
+         }
+         counters.append(counter.getName())
+            .append(": ")
+            .append(counter.getCount());
+      }
+      countersLabel.setText(counters.toString());
+
+      timerTable.getItems()
+         .setAll(snapshots);
+   }
+}
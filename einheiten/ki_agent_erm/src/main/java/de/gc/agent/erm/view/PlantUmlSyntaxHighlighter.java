@@ -0,0 +1,114 @@
+package de.gc.agent.erm.view;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import de.gc.agent.erm.service.ErmGeneratorService;
+import de.gc.agent.erm.service.PlantUmlSyntax;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.Tooltip;
+import javafx.util.Duration;
+
+/**
+ * Prüft den PlantUML-Code eines Textfelds während der Eingabe.
+ *
+ * Nach einer kurzen Tipp-Pause wird die Syntax im Hintergrund mit
+ * {@link ErmGeneratorService#checkPlantUmlSyntax(String)} geprüft, ohne
+ * das Diagramm zu rendern. Bei Fehlern erhält das Textfeld die
+ * Pseudo-Klasse {@code :syntax-error} (roter Rahmen, siehe
+ * {@code styles.css}) und einen Tooltip mit den Fehlern und ihren
+ * Zeilennummern. Veraltete Prüfergebnisse werden verworfen.
+ */
+public class PlantUmlSyntaxHighlighter {
+
+   /** Pseudo-Klasse für fehlerhaften Code. */
+   private static final PseudoClass SYNTAX_ERROR = PseudoClass
+      .getPseudoClass("syntax-error");
+
+   /** Wartezeit nach dem letzten Tastendruck. */
+   private static final Duration DELAY = Duration.millis(250);
+
+   /** Gemeinsamer Hintergrund-Thread für alle Prüfungen. */
+   private static final ExecutorService CHECKER = Executors
+      .newSingleThreadExecutor(runnable -> {
+         final Thread thread = new Thread(runnable, "plantuml-syntax");
+         thread.setDaemon(true);
+         return thread;
+      });
+
+   /** Das geprüfte Textfeld. */
+   private final TextArea area;
+
+   /** Der Service für die Prüfung. */
+   private final ErmGeneratorService service;
+
+   /** Verzögert die Prüfung bis zur Tipp-Pause. */
+   private final PauseTransition pause = new PauseTransition(DELAY);
+
+   /** Tooltip mit den Fehlermeldungen. */
+   private final Tooltip tooltip = new Tooltip();
+
+   /** Nummer der letzten angestoßenen Prüfung. */
+   private long generation;
+
+   /**
+    * Verbindet die Prüfung mit einem Textfeld.
+    *
+    * @param area    Das Textfeld mit PlantUML-Code.
+    * @param service Der Service für die Prüfung.
+    */
+   public PlantUmlSyntaxHighlighter(final TextArea area,
+         final ErmGeneratorService service) {
+      this.area = area;
+      this.service = service;
+      pause.setOnFinished(event -> check());
+      area.textProperty()
+         .addListener((obs, oldText, newText) -> {
+            generation++;
+            pause.playFromStart();
+         });
+   }
+
+   /**
+    * Startet die Prüfung des aktuellen Textes im Hintergrund.
+    */
+   private void check() {
+      final long current = generation;
+      final String text = area.getText();
+      if (text.isBlank()) {
+         show(List.of());
+         return;
+      }
+      CHECKER.execute(() -> {
+         final List<PlantUmlSyntax.Error> result = service
+            .checkPlantUmlSyntax(text);
+         Platform.runLater(() -> {
+            if (current == generation) {
+               show(result);
+            }
+         });
+      });
+   }
+
+   /**
+    * Zeigt das Ergebnis einer Prüfung am Textfeld an.
+    *
+    * @param result Die gefundenen Fehler.
+    */
+   private void show(final List<PlantUmlSyntax.Error> result) {
+      area.pseudoClassStateChanged(SYNTAX_ERROR, !result.isEmpty());
+      if (result.isEmpty()) {
+         area.setTooltip(null);
+      } else {
+         tooltip.setText(result.stream()
+            .map(PlantUmlSyntax.Error::describe)
+            .collect(Collectors.joining("\n")));
+         area.setTooltip(tooltip);
+      }
+   }
+}
@@ -0,0 +1,482 @@
+package de.gc.agent.erm.view;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.gc.agent.erm.metrics.MetricsRegistry;
+import javafx.application.Platform;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+
+/**
+ * Zeigt ein Diagramm in Kacheln an, abhängig vom Ausschnitt und von der
+ * Vergrößerung.
+ *
+ * Statt eines einzigen Bildes in voller Auflösung liegen nur die
+ * sichtbaren Kacheln (je {@value #TILE_SIZE} Pixel) im Szenengraphen.
+ * Zu dem Diagramm wird eine Bildpyramide aus jeweils halb so großen
+ * Stufen berechnet; beim Verkleinern kommen die Kacheln aus der
+ * passenden Stufe. Die kleinste Stufe wird sofort vergrößert als
+ * unscharfe Vorschau angezeigt, die Kacheln folgen schrittweise
+ * ({@value #TILES_PER_PULSE} je Layout-Durchlauf).
+ *
+ * Das Bild in Originalgröße wird nicht kopiert: Kacheln der Stufe 0 sind
+ * Ausschnitte des Bildes ({@link ImageView#setViewport(Rectangle2D)}),
+ * das der Aufrufer ohnehin hält (z.B. im Pixel-Cache des
+ * {@code ErmGeneratorService}). Hinzu kommen nur die verkleinerten
+ * Stufen (zusammen höchstens ein Drittel des Bildes) und deren Kacheln.
+ * Diese werden in einem LRU-Cache mit höchstens
+ * {@value #MAX_CACHED_TILES} Einträgen gehalten; die Einträge sind
+ * weiche Referenzen, die der Garbage Collector bei Speicherknappheit
+ * freigeben kann.
+ *
+ * Vergrößert und verkleinert wird mit Strg + Mausrad; das Diagramm kann
+ * mit der Maus verschoben werden.
+ */
+public class TiledDiagramView extends ScrollPane {
+
+   /**
+    * Eine Stufe der Bildpyramide.
+    *
+    * @param width  Breite in Pixeln.
+    * @param height Höhe in Pixeln.
+    * @param pixels Die Pixel (ARGB, vormultipliert); null für die Stufe 0,
+    *               die ohne Kopie aus dem Bild gezeigt wird.
+    */
+   private record Level(int width, int height, int[] pixels) {
+   }
+
+   /**
+    * Die Ebene mit Vorschau und Kacheln; ihre Größe ist die des
+    * vergrößerten Diagramms.
+    */
+   private final class TileLayer extends Pane {
+
+      @Override
+      protected double computeMinHeight(final double width) {
+         return computePrefHeight(width);
+      }
+
+      @Override
+      protected double computeMinWidth(final double height) {
+         return computePrefWidth(height);
+      }
+
+      @Override
+      protected double computePrefHeight(final double width) {
+         return image == null ? 0 : Math.ceil(image.getHeight() * getZoom());
+      }
+
+      @Override
+      protected double computePrefWidth(final double height) {
+         return image == null ? 0 : Math.ceil(image.getWidth() * getZoom());
+      }
+
+      @Override
+      protected void layoutChildren() {
+         layoutTiles();
+      }
+   }
+
+   /** Kantenlänge einer Kachel in Pixeln der jeweiligen Stufe. */
+   private static final int TILE_SIZE = 256;
+
+   /** Größte Kantenlänge der kleinsten Stufe (der Vorschau). */
+   private static final int PREVIEW_SIZE = 512;
+
+   /** Höchstzahl neu erzeugter Kacheln je Layout-Durchlauf. */
+   private static final int TILES_PER_PULSE = 8;
+
+   /** Höchstzahl zwischengespeicherter Kacheln (je bis zu 256 KB). */
+   private static final int MAX_CACHED_TILES = 256;
+
+   /** Kleinste Vergrößerung. */
+   private static final double MIN_ZOOM = 1.0 / 16;
+
+   /** Größte Vergrößerung. */
+   private static final double MAX_ZOOM = 4;
+
+   /** Faktor je Schritt des Mausrads. */
+   private static final double ZOOM_STEP = 1.25;
+
+   /**
+    * Mittelt vier Pixel kanalweise.
+    *
+    * @param a Erstes Pixel (ARGB).
+    * @param b Zweites Pixel.
+    * @param c Drittes Pixel.
+    * @param d Viertes Pixel.
+    *
+    * @return Das gemittelte Pixel.
+    */
+   private static int average(final int a, final int b, final int c,
+         final int d) {
+      int result = 0;
+      for (int shift = 0; shift < 32; shift += 8) {
+         final int sum = (a >>> shift & 0xFF) + (b >>> shift & 0xFF)
+               + (c >>> shift & 0xFF) + (d >>> shift & 0xFF);
+         result |= (sum + 2) / 4 << shift;
+      }
+      return result;
+   }
+
+   /**
+    * Verkleinert Pixel auf die halbe Kantenlänge; je 2x2 Pixel werden
+    * gemittelt, bei ungerader Größe wird die letzte Zeile bzw. Spalte
+    * wiederholt.
+    *
+    * @param source Die Pixel der größeren Stufe.
+    * @param width  Deren Breite.
+    * @param height Deren Höhe.
+    * @param target Ziel mit der Breite {@code (width + 1) / 2}.
+    * @param offset Index im Ziel für das erste Pixel.
+    */
+   private static void halve(final int[] source, final int width,
+         final int height, final int[] target, final int offset) {
+      final int halfWidth = (width + 1) / 2;
+      for (int y = 0; y < (height + 1) / 2; y++) {
+         final int row = 2 * y * width;
+         final int nextRow = Math.min(2 * y + 1, height - 1) * width;
+         for (int x = 0; x < halfWidth; x++) {
+            final int left = 2 * x;
+            final int right = Math.min(left + 1, width - 1);
+            target[offset + y * halfWidth + x] = average(source[row + left],
+                  source[row + right], source[nextRow + left],
+                  source[nextRow + right]);
+         }
+      }
+   }
+
+   /**
+    * Erzeugt eine leere Stufe mit der halben Kantenlänge einer anderen.
+    *
+    * @param width  Breite der größeren Stufe.
+    * @param height Höhe der größeren Stufe.
+    *
+    * @return Die Stufe.
+    */
+   private static Level halfLevel(final int width, final int height) {
+      final int halfWidth = (width + 1) / 2;
+      final int halfHeight = (height + 1) / 2;
+      return new Level(halfWidth, halfHeight,
+            new int[halfWidth * halfHeight]);
+   }
+
+   /** Die aktuelle Vergrößerung (1 = Originalgröße). */
+   private final DoubleProperty zoom = new SimpleDoubleProperty(this, "zoom",
+         1);
+
+   /** Die Ebene mit Vorschau und Kacheln. */
+   private final TileLayer layer = new TileLayer();
+
+   /** Die vergrößerte kleinste Stufe unter den Kacheln. */
+   private final ImageView preview = new ImageView();
+
+   /** Die Stufen der Bildpyramide, beginnend mit der Originalgröße. */
+   private final List<Level> levels = new ArrayList<>();
+
+   /** Zuletzt benutzte Kacheln je Stufe, Zeile und Spalte. */
+   private final Map<Long, SoftReference<WritableImage>> tiles = new LinkedHashMap<>(
+         64, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(
+            final Map.Entry<Long, SoftReference<WritableImage>> eldest) {
+         return size() > MAX_CACHED_TILES;
+      }
+   };
+
+   /** Das angezeigte Diagramm oder null. */
+   private Image image;
+
+   /** Ob bereits ein weiterer Layout-Durchlauf angefordert ist. */
+   private boolean morePending;
+
+   /**
+    * Erstellt eine leere Anzeige. Wird vom FXML-Loader aufgerufen.
+    */
+   public TiledDiagramView() {
+      setContent(layer);
+      setPannable(true);
+      preview.setSmooth(true);
+      zoom.addListener((obs, oldZoom, newZoom) -> layer.requestLayout());
+      hvalueProperty().addListener((obs, oldValue, newValue) -> layer
+         .requestLayout());
+      vvalueProperty().addListener((obs, oldValue, newValue) -> layer
+         .requestLayout());
+      viewportBoundsProperty().addListener((obs, oldBounds,
+            newBounds) -> layer.requestLayout());
+      addEventFilter(ScrollEvent.SCROLL, event -> {
+         if (event.isShortcutDown() && event.getDeltaY() != 0) {
+            zoomAt(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP,
+                  event.getX(), event.getY());
+            event.consume();
+         }
+      });
+   }
+
+   /**
+    * Baut die Bildpyramide bis zur Vorschaugröße auf. Die erste
+    * verkleinerte Stufe wird zeilenweise aus dem Bild gelesen, sodass
+    * keine Kopie in Originalgröße entsteht.
+    */
+   private void buildLevels() {
+      final int width = (int) image.getWidth();
+      final int height = (int) image.getHeight();
+      levels.add(new Level(width, height, null));
+      if (Math.max(width, height) <= PREVIEW_SIZE) {
+         return;
+      }
+      final PixelReader reader = image.getPixelReader();
+      Level last = halfLevel(width, height);
+      final int[] rows = new int[2 * width];
+      for (int y = 0; y < last.height(); y++) {
+         final int rowCount = Math.min(2, height - 2 * y);
+         reader.getPixels(0, 2 * y, width, rowCount,
+               PixelFormat.getIntArgbPreInstance(), rows, 0, width);
+         halve(rows, width, rowCount, last.pixels(), y * last.width());
+      }
+      levels.add(last);
+      while (Math.max(last.width(), last.height()) > PREVIEW_SIZE) {
+         final Level smaller = halfLevel(last.width(), last.height());
+         halve(last.pixels(), last.width(), last.height(), smaller.pixels(),
+               0);
+         levels.add(smaller);
+         last = smaller;
+      }
+   }
+
+   /**
+    * Erzeugt eine Kachel aus einer verkleinerten Stufe der Bildpyramide.
+    *
+    * @param level Die Stufe.
+    * @param x     Linke Kante in Pixeln der Stufe.
+    * @param y     Obere Kante in Pixeln der Stufe.
+    *
+    * @return Die Kachel.
+    */
+   private WritableImage createTile(final Level level, final int x,
+         final int y) {
+      final int width = Math.min(TILE_SIZE, level.width() - x);
+      final int height = Math.min(TILE_SIZE, level.height() - y);
+      final WritableImage tile = new WritableImage(width, height);
+      tile.getPixelWriter()
+         .setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(),
+               level.pixels(), y * level.width() + x, level.width());
+      MetricsRegistry.global()
+         .counter("vorschau-kachel")
+         .increment();
+      return tile;
+   }
+
+   /**
+    * Liefert das angezeigte Diagramm.
+    *
+    * @return Das Bild oder null.
+    */
+   public Image getImage() {
+      return image;
+   }
+
+   /**
+    * Liefert die aktuelle Vergrößerung.
+    *
+    * @return Die Vergrößerung (1 = Originalgröße).
+    */
+   public double getZoom() {
+      return zoom.get();
+   }
+
+   /**
+    * Ordnet Vorschau und sichtbare Kacheln an. Fehlende Kacheln der
+    * gewählten Stufe werden erzeugt, höchstens {@value #TILES_PER_PULSE}
+    * je Durchlauf; für die übrigen wird ein weiterer Durchlauf
+    * angefordert.
+    */
+   private void layoutTiles() {
+      if (image == null) {
+         layer.getChildren()
+            .clear();
+         return;
+      }
+      final double scale = getZoom();
+      preview.setFitWidth(image.getWidth() * scale);
+      preview.setFitHeight(image.getHeight() * scale);
+      final List<Node> children = new ArrayList<>();
+      children.add(preview);
+
+      // Kleinste Stufe, die mindestens so groß wie die Anzeige ist
+      final int levelIndex = Math.max(0, Math.min(levels.size() - 1,
+            (int) Math.floor(-Math.log(scale) / Math.log(2))));
+      if (levelIndex < levels.size() - 1 || levels.size() == 1) {
+         final Level level = levels.get(levelIndex);
+         final double levelScale = scale * (1 << levelIndex);
+         final Bounds viewport = getViewportBounds();
+         final double contentWidth = layer.getWidth();
+         final double contentHeight = layer.getHeight();
+         final double left = Math.max(0, contentWidth - viewport.getWidth())
+               * getHvalue();
+         final double top = Math.max(0, contentHeight - viewport.getHeight())
+               * getVvalue();
+         final int firstColumn = (int) (left / levelScale / TILE_SIZE);
+         final int lastColumn = (int) Math.min((level.width() - 1) / TILE_SIZE,
+               (left + viewport.getWidth()) / levelScale / TILE_SIZE);
+         final int firstRow = (int) (top / levelScale / TILE_SIZE);
+         final int lastRow = (int) Math.min((level.height() - 1) / TILE_SIZE,
+               (top + viewport.getHeight()) / levelScale / TILE_SIZE);
+         int created = 0;
+         boolean missing = false;
+         for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+               final int tileX = column * TILE_SIZE;
+               final int tileY = row * TILE_SIZE;
+               final int tileWidth = Math.min(TILE_SIZE, level.width()
+                     - tileX);
+               final int tileHeight = Math.min(TILE_SIZE, level.height()
+                     - tileY);
+               final ImageView view;
+               if (level.pixels() == null) {
+                  // Stufe 0: Ausschnitt des Bildes, keine Kopie der Pixel
+                  view = new ImageView(image);
+                  view.setViewport(new Rectangle2D(tileX, tileY, tileWidth,
+                        tileHeight));
+               } else {
+                  final long key = (long) levelIndex << 48
+                        | (long) row << 24 | column;
+                  final SoftReference<WritableImage> ref = tiles.get(key);
+                  WritableImage tile = ref == null ? null : ref.get();
+                  if (tile == null) {
+                     if (created == TILES_PER_PULSE) {
+                        missing = true;
+                        continue;
+                     }
+                     tile = createTile(level, tileX, tileY);
+                     tiles.put(key, new SoftReference<>(tile));
+                     created++;
+                  }
+                  view = new ImageView(tile);
+               }
+               final double x = Math.floor(tileX * levelScale);
+               final double y = Math.floor(tileY * levelScale);
+               view.setSmooth(true);
+               view.setLayoutX(x);
+               view.setLayoutY(y);
+               view.setFitWidth(Math.ceil((tileX + tileWidth) * levelScale)
+                     - x);
+               view.setFitHeight(Math.ceil((tileY + tileHeight) * levelScale)
+                     - y);
+               children.add(view);
+            }
+         }
+         if (missing && !morePending) {
+            morePending = true;
+            Platform.runLater(() -> {
+               morePending = false;
+               layer.requestLayout();
+            });
+         }
+      }
+      layer.getChildren()
+         .setAll(children);
+   }
+
+   /**
+    * Zeigt ein Diagramm an. Die Vergrößerung bleibt erhalten, sodass ein
+    * neu gerendertes Diagramm im gleichen Maßstab erscheint.
+    *
+    * @param image Das Bild oder null für eine leere Anzeige.
+    */
+   public void setImage(final Image image) {
+      this.image = image;
+      levels.clear();
+      tiles.clear();
+      if (image != null) {
+         buildLevels();
+         final Level smallest = levels.get(levels.size() - 1);
+         if (smallest.pixels() == null) {
+            preview.setImage(image);
+         } else {
+            final WritableImage previewImage = new WritableImage(
+                  smallest.width(), smallest.height());
+            previewImage.getPixelWriter()
+               .setPixels(0, 0, smallest.width(), smallest.height(),
+                     PixelFormat.getIntArgbPreInstance(), smallest.pixels(),
+                     0, smallest.width());
+            preview.setImage(previewImage);
+         }
+      } else {
+         preview.setImage(null);
+      }
+      layer.requestLayout();
+   }
+
+   /**
+    * Setzt die Vergrößerung.
+    *
+    * @param zoom Die Vergrößerung; wird auf 1/16 bis 4 begrenzt.
+    */
+   public void setZoom(final double zoom) {
+      this.zoom.set(Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom)));
+   }
+
+   /**
+    * Liefert die Vergrößerung als Property.
+    *
+    * @return Die Property.
+    */
+   public DoubleProperty zoomProperty() {
+      return zoom;
+   }
+
+   /**
+    * Ändert die Vergrößerung so, dass der Punkt unter dem Mauszeiger an
+    * seiner Stelle bleibt.
+    *
+    * @param factor Der Faktor der Änderung.
+    * @param mouseX Mausposition relativ zur Anzeige.
+    * @param mouseY Mausposition relativ zur Anzeige.
+    */
+   private void zoomAt(final double factor, final double mouseX,
+         final double mouseY) {
+      if (image == null) {
+         return;
+      }
+      final Bounds viewport = getViewportBounds();
+      final double oldLeft = Math.max(0, layer.getWidth() - viewport
+         .getWidth()) * getHvalue();
+      final double oldTop = Math.max(0, layer.getHeight() - viewport
+         .getHeight()) * getVvalue();
+      final double oldZoom = getZoom();
+      setZoom(oldZoom * factor);
+      final double applied = getZoom() / oldZoom;
+      layer.autosize();
+      layout();
+      final double maxLeft = Math.max(0, layer.getWidth() - viewport
+         .getWidth());
+      final double maxTop = Math.max(0, layer.getHeight() - viewport
+         .getHeight());
+      if (maxLeft > 0) {
+         setHvalue(Math.min(1, Math.max(0,
+               ((oldLeft + mouseX) * applied - mouseX) / maxLeft)));
+      }
+      if (maxTop > 0) {
+         setVvalue(Math.min(1, Math.max(0,
+               ((oldTop + mouseY) * applied - mouseY) / maxTop)));
+      }
+   }
+}
@@ -2,6 +2,7 @@ package de.gc.agent.erm.view;
 
 import java.util.List;
 
+import de.gc.agent.erm.metrics.MetricsRegistry;
 import de.gc.agent.erm.model.tutor.TutorResponse;
 import de.gc.agent.erm.model.tutor.TutorStrategy;
 import javafx.application.Platform;
@@ -59,6 +60,8 @@ public class TutorDialogController {
    private String context;
    /** Aktuelle Schriftgröße im Chat-Bereich. */
    private double currentFontSize = 14.0;
+   /** Die zuletzt gesendete Frage, um Wiederholungen zu zählen. */
+   private String lastQuestion;
 
    /**
     * Fügt eine Tutor-Nachricht zur Chat-Historie hinzu.
@@ -231,6 +234,13 @@ public class TutorDialogController {
       addUserMessage(userInput);
       final String userQuestion = inputTextField.getText();
       inputTextField.clear();
+      if (userQuestion.equals(lastQuestion)) {
+         // Meist eine Folge einer unbrauchbaren Antwort
+         MetricsRegistry.global()
+            .counter("tutor-frage-wiederholt")
+            .increment();
+      }
+      lastQuestion = userQuestion;
 
       final Task<TutorResponse> task = new Task<>() {
          @Override
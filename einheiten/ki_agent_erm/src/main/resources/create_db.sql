@@ -15,6 +15,13 @@ CREATE USER 'ermagent'@'localhost' IDENTIFIED BY '';
 -- Rechte vergeben.
 GRANT ALL PRIVILEGES ON ermagent.* TO 'ermagent'@'localhost';
 
+-- Eigener User für die Prüfung der SQL-DDL-Skripte (DdlSandbox): er hat
+-- nur Rechte auf die Sandbox-Schemata, nicht auf ermagent.
+-- User 'ermagent_sandbox', PW ist leer (db.sandbox.user/-password)
+DROP USER IF EXISTS 'ermagent_sandbox'@'localhost';
+CREATE USER 'ermagent_sandbox'@'localhost' IDENTIFIED BY '';
+GRANT ALL PRIVILEGES ON `ermagent\_sandbox\_%`.* TO 'ermagent_sandbox'@'localhost';
+
 -- Rechte aktualisieren.
 FLUSH PRIVILEGES;
 
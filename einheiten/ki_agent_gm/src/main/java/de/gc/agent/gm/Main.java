@@ -57,6 +57,36 @@ public class Main {
          // "mistral:7b", null,
          // "http://127.0.0.1:11434");
 
+         // -----------------------------------------------------------------
+         // AUFZEICHNEN -> ANPASSEN
+         // Das oben erstellte Modell wird umhüllt: Alle Anfragen und Antworten
+         // (inkl. Antwortzeit) werden zusätzlich in eine Kassette geschrieben.
+         //
+         // final ChatModel model = XKiLogin.recording(
+         // XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+         // "http://127.0.0.1:11434"),
+         // new File("/tmp/gm-kassette.jsonl"));
+
+         // -----------------------------------------------------------------
+         // PROTOKOLL -> ANPASSEN
+         // Jeder Aufruf wird als kompakte Zeile (Agent, Modell, Tokens,
+         // Antwortzeit, Ergebnis - ohne Prompt) in ein rollierendes
+         // Interaktionsprotokoll geschrieben. Auswertung mit dem
+         // InteractionLogAnalyzer aus ki_agent_erm.
+         //
+         // final ChatModel model = XKiLogin.interactionLog(
+         // XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+         // "http://127.0.0.1:11434"),
+         // "gm", new File("/tmp/gm-interaktionen.jsonl"));
+
+         // -----------------------------------------------------------------
+         // ABSPIELEN -> ANPASSEN
+         // Eine aufgezeichnete Kassette ohne Netzwerk abspielen - mit der
+         // ursprünglichen Antwortzeit (true) oder sofort (false).
+         //
+         // final ChatModel model = XKiLogin.createReplayModel(
+         // new File("/tmp/gm-kassette.jsonl"), false);
+
          // ==========================================================================
          // 2. ZUSAMMENBAU DER MVC-ARCHITEKTUR
          // ==========================================================================
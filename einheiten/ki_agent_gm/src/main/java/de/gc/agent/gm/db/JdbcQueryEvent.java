@@ -0,0 +1,135 @@
+package de.gc.agent.gm.db;
+
+import java.util.regex.Pattern;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für eine JDBC-Ausführung.
+ *
+ * Statt des SQL-Texts wird nur ein Fingerabdruck aufgezeichnet, in dem
+ * alle Literale durch {@code ?} ersetzt sind. So landen keine Daten aus
+ * der Datenbank in der Aufzeichnung, und gleiche Abfragen mit anderen
+ * Werten lassen sich in JMC gruppieren. Der Fingerabdruck wird erst
+ * berechnet, wenn das Ereignis tatsächlich geschrieben wird.
+ *
+ * Nach {@link #start(String, String)} wird {@link #finish()} oder
+ * {@link #fail(Exception)} aufgerufen; nur der erste Aufruf zählt.
+ */
+@Name(JdbcQueryEvent.NAME)
+@Label("JDBC-Ausführung")
+@Category({ "EduKI", "JDBC" })
+@Description("Ausführung einer SQL-Anweisung oder Metadaten-Abfrage")
+public class JdbcQueryEvent extends jdk.jfr.Event {
+
+   /** Name des Ereignisses in der JFR-Konfiguration. */
+   public static final String NAME = "de.gc.agent.JdbcQuery";
+
+   /** Maximale Länge des Fingerabdrucks. */
+   private static final int MAX_FINGERPRINT = 500;
+
+   /** Zeichenketten-Literale in einfachen Anführungszeichen. */
+   private static final Pattern STRING_LITERAL = Pattern
+      .compile("'(?:[^']|'')*'");
+
+   /** Zahlen-Literale, die nicht Teil eines Bezeichners sind. */
+   private static final Pattern NUMBER_LITERAL = Pattern
+      .compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+   /** Leerraum einschließlich Zeilenumbrüchen. */
+   private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+   /**
+    * Bildet den Fingerabdruck einer SQL-Anweisung: Literale werden durch
+    * {@code ?} ersetzt und Leerraum zusammengefasst.
+    *
+    * @param sql Die SQL-Anweisung.
+    *
+    * @return Der Fingerabdruck, höchstens {@value #MAX_FINGERPRINT}
+    *         Zeichen lang.
+    */
+   public static String fingerprint(final String sql) {
+      if (sql == null) {
+         return "";
+      }
+      String result = STRING_LITERAL.matcher(sql)
+         .replaceAll("?");
+      result = NUMBER_LITERAL.matcher(result)
+         .replaceAll("?");
+      result = WHITESPACE.matcher(result)
+         .replaceAll(" ")
+         .trim();
+      return result.length() > MAX_FINGERPRINT
+            ? result.substring(0, MAX_FINGERPRINT)
+            : result;
+   }
+
+   /**
+    * Erstellt ein Ereignis und startet die Zeitmessung.
+    *
+    * @param source Die ausführende Stelle, z.B. "AgentModel.executeSql".
+    * @param sql    Die SQL-Anweisung.
+    *
+    * @return Das laufende Ereignis.
+    */
+   public static JdbcQueryEvent start(final String source, final String sql) {
+      final JdbcQueryEvent event = new JdbcQueryEvent();
+      event.source = source;
+      event.sql = sql;
+      event.begin();
+      return event;
+   }
+
+   /** Die ausführende Stelle. */
+   @Label("Quelle")
+   public String source;
+
+   /** Der Fingerabdruck der SQL-Anweisung. */
+   @Label("SQL-Fingerabdruck")
+   public String fingerprint;
+
+   /** Anzahl der gelesenen Zeilen. */
+   @Label("Zeilen")
+   public long rows;
+
+   /** Fehlermeldung bei einer fehlgeschlagenen Ausführung. */
+   @Label("Fehler")
+   public String failure;
+
+   /** Die SQL-Anweisung; wird nicht aufgezeichnet. */
+   private transient String sql;
+
+   /** Ob die Zeitmessung bereits beendet ist. */
+   private transient boolean finished;
+
+   /**
+    * Beendet die Zeitmessung als Fehlschlag und schreibt das Ereignis.
+    *
+    * @param e Die aufgetretene Ausnahme.
+    */
+   public void fail(final Exception e) {
+      if (!finished) {
+         failure = e.getMessage();
+      }
+      finish();
+   }
+
+   /**
+    * Beendet die Zeitmessung und schreibt das Ereignis, falls es in der
+    * laufenden Aufzeichnung aktiviert ist und die Schwelle überschreitet.
+    */
+   public void finish() {
+      if (finished) {
+         return;
+      }
+      finished = true;
+      end();
+      if (shouldCommit()) {
+         fingerprint = fingerprint(sql);
+         commit();
+      }
+   }
+}
@@ -0,0 +1,239 @@
+package de.gc.agent.gm.loadtest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.gc.agent.gm.model.AgentModel;
+import de.gc.agent.ki.model.XKiLogin;
+import de.gc.agent.ki.model.XKiLogin.KiSystem;
+import dev.langchain4j.model.chat.ChatModel;
+
+/**
+ * Lasttest für das {@link AgentModel}, der eine ganze Klasse gleichzeitig
+ * arbeitender Schüler nachbildet.
+ *
+ * Jeder virtuelle Benutzer läuft auf einem eigenen virtuellen Thread,
+ * besitzt wie in der Oberfläche ein eigenes AgentModel und durchläuft
+ * den Arbeitsablauf: Frage stellen (SQL erzeugen), SQL ausführen und SQL
+ * erklären lassen. Zwischen den Schritten wird eine zufällige Denkzeit
+ * eingelegt. Alle Benutzer teilen sich die Datenbankverbindung von
+ * {@link de.gc.agent.gm.db.DbUtil}.
+ *
+ * Aufruf (alle Angaben optional):
+ *
+ * <pre>
+ * GmLoadTest --users 30 --iterations 1 --ramp-up-seconds 10
+ *            --think-time-millis 2000 --system SIMULATED --model ollama
+ *            --url /tmp/gm-kassette.jsonl --token-file /tmp/gi.properties
+ *            --token-name rest --no-db --seed 1
+ * </pre>
+ */
+public class GmLoadTest {
+
+   /** Fragen, aus denen die virtuellen Benutzer wählen. */
+   private static final String[] QUESTIONS = {
+         "Welche Kunden haben die meisten Bestellungen aufgegeben?",
+         "Wie viele Mitarbeiter arbeiten in jeder Abteilung?",
+         "Welche Produkte wurden noch nie bestellt?",
+         "Zeige alle Lieferanten aus Bayern.",
+         "Wie hoch ist der Umsatz pro Monat im Jahr 2024?" };
+
+   /**
+    * Hauptmethode: Liest die Argumente und startet den Lasttest.
+    *
+    * @param args Kommandozeilenargumente (siehe Klassenbeschreibung).
+    */
+   public static void main(final String[] args) {
+      try {
+         new GmLoadTest(parseArgs(args)).run();
+      } catch (final Exception e) {
+         System.err.println("Ein Fehler ist aufgetreten: " + e.getMessage());
+         e.printStackTrace();
+         System.exit(1);
+      }
+   }
+
+   /**
+    * Zerlegt die Argumente in Schlüssel-Wert-Paare. Schalter ohne Wert
+    * (z.B. {@code --no-db}) erhalten den Wert "true".
+    *
+    * @param args Kommandozeilenargumente.
+    *
+    * @return Die Argumente ohne führende Striche.
+    *
+    * @throws IllegalArgumentException Bei ungültigen Argumenten.
+    */
+   private static Map<String, String> parseArgs(final String[] args) {
+      final Map<String, String> options = new HashMap<>();
+      for (int i = 0; i < args.length; i++) {
+         if (!args[i].startsWith("--")) {
+            throw new IllegalArgumentException(
+                  "Unerwartetes Argument: " + args[i]);
+         }
+         final String key = args[i].substring(2);
+         if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+            options.put(key, args[++i]);
+         } else {
+            options.put(key, "true");
+         }
+      }
+      return options;
+   }
+
+   /** Die Argumente des Lasttests. */
+   private final Map<String, String> options;
+
+   /** Anzahl virtueller Benutzer. */
+   private final int users;
+
+   /** Anzahl Sitzungen je Benutzer. */
+   private final int iterations;
+
+   /** Mittlere Denkzeit zwischen zwei Schritten in Millisekunden. */
+   private final long thinkTimeMillis;
+
+   /** Ob die erzeugten SQL-Abfragen ausgeführt werden. */
+   private final boolean useDb;
+
+   /** Sammelt alle Messwerte. */
+   private final LoadTestRecorder recorder = new LoadTestRecorder();
+
+   /**
+    * Erstellt den Lasttest.
+    *
+    * @param options Die Argumente ohne führende Striche.
+    */
+   public GmLoadTest(final Map<String, String> options) {
+      this.options = options;
+      this.users = Integer.parseInt(options.getOrDefault("users", "30"));
+      this.iterations = Integer
+         .parseInt(options.getOrDefault("iterations", "1"));
+      this.thinkTimeMillis = Long
+         .parseLong(options.getOrDefault("think-time-millis", "2000"));
+      this.useDb = !options.containsKey("no-db");
+   }
+
+   /**
+    * Erstellt das Sprachmodell gemäß den Argumenten und umhüllt es für
+    * die Messung. Standard ist der simulierte Anbieter mit dem Profil
+    * "ollama".
+    *
+    * @return Das gemessene Modell.
+    */
+   private ChatModel createModel() {
+      final KiSystem system = XKiLogin
+         .kiSystemFromString(options.getOrDefault("system", "SIMULATED"));
+      final String token = options.containsKey("token-file")
+            ? XKiLogin.getToken(new File(options.get("token-file")),
+                  options.getOrDefault("token-name", "rest"))
+            : null;
+      return new MeteredChatModel(XKiLogin.createChatModel(system,
+            options.getOrDefault("model", "ollama"), token,
+            options.get("url")));
+   }
+
+   /**
+    * Startet alle virtuellen Benutzer und gibt den Bericht aus.
+    *
+    * @throws Exception Bei Fehlern im Ablauf.
+    */
+   public void run() throws Exception {
+      final ChatModel model = createModel();
+      final int rampUpSeconds = Integer
+         .parseInt(options.getOrDefault("ramp-up-seconds", "10"));
+      final long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+      System.out.printf("Starte %d Benutzer mit je %d Sitzung(en)...%n",
+            users, iterations);
+      recorder.startSampling(250);
+      final long start = System.nanoTime();
+      try (ExecutorService executor = Executors
+         .newVirtualThreadPerTaskExecutor()) {
+         final List<Future<?>> futures = new ArrayList<>();
+         for (int user = 0; user < users; user++) {
+            final int userId = user;
+            final long delayMillis = users <= 1 ? 0
+                  : rampUpSeconds * 1000L * user / (users - 1);
+            futures.add(executor.submit(() -> {
+               Thread.sleep(delayMillis);
+               runUser(new AgentModel(model), new Random(seed + userId));
+               return null;
+            }));
+         }
+         for (final Future<?> future : futures) {
+            future.get();
+         }
+      } finally {
+         recorder.stopSampling();
+      }
+      recorder.printReport(System.out, System.nanoTime() - start);
+   }
+
+   /**
+    * Durchläuft eine Sitzung wie ein Schüler in der Oberfläche.
+    *
+    * @param agentModel Das AgentModel des Benutzers.
+    * @param random     Zufallsgenerator des Benutzers.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void runSession(final AgentModel agentModel, final Random random)
+         throws InterruptedException {
+      final String question = QUESTIONS[random.nextInt(QUESTIONS.length)];
+      final String sql = recorder.measure("sql-erzeugen",
+            () -> agentModel.generateSql(question));
+      if (sql == null) {
+         return;
+      }
+      think(random);
+
+      if (useDb) {
+         recorder.measure("sql-ausfuehren", () -> agentModel.executeSql(sql));
+         think(random);
+      }
+
+      recorder.measure("sql-erklaeren", () -> agentModel.explainSql(sql));
+      recorder.sessionCompleted();
+   }
+
+   /**
+    * Führt alle Sitzungen eines virtuellen Benutzers aus.
+    *
+    * @param agentModel Das AgentModel des Benutzers.
+    * @param random     Zufallsgenerator des Benutzers.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void runUser(final AgentModel agentModel, final Random random)
+         throws InterruptedException {
+      recorder.beginUser();
+      try {
+         for (int i = 0; i < iterations; i++) {
+            runSession(agentModel, random);
+         }
+      } finally {
+         recorder.endUser();
+      }
+   }
+
+   /**
+    * Wartet eine exponentialverteilte Denkzeit.
+    *
+    * @param random Zufallsgenerator des Benutzers.
+    *
+    * @throws InterruptedException Falls der Thread unterbrochen wird.
+    */
+   private void think(final Random random) throws InterruptedException {
+      if (thinkTimeMillis > 0) {
+         Thread.sleep(Math
+            .round(-thinkTimeMillis * Math.log(1 - random.nextDouble())));
+      }
+   }
+}
@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.gc.agent.gm.db.DbUtil;
+import de.gc.agent.gm.db.JdbcQueryEvent;
+import de.gc.agent.ki.model.XKiLogin;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.input.Prompt;
 import dev.langchain4j.model.input.PromptTemplate;
@@ -57,10 +59,10 @@ public class AgentModel {
     * @param chatModel Das initialisierte Sprachmodell (z.B. Ollama).
     */
    public AgentModel(final ChatModel chatModel) {
-      this.chatModel = chatModel;
+      this.chatModel = XKiLogin.flightRecorder(chatModel, "sql-assistent");
       this.dbSchema = loadSchemaFromFile("gmschema.txt");
       this.exportAgent = AiServices.builder(CsvExportAgent.class)
-         .chatModel(chatModel)
+         .chatModel(XKiLogin.flightRecorder(chatModel, "csv-export"))
          .tools(new DatabaseTools())
          .build();
    }
@@ -100,9 +102,17 @@ public class AgentModel {
                "Nur SELECT-Abfragen sind zur Ausführung erlaubt.");
       }
       final Connection con = DbUtil.getConnection();
+      final JdbcQueryEvent event = JdbcQueryEvent
+         .start("AgentModel.executeSql", sqlQuery);
       try (Statement stmt = con.createStatement();
             ResultSet rs = stmt.executeQuery(sqlQuery)) {
-         return resultSetToTableModel(rs);
+         final TableModel model = resultSetToTableModel(rs);
+         event.rows = model.getRowCount();
+         event.finish();
+         return model;
+      } catch (final SQLException e) {
+         event.fail(e);
+         throw e;
       }
    }
 
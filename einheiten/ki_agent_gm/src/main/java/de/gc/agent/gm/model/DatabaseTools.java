@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.gc.agent.gm.db.DbUtil;
+import de.gc.agent.gm.db.JdbcQueryEvent;
 import dev.langchain4j.agent.tool.Tool;
 
 /**
@@ -65,21 +66,35 @@ public class DatabaseTools {
          .setQuoteMode(QuoteMode.ALL)
          .build();
 
+      final JdbcQueryEvent event = JdbcQueryEvent
+         .start("DatabaseTools.exportiereAbfrageAlsCsv", sqlQuery);
       try (PreparedStatement stmt = con.prepareStatement(sqlQuery);
             ResultSet rs = stmt.executeQuery();
             FileWriter out = new FileWriter(dateiname);
             final CSVPrinter printer = new CSVPrinter(out, format);) {
 
          printer.printHeaders(rs);
-         printer.printRecords(rs);
+         final int columnCount = rs.getMetaData()
+            .getColumnCount();
+         final Object[] values = new Object[columnCount];
+         while (rs.next()) {
+            for (int i = 0; i < columnCount; i++) {
+               values[i] = rs.getObject(i + 1);
+            }
+            printer.printRecord(values);
+            event.rows++;
+         }
+         event.finish();
 
          logger.info("Daten erfolgreich nach {} exportiert.", dateiname);
          return "Daten erfolgreich nach " + dateiname + " exportiert.";
 
       } catch (final SQLException e) {
+         event.fail(e);
          logger.error("SQL-Fehler beim CSV-Export.", e);
          return "Fehler beim Ausführen der SQL-Abfrage: " + e.getMessage();
       } catch (final IOException e) {
+         event.fail(e);
          logger.error("IO-Fehler beim Schreiben der CSV-Datei.", e);
          return "Fehler beim Schreiben der CSV-Datei: " + e.getMessage();
       }
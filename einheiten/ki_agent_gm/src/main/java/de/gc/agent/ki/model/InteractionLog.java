@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * InteractionLog is a rolling log of all chat model calls in JSON Lines
+ * format.
+ * <p>
+ * Every line is a compact {@link Entry} without prompt or response text:
+ * timestamp, agent, model, sizes, token usage, latency and outcome. When
+ * the file exceeds the maximum size it is renamed to {@code <file>.1},
+ * older files move on ({@code .2}, {@code .3}, ...) and the oldest one
+ * is deleted.
+ * <p>
+ * The format is the same in all units, so the
+ * {@code InteractionLogAnalyzer} of the ERM editor can evaluate the logs
+ * together.
+ *
+ * @author Michael Niedermair
+ */
+public final class InteractionLog {
+
+   /**
+    * A logged call.
+    *
+    * @param timestamp     The time of the call (ISO-8601, UTC).
+    * @param agent         The calling agent.
+    * @param provider      The provider of the model.
+    * @param model         The name of the model.
+    * @param promptChars   The length of all request messages in chars.
+    * @param responseChars The length of the response in chars.
+    * @param inputTokens   The number of input tokens (may be null).
+    * @param outputTokens  The number of output tokens (may be null).
+    * @param latencyMillis The latency in milliseconds.
+    * @param outcome       {@link #OUTCOME_OK} or {@link #OUTCOME_ERROR}.
+    * @param error         The error message (only for failed calls).
+    */
+   @JsonInclude(JsonInclude.Include.NON_NULL)
+   public record Entry(String timestamp, String agent, String provider,
+         String model, int promptChars, int responseChars, Integer inputTokens,
+         Integer outputTokens, long latencyMillis, String outcome,
+         String error) {
+   }
+
+   /** The outcome of a successful call. */
+   public static final String OUTCOME_OK = "ok";
+
+   /** The outcome of a failed call. */
+   public static final String OUTCOME_ERROR = "error";
+
+   /** The default file size before rolling: 10 MB. */
+   public static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+
+   /** The default number of older files to keep. */
+   public static final int DEFAULT_MAX_FILES = 5;
+
+   /** The Jackson object mapper for the lines of the log. */
+   private static final ObjectMapper MAPPER = new JsonMapper();
+
+   /** The opened logs per file. */
+   private static final Map<Path, InteractionLog> LOGS = new ConcurrentHashMap<>();
+
+   /**
+    * Reads all entries of a log file. Unreadable lines (e.g. a last line
+    * cut off by a crash) are skipped.
+    *
+    * @param file    The log file.
+    * @param skipped Receives the skipped lines (may be null).
+    *
+    * @return The entries in write order.
+    *
+    * @throws IOException If the file cannot be read.
+    */
+   public static List<Entry> load(final Path file, final List<String> skipped)
+         throws IOException {
+      final List<Entry> entries = new ArrayList<>();
+      for (final String line : Files.readAllLines(file,
+            StandardCharsets.UTF_8)) {
+         if (line.isBlank()) {
+            continue;
+         }
+         try {
+            entries.add(MAPPER.readValue(line, Entry.class));
+         } catch (final IOException e) {
+            if (skipped != null) {
+               skipped.add(line);
+            }
+         }
+      }
+      return entries;
+   }
+
+   /**
+    * Returns the log of a file. All models writing to the same file
+    * share one log.
+    *
+    * @param file     The log file.
+    * @param maxBytes The size at which the file is rolled.
+    * @param maxFiles The number of older files to keep.
+    *
+    * @return The log.
+    */
+   public static InteractionLog open(final Path file, final long maxBytes,
+         final int maxFiles) {
+      return LOGS.computeIfAbsent(file.toAbsolutePath()
+         .normalize(), f -> new InteractionLog(f, maxBytes, maxFiles));
+   }
+
+   /** The current log file. */
+   private final Path file;
+
+   /** The size at which the file is rolled. */
+   private final long maxBytes;
+
+   /** The number of older files to keep. */
+   private final int maxFiles;
+
+   /** The current size of the file or -1 while unknown. */
+   private long size = -1;
+
+   /**
+    * Creates a log.
+    *
+    * @param file     The log file.
+    * @param maxBytes The size at which the file is rolled.
+    * @param maxFiles The number of older files to keep.
+    */
+   private InteractionLog(final Path file, final long maxBytes,
+         final int maxFiles) {
+      this.file = file;
+      this.maxBytes = maxBytes;
+      this.maxFiles = Math.max(0, maxFiles);
+   }
+
+   /**
+    * Appends an entry and rolls the file if necessary. Missing
+    * directories are created.
+    *
+    * @param entry The new entry.
+    *
+    * @throws UncheckedIOException If the file cannot be written.
+    */
+   public synchronized void append(final Entry entry) {
+      try {
+         final byte[] line = (MAPPER.writeValueAsString(entry) + "\n")
+            .getBytes(StandardCharsets.UTF_8);
+         if (size < 0) {
+            if (file.getParent() != null) {
+               Files.createDirectories(file.getParent());
+            }
+            size = Files.exists(file) ? Files.size(file) : 0;
+         }
+         if (size > 0 && size + line.length > maxBytes) {
+            rotate();
+         }
+         Files.write(file, line, StandardOpenOption.CREATE,
+               StandardOpenOption.APPEND);
+         size += line.length;
+      } catch (final IOException e) {
+         size = -1;
+         throw new UncheckedIOException(
+               "Interaction log could not be written: " + file, e);
+      }
+   }
+
+   /**
+    * Returns the current log file.
+    *
+    * @return The file.
+    */
+   public Path getFile() {
+      return file;
+   }
+
+   /**
+    * Rolls the files: {@code .n-1} becomes {@code .n}, ..., the current
+    * file becomes {@code .1}.
+    *
+    * @throws IOException If a file cannot be renamed.
+    */
+   private void rotate() throws IOException {
+      if (maxFiles == 0) {
+         Files.delete(file);
+      } else {
+         Files.deleteIfExists(rotated(maxFiles));
+         for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+               Files.move(rotated(i), rotated(i + 1),
+                     StandardCopyOption.REPLACE_EXISTING);
+            }
+         }
+         Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+      }
+      size = 0;
+   }
+
+   /**
+    * Returns the name of an older file.
+    *
+    * @param index The number of the older file (1 = newest).
+    *
+    * @return The path, e.g. {@code llm.jsonl.1}.
+    */
+   private Path rotated(final int index) {
+      return file.resolveSibling(file.getFileName() + "." + index);
+   }
+}
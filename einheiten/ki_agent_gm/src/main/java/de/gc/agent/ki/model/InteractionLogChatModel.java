@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Set;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * InteractionLogChatModel forwards all calls to a real {@link ChatModel}
+ * and appends a compact entry for every call to an
+ * {@link InteractionLog}.
+ * <p>
+ * Prompt and response texts are not stored, only their lengths. If the
+ * log cannot be written, only a warning is printed; the call itself is
+ * not affected.
+ *
+ * @author Michael Niedermair
+ */
+public class InteractionLogChatModel implements ChatModel {
+
+   /**
+    * Computes the length of a response including the arguments of tool
+    * calls.
+    *
+    * @param message The response message.
+    *
+    * @return The length in chars.
+    */
+   static int responseLength(final AiMessage message) {
+      if (message == null) {
+         return 0;
+      }
+      int length = message.text() == null ? 0
+            : message.text()
+               .length();
+      if (message.hasToolExecutionRequests()) {
+         for (final ToolExecutionRequest tool : message
+            .toolExecutionRequests()) {
+            length += tool.arguments() == null ? 0
+                  : tool.arguments()
+                     .length();
+         }
+      }
+      return length;
+   }
+
+   /**
+    * Computes the length of a request message.
+    *
+    * @param message The message.
+    *
+    * @return The length in chars; 0 for non-text content.
+    */
+   static int textLength(final ChatMessage message) {
+      if (message instanceof final SystemMessage system) {
+         return system.text()
+            .length();
+      }
+      if (message instanceof final UserMessage user && user.hasSingleText()) {
+         return user.singleText()
+            .length();
+      }
+      if (message instanceof final AiMessage ai) {
+         return responseLength(ai);
+      }
+      if (message instanceof final ToolExecutionResultMessage result) {
+         return result.text()
+            .length();
+      }
+      return 0;
+   }
+
+   /** The real model. */
+   private final ChatModel delegate;
+
+   /** The log. */
+   private final InteractionLog log;
+
+   /** The calling agent. */
+   private final String agent;
+
+   /** The configured model name. */
+   private final String modelName;
+
+   /**
+    * Creates a logging model.
+    *
+    * @param delegate  The real model.
+    * @param log       The log.
+    * @param agent     The calling agent.
+    * @param modelName The configured model name; used if the response
+    *                  contains no model name (may be null).
+    */
+   public InteractionLogChatModel(final ChatModel delegate,
+         final InteractionLog log, final String agent, final String modelName) {
+      this.delegate = delegate;
+      this.log = log;
+      this.agent = agent;
+      this.modelName = modelName;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Calls the real model and logs the call, even if it fails.
+    *
+    * @param request The request.
+    *
+    * @return The response of the real model.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final Instant timestamp = Instant.now();
+      final long start = System.nanoTime();
+      int promptChars = 0;
+      for (final ChatMessage message : request.messages()) {
+         promptChars += textLength(message);
+      }
+      try {
+         final ChatResponse response = delegate.chat(request);
+         final TokenUsage usage = response.tokenUsage();
+         write(new InteractionLog.Entry(timestamp.toString(), agent,
+               String.valueOf(provider()),
+               response.modelName() != null ? response.modelName()
+                     : modelName,
+               promptChars, responseLength(response.aiMessage()),
+               usage == null ? null : usage.inputTokenCount(),
+               usage == null ? null : usage.outputTokenCount(),
+               (System.nanoTime() - start) / 1_000_000,
+               InteractionLog.OUTCOME_OK, null));
+         return response;
+      } catch (final RuntimeException e) {
+         write(new InteractionLog.Entry(timestamp.toString(), agent,
+               String.valueOf(provider()), modelName, promptChars, 0, null,
+               null, (System.nanoTime() - start) / 1_000_000,
+               InteractionLog.OUTCOME_ERROR, e.getClass()
+                  .getSimpleName() + ": " + e.getMessage()));
+         throw e;
+      }
+   }
+
+   /**
+    * Returns the real model.
+    *
+    * @return The real model.
+    */
+   public ChatModel getDelegate() {
+      return delegate;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+
+   /**
+    * Writes an entry; write errors are only reported.
+    *
+    * @param entry The entry.
+    */
+   private void write(final InteractionLog.Entry entry) {
+      try {
+         log.append(entry);
+      } catch (final UncheckedIOException e) {
+         System.err.println(e.getMessage());
+      }
+   }
+}
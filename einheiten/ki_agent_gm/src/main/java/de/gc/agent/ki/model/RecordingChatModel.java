@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * RecordingChatModel forwards all calls to a real {@link ChatModel} and
+ * appends request, response and latency to a {@link ChatCassette}.
+ * <p>
+ * The cassette can later be played back offline with the
+ * {@link ReplayChatModel}.
+ *
+ * @author Michael Niedermair
+ */
+public class RecordingChatModel implements ChatModel {
+
+   /** The real model. */
+   private final ChatModel delegate;
+
+   /** The cassette file to append to. */
+   private final Path cassette;
+
+   /**
+    * Creates a recording model.
+    *
+    * @param delegate The real model.
+    * @param cassette The cassette file.
+    */
+   public RecordingChatModel(final ChatModel delegate, final Path cassette) {
+      this.delegate = delegate;
+      this.cassette = cassette;
+   }
+
+   @Override
+   public ChatRequestParameters defaultRequestParameters() {
+      return delegate.defaultRequestParameters();
+   }
+
+   /**
+    * Calls the real model and records the call. Failed calls are not
+    * recorded.
+    *
+    * @param request The request.
+    *
+    * @return The response of the real model.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final long start = System.nanoTime();
+      final ChatResponse response = delegate.chat(request);
+      final long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+      ChatCassette.append(cassette,
+            ChatCassette.Entry.of(request, response, latencyMillis));
+      return response;
+   }
+
+   @Override
+   public ModelProvider provider() {
+      return delegate.provider();
+   }
+
+   @Override
+   public Set<Capability> supportedCapabilities() {
+      return delegate.supportedCapabilities();
+   }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2025 GNU GENERAL PUBLIC LICENSE Version 3, 29 June 2007
+ *
+ * Lizenzhinweis / License Notice
+ *
+ * Deutsch: Dieses Programm ist freie Software. Sie dürfen es unter den
+ * Bedingungen der GNU General Public License, Version 3, wie von der
+ * Free Software Foundation veröffentlicht, weitergeben und/oder
+ * modifizieren. Weitere Informationen finden Sie unter:
+ * https://www.gnu.org/licenses/gpl-3.0.de.html
+ *
+ * English: This program is free software. You can redistribute it
+ * and/or modify it under the terms of the GNU General Public License
+ * version 3 as published by the Free Software Foundation. For more
+ * information, see: https://www.gnu.org/licenses/gpl-3.0.html
+ */
+package de.gc.agent.ki.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * SimulatedChatModel is a fake {@link ChatModel} for load and scheduler
+ * tests.
+ * <p>
+ * It returns template-valid responses without a KI system: a
+ * {@code SELECT} on the first table of the schema for SQL generation
+ * prompts, HTML for SQL explanations and a short German answer
+ * otherwise. If the request offers a tool with a single parameter (like
+ * {@code executeQuery}), the model first calls that tool with a
+ * {@code SELECT} and then answers with the tool result.
+ * <p>
+ * In addition it reproduces the behaviour of a real provider: a random
+ * time to first token, an output rate in tokens per second, an error
+ * rate and a limited number of concurrent requests. All models with the
+ * same server name share the concurrency limit. When the limit is
+ * reached, further requests either wait (Ollama) or are rejected with a
+ * rate limit error (cloud providers).
+ *
+ * @author Michael Niedermair
+ */
+public class SimulatedChatModel implements ChatModel {
+
+   /** Distribution of the time to first token. */
+   public enum Distribution {
+      /** Always the mean. */
+      CONSTANT,
+      /** Uniform within mean ± jitter. */
+      UNIFORM,
+      /** Normal (negative values are set to 0). */
+      NORMAL,
+      /** Log-normal with a long upper tail. */
+      LOGNORMAL,
+      /** Exponential (the jitter is ignored). */
+      EXPONENTIAL
+   }
+
+   /**
+    * Settings of the simulation.
+    *
+    * @param distribution    The distribution of the time to first token.
+    * @param latencyMillis   The mean time to first token.
+    * @param jitterMillis    The jitter (standard deviation).
+    * @param tokensPerSecond The output rate; 0 for unlimited.
+    * @param errorRate       The share of failing requests (0 to 1).
+    * @param maxConcurrent   The maximum number of concurrent requests.
+    * @param rejectWhenBusy  Whether to reject requests when busy instead
+    *                        of letting them wait.
+    * @param seed            The random seed; 0 for a random seed.
+    */
+   public record Settings(Distribution distribution, long latencyMillis,
+         long jitterMillis, double tokensPerSecond, double errorRate,
+         int maxConcurrent, boolean rejectWhenBusy, long seed) {
+
+      /**
+       * Settings similar to a cloud provider: many parallel requests,
+       * fast output, occasional errors and rate limits.
+       *
+       * @return The settings.
+       */
+      public static Settings cloud() {
+         return new Settings(Distribution.LOGNORMAL, 600, 250, 80.0, 0.02, 8,
+               true, 0);
+      }
+
+      /**
+       * Settings similar to a local Ollama server: one request at a time,
+       * slow output, no errors.
+       *
+       * @return The settings.
+       */
+      public static Settings ollama() {
+         return new Settings(Distribution.NORMAL, 400, 100, 20.0, 0.0, 1,
+               false, 0);
+      }
+
+      /**
+       * Returns the settings of a named profile.
+       *
+       * @param name The name of the profile ("ollama" or "cloud").
+       *
+       * @return The settings.
+       */
+      public static Settings profile(final String name) {
+         return switch (name.toLowerCase()) {
+         case "ollama" -> ollama();
+         case "cloud" -> cloud();
+         default -> throw new IllegalArgumentException(
+               "Unknown simulation profile: " + name);
+         };
+      }
+   }
+
+   /** The shared concurrency limits per simulated server. */
+   private static final Map<String, Semaphore> SERVERS = new ConcurrentHashMap<>();
+
+   /** The wait time for a free slot of the last call per thread. */
+   private static final ThreadLocal<Long> LAST_QUEUE_WAIT = ThreadLocal
+      .withInitial(() -> 0L);
+
+   /** Finds table names in schema descriptions of the prompts. */
+   private static final Pattern TABLE = Pattern
+      .compile("(?:Tabelle: |Tabelle ist:\\s+)(\\w+)");
+
+   /**
+    * Estimates the number of tokens of a text (about four characters per
+    * token).
+    *
+    * @param text The text.
+    *
+    * @return The estimated number of tokens.
+    */
+   private static int estimateTokens(final String text) {
+      return Math.max(1, text.length() / 4);
+   }
+
+   /**
+    * Returns how long the last call of the current thread waited for a
+    * free slot of the simulated server. Used by load tests to report the
+    * queueing delay separately.
+    *
+    * @return The wait time in nanoseconds.
+    */
+   public static long lastQueueWaitNanos() {
+      return LAST_QUEUE_WAIT.get();
+   }
+
+   /**
+    * Returns the text of a single chat message.
+    *
+    * @param message The message.
+    *
+    * @return The text or an empty string.
+    */
+   private static String messageText(final ChatMessage message) {
+      if (message instanceof final SystemMessage system) {
+         return system.text();
+      }
+      if (message instanceof final UserMessage user && user.hasSingleText()) {
+         return user.singleText();
+      }
+      if (message instanceof final AiMessage ai && ai.text() != null) {
+         return ai.text();
+      }
+      if (message instanceof final ToolExecutionResultMessage result) {
+         return result.text();
+      }
+      return "";
+   }
+
+   /**
+    * Builds a {@code SELECT} on the first table found in the prompt.
+    *
+    * @param prompt The prompt text.
+    *
+    * @return The SQL query.
+    */
+   private static String selectFor(final String prompt) {
+      final Matcher matcher = TABLE.matcher(prompt);
+      return matcher.find() ? "SELECT * FROM " + matcher.group(1) + " LIMIT 10"
+            : "SELECT 1";
+   }
+
+   /**
+    * Returns the template answer for a prompt.
+    *
+    * @param prompt The prompt text.
+    *
+    * @return The answer in the expected format.
+    */
+   private static String textFor(final String prompt) {
+      if (prompt.contains("Erkläre den folgenden SQL-Befehl")) {
+         return "<p>Dies ist eine <b>simulierte</b> Erklärung.</p>"
+               + "<ul><li><code>SELECT</code> wählt Spalten aus.</li>"
+               + "<li><code>FROM</code> nennt die Tabelle.</li></ul>";
+      }
+      if (prompt.contains("generiere eine SQL-Abfrage")) {
+         return "```sql\n" + selectFor(prompt) + ";\n```";
+      }
+      return "Dies ist eine simulierte Antwort.";
+   }
+
+   /** The settings of the simulation. */
+   private final Settings settings;
+
+   /** The concurrency limit of the simulated server. */
+   private final Semaphore permits;
+
+   /** The random generator for latencies and errors. */
+   private final Random random;
+
+   /**
+    * Creates a simulated model.
+    *
+    * @param settings The settings of the simulation.
+    * @param server   The name of the simulated server; models with the
+    *                 same name share the concurrency limit of the first
+    *                 created model.
+    */
+   public SimulatedChatModel(final Settings settings, final String server) {
+      this.settings = settings;
+      this.permits = SERVERS.computeIfAbsent(server,
+            s -> new Semaphore(Math.max(1, settings.maxConcurrent()), true));
+      this.random = settings.seed() == 0 ? new Random()
+            : new Random(settings.seed());
+   }
+
+   /**
+    * Answers a request after the simulated latency.
+    *
+    * @param request The chat request.
+    *
+    * @return The simulated response.
+    *
+    * @throws RateLimitException      If the server is busy and rejects
+    *                                 requests.
+    * @throws InternalServerException On a simulated server error.
+    */
+   @Override
+   public ChatResponse doChat(final ChatRequest request) {
+      final String prompt = request.messages()
+         .stream()
+         .map(SimulatedChatModel::messageText)
+         .collect(Collectors.joining("\n"));
+      final AiMessage answer = answerFor(request, prompt);
+      final int outputTokens = estimateTokens(
+            answer.hasToolExecutionRequests() ? answer.toolExecutionRequests()
+               .get(0)
+               .arguments() : answer.text());
+
+      final long queued = System.nanoTime();
+      LAST_QUEUE_WAIT.set(0L);
+      if (settings.rejectWhenBusy()) {
+         if (!permits.tryAcquire()) {
+            throw new RateLimitException("Simulated error: 429 Too Many Requests");
+         }
+      } else {
+         try {
+            permits.acquire();
+         } catch (final InterruptedException e) {
+            Thread.currentThread()
+               .interrupt();
+            throw new IllegalStateException("Simulated request interrupted.",
+                  e);
+         }
+         LAST_QUEUE_WAIT.set(System.nanoTime() - queued);
+      }
+      try {
+         final boolean fails;
+         final long firstTokenMillis;
+         synchronized (random) {
+            fails = random.nextDouble() < settings.errorRate();
+            firstTokenMillis = sampleLatency();
+         }
+         if (fails) {
+            sleep(firstTokenMillis);
+            throw new InternalServerException(
+                  "Simulated error: 503 Service Unavailable");
+         }
+         final long outputMillis = settings.tokensPerSecond() > 0
+               ? Math.round(outputTokens * 1000.0 / settings.tokensPerSecond())
+               : 0;
+         sleep(firstTokenMillis + outputMillis);
+      } finally {
+         permits.release();
+      }
+
+      return ChatResponse.builder()
+         .aiMessage(answer)
+         .modelName("simulated")
+         .tokenUsage(new TokenUsage(estimateTokens(prompt), outputTokens))
+         .finishReason(answer.hasToolExecutionRequests()
+               ? FinishReason.TOOL_EXECUTION
+               : FinishReason.STOP)
+         .build();
+   }
+
+   /**
+    * Builds the answer message: a tool call if a single-parameter tool is
+    * offered and not yet called, otherwise a text answer.
+    *
+    * @param request The chat request.
+    * @param prompt  The prompt text.
+    *
+    * @return The answer message.
+    */
+   private AiMessage answerFor(final ChatRequest request,
+         final String prompt) {
+      final List<ChatMessage> messages = request.messages();
+      final ChatMessage last = messages.get(messages.size() - 1);
+      if (last instanceof final ToolExecutionResultMessage result) {
+         return AiMessage.from("Hier ist das Ergebnis:\n" + result.text());
+      }
+      final List<ToolSpecification> tools = request.toolSpecifications();
+      if (tools != null) {
+         for (final ToolSpecification tool : tools) {
+            if (tool.parameters() != null && tool.parameters()
+               .properties()
+               .size() == 1) {
+               final String parameter = tool.parameters()
+                  .properties()
+                  .keySet()
+                  .iterator()
+                  .next();
+               return AiMessage.from(ToolExecutionRequest.builder()
+                  .id("sim-" + System.nanoTime())
+                  .name(tool.name())
+                  .arguments("{\"" + parameter + "\": \"" + selectFor(prompt)
+                        + "\"}")
+                  .build());
+            }
+         }
+      }
+      return AiMessage.from(textFor(prompt));
+   }
+
+   /**
+    * Draws a time to first token from the configured distribution. Must
+    * be called while holding the lock of the random generator.
+    *
+    * @return The latency in milliseconds.
+    */
+   private long sampleLatency() {
+      final double mean = settings.latencyMillis();
+      final double jitter = settings.jitterMillis();
+      final double value = switch (settings.distribution()) {
+      case CONSTANT -> mean;
+      case UNIFORM -> mean - jitter + 2 * jitter * random.nextDouble();
+      case NORMAL -> mean + jitter * random.nextGaussian();
+      case LOGNORMAL -> {
+         if (mean <= 0) {
+            yield 0;
+         }
+         final double sigma2 = Math.log(1 + jitter * jitter / (mean * mean));
+         final double mu = Math.log(mean) - sigma2 / 2;
+         yield Math.exp(mu + Math.sqrt(sigma2) * random.nextGaussian());
+      }
+      case EXPONENTIAL -> -mean * Math.log(1 - random.nextDouble());
+      };
+      return Math.max(0, Math.round(value));
+   }
+
+   /**
+    * Waits for the given time.
+    *
+    * @param millis The time in milliseconds.
+    */
+   private void sleep(final long millis) {
+      if (millis <= 0) {
+         return;
+      }
+      try {
+         Thread.sleep(millis);
+      } catch (final InterruptedException e) {
+         Thread.currentThread()
+            .interrupt();
+         throw new IllegalStateException("Simulated request interrupted.", e);
+      }
+   }
+}
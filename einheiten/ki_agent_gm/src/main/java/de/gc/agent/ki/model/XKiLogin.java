@@ -34,6 +34,17 @@ import dev.langchain4j.model.ollama.OllamaChatModel.OllamaChatModelBuilder;
 /**
  * XKiLogin is a utility class for creating chat models for various KI
  * systems.
+ * <p>
+ * Besides the online systems, a recorded cassette can be played back
+ * offline with {@link KiSystem#REPLAY}. A cassette is recorded by
+ * wrapping any model with {@link #recording(ChatModel, File)}. For load
+ * tests, {@link KiSystem#SIMULATED} provides a fake provider with
+ * configurable latency, error rate and concurrency limit.
+ * <p>
+ * {@link #flightRecorder(ChatModel, String)} makes every call visible
+ * as a {@link LlmCallEvent} in a Java Flight Recording, and
+ * {@link #interactionLog(ChatModel, String, File)} appends every call to
+ * a rolling {@link InteractionLog}.
  *
  * @author Michael Niedermair
  */
@@ -41,7 +52,7 @@ public class XKiLogin {
 
    /** Enum for the supported KI systems. */
    public enum KiSystem {
-      GEMINI, GITHUB, OLLAMA, NONE
+      GEMINI, GITHUB, OLLAMA, REPLAY, SIMULATED, NONE
    }
 
    /**
@@ -49,9 +60,12 @@ public class XKiLogin {
     * name.
     *
     * @param kisystem  The KI system to use.
-    * @param modelName The name of the model.
+    * @param modelName The name of the model (for SIMULATED the profile
+    *                  "ollama" or "cloud").
     * @param token     The authentication token.
-    * @param url       The base URL for the KI service.
+    * @param url       The base URL for the KI service (for REPLAY the
+    *                  path of the cassette file, for SIMULATED the name of
+    *                  the simulated server or null for the profile name).
     *
     * @return A configured {@link ChatModel}.
     */
@@ -72,6 +86,12 @@ public class XKiLogin {
          createGeminiBuilder(modelName, token, 0.7, 0.95, false,
                Duration.ofSeconds(60));
 
+      case REPLAY -> createReplayModel(new File(url), false);
+
+      case SIMULATED -> createSimulatedModel(
+            SimulatedChatModel.Settings.profile(modelName),
+            url == null || url.isBlank() ? modelName : url);
+
       default -> throw new IllegalArgumentException(
             "Chat model for " + kisystem.name() + " not implemented yet.");
       };
@@ -82,9 +102,13 @@ public class XKiLogin {
     * Creates a {@link ChatModel} based on the provided configuration.
     *
     * @param kisystem    The KI system to use.
-    * @param modelName   The name of the model.
+    * @param modelName   The name of the model (for SIMULATED the profile
+    *                    "ollama" or "cloud").
     * @param token       The authentication token.
-    * @param url         The base URL for the KI service.
+    * @param url         The base URL for the KI service (for REPLAY the
+    *                    path of the cassette file, for SIMULATED the name
+    *                    of the simulated server or null for the profile
+    *                    name).
     * @param temperature The temperature for the model.
     * @param topP        The top P value for the model.
     * @param logRequests Whether to log requests.
@@ -111,6 +135,12 @@ public class XKiLogin {
       case GEMINI -> createGeminiBuilder(modelName, token, temperature,
             topP, logRequests, tout);
 
+      case REPLAY -> createReplayModel(new File(url), false);
+
+      case SIMULATED -> createSimulatedModel(
+            SimulatedChatModel.Settings.profile(modelName),
+            url == null || url.isBlank() ? modelName : url);
+
       default -> throw new IllegalArgumentException(
             "Chat model for " + kisystem.name() + " not implemented yet.");
       };
@@ -210,6 +240,70 @@ public class XKiLogin {
       return builder.build();
    }
 
+   /**
+    * Creates a {@link ChatModel} that plays back a recorded cassette
+    * without network access.
+    *
+    * @param cassette        The cassette file.
+    * @param originalLatency Whether to wait as long as during recording.
+    *
+    * @return A {@link ReplayChatModel}.
+    */
+   public static ChatModel createReplayModel(final File cassette,
+         final boolean originalLatency) {
+      try {
+         return new ReplayChatModel(cassette.toPath(),
+               originalLatency ? ReplayChatModel.Latency.ORIGINAL
+                     : ReplayChatModel.Latency.ZERO);
+      } catch (final IOException e) {
+         throw new RuntimeException(
+               "Error reading cassette: " + cassette.getAbsolutePath(), e);
+      }
+   }
+
+   /**
+    * Creates a simulated {@link ChatModel} for load and scheduler tests.
+    * <p>
+    * Example:
+    *
+    * <pre>
+    * ChatModel model = XKiLogin.createSimulatedModel(
+    *       new SimulatedChatModel.Settings(Distribution.LOGNORMAL, 500, 200,
+    *             40.0, 0.01, 2, false, 42), "cloud-a");
+    * </pre>
+    *
+    * @param settings The settings of the simulation.
+    * @param server   The name of the simulated server; models with the
+    *                 same name share the concurrency limit of the first
+    *                 created model, so use one name per server.
+    *
+    * @return A {@link SimulatedChatModel}.
+    */
+   public static ChatModel createSimulatedModel(
+         final SimulatedChatModel.Settings settings, final String server) {
+      return new SimulatedChatModel(settings, server);
+   }
+
+   /**
+    * Wraps a model so that every call is emitted as a {@link LlmCallEvent}
+    * to the Java Flight Recorder.
+    * <p>
+    * Example:
+    *
+    * <pre>
+    * java -XX:StartFlightRecording:settings=default,settings=jfr/eduki.jfc,filename=eduki.jfr ...
+    * </pre>
+    *
+    * @param model The real model.
+    * @param agent The calling agent, shown in the event.
+    *
+    * @return A {@link FlightRecorderChatModel}.
+    */
+   public static ChatModel flightRecorder(final ChatModel model,
+         final String agent) {
+      return new FlightRecorderChatModel(model, agent);
+   }
+
    /**
     * Retrieves the token for a given KI system from a properties file.
     * <p>
@@ -241,6 +335,34 @@ public class XKiLogin {
       }
    }
 
+   /**
+    * Wraps a model so that every call is appended as a compact entry
+    * (timestamp, agent, model, sizes, tokens, latency, outcome) to a
+    * rolling {@link InteractionLog}.
+    * <p>
+    * Example:
+    *
+    * <pre>
+    * ChatModel model = XKiLogin.interactionLog(
+    *       XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+    *             "http://127.0.0.1:11434"),
+    *       "gm", new File("/tmp/llm-interaktionen.jsonl"));
+    * </pre>
+    *
+    * @param model The real model.
+    * @param agent The calling agent, stored in every entry.
+    * @param file  The log file.
+    *
+    * @return A {@link InteractionLogChatModel}.
+    */
+   public static ChatModel interactionLog(final ChatModel model,
+         final String agent, final File file) {
+      return new InteractionLogChatModel(model,
+            InteractionLog.open(file.toPath(), InteractionLog.DEFAULT_MAX_BYTES,
+                  InteractionLog.DEFAULT_MAX_FILES),
+            agent, null);
+   }
+
    /**
     * Converts a string to a KiSystem enum.
     */
@@ -253,4 +375,27 @@ public class XKiLogin {
       }
       return KiSystem.NONE;
    }
+
+   /**
+    * Wraps a {@link ChatModel} so that all requests and responses
+    * including their latency are recorded into a cassette.
+    * <p>
+    * Example:
+    *
+    * <pre>
+    * ChatModel model = XKiLogin.recording(
+    *       XKiLogin.createChatModel(KiSystem.OLLAMA, "mistral:7b", null,
+    *             "http://127.0.0.1:11434"),
+    *       new File("/tmp/cassette.jsonl"));
+    * </pre>
+    *
+    * @param model    The real model.
+    * @param cassette The cassette file to append to.
+    *
+    * @return A {@link RecordingChatModel}.
+    */
+   public static ChatModel recording(final ChatModel model,
+         final File cassette) {
+      return new RecordingChatModel(model, cassette.toPath());
+   }
 }